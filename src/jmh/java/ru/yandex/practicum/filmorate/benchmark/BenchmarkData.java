@@ -0,0 +1,97 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Генераторы синтетических данных для бенчмарков.
+ */
+final class BenchmarkData {
+    static final long SEED = 42;
+
+    private BenchmarkData() {
+    }
+
+    static Film film(int number) {
+        return Film.builder()
+                .name("Film " + number)
+                .description("Synthetic film number " + number)
+                .releaseDate(LocalDate.of(1950 + number % 70, 1 + number % 12, 1 + number % 28))
+                .duration(80 + number % 100)
+                .build();
+    }
+
+    static User user(long number) {
+        return User.builder()
+                .email("user" + number + "@mail.com")
+                .login("user" + number)
+                .name("User " + number)
+                .birthday(LocalDate.of(1960 + (int) (number % 40), 1, 1))
+                .build();
+    }
+
+    static InMemoryFilmStorage filmStorage(int films) {
+        InMemoryFilmStorage storage = new InMemoryFilmStorage();
+        for (int i = 0; i < films; i++) {
+            storage.addNewFilm(film(i));
+        }
+        return storage;
+    }
+
+    static InMemoryUserStorage userStorage(long users) {
+        InMemoryUserStorage storage = new InMemoryUserStorage();
+        for (long i = 0; i < users; i++) {
+            storage.addNewUser(user(i));
+        }
+        return storage;
+    }
+
+    /**
+     * Раздаёт фильмам лайки с распределением, близким к степенному: у большинства
+     * фильмов единицы лайков, у немногих — тысячи.
+     */
+    static void likeFilms(InMemoryFilmStorage storage, int films, long users, int averageLikes) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        long totalLikes = (long) films * averageLikes;
+        for (long i = 0; i < totalLikes; i++) {
+            int filmId = 1 + (int) (films * Math.pow(random.nextDouble(), 3));
+            storage.addLike(Math.min(filmId, films), 1 + random.nextLong(users));
+        }
+    }
+
+    /**
+     * Возвращает значение из распределения Парето с минимумом {@code min}, ограниченное {@code max}.
+     */
+    static int pareto(SplittableRandom random, double alpha, int min, int max) {
+        double value = min / Math.pow(1 - random.nextDouble(), 1 / alpha);
+        return (int) Math.min(value, max);
+    }
+
+    /**
+     * Накопленные веса распределения Ципфа с показателем {@code exponent} на {@code size}
+     * рангах: ранг r встречается пропорционально {@code r^-exponent}.
+     */
+    static double[] zipfCumulative(double exponent, int size) {
+        double[] cumulative = new double[size];
+        double sum = 0;
+        for (int rank = 0; rank < size; rank++) {
+            sum += Math.pow(rank + 1, -exponent);
+            cumulative[rank] = sum;
+        }
+        return cumulative;
+    }
+
+    /**
+     * Случайный ранг (с нуля) по накопленным весам из {@link #zipfCumulative}.
+     */
+    static int zipfRank(double[] cumulative, SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[cumulative.length - 1]);
+        return index >= 0 ? index : -index - 1;
+    }
+}
@@ -0,0 +1,85 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Общие друзья на графе со степенным распределением числа друзей: пары обычных
+ * пользователей, обычного и «знаменитости», двух знаменитостей.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommonFriendsBenchmark {
+    private static final int USERS = 200_000;
+    private static final int CELEBRITY_FRIENDS = 100_000;
+
+    @Param({"regular", "mixed", "celebrity"})
+    private String pair;
+
+    private UserService userService;
+    private long firstUserId;
+    private long secondUserId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryUserStorage userStorage = BenchmarkData.userStorage(USERS);
+        SplittableRandom random = new SplittableRandom(BenchmarkData.SEED);
+
+        for (long userId = 3; userId <= USERS; userId++) {
+            int friends = BenchmarkData.pareto(random, 1.5, 5, 500);
+            for (int i = 0; i < friends; i++) {
+                long friendId = 3 + random.nextLong(USERS - 2);
+                if (friendId != userId) {
+                    userStorage.addFriend(userId, friendId);
+                }
+            }
+        }
+        // Пользователи 1 и 2 — знаменитости с пересекающимися аудиториями
+        for (int i = 0; i < CELEBRITY_FRIENDS; i++) {
+            userStorage.addFriend(1, 3 + random.nextLong(USERS - 2));
+            userStorage.addFriend(2, 3 + random.nextLong(USERS - 2));
+        }
+
+        userService = new UserService(userStorage);
+        switch (pair) {
+            case "regular" -> {
+                firstUserId = 3;
+                secondUserId = 4;
+            }
+            case "mixed" -> {
+                firstUserId = 1;
+                secondUserId = 3;
+            }
+            default -> {
+                firstUserId = 1;
+                secondUserId = 2;
+            }
+        }
+    }
+
+    @Benchmark
+    public List<User> getCommonFriends() {
+        return userService.getCommonFriends(firstUserId, secondUserId);
+    }
+}
@@ -0,0 +1,140 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.yandex.practicum.filmorate.FilmorateApplication;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Нагрузочный тест HTTP-слоя: {@code clients} одновременных клиентов выполняют по
+ * несколько запросов к {@code /films}. Общий {@link HttpClient} открывает отдельное
+ * соединение на каждый одновременный запрос, так что сервер держит столько же
+ * соединений. Сравнивает пул платформенных потоков Tomcat и виртуальные потоки на
+ * хранилищах в памяти и в БД. Результат — время, за которое обслужены все клиенты.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xss256k")
+public class ConcurrentClientsBenchmark {
+    private static final int FILMS = 1_000;
+    private static final int USERS = 1_000;
+    private static final int REQUESTS_PER_CLIENT = 5;
+
+    @Param({"false", "true"})
+    private boolean virtualThreads;
+
+    @Param({"memory", "jdbc"})
+    private String backend;
+
+    @Param({"10000"})
+    private int clients;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient http;
+    private URI baseUri;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(FilmorateApplication.class)
+                .properties(
+                        "server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "filmorate.storage.type=" + backend,
+                        "spring.datasource.hikari.maximum-pool-size=32",
+                        "logging.level.root=WARN",
+                        "logging.level.org.zalando.logbook=OFF")
+                .run();
+        http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        baseUri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port"));
+
+        FilmStorage filmStorage = context.getBean(FilmStorage.class);
+        UserStorage userStorage = context.getBean(UserStorage.class);
+        for (int i = 0; i < FILMS; i++) {
+            filmStorage.addNewFilm(BenchmarkData.film(i));
+        }
+        for (long i = 0; i < USERS; i++) {
+            userStorage.addNewUser(BenchmarkData.user(i));
+        }
+        SplittableRandom random = new SplittableRandom(BenchmarkData.SEED);
+        for (int i = 0; i < FILMS * 10; i++) {
+            filmStorage.addLike(1 + random.nextInt(FILMS), 1 + random.nextLong(USERS));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        http.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int serveClients() throws InterruptedException {
+        AtomicInteger succeeded = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>(clients);
+        for (int i = 0; i < clients; i++) {
+            int client = i;
+            threads.add(Thread.ofVirtual().start(() -> runClient(client, start, succeeded)));
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (succeeded.get() != clients * REQUESTS_PER_CLIENT) {
+            throw new IllegalStateException("Успешно выполнено " + succeeded.get() + " из "
+                    + clients * REQUESTS_PER_CLIENT + " запросов");
+        }
+        return succeeded.get();
+    }
+
+    private void runClient(int client, CountDownLatch start, AtomicInteger succeeded) {
+        SplittableRandom random = new SplittableRandom(BenchmarkData.SEED + client);
+        try {
+            start.await();
+            for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                String path = i % 2 == 0 ? "/films/" + (1 + random.nextInt(FILMS)) : "/films/popular?count=10";
+                HttpResponse<Void> response = http.send(HttpRequest.newBuilder(baseUri.resolve(path)).build(),
+                        HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    succeeded.incrementAndGet();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // Отказ в соединении или таймаут учитываются как неуспешные запросы
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.dto.FriendSuggestion;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Возможные друзья на графе со степенным распределением числа друзей: для обычного
+ * пользователя и для пользователя с тысячами друзей.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FriendSuggestionsBenchmark {
+    private static final int USERS = 200_000;
+
+    @Param({"10", "5000"})
+    private int friends;
+
+    private UserService userService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryUserStorage userStorage = BenchmarkData.userStorage(USERS);
+        SplittableRandom random = new SplittableRandom(BenchmarkData.SEED);
+
+        for (long userId = 2; userId <= USERS; userId++) {
+            int count = BenchmarkData.pareto(random, 1.5, 5, 500);
+            for (int i = 0; i < count; i++) {
+                long friendId = 2 + random.nextLong(USERS - 1);
+                if (friendId != userId) {
+                    userStorage.addFriend(userId, friendId);
+                }
+            }
+        }
+        // Пользователь 1 — тот, кому ищем друзей
+        for (int i = 0; i < friends; i++) {
+            userStorage.addFriend(1, 2 + random.nextLong(USERS - 1));
+        }
+
+        userService = new UserService(userStorage);
+        userService.getFriendSuggestions(1L, 10);
+    }
+
+    @Benchmark
+    public List<FriendSuggestion> getFriendSuggestions() {
+        return userService.getFriendSuggestions(1L, 10);
+    }
+}
@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.service.FriendGraphIndex;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кратчайшая цепочка друзей между случайными пользователями на степенном графе: число
+ * друзей распределено по Парето, а друзей выбирают пропорционально популярности (Ципф),
+ * так что у немногих пользователей десятки тысяч друзей. При миллионе пользователей в графе
+ * около 15 миллионов ребер. Режим выборки печатает перцентили задержки.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class FriendshipPathBenchmark {
+    private static final int PAIRS = 4096;
+
+    @Param({"100000", "1000000"})
+    private int users;
+
+    private FriendGraphIndex friendGraph;
+    private long[] pairs;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryUserStorage userStorage = BenchmarkData.userStorage(users);
+        SplittableRandom random = new SplittableRandom(BenchmarkData.SEED);
+        double[] popularity = BenchmarkData.zipfCumulative(0.8, users);
+
+        for (long userId = 1; userId <= users; userId++) {
+            int friends = BenchmarkData.pareto(random, 1.5, 5, 5_000);
+            for (int i = 0; i < friends; i++) {
+                long friendId = 1 + BenchmarkData.zipfRank(popularity, random);
+                if (friendId != userId) {
+                    userStorage.addFriend(userId, friendId);
+                }
+            }
+        }
+
+        friendGraph = new FriendGraphIndex(userStorage);
+        friendGraph.graph();
+        pairs = new long[PAIRS * 2];
+        for (int i = 0; i < pairs.length; i++) {
+            pairs[i] = 1 + random.nextLong(users);
+        }
+    }
+
+    @Benchmark
+    public int[] shortestPath() {
+        int pair = next;
+        next = (pair + 2) & (pairs.length - 1);
+        return friendGraph.shortestPath(pairs[pair], pairs[pair + 1]);
+    }
+}
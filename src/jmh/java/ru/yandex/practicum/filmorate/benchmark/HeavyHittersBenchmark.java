@@ -0,0 +1,122 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.PopularityProperties;
+import ru.yandex.practicum.filmorate.service.PopularitySketch;
+import ru.yandex.practicum.filmorate.service.TrendingFilms;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Точный и приближенный режимы популярности на потоке лайков с распределением Ципфа:
+ * стоимость учета лайка эскизом и выдачи топа в обоих режимах.
+ *
+ * <p>После замеров печатает отчет о точности приближенного режима относительно
+ * {@link FilmService#showMostLikedFilms} в режиме {@code exact}: сколько фильмов точного топа
+ * нашел эскиз, сколько стоят на своих местах, наибольшую и среднюю ошибку оценки числа
+ * лайков этих фильмов и теоретическую границу ошибки {@code e / width · N}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeavyHittersBenchmark {
+    private static final int FILMS = 200_000;
+    private static final int LIKES = 2_000_000;
+    private static final PopularityProperties SKETCH = new PopularityProperties("approximate", 4096, 5, 1024, 42);
+
+    @Param({"0.8", "1.0", "1.2"})
+    private double zipfExponent;
+
+    @Param({"10", "100"})
+    private int count;
+
+    private PopularitySketch sketch;
+    private FilmService exact;
+    private FilmService approximate;
+    private double[] zipf;
+    private SplittableRandom random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryFilmStorage filmStorage = BenchmarkData.filmStorage(FILMS);
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        sketch = new PopularitySketch(SKETCH);
+        exact = new FilmService(userStorage, filmStorage);
+        approximate = new FilmService(userStorage, filmStorage, null, new TrendingFilms(), sketch);
+        zipf = BenchmarkData.zipfCumulative(zipfExponent, FILMS);
+        random = new SplittableRandom(BenchmarkData.SEED);
+        for (long userId = 1; userId <= LIKES; userId++) {
+            int filmId = 1 + BenchmarkData.zipfRank(zipf, random);
+            // Каждый лайк от нового пользователя, поэтому хранилище засчитывает их все
+            filmStorage.addLike(filmId, userId);
+            sketch.likeAdded(filmId);
+        }
+        report();
+    }
+
+    @Benchmark
+    public void sketchLike() {
+        sketch.likeAdded(1 + BenchmarkData.zipfRank(zipf, random));
+    }
+
+    @Benchmark
+    public List<Film> exactTop() {
+        return exact.showMostLikedFilms(count);
+    }
+
+    @Benchmark
+    public List<Film> approximateTop() {
+        return approximate.showMostLikedFilms(count);
+    }
+
+    private void report() {
+        List<Film> expected = exact.showMostLikedFilms(count);
+        List<Film> actual = approximate.showMostLikedFilms(count);
+        Set<Integer> actualIds = new HashSet<>();
+        actual.forEach(film -> actualIds.add(film.getId()));
+
+        int found = 0;
+        int samePosition = 0;
+        long maxError = 0;
+        long totalError = 0;
+        for (int i = 0; i < expected.size(); i++) {
+            Film film = expected.get(i);
+            if (actualIds.contains(film.getId())) {
+                found++;
+            }
+            if (i < actual.size() && actual.get(i).getId() == film.getId()) {
+                samePosition++;
+            }
+            long error = sketch.estimate(film.getId()) - film.getRate();
+            maxError = Math.max(maxError, error);
+            totalError += error;
+        }
+        System.out.printf("%nТочность (s=%.1f, топ %d, лайков %d, эскиз %dx%d, кандидатов %d): найдено %d/%d, "
+                        + "на своих местах %d/%d, ошибка макс. %d, средн. %.1f, граница %.0f%n",
+                zipfExponent, count, LIKES, SKETCH.sketchWidth(), SKETCH.sketchDepth(), SKETCH.candidates(),
+                found, expected.size(), samePosition, expected.size(), maxError,
+                (double) totalError / expected.size(), Math.E / SKETCH.sketchWidth() * LIKES);
+    }
+}
@@ -0,0 +1,143 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.dto.ImportReport;
+import ru.yandex.practicum.filmorate.dto.TransferRecord;
+import ru.yandex.practicum.filmorate.dto.TransferRecord.FilmRecord;
+import ru.yandex.practicum.filmorate.dto.TransferRecord.FriendshipRecord;
+import ru.yandex.practicum.filmorate.dto.TransferRecord.LikeRecord;
+import ru.yandex.practicum.filmorate.dto.TransferRecord.UserRecord;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.TransferProperties;
+import ru.yandex.practicum.filmorate.service.TransferService;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.validation.CreateValidation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Загрузка одного и того же дампа двумя путями: пачками через {@link TransferService} и по
+ * одной записи через те же вызовы сервисов, что делают {@code POST /users}, {@code POST /films},
+ * {@code PUT /films/{id}/like/{userId}} и {@code PUT /users/{id}/friends/{friendId}}. Оба пути
+ * разбирают JSON и проверяют сущности; замер — время загрузки всего дампа.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ImportBenchmark {
+    private static final int AVERAGE_LIKES = 20;
+    private static final int FRIENDS_PER_USER = 5;
+
+    @Param({"10000"})
+    private int films;
+
+    @Param({"20000"})
+    private int users;
+
+    private final ObjectMapper mapper = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final ObjectReader recordReader = mapper.readerFor(TransferRecord.class);
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+    private String dump;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        InMemoryUserStorage userStorage = BenchmarkData.userStorage(users);
+        InMemoryFilmStorage filmStorage = BenchmarkData.filmStorage(films);
+        BenchmarkData.likeFilms(filmStorage, films, users, AVERAGE_LIKES);
+        SplittableRandom random = new SplittableRandom(BenchmarkData.SEED);
+        for (long user = 1; user <= users; user++) {
+            for (int i = 0; i < FRIENDS_PER_USER; i++) {
+                long friend = random.nextLong(1, users + 1);
+                if (friend != user) {
+                    userStorage.addFriend(user, friend);
+                }
+            }
+        }
+        StringBuilder lines = new StringBuilder();
+        transferService(userStorage, filmStorage).exportRecords(record -> {
+            try {
+                lines.append(mapper.writeValueAsString(record)).append('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        dump = lines.toString();
+
+        ImportReport report = bulkImport();
+        System.out.printf("%nДамп: %d строк, пачками %.0f строк/с%n", report.rows(), report.rowsPerSecond());
+    }
+
+    @Benchmark
+    public ImportReport bulkImport() throws IOException {
+        return transferService(new InMemoryUserStorage(), new InMemoryFilmStorage())
+                .importRecords(new BufferedReader(new StringReader(dump)));
+    }
+
+    @Benchmark
+    public long perRecord() throws IOException {
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        FilmService filmService = new FilmService(userStorage, new InMemoryFilmStorage());
+        UserService userService = new UserService(userStorage);
+        Map<Long, Long> userIds = new HashMap<>();
+        Map<Integer, Integer> filmIds = new HashMap<>();
+        BufferedReader reader = new BufferedReader(new StringReader(dump));
+        long rows = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            rows++;
+            switch (recordReader.<TransferRecord>readValue(line)) {
+                case UserRecord user -> {
+                    User entity = user.toUser();
+                    validator.validate(entity, CreateValidation.class);
+                    userIds.put(user.id(), userStorage.addNewUser(entity).getId());
+                }
+                case FilmRecord film -> {
+                    Film entity = film.toFilm();
+                    validator.validate(entity, CreateValidation.class);
+                    filmIds.put(film.id(), filmService.addNewFilm(entity).getId());
+                }
+                case LikeRecord like -> filmService.putLike(filmIds.get(like.filmId()), userIds.get(like.userId()));
+                case FriendshipRecord friendship ->
+                        userService.addFriend(userIds.get(friendship.userId()), userIds.get(friendship.friendId()));
+            }
+        }
+        return rows;
+    }
+
+    private TransferService transferService(InMemoryUserStorage userStorage, InMemoryFilmStorage filmStorage) {
+        return new TransferService(new FilmService(userStorage, filmStorage), new UserService(userStorage),
+                validator, mapper, new TransferProperties(4096, 100));
+    }
+}
@@ -0,0 +1,98 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.LikeIngestion;
+import ru.yandex.practicum.filmorate.service.LikeIngestionProperties;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пропускная способность лайков при конкуренции потоков: все потоки бьют в один
+ * фильм («премьера») либо распределены по каталогу. Каждая операция ставит и
+ * снимает лайк, чтобы размер множеств не рос от итерации к итерации.
+ *
+ * <p>В режиме {@code async} лайки идут через {@link LikeIngestion}: очередь ограничена,
+ * поэтому замер показывает устойчивую скорость применения, а не только постановки в очередь.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class LikeContentionBenchmark {
+    private static final int USERS_PER_THREAD = 10_000;
+    private static final int MAX_THREADS = 64;
+
+    @Param({"1", "1000"})
+    private int films;
+
+    @Param({"sync", "async"})
+    private String mode;
+
+    private FilmService filmService;
+    private LikeIngestion likeIngestion;
+    private final AtomicInteger threadCounter = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryFilmStorage filmStorage = BenchmarkData.filmStorage(films);
+        InMemoryUserStorage userStorage = BenchmarkData.userStorage((long) USERS_PER_THREAD * MAX_THREADS);
+        if ("async".equals(mode)) {
+            likeIngestion = new LikeIngestion(filmStorage,
+                    new LikeIngestionProperties(true, 65_536, 8_192, Duration.ofMillis(1)));
+            likeIngestion.start();
+        }
+        filmService = new FilmService(userStorage, filmStorage, likeIngestion);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (likeIngestion != null) {
+            likeIngestion.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private long firstUserId;
+        private SplittableRandom random;
+        private int cursor;
+
+        @Setup(Level.Trial)
+        public void setUp(LikeContentionBenchmark benchmark) {
+            int thread = benchmark.threadCounter.getAndIncrement();
+            firstUserId = 1 + (long) thread * USERS_PER_THREAD;
+            random = new SplittableRandom(BenchmarkData.SEED + thread);
+        }
+    }
+
+    @Benchmark
+    public void putAndDeleteLike(ThreadState state) {
+        long userId = state.firstUserId + state.cursor;
+        state.cursor = (state.cursor + 1) % USERS_PER_THREAD;
+        int filmId = 1 + state.random.nextInt(films);
+        filmService.putLike(filmId, userId);
+        filmService.deleteLike(filmId, userId);
+    }
+}
@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import ru.yandex.practicum.filmorate.controller.FilmController;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнивает индекс популярности с прежней полной сортировкой каталога и с готовым
+ * JSON-ответом {@code /films/popular}, который строится заново только после изменений.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PopularFilmsBenchmark {
+    private static final int USERS = 10_000;
+    private static final int AVERAGE_LIKES = 3;
+
+    @Param({"10000", "100000", "1000000"})
+    private int films;
+
+    @Param({"10", "100"})
+    private int count;
+
+    private InMemoryFilmStorage filmStorage;
+    private FilmService filmService;
+    private FilmController filmController;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        filmStorage = BenchmarkData.filmStorage(films);
+        BenchmarkData.likeFilms(filmStorage, films, USERS, AVERAGE_LIKES);
+        filmService = new FilmService(new InMemoryUserStorage(), filmStorage);
+        filmController = new FilmController(count, filmService,
+                JsonMapper.builder().addModule(new JavaTimeModule()).build());
+    }
+
+    @Benchmark
+    public List<Film> showMostLikedFilms() {
+        return filmService.showMostLikedFilms(count);
+    }
+
+    @Benchmark
+    public ResponseEntity<byte[]> cachedPopularResponse() {
+        return filmController.getPopularFilms(count);
+    }
+
+    @Benchmark
+    public List<Film> fullSortBaseline() {
+        return filmStorage.getAllFilms().stream()
+                .sorted(Comparator.comparingLong(Film::getRate).reversed())
+                .limit(count)
+                .toList();
+    }
+}
@@ -0,0 +1,57 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.service.FilmRecommendations;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Рекомендации по совместным лайкам на каталогах разного размера со степенным
+ * распределением лайков. Время запроса зависит от числа лайков пользователя и размера
+ * списков соседей, но не от размера каталога.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecommendationsBenchmark {
+    private static final int USERS = 20_000;
+
+    @Param({"1000", "10000"})
+    private int films;
+
+    private FilmRecommendations recommendations;
+    private long nextUser;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryFilmStorage filmStorage = BenchmarkData.filmStorage(films);
+        BenchmarkData.likeFilms(filmStorage, films, USERS, 20);
+        recommendations = new FilmRecommendations(filmStorage);
+        long started = System.nanoTime();
+        recommendations.recommend(1, 10);
+        System.out.printf("%nИндекс для %d фильмов построен за %d мс%n",
+                films, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @Benchmark
+    public List<Integer> recommend() {
+        nextUser = nextUser % USERS + 1;
+        return recommendations.recommend(nextUser, 10);
+    }
+}
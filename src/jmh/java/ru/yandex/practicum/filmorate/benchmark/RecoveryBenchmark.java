@@ -0,0 +1,129 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.storage.FileStorageJournal;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.JournalProperties;
+import ru.yandex.practicum.filmorate.storage.JournalRecovery;
+import ru.yandex.practicum.filmorate.storage.StorageSnapshotter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Время перезапуска: восстановление каталога с ~10 млн лайков только из журнала
+ * и из снимка с пустым хвостом журнала.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx6g")
+public class RecoveryBenchmark {
+    private static final int USERS = 10_000;
+    private static final long LIKE_USERS = 1_000_000;
+
+    @Param({"100000"})
+    private int films;
+
+    @Param({"100"})
+    private int averageLikes;
+
+    private Path journalOnly;
+    private Path withSnapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        journalOnly = Files.createTempDirectory("filmorate-journal");
+        try (Restored restored = restore(journalOnly)) {
+            for (int i = 0; i < USERS; i++) {
+                restored.userStorage().addNewUser(BenchmarkData.user(i));
+            }
+            for (int i = 0; i < films; i++) {
+                restored.filmStorage().addNewFilm(BenchmarkData.film(i));
+            }
+            BenchmarkData.likeFilms(restored.filmStorage(), films, LIKE_USERS, averageLikes);
+            restored.journal().flush();
+        }
+
+        withSnapshot = Files.createTempDirectory("filmorate-snapshot");
+        try (Stream<Path> files = Files.list(journalOnly)) {
+            for (Path file : files.toList()) {
+                Files.copy(file, withSnapshot.resolve(file.getFileName()));
+            }
+        }
+        try (Restored restored = restore(withSnapshot)) {
+            restored.snapshotter().takeSnapshot();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        delete(journalOnly);
+        delete(withSnapshot);
+    }
+
+    @Benchmark
+    public InMemoryFilmStorage replayJournal() throws IOException {
+        try (Restored restored = restore(journalOnly)) {
+            return restored.filmStorage();
+        }
+    }
+
+    @Benchmark
+    public InMemoryFilmStorage loadSnapshot() throws IOException {
+        try (Restored restored = restore(withSnapshot)) {
+            return restored.filmStorage();
+        }
+    }
+
+    private static Restored restore(Path directory) throws IOException {
+        JournalProperties properties = new JournalProperties(true, directory, 65_536, Duration.ofSeconds(1),
+                65_536, Duration.ofDays(1));
+        FileStorageJournal journal = new FileStorageJournal(properties);
+        InMemoryFilmStorage filmStorage = new InMemoryFilmStorage(journal);
+        InMemoryUserStorage userStorage = new InMemoryUserStorage(journal);
+        StorageSnapshotter snapshotter = new StorageSnapshotter(journal, filmStorage, userStorage, properties);
+        new JournalRecovery(journal, snapshotter, filmStorage, userStorage).recover();
+        return new Restored(journal, snapshotter, filmStorage, userStorage);
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            List<Path> paths = files.sorted(Comparator.reverseOrder()).toList();
+            for (Path path : paths) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    private record Restored(FileStorageJournal journal, StorageSnapshotter snapshotter,
+                            InMemoryFilmStorage filmStorage, InMemoryUserStorage userStorage)
+            implements AutoCloseable {
+        @Override
+        public void close() {
+            snapshotter.close();
+            journal.close();
+        }
+    }
+}
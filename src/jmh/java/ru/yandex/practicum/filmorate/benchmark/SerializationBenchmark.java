@@ -0,0 +1,73 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация списков фильмов и пользователей тем же ObjectMapper, что собирает Spring.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationBenchmark {
+    @Param({"100", "10000"})
+    private int size;
+
+    @Param({"0", "100"})
+    private int relationsPerEntity;
+
+    private ObjectMapper objectMapper;
+    private List<Film> films;
+    private List<User> users;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        InMemoryFilmStorage filmStorage = BenchmarkData.filmStorage(size);
+        InMemoryUserStorage userStorage = BenchmarkData.userStorage(size);
+        for (int id = 1; id <= size; id++) {
+            for (int i = 1; i <= relationsPerEntity; i++) {
+                filmStorage.addLike(id, i);
+                long friendId = (id + i - 1) % size + 1;
+                if (friendId != id) {
+                    userStorage.addFriend(id, friendId);
+                }
+            }
+        }
+        films = filmStorage.getAllFilms();
+        users = userStorage.getAllUsers();
+    }
+
+    @Benchmark
+    public byte[] serializeFilms() throws Exception {
+        return objectMapper.writeValueAsBytes(films);
+    }
+
+    @Benchmark
+    public byte[] serializeUsers() throws Exception {
+        return objectMapper.writeValueAsBytes(users);
+    }
+}
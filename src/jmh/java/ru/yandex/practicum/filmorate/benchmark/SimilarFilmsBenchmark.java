@@ -0,0 +1,155 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.yandex.practicum.filmorate.service.SimilarFilms;
+import ru.yandex.practicum.filmorate.service.SimilarityProperties;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.util.MinHashIndex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Похожие фильмы через MinHash/LSH против точного перебора всех фильмов с подсчетом
+ * коэффициента Жаккара. Пользователи и фильмы разбиты на группы вкусов: фильм лайкают
+ * в основном пользователи его группы, поэтому у фильмов есть заметно похожие соседи.
+ *
+ * <p>Перед замерами печатает полноту: какую долю точных первых {@value #TOP} соседей нашел
+ * индекс — всех и только с коэффициентом не ниже {@value #STRONG}. Режим выборки печатает
+ * перцентили задержки обоих способов.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimilarFilmsBenchmark {
+    private static final int TOP = 10;
+    private static final double STRONG = 0.3;
+    private static final int GROUPS = 1_000;
+    private static final int USERS = 50_000;
+    private static final int QUERIES = 256;
+
+    @Param({"10000", "50000"})
+    private int films;
+
+    private SimilarFilms similarFilms;
+    private long[][] likes;
+    private int[] queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        InMemoryFilmStorage filmStorage = BenchmarkData.filmStorage(films);
+        SplittableRandom random = new SplittableRandom(BenchmarkData.SEED);
+        for (int filmId = 1; filmId <= films; filmId++) {
+            int group = filmId % GROUPS;
+            int count = BenchmarkData.pareto(random, 1.5, 5, 40);
+            for (int i = 0; i < count; i++) {
+                long userId = random.nextInt(10) == 0
+                        ? 1 + random.nextInt(USERS)
+                        : 1 + group + (long) GROUPS * random.nextInt(USERS / GROUPS);
+                filmStorage.addLike(filmId, userId);
+            }
+        }
+        likes = new long[films + 1][];
+        filmStorage.forEachFilm(film -> {
+            long[] users = film.getFilmLikes().toLongArray();
+            Arrays.sort(users);
+            likes[film.getId()] = users;
+        });
+
+        similarFilms = new SimilarFilms(filmStorage, new SimilarityProperties(64, 2, BenchmarkData.SEED));
+        queries = random.ints(QUERIES, 1, films + 1).toArray();
+        report();
+    }
+
+    @Benchmark
+    public List<MinHashIndex.Similar> lsh() {
+        return similarFilms.similar(nextQuery(), TOP);
+    }
+
+    @Benchmark
+    public List<MinHashIndex.Similar> bruteForce() {
+        return exactTop(nextQuery());
+    }
+
+    private int nextQuery() {
+        next = (next + 1) % QUERIES;
+        return queries[next];
+    }
+
+    private List<MinHashIndex.Similar> exactTop(int filmId) {
+        List<MinHashIndex.Similar> result = new ArrayList<>();
+        for (int other = 1; other <= films; other++) {
+            if (other != filmId) {
+                double jaccard = jaccard(likes[filmId], likes[other]);
+                if (jaccard > 0) {
+                    result.add(new MinHashIndex.Similar(other, jaccard));
+                }
+            }
+        }
+        result.sort(Comparator.comparingDouble(MinHashIndex.Similar::similarity).reversed()
+                .thenComparingInt(MinHashIndex.Similar::item));
+        return result.size() > TOP ? result.subList(0, TOP) : result;
+    }
+
+    private static double jaccard(long[] first, long[] second) {
+        int i = 0;
+        int j = 0;
+        int common = 0;
+        while (i < first.length && j < second.length) {
+            if (first[i] < second[j]) {
+                i++;
+            } else if (first[i] > second[j]) {
+                j++;
+            } else {
+                common++;
+                i++;
+                j++;
+            }
+        }
+        int union = first.length + second.length - common;
+        return union == 0 ? 0 : (double) common / union;
+    }
+
+    private void report() {
+        int expected = 0;
+        int found = 0;
+        int expectedStrong = 0;
+        int foundStrong = 0;
+        for (int filmId : queries) {
+            Set<Integer> actual = new HashSet<>();
+            similarFilms.similar(filmId, TOP).forEach(similar -> actual.add(similar.item()));
+            for (MinHashIndex.Similar similar : exactTop(filmId)) {
+                boolean hit = actual.contains(similar.item());
+                expected++;
+                found += hit ? 1 : 0;
+                if (similar.similarity() >= STRONG) {
+                    expectedStrong++;
+                    foundStrong += hit ? 1 : 0;
+                }
+            }
+        }
+        System.out.printf("%nПолнота (%d фильмов, топ %d): %.3f всех соседей, %.3f соседей с Жаккаром >= %.1f%n",
+                films, TOP, (double) found / expected, (double) foundStrong / expectedStrong, STRONG);
+    }
+}
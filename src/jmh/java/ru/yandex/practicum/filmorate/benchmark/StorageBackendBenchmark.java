@@ -0,0 +1,143 @@
+package ru.yandex.practicum.filmorate.benchmark;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.JdbcFilmStorage;
+import ru.yandex.practicum.filmorate.storage.JdbcUserStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Сравнение пропускной способности хранилищ в памяти и в БД (встроенная H2 с пулом
+ * соединений): лайки, популярные фильмы, друзья и общие друзья.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class StorageBackendBenchmark {
+    private static final int FILMS = 1_000;
+    private static final int USERS = 10_000;
+    private static final int FRIENDS_PER_USER = 20;
+    private static final int USERS_PER_THREAD = 10_000;
+
+    @Param({"memory", "jdbc"})
+    private String backend;
+
+    private FilmStorage filmStorage;
+    private UserStorage userStorage;
+    private HikariDataSource dataSource;
+    private final AtomicInteger threadCounter = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (backend.equals("jdbc")) {
+            HikariConfig config = new HikariConfig();
+            config.setJdbcUrl("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1");
+            config.setMaximumPoolSize(16);
+            dataSource = new HikariDataSource(config);
+            new ResourceDatabasePopulator(new ClassPathResource("schema.sql")).execute(dataSource);
+            NamedParameterJdbcTemplate jdbc = new NamedParameterJdbcTemplate(dataSource);
+            filmStorage = new JdbcFilmStorage(jdbc);
+            userStorage = new JdbcUserStorage(jdbc.getJdbcTemplate());
+        } else {
+            filmStorage = new InMemoryFilmStorage();
+            userStorage = new InMemoryUserStorage();
+        }
+
+        for (int i = 0; i < FILMS; i++) {
+            filmStorage.addNewFilm(BenchmarkData.film(i));
+        }
+        for (long i = 0; i < USERS; i++) {
+            userStorage.addNewUser(BenchmarkData.user(i));
+        }
+        SplittableRandom random = new SplittableRandom(BenchmarkData.SEED);
+        for (long userId = 1; userId <= USERS; userId++) {
+            for (int i = 0; i < FRIENDS_PER_USER / 2; i++) {
+                long friendId = 1 + random.nextLong(USERS);
+                if (friendId != userId) {
+                    userStorage.addFriend(userId, friendId);
+                }
+            }
+        }
+        for (int i = 0; i < FILMS * 20; i++) {
+            int filmId = 1 + (int) (FILMS * Math.pow(random.nextDouble(), 3));
+            filmStorage.addLike(Math.min(filmId, FILMS), 1 + random.nextLong(USERS));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if (dataSource != null) {
+            dataSource.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState {
+        private long firstUserId;
+        private SplittableRandom random;
+        private int cursor;
+
+        @Setup(Level.Trial)
+        public void setUp(StorageBackendBenchmark benchmark) {
+            int thread = benchmark.threadCounter.getAndIncrement();
+            // Пользователи лайков не пересекаются с теми, кто лайкал при подготовке данных
+            firstUserId = USERS + 1 + (long) thread * USERS_PER_THREAD;
+            random = new SplittableRandom(BenchmarkData.SEED + thread);
+        }
+    }
+
+    @Benchmark
+    public boolean addAndDeleteLike(ThreadState state) {
+        long userId = state.firstUserId + state.cursor;
+        state.cursor = (state.cursor + 1) % USERS_PER_THREAD;
+        int filmId = 1 + state.random.nextInt(FILMS);
+        filmStorage.addLike(filmId, userId);
+        return filmStorage.deleteLike(filmId, userId);
+    }
+
+    @Benchmark
+    public List<Film> getPopularFilms() {
+        return filmStorage.getPopularFilms(10);
+    }
+
+    @Benchmark
+    public List<User> getFriends(ThreadState state) {
+        return userStorage.getFriends(1 + state.random.nextLong(USERS));
+    }
+
+    @Benchmark
+    public List<User> getCommonFriends(ThreadState state) {
+        return userStorage.getCommonFriends(1 + state.random.nextLong(USERS), 1 + state.random.nextLong(USERS));
+    }
+}
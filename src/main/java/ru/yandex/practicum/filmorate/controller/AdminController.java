@@ -0,0 +1,49 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.dto.ImportReport;
+import ru.yandex.practicum.filmorate.service.TransferService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Массовая выгрузка и загрузка всех данных в формате NDJSON, см. {@link TransferService}.
+ * Тело запроса и ответа идет потоком и не собирается в памяти целиком.
+ */
+@RestController
+@RequestMapping("/admin")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequiredArgsConstructor
+@Slf4j
+public class AdminController {
+    static final String EXPORT_PATH = "/admin/export";
+
+    private final TransferService transferService;
+    private final ObjectMapper objectMapper;
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportRecords() {
+        log.debug("Вызван метод выгрузки всех данных");
+        return NdjsonResponses.stream(objectMapper, transferService::exportRecords);
+    }
+
+    @PostMapping(path = "/import", consumes = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_PLAIN_VALUE})
+    public ImportReport importRecords(InputStream body) throws IOException {
+        log.debug("Вызван метод загрузки данных");
+        return transferService.importRecords(new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8)));
+    }
+}
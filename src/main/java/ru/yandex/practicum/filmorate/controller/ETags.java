@@ -0,0 +1,42 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+
+/**
+ * Условные GET по версиям из хранилища. ETag строится из версии сущности или коллекции
+ * и слабый: тело может оказаться новее версии, если изменение пришло во время чтения,
+ * но старше — никогда, поэтому 304 не вернет устаревшие данные.
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    static String of(long version) {
+        return "W/\"" + Long.toHexString(version) + "\"";
+    }
+
+    /**
+     * Ответ с сущностью и ее ETag. Совпадение с {@code If-None-Match} Spring проверяет
+     * до записи тела, и клиент получает 304 без сериализации.
+     */
+    static <T> ResponseEntity<T> entity(T body, long version) {
+        return ResponseEntity.ok().eTag(of(version)).body(body);
+    }
+
+    /**
+     * Ответ со списком, который загружается, только если у клиента нет актуальной копии.
+     * Версия читается до загрузки. При совпадении ETag возвращается {@code null}: статус 304
+     * и заголовки уже выставлены в {@code request}.
+     */
+    static <T> ResponseEntity<T> collection(WebRequest request, long version, Supplier<T> body) {
+        String etag = of(version);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(body.get());
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
 import ru.yandex.practicum.filmorate.dto.ErrorResponse;
 import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
 import ru.yandex.practicum.filmorate.exceptions.ValidationException;
@@ -44,6 +45,15 @@ public class ErrorHandler {
         return new ErrorResponse("Validation Error", "Invalid request parameters", errors);
     }
 
+    @ExceptionHandler
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ErrorResponse handleWebExchangeBind(final WebExchangeBindException e) {
+        Map<String, String> errors = new HashMap<>();
+        e.getFieldErrors().forEach(error -> errors.put(error.getField(), error.getDefaultMessage()));
+        log.error("Ошибки валидации полей: {}", errors);
+        return new ErrorResponse("Validation Error", "Invalid request parameters", errors);
+    }
+
     @ExceptionHandler
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public ErrorResponse handleOtherExceptions(final Throwable e) {
@@ -1,12 +1,22 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.dto.SimilarFilm;
+import ru.yandex.practicum.filmorate.exceptions.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.TrendingWindow;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
 import ru.yandex.practicum.filmorate.validation.CreateValidation;
 import ru.yandex.practicum.filmorate.validation.UpdateValidation;
 
@@ -14,55 +24,160 @@ import java.util.List;
 
 @RestController
 @RequestMapping("/films")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Slf4j
 public class FilmController {
+    static final String SORT_PARAM = "sort";
+    static final String SORT_BY_LIKES = "likes";
+    static final String SORT_BY_HOTNESS = "hot";
+
     private final FilmService filmService;
+    private final ObjectMapper objectMapper;
+    private final PopularFilmsResponseCache popularFilms;
     private final int defaultCount;
 
-    public FilmController(@Value("${mostLikedCount}") int defaultCount, FilmService filmService) {
+    public FilmController(@Value("${mostLikedCount}") int defaultCount, FilmService filmService,
+                          ObjectMapper objectMapper) {
         this.defaultCount = defaultCount;
         this.filmService = filmService;
+        this.objectMapper = objectMapper;
+        this.popularFilms = new PopularFilmsResponseCache(filmService, objectMapper);
     }
 
+    /**
+     * Все фильмы с ETag по версии каталога, см. {@link ETags}.
+     */
     @GetMapping
-    public List<Film> getAllFilms() {
+    public ResponseEntity<List<Film>> getAllFilms(WebRequest request) {
         log.debug("Вызван метод получения списка всех фильмов");
-        return filmService.getFilmStorage().getAllFilms();
+        FilmStorage filmStorage = filmService.getFilmStorage();
+        return ETags.collection(request, filmStorage.getFilmsVersion(), filmStorage::getAllFilms);
+    }
+
+    /**
+     * Страница фильмов по возрастанию ID, см. {@link Pages}.
+     */
+    @GetMapping(params = {Pages.LIMIT_PARAM, "!" + NdjsonResponses.STREAM_PARAM})
+    public ResponseEntity<List<Film>> getFilmsPage(@RequestParam(Pages.LIMIT_PARAM) int limit,
+                                                   @RequestParam(value = Pages.AFTER_PARAM, required = false)
+                                                   String after) {
+        log.debug("Вызван метод получения страницы фильмов: limit={}, after={}", limit, after);
+        Pages.checkLimit(limit);
+        List<Film> films = filmService.getFilmStorage().getFilmsAfter(Pages.decodeIntCursor(after), limit + 1);
+        return Pages.page(films, limit, Film::getId);
+    }
+
+    /**
+     * Все фильмы в формате NDJSON, если клиент запросил {@code application/x-ndjson}.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllFilms() {
+        log.debug("Вызван метод потоковой выдачи всех фильмов");
+        return NdjsonResponses.stream(objectMapper, filmService.getFilmStorage()::forEachFilm);
+    }
+
+    /**
+     * Все фильмы в формате NDJSON для клиентов, которые не управляют заголовком {@code Accept}.
+     */
+    @GetMapping(params = NdjsonResponses.STREAM_PARAM + "=true")
+    public ResponseEntity<StreamingResponseBody> streamAllFilmsByParam() {
+        return streamAllFilms();
     }
 
     @GetMapping("/{id}")
-    public Film getFilm(@PathVariable int id) {
+    public ResponseEntity<Film> getFilm(@PathVariable int id) {
         log.debug("Вызван метод получения фильма с ID: {}", id);
-        return filmService.getFilmStorage().getFilm(id);
+        Film film = filmService.getFilmStorage().getFilm(id);
+        return ETags.entity(film, film.getVersion());
     }
 
     @PostMapping
     @ResponseStatus(HttpStatus.CREATED)
     public Film addNewFilm(@Validated(CreateValidation.class) @RequestBody Film film) {
-        return filmService.getFilmStorage().addNewFilm(film);
+        return filmService.addNewFilm(film);
     }
 
     @PutMapping
     public Film updateFilm(@Validated(UpdateValidation.class) @RequestBody Film filmUpdate) {
-        return filmService.getFilmStorage().updateFilm(filmUpdate);
+        return filmService.updateFilm(filmUpdate);
     }
 
+    /**
+     * Ставит лайк. При асинхронном приеме лайков отвечает 202, как только лайк принят
+     * в очередь; с {@code wait=true} дожидается его применения и отвечает 200.
+     */
     @PutMapping("/{id}/like/{userId}")
-    public void putLike(@PathVariable("id") int filmID, @PathVariable("userId") long userID) {
-        filmService.putLike(filmID, userID);
+    public ResponseEntity<Void> putLike(@PathVariable("id") int filmID, @PathVariable("userId") long userID,
+                                        @RequestParam(value = "wait", defaultValue = "false") boolean wait) {
+        return likeResponse(filmService.putLike(filmID, userID), wait);
     }
 
     @DeleteMapping("/{id}/like/{userId}")
-    public void deleteLike(@PathVariable("id") int filmID, @PathVariable("userId") long userID) {
-        filmService.deleteLike(filmID, userID);
+    public ResponseEntity<Void> deleteLike(@PathVariable("id") int filmID, @PathVariable("userId") long userID,
+                                           @RequestParam(value = "wait", defaultValue = "false") boolean wait) {
+        return likeResponse(filmService.deleteLike(filmID, userID), wait);
+    }
+
+    /**
+     * Популярные фильмы из готового JSON, см. {@link PopularFilmsResponseCache}. Ответ несет
+     * ETag, и запрос с совпадающим {@code If-None-Match} получает 304 без тела.
+     */
+    @GetMapping(value = "/popular", params = "!" + SORT_PARAM)
+    public ResponseEntity<byte[]> getPopularFilms(
+            @RequestParam(value = "count", defaultValue = "${mostLikedCount}", required = false) Integer countToShow) {
+        PopularFilmsResponseCache.Response response = popularFilms.get(normalizeCount(countToShow));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(response.etag())
+                .body(response.json());
     }
 
-    @GetMapping("/popular")
-    public List<Film> showMostLikedFilms(
+    /**
+     * Популярные фильмы в выбранном порядке: {@code sort=likes} — по числу лайков за все время,
+     * как без параметра, {@code sort=hot} — по затухающей со временем сумме лайков.
+     */
+    @GetMapping(value = "/popular", params = SORT_PARAM)
+    public ResponseEntity<?> getPopularFilmsSorted(
+            @RequestParam(SORT_PARAM) String sort,
             @RequestParam(value = "count", defaultValue = "${mostLikedCount}", required = false) Integer countToShow) {
-        if (countToShow == null || countToShow <= 0) {
-            countToShow = defaultCount;
+        return switch (sort) {
+            case SORT_BY_LIKES -> getPopularFilms(countToShow);
+            case SORT_BY_HOTNESS -> ResponseEntity.ok(filmService.showHotFilms(normalizeCount(countToShow)));
+            default -> throw new ValidationException("Порядок должен быть одним из likes, hot: " + sort);
+        };
+    }
+
+    /**
+     * Фильмы с наибольшим числом лайков за последний час, сутки или неделю.
+     */
+    @GetMapping("/trending")
+    public List<Film> getTrendingFilms(
+            @RequestParam(value = "window", defaultValue = "24h") String window,
+            @RequestParam(value = "count", defaultValue = "${mostLikedCount}", required = false) Integer countToShow) {
+        return filmService.showTrendingFilms(TrendingWindow.of(window), normalizeCount(countToShow));
+    }
+
+    /**
+     * Фильмы, которые лайкают те же пользователи, с оценкой доли общих лайков.
+     */
+    @GetMapping("/{id}/similar")
+    public List<SimilarFilm> getSimilarFilms(@PathVariable("id") int filmID,
+                                             @RequestParam(value = "count", defaultValue = "10") int count) {
+        return filmService.showSimilarFilms(filmID, count);
+    }
+
+    private ResponseEntity<Void> likeResponse(boolean applied, boolean wait) {
+        if (applied) {
+            return ResponseEntity.ok().build();
+        }
+        if (wait) {
+            filmService.awaitLikes();
+            return ResponseEntity.ok().build();
         }
-        return filmService.showMostLikedFilms(countToShow);
+        return ResponseEntity.accepted().build();
+    }
+
+    private int normalizeCount(Integer countToShow) {
+        return countToShow == null || countToShow <= 0 ? defaultCount : countToShow;
     }
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Ответы в формате NDJSON: по одному JSON-объекту на строку. Сущности сериализуются
+ * прямо в выходной поток ответа по мере обхода хранилища, так что расход памяти не
+ * зависит от их количества. Буфер генератора сбрасывается в сокет по заполнении,
+ * а не после каждой строки.
+ */
+final class NdjsonResponses {
+    /**
+     * Параметр запроса, включающий потоковую выдачу без заголовка {@code Accept}.
+     */
+    static final String STREAM_PARAM = "stream";
+
+    private NdjsonResponses() {
+    }
+
+    /**
+     * @param source обход хранилища, передающий сущности в полученный обработчик
+     */
+    static ResponseEntity<StreamingResponseBody> stream(ObjectMapper mapper, Consumer<Consumer<Object>> source) {
+        ObjectWriter writer = mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator generator = mapper.getFactory().createGenerator(out)) {
+                // Поток ответа закрывает контейнер сервлетов
+                generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                source.accept(value -> {
+                    try {
+                        writer.writeValue(generator, value);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+}
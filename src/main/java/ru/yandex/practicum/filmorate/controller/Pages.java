@@ -0,0 +1,98 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+import ru.yandex.practicum.filmorate.exceptions.ValidationException;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Постраничная выдача списков по курсору. Страница — до {@code limit} записей с ID
+ * больше, чем в курсоре {@code after}; курсор кодирует ID последней записи предыдущей
+ * страницы и для клиента непрозрачен. Ссылка на следующую страницу отдается в
+ * заголовке {@code Link} с {@code rel="next"}, тело остается обычным JSON-массивом.
+ * На последней странице заголовка нет.
+ */
+final class Pages {
+    static final String LIMIT_PARAM = "limit";
+    static final String AFTER_PARAM = "after";
+    static final int MAX_LIMIT = 1_000;
+
+    private Pages() {
+    }
+
+    static int checkLimit(int limit) {
+        if (limit <= 0 || limit > MAX_LIMIT) {
+            throw new ValidationException("Размер страницы должен быть от 1 до " + MAX_LIMIT);
+        }
+        return limit;
+    }
+
+    /**
+     * @return ID, после которого начинается страница; 0 для первой страницы
+     */
+    static long decodeCursor(String after) {
+        if (after == null || after.isEmpty()) {
+            return 0;
+        }
+        try {
+            byte[] bytes = Base64.getUrlDecoder().decode(after);
+            if (bytes.length == Long.BYTES) {
+                long id = ByteBuffer.wrap(bytes).getLong();
+                if (id >= 0) {
+                    return id;
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Ниже общий ответ для любого испорченного курсора
+        }
+        throw new ValidationException("Некорректный курсор страницы: " + after);
+    }
+
+    /**
+     * Курсор для ID фильма: фильмы нумеруются {@code int}.
+     */
+    static int decodeIntCursor(String after) {
+        return (int) Math.min(decodeCursor(after), Integer.MAX_VALUE);
+    }
+
+    static String encodeCursor(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(ByteBuffer.allocate(Long.BYTES).putLong(id).array());
+    }
+
+    /**
+     * Формирует ответ из {@code limit + 1} записей, выбранных из хранилища: лишняя
+     * запись только показывает, что следующая страница есть, и в ответ не попадает.
+     */
+    static <T> ResponseEntity<List<T>> page(List<T> fetched, int limit, ToLongFunction<? super T> id) {
+        return page(fetched, limit, id, ServletUriComponentsBuilder::fromCurrentRequest);
+    }
+
+    /**
+     * То же для реактивных контроллеров, у которых нет текущего запроса в потоке:
+     * ссылка строится от URI запроса, который отдает {@code request}.
+     */
+    static <T> ResponseEntity<List<T>> page(List<T> fetched, int limit, ToLongFunction<? super T> id,
+                                            Supplier<UriComponentsBuilder> request) {
+        if (fetched.size() <= limit) {
+            return ResponseEntity.ok(fetched);
+        }
+        List<T> page = fetched.subList(0, limit);
+        String next = request.get()
+                .scheme(null)
+                .host(null)
+                .port(null)
+                .replaceQueryParam(AFTER_PARAM, encodeCursor(id.applyAsLong(page.getLast())))
+                .toUriString();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                .body(page);
+    }
+}
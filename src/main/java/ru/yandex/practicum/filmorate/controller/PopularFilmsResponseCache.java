@@ -0,0 +1,65 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.util.DigestUtils;
+import ru.yandex.practicum.filmorate.service.FilmService;
+
+import java.io.UncheckedIOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Готовые JSON-ответы {@code /films/popular} по значению {@code count}. Ответ строится
+ * лениво: при первом запросе после изменения каталога (см. {@link FilmService#popularFilmsVersion()}),
+ * остальные запросы получают тот же массив байт без сортировки и сериализации.
+ * Пока ответ строится, запросы с тем же {@code count} ждут его, а не строят свой.
+ */
+class PopularFilmsResponseCache {
+    /**
+     * Ответы для больших {@code count} не хранятся, чтобы произвольные значения
+     * параметра не раздували кеш.
+     */
+    static final int MAX_CACHED_COUNT = 100;
+
+    private final FilmService filmService;
+    private final ObjectMapper objectMapper;
+    private final ConcurrentMap<Integer, Response> responses = new ConcurrentHashMap<>();
+
+    PopularFilmsResponseCache(FilmService filmService, ObjectMapper objectMapper) {
+        this.filmService = filmService;
+        this.objectMapper = objectMapper;
+    }
+
+    Response get(int count) {
+        if (count > MAX_CACHED_COUNT) {
+            return build(count, filmService.popularFilmsVersion());
+        }
+        Response cached = responses.get(count);
+        long version = filmService.popularFilmsVersion();
+        if (cached != null && cached.version() == version) {
+            return cached;
+        }
+        return responses.compute(count, (key, current) ->
+                current != null && current.version() == version ? current : build(key, version));
+    }
+
+    /**
+     * Версия читается до выборки фильмов: если каталог изменится во время построения,
+     * ответ сразу окажется устаревшим и следующий запрос построит его заново.
+     */
+    private Response build(int count, long version) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(filmService.showMostLikedFilms(count));
+            return new Response(version, json, "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @param etag строгий ETag по содержимому, совпадает у одинаковых ответов разных версий
+     */
+    record Response(long version, byte[] json, String etag) {
+    }
+}
@@ -0,0 +1,181 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import ru.yandex.practicum.filmorate.dto.SimilarFilm;
+import ru.yandex.practicum.filmorate.exceptions.ValidationException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.ReactiveFilmService;
+import ru.yandex.practicum.filmorate.service.TrendingWindow;
+import ru.yandex.practicum.filmorate.validation.CreateValidation;
+import ru.yandex.practicum.filmorate.validation.UpdateValidation;
+
+import java.util.List;
+
+/**
+ * Реактивный вариант {@link FilmController} с теми же путями, параметрами и форматом
+ * ответов: страницы по курсору, ETag и 304, NDJSON по {@code stream=true} и готовый JSON
+ * популярных фильмов. Списки отдаются потоком: как JSON-массив или, при
+ * {@code Accept: application/x-ndjson}, по одному фильму в строке с учётом скорости
+ * чтения клиентом.
+ */
+@RestController
+@RequestMapping("/films")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Slf4j
+public class ReactiveFilmController {
+    private final ReactiveFilmService filmService;
+    private final PopularFilmsResponseCache popularFilms;
+    private final Scheduler storageScheduler;
+    private final int defaultCount;
+
+    public ReactiveFilmController(@Value("${mostLikedCount}") int defaultCount, ReactiveFilmService filmService,
+                                  FilmService blockingFilmService, ObjectMapper objectMapper,
+                                  Scheduler storageScheduler) {
+        this.defaultCount = defaultCount;
+        this.filmService = filmService;
+        this.popularFilms = new PopularFilmsResponseCache(blockingFilmService, objectMapper);
+        this.storageScheduler = storageScheduler;
+    }
+
+    /**
+     * Все фильмы с ETag по версии каталога, см. {@link ETags}. Поток фильмов ленивый:
+     * при совпадении {@code If-None-Match} ответ 304 отдается без чтения хранилища.
+     */
+    @GetMapping
+    public Mono<ResponseEntity<Flux<Film>>> getAllFilms() {
+        log.debug("Вызван метод получения списка всех фильмов");
+        return filmService.getFilmsVersion().map(version -> ETags.entity(filmService.getAllFilms(), version));
+    }
+
+    /**
+     * Страница фильмов по возрастанию ID, см. {@link Pages}.
+     */
+    @GetMapping(params = {Pages.LIMIT_PARAM, "!" + NdjsonResponses.STREAM_PARAM})
+    public Mono<ResponseEntity<List<Film>>> getFilmsPage(@RequestParam(Pages.LIMIT_PARAM) int limit,
+                                                         @RequestParam(value = Pages.AFTER_PARAM, required = false)
+                                                         String after,
+                                                         ServerHttpRequest request) {
+        log.debug("Вызван метод получения страницы фильмов: limit={}, after={}", limit, after);
+        Pages.checkLimit(limit);
+        return filmService.getFilmsAfter(Pages.decodeIntCursor(after), limit + 1)
+                .map(films -> Pages.page(films, limit, Film::getId,
+                        () -> UriComponentsBuilder.fromUri(request.getURI())));
+    }
+
+    /**
+     * Все фильмы в формате NDJSON, если клиент запросил {@code application/x-ndjson}.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Film> streamAllFilms() {
+        log.debug("Вызван метод потоковой выдачи всех фильмов");
+        return filmService.getAllFilms();
+    }
+
+    /**
+     * Все фильмы в формате NDJSON для клиентов, которые не управляют заголовком {@code Accept}.
+     */
+    @GetMapping(params = NdjsonResponses.STREAM_PARAM + "=true")
+    public ResponseEntity<Flux<Film>> streamAllFilmsByParam() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(streamAllFilms());
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Film>> getFilm(@PathVariable int id) {
+        log.debug("Вызван метод получения фильма с ID: {}", id);
+        return filmService.getFilm(id).map(film -> ETags.entity(film, film.getVersion()));
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<Film> addNewFilm(@Validated(CreateValidation.class) @RequestBody Film film) {
+        return filmService.addNewFilm(film);
+    }
+
+    @PutMapping
+    public Mono<Film> updateFilm(@Validated(UpdateValidation.class) @RequestBody Film filmUpdate) {
+        return filmService.updateFilm(filmUpdate);
+    }
+
+    @PutMapping("/{id}/like/{userId}")
+    public Mono<ResponseEntity<Void>> putLike(@PathVariable("id") int filmID, @PathVariable("userId") long userID,
+                                              @RequestParam(value = "wait", defaultValue = "false") boolean wait) {
+        return filmService.putLike(filmID, userID, wait).map(ReactiveFilmController::likeResponse);
+    }
+
+    @DeleteMapping("/{id}/like/{userId}")
+    public Mono<ResponseEntity<Void>> deleteLike(@PathVariable("id") int filmID,
+                                                 @PathVariable("userId") long userID,
+                                                 @RequestParam(value = "wait", defaultValue = "false")
+                                                 boolean wait) {
+        return filmService.deleteLike(filmID, userID, wait).map(ReactiveFilmController::likeResponse);
+    }
+
+    /**
+     * Популярные фильмы из готового JSON, см. {@link PopularFilmsResponseCache}. Ответ несет
+     * ETag, и запрос с совпадающим {@code If-None-Match} получает 304 без тела.
+     */
+    @GetMapping(value = "/popular", params = "!" + FilmController.SORT_PARAM,
+            produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<byte[]>> getPopularFilms(
+            @RequestParam(value = "count", defaultValue = "${mostLikedCount}", required = false) Integer countToShow) {
+        int count = normalizeCount(countToShow);
+        return Mono.fromCallable(() -> popularFilms.get(count))
+                .subscribeOn(storageScheduler)
+                .map(response -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .eTag(response.etag())
+                        .body(response.json()));
+    }
+
+    /**
+     * Популярные фильмы в выбранном порядке потоком, в том числе в формате NDJSON.
+     */
+    @GetMapping(value = "/popular", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Film> showMostLikedFilms(
+            @RequestParam(value = "count", defaultValue = "${mostLikedCount}", required = false) Integer countToShow,
+            @RequestParam(value = FilmController.SORT_PARAM, defaultValue = FilmController.SORT_BY_LIKES)
+            String sort) {
+        int count = normalizeCount(countToShow);
+        return switch (sort) {
+            case FilmController.SORT_BY_LIKES -> filmService.showMostLikedFilms(count);
+            case FilmController.SORT_BY_HOTNESS -> filmService.showHotFilms(count);
+            default -> Flux.error(new ValidationException("Порядок должен быть одним из likes, hot: " + sort));
+        };
+    }
+
+    @GetMapping(value = "/trending", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Film> getTrendingFilms(
+            @RequestParam(value = "window", defaultValue = "24h") String window,
+            @RequestParam(value = "count", defaultValue = "${mostLikedCount}", required = false) Integer countToShow) {
+        return filmService.showTrendingFilms(TrendingWindow.of(window), normalizeCount(countToShow));
+    }
+
+    @GetMapping(value = "/{id}/similar", produces = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<SimilarFilm> getSimilarFilms(@PathVariable("id") int filmID,
+                                             @RequestParam(value = "count", defaultValue = "10") int count) {
+        return filmService.showSimilarFilms(filmID, count);
+    }
+
+    private static ResponseEntity<Void> likeResponse(boolean applied) {
+        return applied ? ResponseEntity.ok().build() : ResponseEntity.accepted().build();
+    }
+
+    private int normalizeCount(Integer countToShow) {
+        return countToShow == null || countToShow <= 0 ? defaultCount : countToShow;
+    }
+}
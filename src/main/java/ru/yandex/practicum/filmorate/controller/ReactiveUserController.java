@@ -0,0 +1,158 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.yandex.practicum.filmorate.dto.FriendSuggestion;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.ReactiveFilmService;
+import ru.yandex.practicum.filmorate.service.ReactiveUserService;
+import ru.yandex.practicum.filmorate.validation.CreateValidation;
+import ru.yandex.practicum.filmorate.validation.UpdateValidation;
+
+import java.util.List;
+
+/**
+ * Реактивный вариант {@link UserController} с теми же путями, параметрами и форматом
+ * ответов: страницы по курсору, ETag и 304, NDJSON по {@code stream=true}.
+ */
+@RestController
+@RequestMapping("/users")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveUserController {
+    private final ReactiveUserService userService;
+    private final ReactiveFilmService filmService;
+
+    /**
+     * Все пользователи с ETag по версии коллекции, см. {@link ETags}. Поток пользователей
+     * ленивый: при совпадении {@code If-None-Match} ответ 304 отдается без чтения хранилища.
+     */
+    @GetMapping
+    public Mono<ResponseEntity<Flux<User>>> getAllUsers() {
+        log.debug("Вызван метод получения списка всех пользователей");
+        return userService.getUsersVersion().map(version -> ETags.entity(userService.getAllUsers(), version));
+    }
+
+    /**
+     * Страница пользователей по возрастанию ID, см. {@link Pages}.
+     */
+    @GetMapping(params = {Pages.LIMIT_PARAM, "!" + NdjsonResponses.STREAM_PARAM})
+    public Mono<ResponseEntity<List<User>>> getUsersPage(@RequestParam(Pages.LIMIT_PARAM) int limit,
+                                                         @RequestParam(value = Pages.AFTER_PARAM, required = false)
+                                                         String after,
+                                                         ServerHttpRequest request) {
+        log.debug("Вызван метод получения страницы пользователей: limit={}, after={}", limit, after);
+        Pages.checkLimit(limit);
+        return userService.getUsersAfter(Pages.decodeCursor(after), limit + 1)
+                .map(users -> Pages.page(users, limit, User::getId,
+                        () -> UriComponentsBuilder.fromUri(request.getURI())));
+    }
+
+    /**
+     * Все пользователи в формате NDJSON, если клиент запросил {@code application/x-ndjson}.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<User> streamAllUsers() {
+        log.debug("Вызван метод потоковой выдачи всех пользователей");
+        return userService.getAllUsers();
+    }
+
+    /**
+     * Все пользователи в формате NDJSON для клиентов, которые не управляют заголовком {@code Accept}.
+     */
+    @GetMapping(params = NdjsonResponses.STREAM_PARAM + "=true")
+    public ResponseEntity<Flux<User>> streamAllUsersByParam() {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(streamAllUsers());
+    }
+
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<User>> getUser(@PathVariable long id) {
+        log.debug("Вызван метод получения пользователя с ID: {}", id);
+        return userService.getUser(id).map(user -> ETags.entity(user, user.getVersion()));
+    }
+
+    @PostMapping
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<User> addNewUser(@Validated(CreateValidation.class) @RequestBody User user) {
+        return userService.addNewUser(user);
+    }
+
+    @PutMapping
+    public Mono<User> updateUser(@Validated(UpdateValidation.class) @RequestBody User userUpdate) {
+        return userService.updateUser(userUpdate);
+    }
+
+    @PutMapping("/{id}/friends/{friendId}")
+    public Mono<Void> addFriend(@PathVariable("id") Long userID,
+                                @PathVariable("friendId") Long friendID) {
+        return userService.addFriend(userID, friendID);
+    }
+
+    @DeleteMapping("/{id}/friends/{friendId}")
+    public Mono<Void> deleteFriend(@PathVariable("id") Long userID,
+                                   @PathVariable("friendId") Long friendID) {
+        return userService.deleteFriend(userID, friendID);
+    }
+
+    @GetMapping(value = "/{id}/friends", produces = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<User> getAllUserFriends(@PathVariable("id") Long userID) {
+        return userService.getAllUserFriends(userID);
+    }
+
+    /**
+     * Страница друзей пользователя по возрастанию ID, см. {@link Pages}.
+     */
+    @GetMapping(value = "/{id}/friends", params = Pages.LIMIT_PARAM)
+    public Mono<ResponseEntity<List<User>>> getUserFriendsPage(@PathVariable("id") Long userID,
+                                                               @RequestParam(Pages.LIMIT_PARAM) int limit,
+                                                               @RequestParam(value = Pages.AFTER_PARAM,
+                                                                       required = false) String after,
+                                                               ServerHttpRequest request) {
+        Pages.checkLimit(limit);
+        return userService.getUserFriendsAfter(userID, Pages.decodeCursor(after), limit + 1)
+                .map(friends -> Pages.page(friends, limit, User::getId,
+                        () -> UriComponentsBuilder.fromUri(request.getURI())));
+    }
+
+    @GetMapping(value = "/{id}/friends/suggestions", produces = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<FriendSuggestion> getFriendSuggestions(
+            @PathVariable("id") Long userID,
+            @RequestParam(value = "count", defaultValue = "10") int count) {
+        return userService.getFriendSuggestions(userID, count);
+    }
+
+    @GetMapping(value = "/{id}/friends/common/{otherId}", produces = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<User> getCommonFriends(@PathVariable("id") Long firstUserID,
+                                       @PathVariable("otherId") Long secondUserID) {
+        return userService.getCommonFriends(firstUserID, secondUserID);
+    }
+
+    @GetMapping(value = "/{id}/path/{otherId}", produces = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<User> getFriendshipPath(@PathVariable("id") Long fromUserID,
+                                        @PathVariable("otherId") Long toUserID) {
+        return userService.getFriendshipPath(fromUserID, toUserID);
+    }
+
+    @GetMapping(value = "/{id}/recommendations", produces = {MediaType.APPLICATION_JSON_VALUE,
+            MediaType.APPLICATION_NDJSON_VALUE})
+    public Flux<Film> getRecommendations(@PathVariable("id") Long userID,
+                                         @RequestParam(value = "count", defaultValue = "10") int count) {
+        return filmService.recommendFilms(userID, count);
+    }
+}
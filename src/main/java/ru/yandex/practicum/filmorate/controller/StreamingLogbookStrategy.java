@@ -0,0 +1,51 @@
+package ru.yandex.practicum.filmorate.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.zalando.logbook.HttpRequest;
+import org.zalando.logbook.HttpResponse;
+import org.zalando.logbook.Strategy;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Стратегия Logbook, которая не буферизует тело потоковых запросов и ответов. По умолчанию
+ * Logbook копирует тело каждого запроса и ответа в память ради лога, и NDJSON-выгрузка всех
+ * сущностей оказалась бы в памяти целиком. Потоковый запрос узнается по заголовку
+ * {@code Content-Type}. Решение об ответе принимается до обработки запроса, поэтому потоковый
+ * ответ узнается по запросу: заголовку {@code Accept}, параметру {@code stream=true} или пути
+ * {@code /admin/export}. Остальные запросы и ответы логируются как прежде.
+ */
+@Component
+public class StreamingLogbookStrategy implements Strategy {
+    private static final String STREAM_QUERY = NdjsonResponses.STREAM_PARAM + "=true";
+
+    @Override
+    public HttpRequest process(HttpRequest request) throws IOException {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.startsWith(MediaType.APPLICATION_NDJSON_VALUE)
+                ? request.withoutBody() : request.withBody();
+    }
+
+    @Override
+    public HttpResponse process(HttpRequest request, HttpResponse response) throws IOException {
+        return isStreaming(request) ? response.withoutBody() : response.withBody();
+    }
+
+    private static boolean isStreaming(HttpRequest request) {
+        if (request.getPath().equals(AdminController.EXPORT_PATH)) {
+            return true;
+        }
+        List<String> accept = request.getHeaders().get("Accept");
+        if (accept != null && accept.stream().anyMatch(value -> value.contains(MediaType.APPLICATION_NDJSON_VALUE))) {
+            return true;
+        }
+        for (String pair : request.getQuery().split("&")) {
+            if (pair.equals(STREAM_QUERY)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
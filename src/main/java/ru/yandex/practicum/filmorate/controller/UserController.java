@@ -1,13 +1,23 @@
 package ru.yandex.practicum.filmorate.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.yandex.practicum.filmorate.dto.FriendSuggestion;
+import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
 
+import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
 import ru.yandex.practicum.filmorate.validation.CreateValidation;
 import ru.yandex.practicum.filmorate.validation.UpdateValidation;
 
@@ -15,21 +25,59 @@ import java.util.List;
 
 @RestController
 @RequestMapping("/users")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequiredArgsConstructor
 @Slf4j
 public class UserController {
     private final UserService userService;
+    private final FilmService filmService;
+    private final ObjectMapper objectMapper;
 
+    /**
+     * Все пользователи с ETag по версии коллекции, см. {@link ETags}.
+     */
     @GetMapping
-    public List<User> getAllUsers() {
+    public ResponseEntity<List<User>> getAllUsers(WebRequest request) {
         log.debug("Вызван метод получения списка всех пользователей");
-        return userService.getUserStorage().getAllUsers();
+        UserStorage userStorage = userService.getUserStorage();
+        return ETags.collection(request, userStorage.getUsersVersion(), userStorage::getAllUsers);
+    }
+
+    /**
+     * Страница пользователей по возрастанию ID, см. {@link Pages}.
+     */
+    @GetMapping(params = {Pages.LIMIT_PARAM, "!" + NdjsonResponses.STREAM_PARAM})
+    public ResponseEntity<List<User>> getUsersPage(@RequestParam(Pages.LIMIT_PARAM) int limit,
+                                                   @RequestParam(value = Pages.AFTER_PARAM, required = false)
+                                                   String after) {
+        log.debug("Вызван метод получения страницы пользователей: limit={}, after={}", limit, after);
+        Pages.checkLimit(limit);
+        List<User> users = userService.getUserStorage().getUsersAfter(Pages.decodeCursor(after), limit + 1);
+        return Pages.page(users, limit, User::getId);
+    }
+
+    /**
+     * Все пользователи в формате NDJSON, если клиент запросил {@code application/x-ndjson}.
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        log.debug("Вызван метод потоковой выдачи всех пользователей");
+        return NdjsonResponses.stream(objectMapper, userService.getUserStorage()::forEachUser);
+    }
+
+    /**
+     * Все пользователи в формате NDJSON для клиентов, которые не управляют заголовком {@code Accept}.
+     */
+    @GetMapping(params = NdjsonResponses.STREAM_PARAM + "=true")
+    public ResponseEntity<StreamingResponseBody> streamAllUsersByParam() {
+        return streamAllUsers();
     }
 
     @GetMapping("/{id}")
-    public User getUser(@PathVariable long id) {
+    public ResponseEntity<User> getUser(@PathVariable long id) {
         log.debug("Вызван метод получения пользователя с ID: {}", id);
-        return userService.getUserStorage().getUser(id);
+        User user = userService.getUserStorage().getUser(id);
+        return ETags.entity(user, user.getVersion());
     }
 
     @PostMapping
@@ -60,9 +108,50 @@ public class UserController {
         return userService.getAllUserFriends(userID);
     }
 
+    /**
+     * Страница друзей пользователя по возрастанию ID, см. {@link Pages}.
+     */
+    @GetMapping(value = "/{id}/friends", params = Pages.LIMIT_PARAM)
+    public ResponseEntity<List<User>> getUserFriendsPage(@PathVariable("id") Long userID,
+                                                         @RequestParam(Pages.LIMIT_PARAM) int limit,
+                                                         @RequestParam(value = Pages.AFTER_PARAM, required = false)
+                                                         String after) {
+        Pages.checkLimit(limit);
+        List<User> friends = userService.getUserFriendsAfter(userID, Pages.decodeCursor(after), limit + 1);
+        return Pages.page(friends, limit, User::getId);
+    }
+
+    /**
+     * Возможные друзья: друзья друзей по убыванию числа общих друзей.
+     */
+    @GetMapping("/{id}/friends/suggestions")
+    public List<FriendSuggestion> getFriendSuggestions(
+            @PathVariable("id") Long userID,
+            @RequestParam(value = "count", defaultValue = "10") int count) {
+        return userService.getFriendSuggestions(userID, count);
+    }
+
     @GetMapping("/{id}/friends/common/{otherId}")
     public List<User> getCommonFriends(@PathVariable("id") Long firstUserID,
                                       @PathVariable("otherId") Long secondUserID) {
         return userService.getCommonFriends(firstUserID, secondUserID);
     }
-}
\ No newline at end of file
+
+    /**
+     * Кратчайшая цепочка друзей от пользователя {@code id} до {@code otherId}.
+     */
+    @GetMapping("/{id}/path/{otherId}")
+    public List<User> getFriendshipPath(@PathVariable("id") Long fromUserID,
+                                        @PathVariable("otherId") Long toUserID) {
+        return userService.getFriendshipPath(fromUserID, toUserID);
+    }
+
+    /**
+     * Фильмы, которые лайкают пользователи со схожими вкусами, см. {@link FilmService#recommendFilms}.
+     */
+    @GetMapping("/{id}/recommendations")
+    public List<Film> getRecommendations(@PathVariable("id") Long userID,
+                                         @RequestParam(value = "count", defaultValue = "10") int count) {
+        return filmService.recommendFilms(userID, count);
+    }
+}
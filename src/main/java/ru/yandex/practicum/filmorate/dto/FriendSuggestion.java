@@ -0,0 +1,9 @@
+package ru.yandex.practicum.filmorate.dto;
+
+import ru.yandex.practicum.filmorate.model.User;
+
+/**
+ * Возможный друг и число общих друзей с ним.
+ */
+public record FriendSuggestion(User user, int mutualFriends) {
+}
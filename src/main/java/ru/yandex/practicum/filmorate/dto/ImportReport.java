@@ -0,0 +1,25 @@
+package ru.yandex.practicum.filmorate.dto;
+
+import java.util.List;
+
+/**
+ * Итог загрузки {@code /admin/import}.
+ *
+ * @param rows          сколько непустых строк прочитано
+ * @param users         сколько пользователей добавлено
+ * @param films         сколько фильмов добавлено
+ * @param likes         сколько лайков поставлено; повторы и уже стоявшие лайки не считаются
+ * @param friendships   сколько пар стали друзьями; повторы и уже дружившие пары не считаются
+ * @param rejected      сколько строк отклонено
+ * @param errors        первые отклоненные строки с причинами
+ * @param elapsedMillis длительность загрузки
+ * @param rowsPerSecond строк в секунду
+ */
+public record ImportReport(long rows, long users, long films, long likes, long friendships, long rejected,
+                           List<RejectedRow> errors, long elapsedMillis, double rowsPerSecond) {
+    /**
+     * Отклоненная строка: ее номер в файле, считая с единицы, и причина.
+     */
+    public record RejectedRow(long line, String message) {
+    }
+}
@@ -0,0 +1,9 @@
+package ru.yandex.practicum.filmorate.dto;
+
+import ru.yandex.practicum.filmorate.model.Film;
+
+/**
+ * Похожий фильм и оценка доли общих лайков с исходным (коэффициента Жаккара).
+ */
+public record SimilarFilm(Film film, double similarity) {
+}
@@ -0,0 +1,67 @@
+package ru.yandex.practicum.filmorate.dto;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+
+/**
+ * Строка выгрузки {@code /admin/export} и загрузки {@code /admin/import}: сущность или связь,
+ * вид которой записан в поле {@code type}. ID действуют только внутри файла: при загрузке
+ * хранилище выдает сущностям новые ID, и лайки с дружбой переводятся на них.
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+@JsonSubTypes({
+        @JsonSubTypes.Type(value = TransferRecord.UserRecord.class, name = "user"),
+        @JsonSubTypes.Type(value = TransferRecord.FilmRecord.class, name = "film"),
+        @JsonSubTypes.Type(value = TransferRecord.LikeRecord.class, name = "like"),
+        @JsonSubTypes.Type(value = TransferRecord.FriendshipRecord.class, name = "friendship")
+})
+public sealed interface TransferRecord {
+    record UserRecord(Long id, String email, String login, String name, LocalDate birthday)
+            implements TransferRecord {
+        public static UserRecord of(User user) {
+            return new UserRecord(user.getId(), user.getEmail(), user.getLogin(), user.getName(), user.getBirthday());
+        }
+
+        public User toUser() {
+            return User.builder()
+                    .email(email)
+                    .login(login)
+                    .name(name)
+                    .birthday(birthday)
+                    .build();
+        }
+    }
+
+    record FilmRecord(Integer id, String name, String description, LocalDate releaseDate, Integer duration)
+            implements TransferRecord {
+        public static FilmRecord of(Film film) {
+            return new FilmRecord(film.getId(), film.getName(), film.getDescription(), film.getReleaseDate(),
+                    film.getDuration());
+        }
+
+        public Film toFilm() {
+            return Film.builder()
+                    .name(name)
+                    .description(description)
+                    .releaseDate(releaseDate)
+                    .duration(duration)
+                    .build();
+        }
+    }
+
+    /**
+     * Лайк пользователя {@code userId} фильму {@code filmId}.
+     */
+    record LikeRecord(int filmId, long userId) implements TransferRecord {
+    }
+
+    /**
+     * Взаимная дружба; в выгрузке каждая пара встречается один раз.
+     */
+    record FriendshipRecord(long userId, long friendId) implements TransferRecord {
+    }
+}
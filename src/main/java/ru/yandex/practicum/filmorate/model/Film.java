@@ -1,5 +1,6 @@
 package ru.yandex.practicum.filmorate.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -7,13 +8,13 @@ import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import ru.yandex.practicum.filmorate.annotation.MinReleaseDate;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
 import ru.yandex.practicum.filmorate.validation.CreateValidation;
 import ru.yandex.practicum.filmorate.validation.UpdateValidation;
 
 import java.time.LocalDate;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  * Film.
@@ -42,7 +43,15 @@ public class Film {
             groups = {CreateValidation.class, UpdateValidation.class})
     private Integer duration;
 
-    private final Set<Long> filmLikes = new HashSet<>();
+    private final LongHashSet filmLikes = new LongHashSet();
+
+    /**
+     * Версия фильма в хранилище: растет при каждом изменении, включая лайки. Отдается
+     * клиентам в ETag, а не в теле.
+     */
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private volatile long version;
 
     public int getRate() {
         return filmLikes.size();
@@ -1,15 +1,16 @@
 package ru.yandex.practicum.filmorate.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import ru.yandex.practicum.filmorate.util.FriendSet;
 import ru.yandex.practicum.filmorate.validation.CreateValidation;
 import ru.yandex.practicum.filmorate.validation.UpdateValidation;
 
 import java.time.LocalDate;
-import java.util.HashSet;
-import java.util.Set;
 
 @Data
 @Builder
@@ -18,7 +19,7 @@ public class User {
     public static final String LOGIN_PATTERN = "^\\w+$";
     public static final int LOGIN_MIN_LENGTH = 4;
     public static final int LOGIN_MAX_LENGTH = 20;
-    private final Set<Long> userFriends = new HashSet<>();
+    private final FriendSet userFriends = new FriendSet();
 
     @NotNull(groups = UpdateValidation.class, message = "ID пользователя обязателен для обновления")
     private final Long id;
@@ -41,6 +42,14 @@ public class User {
             groups = {CreateValidation.class, UpdateValidation.class})
     private LocalDate birthday;
 
+    /**
+     * Версия пользователя в хранилище: растет при каждом изменении, включая дружбу. Отдается
+     * клиентам в ETag, а не в теле.
+     */
+    @JsonIgnore
+    @EqualsAndHashCode.Exclude
+    private volatile long version;
+
     public String getName() {
         return name == null || name.isBlank() ? login : name;
     }
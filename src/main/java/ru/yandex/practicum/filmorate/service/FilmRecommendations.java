@@ -0,0 +1,87 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.LikeListener;
+import ru.yandex.practicum.filmorate.util.CooccurrenceIndex;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Рекомендации фильмов по лайкам пользователей со схожими вкусами: фильмы, которые чаще
+ * лайкают вместе с уже лайкнутыми пользователем, по {@link CooccurrenceIndex индексу
+ * совместных лайков}. Индекс строится из {@link FilmStorage} при первом запросе в общем
+ * пуле fork-join, дальше его обновляет {@link LikeListener} хранилища в том же порядке,
+ * в котором лайки применены. Лайки, пришедшие во время построения, {@link LazyIndex}
+ * откладывает и применяет к построенному индексу, не задерживая хранилище.
+ */
+@Slf4j
+@Component
+public class FilmRecommendations {
+    private final FilmStorage filmStorage;
+    private final int neighbours;
+    private final LazyIndex<CooccurrenceIndex> index = new LazyIndex<>(this::build);
+
+    public FilmRecommendations(FilmStorage filmStorage) {
+        this(filmStorage, new RecommendationProperties(50));
+    }
+
+    @Autowired
+    public FilmRecommendations(FilmStorage filmStorage, RecommendationProperties properties) {
+        this.filmStorage = filmStorage;
+        this.neighbours = properties.neighbours();
+        filmStorage.addLikeListener(this::likeChanged);
+    }
+
+    /**
+     * ID до {@code count} фильмов, которые пользователь еще не лайкнул, по убыванию
+     * похожести на лайкнутые им.
+     */
+    public List<Integer> recommend(long userId, int count) {
+        return index.get().recommend(userId, count);
+    }
+
+    // Лайк, уже учтенный построением, индекс пропускает: повторная отметка не меняет его
+    private void likeChanged(int filmId, long userId, boolean liked) {
+        if (liked) {
+            index.update(current -> current.add(userId, filmId));
+        } else {
+            index.update(current -> current.remove(userId, filmId));
+        }
+    }
+
+    private CooccurrenceIndex build() {
+        FilmLikes likes = new FilmLikes();
+        filmStorage.forEachFilm(film -> {
+            if (!film.getFilmLikes().isEmpty()) {
+                likes.add(film.getId(), film.getFilmLikes().toLongArray());
+            }
+        });
+        long started = System.nanoTime();
+        CooccurrenceIndex built = CooccurrenceIndex.build(neighbours, Arrays.copyOf(likes.films, likes.size),
+                Arrays.copyOf(likes.users, likes.size), ForkJoinPool.commonPool());
+        log.info("Индекс рекомендаций построен: {} фильмов с лайками за {} мс",
+                likes.size, (System.nanoTime() - started) / 1_000_000);
+        return built;
+    }
+
+    private static final class FilmLikes {
+        private int[] films = new int[1024];
+        private long[][] users = new long[1024][];
+        private int size;
+
+        void add(int film, long[] likedBy) {
+            if (size == films.length) {
+                films = Arrays.copyOf(films, size * 2);
+                users = Arrays.copyOf(users, size * 2);
+            }
+            films[size] = film;
+            users[size] = likedBy;
+            size++;
+        }
+    }
+}
@@ -1,60 +1,295 @@
 package ru.yandex.practicum.filmorate.service;
 
+import lombok.AccessLevel;
 import lombok.Data;
-import lombok.RequiredArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.dto.SimilarFilm;
 import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
 import ru.yandex.practicum.filmorate.exceptions.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.AppliedLikes;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
+import ru.yandex.practicum.filmorate.util.MinHashIndex;
 
-import java.util.Comparator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 @Data
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class FilmService {
+    static final int MAX_RECOMMENDATIONS = 1_000;
+    private static final long[] NO_USERS = new long[0];
 
     private final UserStorage userStorage;
     private final FilmStorage filmStorage;
+    @Getter(AccessLevel.NONE)
+    private final LikeIngestion likeIngestion;
+    @Getter(AccessLevel.NONE)
+    private final TrendingFilms trendingFilms;
+    @Getter(AccessLevel.NONE)
+    private final PopularitySketch popularitySketch;
+    @Getter(AccessLevel.NONE)
+    private final FilmRecommendations recommendations;
+    @Getter(AccessLevel.NONE)
+    private final SimilarFilms similarFilms;
 
-    public void putLike(int filmID, long userID) {
+    public FilmService(UserStorage userStorage, FilmStorage filmStorage) {
+        this(userStorage, filmStorage, null);
+    }
+
+    public FilmService(UserStorage userStorage, FilmStorage filmStorage, @Nullable LikeIngestion likeIngestion) {
+        this(userStorage, filmStorage, likeIngestion, new TrendingFilms(), null);
+    }
+
+    public FilmService(UserStorage userStorage, FilmStorage filmStorage, @Nullable LikeIngestion likeIngestion,
+                       TrendingFilms trendingFilms, @Nullable PopularitySketch popularitySketch) {
+        this(userStorage, filmStorage, likeIngestion, trendingFilms, popularitySketch,
+                new FilmRecommendations(filmStorage), new SimilarFilms(filmStorage));
+    }
+
+    /**
+     * @param likeIngestion    асинхронный прием лайков; без него лайки применяются в потоке запроса
+     * @param trendingFilms    рейтинг по лайкам за скользящие окна
+     * @param popularitySketch приближенный рейтинг популярных фильмов; без него рейтинг точный
+     * @param recommendations  индекс совместных лайков для рекомендаций
+     * @param similarFilms     MinHash-индекс похожих фильмов
+     */
+    @Autowired
+    public FilmService(UserStorage userStorage, FilmStorage filmStorage, @Nullable LikeIngestion likeIngestion,
+                       TrendingFilms trendingFilms, @Nullable PopularitySketch popularitySketch,
+                       FilmRecommendations recommendations, SimilarFilms similarFilms) {
+        this.userStorage = userStorage;
+        this.filmStorage = filmStorage;
+        this.likeIngestion = likeIngestion;
+        this.trendingFilms = trendingFilms;
+        this.popularitySketch = popularitySketch;
+        this.recommendations = recommendations;
+        this.similarFilms = similarFilms;
+        if (likeIngestion != null) {
+            likeIngestion.onApplied(this::likesApplied);
+        }
+    }
+
+    public Film addNewFilm(Film film) {
+        return filmStorage.addNewFilm(film);
+    }
+
+    public Film updateFilm(Film filmUpdate) {
+        return filmStorage.updateFilm(filmUpdate);
+    }
+
+    /**
+     * Массовая загрузка фильмов одной пачкой, без записи в лог каждого.
+     */
+    public List<Film> importFilms(List<Film> films) {
+        return filmStorage.addNewFilms(films);
+    }
+
+    /**
+     * Массовая загрузка лайков: пользователь {@code userIds[i]} лайкает фильм
+     * {@code filmIds[i]} для {@code i < count}. Существование фильмов и пользователей не
+     * проверяется. Лайки одного фильма уходят в хранилище одним вызовом
+     * {@link FilmStorage#applyLikes}, повторы внутри пачки отбрасываются. У загруженных
+     * лайков нет времени, поэтому в рейтинги за окна и по «горячести» они не попадают.
+     * Рекомендации и похожие фильмы узнают о лайках от хранилища, как и при {@link #putLike}.
+     *
+     * @return сколько лайков действительно поставлено
+     */
+    public int importLikes(int[] filmIds, long[] userIds, int count) {
+        // Ключ «фильм, позиция» после сортировки выстраивает лайки каждого фильма подряд
+        long[] order = new long[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = (long) filmIds[i] << 32 | i;
+        }
+        Arrays.sort(order);
+        int liked = 0;
+        int start = 0;
+        while (start < count) {
+            int filmID = (int) (order[start] >>> 32);
+            LongHashSet likedBy = new LongHashSet();
+            int end = start;
+            for (; end < count && (int) (order[end] >>> 32) == filmID; end++) {
+                likedBy.add(userIds[(int) order[end]]);
+            }
+            AppliedLikes applied = filmStorage.applyLikes(filmID, likedBy.toLongArray(), NO_USERS);
+            liked += applied.likedBy().length;
+            for (int i = 0; popularitySketch != null && i < applied.likedBy().length; i++) {
+                popularitySketch.likeAdded(filmID);
+            }
+            start = end;
+        }
+        return liked;
+    }
+
+    /**
+     * Ставит лайк. При асинхронном приеме лайк только ставится в очередь, а повторный
+     * лайк не считается ошибкой и просто пропускается при применении. Рейтинги и индексы
+     * узнают о лайке, только когда он действительно применен к хранилищу.
+     *
+     * @return {@code true}, если лайк уже применен, {@code false} — если принят в очередь
+     */
+    public boolean putLike(int filmID, long userID) {
         validateFilmAndUser(filmID, userID);
-        Film film = filmStorage.getFilm(filmID);
-        Set<Long> filmLikes = film.getFilmLikes();
-        if (filmLikes.contains(userID)) {
+        if (likeIngestion != null) {
+            likeIngestion.submit(filmID, userID, true);
+            return false;
+        }
+        if (!filmStorage.addLike(filmID, userID)) {
             throw new ValidationException("Пользователь с ID " + userID + " уже поставил лайк этому фильму.");
-        } else {
-            filmLikes.add(userID);
-            log.info("Пользователь с ID {} поставил лайк фильму с ID {}.", userID, filmID);
         }
+        likeAdded(filmID);
+        log.info("Пользователь с ID {} поставил лайк фильму с ID {}.", userID, filmID);
+        return true;
     }
 
-    public void deleteLike(int filmID, long userID) {
+    /**
+     * Удаляет лайк; при асинхронном приеме — так же, как {@link #putLike}.
+     *
+     * @return {@code true}, если лайк уже удален, {@code false} — если удаление принято в очередь
+     */
+    public boolean deleteLike(int filmID, long userID) {
         validateFilmAndUser(filmID, userID);
-        Film film = filmStorage.getFilm(filmID);
-        Set<Long> filmLikes = film.getFilmLikes();
-        if (!filmLikes.contains(userID)) {
+        if (likeIngestion != null) {
+            likeIngestion.submit(filmID, userID, false);
+            return false;
+        }
+        if (!filmStorage.deleteLike(filmID, userID)) {
             throw new ValidationException("Пользователь с ID " + userID + " не ставил лайк этому фильму.");
-        } else {
-            filmLikes.remove(userID);
-            log.info("Пользователь с ID {} удалил лайк фильму с ID {}.", userID, filmID);
         }
+        likeRemoved(filmID);
+        log.info("Пользователь с ID {} удалил лайк фильму с ID {}.", userID, filmID);
+        return true;
     }
 
+    /**
+     * Ждет, пока применятся все лайки, принятые в очередь до вызова. Без асинхронного
+     * приема возвращается сразу.
+     */
+    public void awaitLikes() {
+        if (likeIngestion == null) {
+            return;
+        }
+        try {
+            likeIngestion.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Ожидание применения лайков прервано", e);
+        }
+    }
+
+    /**
+     * Самые популярные фильмы: точно по индексу хранилища или, в приближенном режиме,
+     * по {@link PopularitySketch эскизу}.
+     */
     public List<Film> showMostLikedFilms(Integer countToShow) {
-        List<Film> films = filmStorage.getAllFilms();
-        return films.stream()
-                .sorted(Comparator.comparingLong(Film::getRate).reversed())
-                .limit(countToShow)
-                .collect(Collectors.toList());
+        if (popularitySketch != null) {
+            return filmStorage.getFilms(popularitySketch.top(countToShow));
+        }
+        return filmStorage.getPopularFilms(countToShow);
+    }
+
+    /**
+     * Фильмы с наибольшим числом лайков за последнее {@code window}. Рейтинг ведется
+     * по мере прихода лайков, и запрос не обходит каталог.
+     */
+    public List<Film> showTrendingFilms(TrendingWindow window, int countToShow) {
+        return filmStorage.getFilms(trendingFilms.top(window, countToShow));
+    }
+
+    /**
+     * Фильмы по «горячести»: каждый лайк весит тем меньше, чем он старше, и вдвое теряет вес
+     * за {@link TrendingProperties#hotHalfLife период полураспада}. Порядок фильмов от
+     * времени не зависит, поэтому индекс обновляется только лайками, без фонового пересчета.
+     */
+    public List<Film> showHotFilms(int countToShow) {
+        return filmStorage.getFilms(trendingFilms.hottest(countToShow));
+    }
+
+    /**
+     * Рекомендации пользователю: фильмы, которые лайкают вместе с лайкнутыми им, по
+     * {@link FilmRecommendations индексу совместных лайков}. Стоимость запроса ограничена
+     * списками похожих фильмов, а не размером каталога.
+     */
+    public List<Film> recommendFilms(long userID, int countToShow) {
+        if (countToShow <= 0 || countToShow > MAX_RECOMMENDATIONS) {
+            throw new ValidationException("Число рекомендаций должно быть от 1 до " + MAX_RECOMMENDATIONS);
+        }
+        if (userStorage.getUser(userID) == null) {
+            throw new NotFoundException("Пользователь с ID " + userID + " не найден.");
+        }
+        return filmStorage.getFilms(recommendations.recommend(userID, countToShow));
+    }
+
+    /**
+     * Фильмы, которые лайкают те же пользователи, по убыванию оценки доли общих лайков,
+     * см. {@link SimilarFilms}. Сравниваются только фильмы из общих LSH-корзин.
+     */
+    public List<SimilarFilm> showSimilarFilms(int filmID, int countToShow) {
+        if (countToShow <= 0 || countToShow > MAX_RECOMMENDATIONS) {
+            throw new ValidationException("Число похожих фильмов должно быть от 1 до " + MAX_RECOMMENDATIONS);
+        }
+        if (filmStorage.getFilm(filmID) == null) {
+            throw new NotFoundException("Фильм с ID " + filmID + " не найден.");
+        }
+        List<MinHashIndex.Similar> similar = similarFilms.similar(filmID, countToShow);
+        Map<Integer, Film> films = new HashMap<>();
+        filmStorage.getFilms(similar.stream().map(MinHashIndex.Similar::item).toList())
+                .forEach(film -> films.put(film.getId(), film));
+        List<SimilarFilm> result = new ArrayList<>(similar.size());
+        for (MinHashIndex.Similar entry : similar) {
+            Film film = films.get(entry.item());
+            if (film != null) {
+                result.add(new SimilarFilm(film, entry.similarity()));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Версия, после смены которой рейтинг популярных фильмов мог измениться; по ней
+     * кеш ответа {@code /films/popular} узнает, что устарел. В приближенном режиме к версии
+     * каталога прибавляется версия эскиза: оба счетчика только растут, поэтому сумма
+     * меняется при изменении любого из них.
+     */
+    public long popularFilmsVersion() {
+        long version = filmStorage.getFilmsVersion();
+        return popularitySketch != null ? version + popularitySketch.version() : version;
+    }
+
+    // Лайки, примененные писателем асинхронного приема
+    private void likesApplied(AppliedLikes applied, int filmID) {
+        for (int i = 0; i < applied.likedBy().length; i++) {
+            likeAdded(filmID);
+        }
+        for (int i = 0; i < applied.unlikedBy().length; i++) {
+            likeRemoved(filmID);
+        }
+    }
+
+    // Рекомендации и похожие фильмы обновляет слушатель лайков хранилища
+    private void likeAdded(int filmID) {
+        trendingFilms.likeAdded(filmID);
+        if (popularitySketch != null) {
+            popularitySketch.likeAdded(filmID);
+        }
+    }
+
+    private void likeRemoved(int filmID) {
+        trendingFilms.likeRemoved(filmID);
+        if (popularitySketch != null) {
+            popularitySketch.likeRemoved(filmID);
+        }
     }
 
     private void validateFilmAndUser(int filmID, long userID) {
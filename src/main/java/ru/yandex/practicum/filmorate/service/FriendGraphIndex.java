@@ -0,0 +1,482 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.exceptions.ValidationException;
+import ru.yandex.practicum.filmorate.storage.FriendshipListener;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+import ru.yandex.practicum.filmorate.util.FriendGraph;
+
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Граф дружбы пользователей в виде {@link FriendGraph} для запросов по графу: вершина —
+ * ID пользователя. Граф строится из {@link UserStorage} при первом запросе, дальше его
+ * обновляет само хранилище через {@link FriendshipListener}: изменения одной пары
+ * приходят под ее блокировками и в порядке применения, поэтому встречные добавление
+ * и удаление дружбы не оставляют в графе ребра, которого нет в хранилище. Изменения,
+ * пришедшие во время построения, {@link LazyIndex} откладывает и применяет к построенному
+ * графу, не задерживая хранилище.
+ */
+@Slf4j
+@Component
+public class FriendGraphIndex {
+    private static final int[] NO_PATH = new int[0];
+    // Сколько наборов рабочих массивов поиска пути остается между запросами
+    private static final int PATH_SCRATCH_POOL = Runtime.getRuntime().availableProcessors();
+
+    private final UserStorage userStorage;
+    private final BlockingQueue<PathScratch> pathScratch = new ArrayBlockingQueue<>(PATH_SCRATCH_POOL);
+    private final LazyIndex<FriendGraph> graph = new LazyIndex<>(this::build);
+
+    public FriendGraphIndex(UserStorage userStorage) {
+        this.userStorage = userStorage;
+        userStorage.addFriendshipListener(this::friendshipChanged);
+    }
+
+    private void friendshipChanged(long userId, long friendId, boolean friends) {
+        if (friends) {
+            graph.update(current -> current.addEdge(vertex(userId), vertex(friendId)));
+        } else {
+            graph.update(current -> current.removeEdge(vertex(userId), vertex(friendId)));
+        }
+    }
+
+    /**
+     * Друзья друзей пользователя, которые еще не его друзья, по убыванию числа общих друзей,
+     * при равенстве — по возрастанию ID.
+     *
+     * <p>Счетчики общих друзей лежат в {@link VertexMap хеш-таблице} только затронутых
+     * вершин: стоимость запроса и память под него — порядка суммы степеней друзей
+     * пользователя, а не размера графа, и между запросами ничего не удерживается.
+     *
+     * @return пары {@code (ID, число общих друзей)}: ID в четных ячейках, число — в нечетных
+     */
+    public long[] suggestions(long userId, int limit) {
+        FriendGraph current = graph();
+        int user = vertex(userId);
+        int[] bounds = new int[2];
+        int[] friends = current.neighbours(user, bounds);
+        int friendsFrom = bounds[0];
+        int friendsTo = bounds[1];
+
+        // Затронутых вершин не больше суммы степеней и не больше вершин графа: таблица
+        // сразу нужного размера не перестраивается во время подсчета
+        long touched = friendsTo - friendsFrom + 1;
+        for (int i = friendsFrom; i < friendsTo; i++) {
+            current.neighbours(friends[i], bounds);
+            touched += bounds[1] - bounds[0];
+        }
+        VertexMap counts = new VertexMap((int) Math.min(touched, current.vertexLimit() + 1L));
+
+        // Сам пользователь и его друзья помечены отрицательным счетчиком и не предлагаются
+        counts.put(user, -1);
+        for (int i = friendsFrom; i < friendsTo; i++) {
+            counts.put(friends[i], -1);
+        }
+        for (int i = friendsFrom; i < friendsTo; i++) {
+            int[] row = current.neighbours(friends[i], bounds);
+            for (int j = bounds[0]; j < bounds[1]; j++) {
+                counts.increment(row[j]);
+            }
+        }
+        return selectBest(counts, limit);
+    }
+
+    /**
+     * Кратчайшая цепочка друзей между пользователями: двунаправленный поиск в ширину,
+     * который каждый раз расширяет на уровень меньший из фронтов, пока фронты не встретятся.
+     * Так он обходит порядка {@code √N} вершин там, где односторонний обошел бы {@code N}.
+     *
+     * <p>Посещенные вершины отмечаются в битовых множествах, а очереди обходов хранят вместе
+     * с вершиной позицию ее родителя в той же очереди; после запроса обнуляются только слова
+     * множеств с посещенными вершинами. Множества берутся из общего пула, ограниченного
+     * числом процессоров, а не потоков: между запросами удерживается не больше
+     * {@code 2 · N / 8} байт на процессор, и после прогрева запрос выделяет память только
+     * под ответ, даже если каждый запрос идет в новом виртуальном потоке. Запрос сверх
+     * пула получает свои множества и отдает их сборщику мусора.
+     *
+     * @return ID вершин цепочки от {@code fromId} до {@code toId} включительно или пустой
+     * массив, если цепочки нет
+     */
+    public int[] shortestPath(long fromId, long toId) {
+        FriendGraph current = graph();
+        int from = vertex(fromId);
+        int to = vertex(toId);
+        if (from == to) {
+            return new int[]{from};
+        }
+        PathScratch pooled = pathScratch.poll();
+        PathScratch local = pooled != null ? pooled : new PathScratch();
+        int vertexLimit = Math.max(current.vertexLimit(), Math.max(from, to) + 1);
+        Frontier forward = local.forward.start(from, vertexLimit);
+        Frontier backward = local.backward.start(to, vertexLimit);
+        try {
+            while (forward.hasLevel() && backward.hasLevel()) {
+                if (forward.levelSize() <= backward.levelSize()) {
+                    int meeting = forward.expandLevel(current, backward, local.bounds);
+                    if (meeting >= 0) {
+                        return join(forward, meeting, backward, backward.positionOf(forward.vertexAt(meeting)));
+                    }
+                } else {
+                    int meeting = backward.expandLevel(current, forward, local.bounds);
+                    if (meeting >= 0) {
+                        return join(forward, forward.positionOf(backward.vertexAt(meeting)), backward, meeting);
+                    }
+                }
+            }
+            return NO_PATH;
+        } finally {
+            forward.clear();
+            backward.clear();
+            pathScratch.offer(local);
+        }
+    }
+
+    // Склеивает путь от корня прямого обхода до точки встречи и от нее до корня обратного
+    private static int[] join(Frontier forward, int forwardPosition, Frontier backward, int backwardPosition) {
+        int forwardLength = forward.depthOf(forwardPosition);
+        int[] path = new int[forwardLength + backward.depthOf(backwardPosition) - 1];
+        for (int position = forwardPosition, i = forwardLength - 1; position >= 0;
+             position = forward.parentOf(position), i--) {
+            path[i] = forward.vertexAt(position);
+        }
+        for (int position = backward.parentOf(backwardPosition), i = forwardLength; position >= 0;
+             position = backward.parentOf(position), i++) {
+            path[i] = backward.vertexAt(position);
+        }
+        return path;
+    }
+
+    // Лучшие кандидаты по ключу (число общих друзей, обратный ID) в куче минимумов размера limit
+    private static long[] selectBest(VertexMap counts, int limit) {
+        // Кандидатов не больше затронутых вершин, поэтому и куча не больше их
+        long[] heap = new long[Math.max(Math.min(limit, counts.size()), 0)];
+        int size = 0;
+        for (int slot = 0; slot < counts.capacity() && heap.length > 0; slot++) {
+            int vertex = counts.vertexAt(slot);
+            int count = counts.valueAt(slot);
+            if (vertex == VertexMap.FREE || count <= 0) {
+                continue;
+            }
+            long key = ((long) count << 32) | (Integer.MAX_VALUE - vertex);
+            if (size < heap.length) {
+                heap[size] = key;
+                siftUp(heap, size++);
+            } else if (key > heap[0]) {
+                heap[0] = key;
+                siftDown(heap, size);
+            }
+        }
+        long[] sorted = Arrays.copyOf(heap, size);
+        Arrays.sort(sorted);
+        long[] result = new long[size * 2];
+        for (int i = 0; i < size; i++) {
+            long key = sorted[size - 1 - i];
+            result[2 * i] = Integer.MAX_VALUE - (int) key;
+            result[2 * i + 1] = key >>> 32;
+        }
+        return result;
+    }
+
+    private static void siftUp(long[] heap, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (heap[parent] <= heap[index]) {
+                return;
+            }
+            swap(heap, parent, index);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(long[] heap, int size) {
+        int index = 0;
+        while (true) {
+            int smallest = index;
+            int left = 2 * index + 1;
+            int right = left + 1;
+            if (left < size && heap[left] < heap[smallest]) {
+                smallest = left;
+            }
+            if (right < size && heap[right] < heap[smallest]) {
+                smallest = right;
+            }
+            if (smallest == index) {
+                return;
+            }
+            swap(heap, smallest, index);
+            index = smallest;
+        }
+    }
+
+    private static void swap(long[] heap, int first, int second) {
+        long value = heap[first];
+        heap[first] = heap[second];
+        heap[second] = value;
+    }
+
+    /**
+     * Граф, построенный при первом обращении.
+     */
+    public FriendGraph graph() {
+        return graph.get();
+    }
+
+    /**
+     * Строит граф заново из хранилища, если запрос обнаружил, что граф с ним разошелся.
+     * Пока граф строится, изменения дружбы откладываются, как и при первом построении;
+     * запросы, уже получившие старый граф, дорабатывают на нем.
+     */
+    public void rebuild() {
+        graph.rebuild();
+    }
+
+    private FriendGraph build() {
+        EdgeList edges = new EdgeList();
+        userStorage.forEachUser(user -> {
+            int userVertex = vertex(user.getId());
+            user.getUserFriends().forEachLong(friendId -> {
+                if (user.getId() < friendId) {
+                    edges.add(userVertex, vertex(friendId));
+                }
+            });
+        });
+        FriendGraph built = FriendGraph.of(edges.sources, edges.targets, edges.size);
+        log.info("Граф дружбы построен: {} вершин, {} ребер", built.vertexLimit(), edges.size);
+        return built;
+    }
+
+    static int vertex(long userId) {
+        if (userId <= 0 || userId > Integer.MAX_VALUE) {
+            throw new ValidationException("ID пользователя вне диапазона графа дружбы: " + userId);
+        }
+        return (int) userId;
+    }
+
+    private static final class EdgeList {
+        private int[] sources = new int[1024];
+        private int[] targets = new int[1024];
+        private int size;
+
+        void add(int source, int target) {
+            if (size == sources.length) {
+                sources = Arrays.copyOf(sources, size * 2);
+                targets = Arrays.copyOf(targets, size * 2);
+            }
+            sources[size] = source;
+            targets[size] = target;
+            size++;
+        }
+    }
+
+    /**
+     * Отображение вершин в {@code int} с открытой адресацией и линейным пробированием.
+     * Таблица растет вместе с числом записанных вершин, а не с размером графа. Вершины
+     * положительные, поэтому ноль помечает свободную ячейку.
+     */
+    private static final class VertexMap {
+        static final int FREE = 0;
+        private static final float MAX_LOAD = 0.5f;
+
+        private int[] vertices;
+        private int[] values;
+        private int size;
+
+        VertexMap(int expectedSize) {
+            int capacity = 16;
+            while (capacity * MAX_LOAD < expectedSize) {
+                capacity <<= 1;
+            }
+            vertices = new int[capacity];
+            values = new int[capacity];
+        }
+
+        void put(int vertex, int value) {
+            int slot = slotOf(vertex);
+            if (vertices[slot] == FREE) {
+                if (size + 1 > vertices.length * MAX_LOAD) {
+                    grow();
+                    slot = slotOf(vertex);
+                }
+                vertices[slot] = vertex;
+                size++;
+            }
+            values[slot] = value;
+        }
+
+        /**
+         * Увеличивает значение вершины на единицу, начиная с нуля; отрицательные значения
+         * не меняются.
+         */
+        void increment(int vertex) {
+            int slot = slotOf(vertex);
+            if (vertices[slot] == vertex) {
+                if (values[slot] >= 0) {
+                    values[slot]++;
+                }
+            } else {
+                put(vertex, 1);
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        int capacity() {
+            return vertices.length;
+        }
+
+        int vertexAt(int slot) {
+            return vertices[slot];
+        }
+
+        int valueAt(int slot) {
+            return values[slot];
+        }
+
+        // Ячейка с вершиной или первая свободная на ее пути пробирования
+        private int slotOf(int vertex) {
+            int mask = vertices.length - 1;
+            int hash = vertex * 0x9E3779B9;
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (vertices[slot] != vertex && vertices[slot] != FREE) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            int[] oldVertices = vertices;
+            int[] oldValues = values;
+            vertices = new int[oldVertices.length * 2];
+            values = new int[oldVertices.length * 2];
+            for (int slot = 0; slot < oldVertices.length; slot++) {
+                if (oldVertices[slot] != FREE) {
+                    int target = slotOf(oldVertices[slot]);
+                    vertices[target] = oldVertices[slot];
+                    values[target] = oldValues[slot];
+                }
+            }
+        }
+    }
+
+    private static final class PathScratch {
+        private final int[] bounds = new int[2];
+        private final Frontier forward = new Frontier();
+        private final Frontier backward = new Frontier();
+    }
+
+    /**
+     * Одна сторона двунаправленного обхода. Очередь хранит все найденные вершины в порядке
+     * обнаружения, а не только текущий уровень: по ней восстанавливается путь и очищается
+     * битовое множество посещенных.
+     */
+    private static final class Frontier {
+        private long[] visited = new long[0];
+        private int[] vertices = new int[1024];
+        private int[] parents = new int[1024];
+        private int vertexLimit;
+        private int size;
+        private int levelStart;
+
+        Frontier start(int root, int vertexLimit) {
+            int words = (vertexLimit + 63) >>> 6;
+            if (visited.length < words) {
+                visited = new long[Math.max(words, visited.length * 2)];
+            }
+            this.vertexLimit = vertexLimit;
+            levelStart = 0;
+            size = 0;
+            append(root, -1);
+            return this;
+        }
+
+        boolean hasLevel() {
+            return levelStart < size;
+        }
+
+        int levelSize() {
+            return size - levelStart;
+        }
+
+        boolean isVisited(int vertex) {
+            return (visited[vertex >>> 6] & (1L << vertex)) != 0;
+        }
+
+        /**
+         * Добавляет в очередь непосещенных соседей текущего уровня.
+         *
+         * @return позиция первой добавленной вершины, которую уже посетила другая сторона,
+         * или {@code -1}
+         */
+        int expandLevel(FriendGraph graph, Frontier other, int[] bounds) {
+            int levelEnd = size;
+            for (int i = levelStart; i < levelEnd; i++) {
+                int[] row = graph.neighbours(vertices[i], bounds);
+                for (int j = bounds[0]; j < bounds[1]; j++) {
+                    int next = row[j];
+                    // Вершины, появившиеся в графе во время обхода, в него не попадают
+                    if (next >= vertexLimit || isVisited(next)) {
+                        continue;
+                    }
+                    append(next, i);
+                    if (other.isVisited(next)) {
+                        levelStart = levelEnd;
+                        return size - 1;
+                    }
+                }
+            }
+            levelStart = levelEnd;
+            return -1;
+        }
+
+        int vertexAt(int position) {
+            return vertices[position];
+        }
+
+        int parentOf(int position) {
+            return parents[position];
+        }
+
+        int positionOf(int vertex) {
+            for (int i = 0; i < size; i++) {
+                if (vertices[i] == vertex) {
+                    return i;
+                }
+            }
+            throw new IllegalStateException("Вершина " + vertex + " не посещена");
+        }
+
+        // Число вершин на пути от корня до позиции включительно
+        int depthOf(int position) {
+            int depth = 0;
+            for (; position >= 0; position = parents[position]) {
+                depth++;
+            }
+            return depth;
+        }
+
+        void clear() {
+            for (int i = 0; i < size; i++) {
+                visited[vertices[i] >>> 6] = 0;
+            }
+            size = 0;
+            levelStart = 0;
+        }
+
+        private void append(int vertex, int parent) {
+            if (size == vertices.length) {
+                vertices = Arrays.copyOf(vertices, size * 2);
+                parents = Arrays.copyOf(parents, size * 2);
+            }
+            visited[vertex >>> 6] |= 1L << vertex;
+            vertices[size] = vertex;
+            parents[size] = parent;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package ru.yandex.practicum.filmorate.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Индекс, который строится из хранилища при первом запросе, а дальше обновляется
+ * слушателем хранилища. Слушатель вызывается, пока хранилище держит свои блокировки,
+ * поэтому никогда не ждет построения: изменение, пришедшее во время построения,
+ * откладывается и применяется к построенному индексу перед публикацией, а пришедшее
+ * до построения пропускается — построение прочитает хранилище уже после него.
+ *
+ * <p>Построение могло уже учесть отложенное изменение, поэтому изменения должны быть
+ * идемпотентны: повторная отметка или снятие не меняют индекс. Отложенные изменения
+ * применяются в порядке поступления, и изменения одного ключа сходятся к последнему.
+ * Ждут построения только запросы.
+ */
+final class LazyIndex<T> {
+    private final Supplier<T> builder;
+    // Сериализует построения; слушатели ее не берут
+    private final ReentrantLock buildLock = new ReentrantLock();
+    // Короткая блокировка смены состояния, на время построения не удерживается
+    private final ReentrantLock stateLock = new ReentrantLock();
+    private volatile T index;
+    // Изменения, пришедшие во время построения; null, если индекс не строится
+    private List<Consumer<T>> pending;
+
+    LazyIndex(Supplier<T> builder) {
+        this.builder = builder;
+    }
+
+    /**
+     * Индекс, построенный при первом обращении.
+     */
+    T get() {
+        T current = index;
+        if (current != null) {
+            return current;
+        }
+        buildLock.lock();
+        try {
+            current = index;
+            return current != null ? current : build();
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    /**
+     * Строит индекс заново. Запросы, уже получившие старый индекс, дорабатывают на нем.
+     */
+    void rebuild() {
+        buildLock.lock();
+        try {
+            build();
+        } finally {
+            buildLock.unlock();
+        }
+    }
+
+    /**
+     * Применяет изменение к построенному индексу, откладывает его, пока индекс строится,
+     * или пропускает, если индекса еще нет.
+     */
+    void update(Consumer<T> change) {
+        T current = index;
+        if (current == null) {
+            stateLock.lock();
+            try {
+                current = index;
+                if (current == null) {
+                    if (pending != null) {
+                        pending.add(change);
+                    }
+                    return;
+                }
+            } finally {
+                stateLock.unlock();
+            }
+        }
+        change.accept(current);
+    }
+
+    // Вызывается под buildLock
+    private T build() {
+        stateLock.lock();
+        try {
+            index = null;
+            pending = new ArrayList<>();
+        } finally {
+            stateLock.unlock();
+        }
+        try {
+            T built = builder.get();
+            // Отложенные изменения применяются без блокировки, пока новые снова откладываются;
+            // индекс публикуется, когда очередь опустела
+            while (true) {
+                List<Consumer<T>> batch;
+                stateLock.lock();
+                try {
+                    if (pending.isEmpty()) {
+                        index = built;
+                        pending = null;
+                        return built;
+                    }
+                    batch = pending;
+                    pending = new ArrayList<>();
+                } finally {
+                    stateLock.unlock();
+                }
+                batch.forEach(change -> change.accept(built));
+            }
+        } catch (RuntimeException | Error e) {
+            stateLock.lock();
+            try {
+                pending = null;
+            } finally {
+                stateLock.unlock();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.yandex.practicum.filmorate.storage.AppliedLikes;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.util.IntLongRingBuffer;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Асинхронный прием лайков.
+ *
+ * <p>{@link #submit} только кладет лайк в {@link IntLongRingBuffer очередь без блокировок}.
+ * Единственный поток-писатель забирает накопившееся пачкой, сворачивает ее по фильмам
+ * (для каждой пары фильм — пользователь важна только последняя операция) и применяет
+ * каждый фильм одним вызовом {@link FilmStorage#applyLikes}: одна блокировка, одно
+ * перемещение в индексе популярности и одна новая версия на фильм вместо каждого лайка.
+ * О том, какие лайки действительно изменились, писатель сообщает {@link #onApplied слушателю}.
+ *
+ * <p>{@link #await()} дает чтение своих записей: ждет, пока применятся все лайки,
+ * принятые до вызова.
+ */
+@Slf4j
+public class LikeIngestion implements AutoCloseable {
+    private static final long FULL_QUEUE_WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final FilmStorage filmStorage;
+    private final LikeIngestionProperties properties;
+    private final IntLongRingBuffer queue;
+    private final ReentrantLock appliedLock = new ReentrantLock();
+    private final Condition appliedChanged = appliedLock.newCondition();
+    private volatile long applied;
+    private volatile boolean running;
+    private volatile boolean stopped;
+    private volatile ObjIntConsumer<AppliedLikes> appliedListener = (applied, filmId) -> { };
+    private Thread writer;
+
+    public LikeIngestion(FilmStorage filmStorage, LikeIngestionProperties properties) {
+        this.filmStorage = filmStorage;
+        this.properties = properties;
+        this.queue = new IntLongRingBuffer(properties.queueCapacity());
+    }
+
+    public void start() {
+        running = true;
+        writer = Thread.ofPlatform()
+                .name("like-ingestion-writer")
+                .daemon()
+                .start(this::writeLoop);
+    }
+
+    /**
+     * Задает слушателя примененных лайков. Он вызывается в потоке-писателе после каждого
+     * {@link FilmStorage#applyLikes}, изменившего хотя бы один лайк, и до того, как
+     * {@link #await()} сочтет эти лайки примененными.
+     */
+    public void onApplied(ObjIntConsumer<AppliedLikes> listener) {
+        this.appliedListener = listener;
+    }
+
+    /**
+     * Принимает лайк ({@code liked}) или его снятие в очередь. Если очередь заполнена,
+     * ждет, пока писатель ее разберет.
+     */
+    public void submit(int filmId, long userId, boolean liked) {
+        // ID фильмов положительные, поэтому операция кодируется знаком ключа
+        int key = liked ? filmId : ~filmId;
+        while (true) {
+            if (!running) {
+                throw new IllegalStateException("Прием лайков остановлен");
+            }
+            if (queue.offer(key, userId) >= 0) {
+                return;
+            }
+            LockSupport.parkNanos(FULL_QUEUE_WAIT_NANOS);
+        }
+    }
+
+    /**
+     * Блокирует вызывающего, пока не применятся все лайки, принятые до вызова.
+     */
+    public void await() throws InterruptedException {
+        long target = queue.offered();
+        appliedLock.lock();
+        try {
+            while (applied < target) {
+                if (stopped && applied < target) {
+                    throw new IllegalStateException("Прием лайков остановлен");
+                }
+                appliedChanged.await(properties.idleWait().toNanos(), TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            appliedLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void writeLoop() {
+        int batchSize = properties.batchSize();
+        long idleNanos = properties.idleWait().toNanos();
+        Map<Integer, FilmLikes> batch = new HashMap<>();
+        IntLongRingBuffer.IntLongConsumer collector = (key, userId) -> {
+            boolean liked = key >= 0;
+            batch.computeIfAbsent(liked ? key : ~key, filmId -> new FilmLikes()).put(userId, liked);
+        };
+
+        while (running || queue.drained() < queue.offered()) {
+            int drained = queue.drain(collector, batchSize);
+            if (drained == 0) {
+                LockSupport.parkNanos(idleNanos);
+                continue;
+            }
+            batch.forEach(this::apply);
+            batch.clear();
+            markApplied(queue.drained());
+        }
+        stopped = true;
+        markApplied(queue.drained());
+    }
+
+    private void apply(int filmId, FilmLikes likes) {
+        try {
+            AppliedLikes applied = filmStorage.applyLikes(filmId, likes.likedBy.toLongArray(),
+                    likes.unlikedBy.toLongArray());
+            if (!applied.isEmpty()) {
+                appliedListener.accept(applied, filmId);
+            }
+        } catch (RuntimeException e) {
+            log.error("Не удалось применить {} изменений лайков фильма с ID {}",
+                    likes.likedBy.size() + likes.unlikedBy.size(), filmId, e);
+        }
+    }
+
+    private void markApplied(long position) {
+        appliedLock.lock();
+        try {
+            applied = position;
+            appliedChanged.signalAll();
+        } finally {
+            appliedLock.unlock();
+        }
+    }
+
+    /**
+     * Итог пачки для одного фильма: пользователь попадает ровно в одно из множеств.
+     */
+    private static final class FilmLikes {
+        private final LongHashSet likedBy = new LongHashSet();
+        private final LongHashSet unlikedBy = new LongHashSet();
+
+        void put(long userId, boolean liked) {
+            if (liked) {
+                unlikedBy.remove(userId);
+                likedBy.add(userId);
+            } else {
+                likedBy.remove(userId);
+                unlikedBy.add(userId);
+            }
+        }
+    }
+}
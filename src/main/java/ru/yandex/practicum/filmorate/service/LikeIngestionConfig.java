@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+
+@Configuration
+public class LikeIngestionConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "filmorate.likes", name = "async", havingValue = "true")
+    public LikeIngestion likeIngestion(FilmStorage filmStorage, LikeIngestionProperties properties) {
+        LikeIngestion likeIngestion = new LikeIngestion(filmStorage, properties);
+        likeIngestion.start();
+        return likeIngestion;
+    }
+}
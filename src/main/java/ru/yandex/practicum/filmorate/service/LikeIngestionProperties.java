@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Настройки приема лайков.
+ *
+ * @param async         принимать лайки в очередь и применять их пачками в отдельном потоке;
+ *                      запросы тогда получают 202 до применения лайка
+ * @param queueCapacity размер очереди лайков; при переполнении запросы ждут писателя
+ * @param batchSize     сколько лайков писатель забирает из очереди за одну пачку
+ * @param idleWait      сколько писатель спит, когда очередь пуста
+ */
+@ConfigurationProperties("filmorate.likes")
+public record LikeIngestionProperties(
+        @DefaultValue("false") boolean async,
+        @DefaultValue("65536") int queueCapacity,
+        @DefaultValue("8192") int batchSize,
+        @DefaultValue("1ms") Duration idleWait) {
+}
@@ -0,0 +1,23 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Настройки рейтинга популярных фильмов.
+ *
+ * @param mode        {@code exact} — точный рейтинг по индексу хранилища, {@code approximate} —
+ *                    приближенный по {@link PopularitySketch эскизу} в памяти фиксированного размера
+ * @param sketchWidth ширина Count-Min Sketch; ошибка оценки не больше {@code e / width} от всех лайков
+ * @param sketchDepth глубина Count-Min Sketch; граница ошибки нарушается с вероятностью {@code e^(−depth)}
+ * @param candidates  сколько самых популярных фильмов отслеживается; больше популярный список не вернет
+ * @param seed        зерно хеш-функций; у эскизов, которые объединяются между шардами, оно общее
+ */
+@ConfigurationProperties("filmorate.popularity")
+public record PopularityProperties(
+        @DefaultValue("exact") String mode,
+        @DefaultValue("4096") int sketchWidth,
+        @DefaultValue("5") int sketchDepth,
+        @DefaultValue("1024") int candidates,
+        @DefaultValue("42") long seed) {
+}
@@ -0,0 +1,81 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.util.HeavyHitters;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Приближенный рейтинг популярных фильмов для режима {@code filmorate.popularity.mode=approximate}:
+ * частоты лайков в {@link HeavyHitters} фиксированного размера вместо точного индекса.
+ *
+ * <p>При старте эскиз заполняется текущими счетами лайков из хранилища, дальше его
+ * обновляют лайки, проходящие через {@link FilmService}.
+ *
+ * <p>Лайк попадает в эскиз уже после того, как хранилище сменило версию каталога, поэтому
+ * у эскиза своя {@link #version() версия}: ответ, построенный между этими шагами, по
+ * одной версии каталога не отличить от актуального.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "filmorate.popularity", name = "mode", havingValue = "approximate")
+public class PopularitySketch {
+    private final HeavyHitters heavyHitters;
+    private final AtomicLong version = new AtomicLong();
+
+    @Autowired
+    public PopularitySketch(PopularityProperties properties, FilmStorage filmStorage) {
+        this(properties);
+        filmStorage.forEachFilm(film -> heavyHitters.add(film.getId(), film.getRate()));
+        log.info("Эскиз популярности заполнен лайками из хранилища: {}", heavyHitters.total());
+    }
+
+    public PopularitySketch(PopularityProperties properties) {
+        this.heavyHitters = new HeavyHitters(properties.sketchWidth(), properties.sketchDepth(),
+                properties.candidates(), properties.seed());
+    }
+
+    public void likeAdded(int filmId) {
+        heavyHitters.add(filmId, 1);
+        version.incrementAndGet();
+    }
+
+    public void likeRemoved(int filmId) {
+        heavyHitters.add(filmId, -1);
+        version.incrementAndGet();
+    }
+
+    /**
+     * ID до {@code count} фильмов с наибольшей оценкой числа лайков.
+     */
+    public List<Integer> top(int count) {
+        return heavyHitters.top(count);
+    }
+
+    /**
+     * Оценка числа лайков фильма сверху.
+     */
+    public long estimate(int filmId) {
+        return heavyHitters.estimate(filmId);
+    }
+
+    /**
+     * Добавляет лайки, посчитанные эскизом другого шарда с теми же настройками.
+     */
+    public void merge(PopularitySketch other) {
+        heavyHitters.merge(other.heavyHitters);
+        version.incrementAndGet();
+    }
+
+    /**
+     * Число изменений эскиза; растет после каждого изменения.
+     */
+    public long version() {
+        return version.get();
+    }
+}
@@ -0,0 +1,117 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import ru.yandex.practicum.filmorate.dto.SimilarFilm;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.List;
+
+/**
+ * Неблокирующая обёртка над {@link FilmService} для реактивных контроллеров.
+ * Вызовы хранилища выполняются на {@link ReactiveSchedulerConfig#storageScheduler планировщике хранилища},
+ * а лайки с ожиданием применения — всегда в ограниченном эластичном пуле, какой бы
+ * планировщик хранилища ни подставили.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveFilmService {
+    private final FilmService filmService;
+    private final Scheduler storageScheduler;
+
+    /**
+     * Все фильмы по возрастанию ID, страницами по мере спроса, см. {@link StoragePages}.
+     */
+    public Flux<Film> getAllFilms() {
+        return StoragePages.stream((afterId, limit) -> filmService.getFilmStorage()
+                        .getFilmsAfter((int) afterId, limit), Film::getId)
+                .subscribeOn(storageScheduler);
+    }
+
+    public Mono<Long> getFilmsVersion() {
+        return Mono.fromCallable(() -> filmService.getFilmStorage().getFilmsVersion())
+                .subscribeOn(storageScheduler);
+    }
+
+    public Mono<List<Film>> getFilmsAfter(int afterId, int limit) {
+        return Mono.fromCallable(() -> filmService.getFilmStorage().getFilmsAfter(afterId, limit))
+                .subscribeOn(storageScheduler);
+    }
+
+    public Mono<Film> getFilm(int id) {
+        return Mono.fromCallable(() -> filmService.getFilmStorage().getFilm(id))
+                .subscribeOn(storageScheduler);
+    }
+
+    public Mono<Film> addNewFilm(Film film) {
+        return Mono.fromCallable(() -> filmService.addNewFilm(film))
+                .subscribeOn(storageScheduler);
+    }
+
+    public Mono<Film> updateFilm(Film filmUpdate) {
+        return Mono.fromCallable(() -> filmService.updateFilm(filmUpdate))
+                .subscribeOn(storageScheduler);
+    }
+
+    /**
+     * @return {@code true}, если лайк уже применен, {@code false} — если принят в очередь,
+     *         см. {@link FilmService#putLike}
+     */
+    public Mono<Boolean> putLike(int filmID, long userID, boolean wait) {
+        return Mono.fromCallable(() -> applyOrWait(filmService.putLike(filmID, userID), wait))
+                .subscribeOn(likeScheduler(wait));
+    }
+
+    public Mono<Boolean> deleteLike(int filmID, long userID, boolean wait) {
+        return Mono.fromCallable(() -> applyOrWait(filmService.deleteLike(filmID, userID), wait))
+                .subscribeOn(likeScheduler(wait));
+    }
+
+    public Flux<Film> recommendFilms(long userID, int countToShow) {
+        return Mono.fromCallable(() -> filmService.recommendFilms(userID, countToShow))
+                .flatMapIterable(films -> films)
+                .subscribeOn(storageScheduler);
+    }
+
+    public Flux<SimilarFilm> showSimilarFilms(int filmID, int countToShow) {
+        return Mono.fromCallable(() -> filmService.showSimilarFilms(filmID, countToShow))
+                .flatMapIterable(films -> films)
+                .subscribeOn(storageScheduler);
+    }
+
+    public Flux<Film> showMostLikedFilms(int countToShow) {
+        return Mono.fromCallable(() -> filmService.showMostLikedFilms(countToShow))
+                .flatMapIterable(films -> films)
+                .subscribeOn(storageScheduler);
+    }
+
+    public Flux<Film> showHotFilms(int countToShow) {
+        return Mono.fromCallable(() -> filmService.showHotFilms(countToShow))
+                .flatMapIterable(films -> films)
+                .subscribeOn(storageScheduler);
+    }
+
+    public Flux<Film> showTrendingFilms(TrendingWindow window, int countToShow) {
+        return Mono.fromCallable(() -> filmService.showTrendingFilms(window, countToShow))
+                .flatMapIterable(films -> films)
+                .subscribeOn(storageScheduler);
+    }
+
+    private Scheduler likeScheduler(boolean wait) {
+        return wait ? Schedulers.boundedElastic() : storageScheduler;
+    }
+
+    private boolean applyOrWait(boolean applied, boolean wait) {
+        if (!applied && wait) {
+            filmService.awaitLikes();
+            return true;
+        }
+        return applied;
+    }
+}
@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSchedulerConfig {
+    // Столько же потоков на процессор дает Schedulers.boundedElastic()
+    private static final int THREADS_PER_CPU = 10;
+
+    /**
+     * Планировщик для вызовов хранилища — отдельный ограниченный пул при любом хранилище.
+     * Даже в памяти без журнала вызовы берут блокировки, которые держат параллельные
+     * изменения, а обход коллекций и сборка популярных фильмов стоят O(N): в потоке цикла
+     * событий они остановили бы все остальные соединения этого потока.
+     *
+     * <p>Пул свой, а не {@link Schedulers#boundedElastic()}: тот при отмене подписки прерывает
+     * поток задачи, а WebFlux пишет ответ в том же потоке сразу после получения значения,
+     * и Tomcat, увидев флаг прерывания, закрывает соединение. Планировщик поверх
+     * {@link java.util.concurrent.Executor} отменяет задачу без прерывания; пул передается
+     * ссылкой на {@code execute}, потому что {@code ExecutorService} Reactor снова обернул бы
+     * в планировщик с прерыванием.
+     */
+    @Bean
+    public Scheduler storageScheduler(ExecutorService storageExecutor) {
+        return Schedulers.fromExecutor(storageExecutor::execute);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService storageExecutor() {
+        int threads = THREADS_PER_CPU * Runtime.getRuntime().availableProcessors();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), Thread.ofPlatform().name("storage-", 0).daemon(true).factory());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
@@ -0,0 +1,98 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import ru.yandex.practicum.filmorate.dto.FriendSuggestion;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.List;
+
+/**
+ * Неблокирующая обёртка над {@link UserService} для реактивных контроллеров.
+ * Вызовы хранилища выполняются на {@link ReactiveSchedulerConfig#storageScheduler планировщике хранилища}.
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveUserService {
+    private final UserService userService;
+    private final Scheduler storageScheduler;
+
+    /**
+     * Все пользователи по возрастанию ID, страницами по мере спроса, см. {@link StoragePages}.
+     */
+    public Flux<User> getAllUsers() {
+        return StoragePages.stream(userService.getUserStorage()::getUsersAfter, User::getId)
+                .subscribeOn(storageScheduler);
+    }
+
+    public Mono<Long> getUsersVersion() {
+        return Mono.fromCallable(() -> userService.getUserStorage().getUsersVersion())
+                .subscribeOn(storageScheduler);
+    }
+
+    public Mono<List<User>> getUsersAfter(long afterId, int limit) {
+        return Mono.fromCallable(() -> userService.getUserStorage().getUsersAfter(afterId, limit))
+                .subscribeOn(storageScheduler);
+    }
+
+    public Mono<User> getUser(long id) {
+        return Mono.fromCallable(() -> userService.getUserStorage().getUser(id))
+                .subscribeOn(storageScheduler);
+    }
+
+    public Mono<User> addNewUser(User user) {
+        return Mono.fromCallable(() -> userService.getUserStorage().addNewUser(user))
+                .subscribeOn(storageScheduler);
+    }
+
+    public Mono<User> updateUser(User userUpdate) {
+        return Mono.fromCallable(() -> userService.getUserStorage().updateUser(userUpdate))
+                .subscribeOn(storageScheduler);
+    }
+
+    public Mono<Void> addFriend(Long userID, Long friendID) {
+        return Mono.fromRunnable(() -> userService.addFriend(userID, friendID))
+                .subscribeOn(storageScheduler)
+                .then();
+    }
+
+    public Mono<Void> deleteFriend(Long userID, Long friendID) {
+        return Mono.fromRunnable(() -> userService.deleteFriend(userID, friendID))
+                .subscribeOn(storageScheduler)
+                .then();
+    }
+
+    public Flux<User> getAllUserFriends(Long userID) {
+        return Mono.fromCallable(() -> userService.getAllUserFriends(userID))
+                .flatMapIterable(users -> users)
+                .subscribeOn(storageScheduler);
+    }
+
+    public Mono<List<User>> getUserFriendsAfter(Long userID, long afterId, int limit) {
+        return Mono.fromCallable(() -> userService.getUserFriendsAfter(userID, afterId, limit))
+                .subscribeOn(storageScheduler);
+    }
+
+    public Flux<User> getCommonFriends(Long firstUserID, Long secondUserID) {
+        return Mono.fromCallable(() -> userService.getCommonFriends(firstUserID, secondUserID))
+                .flatMapIterable(users -> users)
+                .subscribeOn(storageScheduler);
+    }
+
+    public Flux<FriendSuggestion> getFriendSuggestions(Long userID, int limit) {
+        return Mono.fromCallable(() -> userService.getFriendSuggestions(userID, limit))
+                .flatMapIterable(suggestions -> suggestions)
+                .subscribeOn(storageScheduler);
+    }
+
+    public Flux<User> getFriendshipPath(Long fromUserID, Long toUserID) {
+        return Mono.fromCallable(() -> userService.getFriendshipPath(fromUserID, toUserID))
+                .flatMapIterable(users -> users)
+                .subscribeOn(storageScheduler);
+    }
+}
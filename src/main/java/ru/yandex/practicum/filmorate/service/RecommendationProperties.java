@@ -0,0 +1,14 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Настройки рекомендаций фильмов.
+ *
+ * @param neighbours сколько самых похожих фильмов хранить у каждого фильма; рекомендация
+ *                   для пользователя стоит O(число его лайков · neighbours)
+ */
+@ConfigurationProperties("filmorate.recommendations")
+public record RecommendationProperties(@DefaultValue("50") int neighbours) {
+}
@@ -0,0 +1,77 @@
+package ru.yandex.practicum.filmorate.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.LikeListener;
+import ru.yandex.practicum.filmorate.util.MinHashIndex;
+
+import java.util.List;
+
+/**
+ * Похожие фильмы по доле общих лайков: MinHash-подписи множеств лайков фильмов
+ * в {@link MinHashIndex} с LSH-корзинами. Индекс строится из {@link FilmStorage} при первом
+ * запросе, дальше подписи обновляет {@link LikeListener} хранилища: изменения лайков
+ * одного фильма приходят по одному и в том порядке, в котором применены. Лайки, пришедшие
+ * во время построения, {@link LazyIndex} откладывает и применяет к построенному индексу,
+ * не задерживая хранилище.
+ */
+@Slf4j
+@Component
+public class SimilarFilms {
+    private final FilmStorage filmStorage;
+    private final SimilarityProperties properties;
+    private final LazyIndex<MinHashIndex> index = new LazyIndex<>(this::build);
+
+    public SimilarFilms(FilmStorage filmStorage) {
+        this(filmStorage, new SimilarityProperties(64, 2, 42));
+    }
+
+    @Autowired
+    public SimilarFilms(FilmStorage filmStorage, SimilarityProperties properties) {
+        this.filmStorage = filmStorage;
+        this.properties = properties;
+        filmStorage.addLikeListener(this::likeChanged);
+    }
+
+    /**
+     * До {@code count} фильмов с наибольшей оценкой доли общих лайков с фильмом.
+     */
+    public List<MinHashIndex.Similar> similar(int filmId, int count) {
+        return index.get().similar(filmId, count);
+    }
+
+    /**
+     * Добавляет лайк в подпись или снимает его. Если снятый пользователь задавал в подписи
+     * минимум, она пересчитывается по лайкам фильма из хранилища: слушатель вызывается,
+     * пока изменения фильма сериализованы, и хранилище уже применило снятие. Отложенное
+     * на время построения снятие читает лайки позже, но следующие за ним изменения фильма
+     * тоже отложены и применятся поверх.
+     */
+    private void likeChanged(int filmId, long userId, boolean liked) {
+        if (liked) {
+            index.update(current -> current.add(filmId, userId));
+        } else {
+            index.update(current -> {
+                if (!current.remove(filmId, userId)) {
+                    current.set(filmId, filmStorage.getLikes(filmId));
+                }
+            });
+        }
+    }
+
+    private MinHashIndex build() {
+        MinHashIndex built = new MinHashIndex(properties.bands(), properties.rows(), properties.seed());
+        int[] films = {0};
+        filmStorage.forEachFilm(film -> {
+            if (!film.getFilmLikes().isEmpty()) {
+                built.set(film.getId(), film.getFilmLikes().toLongArray());
+                films[0]++;
+            }
+        });
+        log.info("Индекс похожих фильмов построен: {} фильмов с лайками, подпись из {} хешей",
+                films[0], built.signatureLength());
+        return built;
+    }
+}
@@ -0,0 +1,20 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Настройки поиска похожих фильмов по MinHash и LSH. Подпись фильма занимает
+ * {@code bands · rows} чисел {@code int}; фильмы с долей общих лайков {@code s} сравниваются
+ * с вероятностью {@code 1 − (1 − s^rows)^bands}.
+ *
+ * @param bands число полос LSH; больше — выше полнота и больше кандидатов на запрос
+ * @param rows  позиций в полосе; больше — меньше случайных кандидатов и ниже полнота
+ * @param seed  зерно хеш-функций подписей
+ */
+@ConfigurationProperties("filmorate.similar")
+public record SimilarityProperties(
+        @DefaultValue("64") int bands,
+        @DefaultValue("2") int rows,
+        @DefaultValue("42") long seed) {
+}
@@ -0,0 +1,39 @@
+package ru.yandex.practicum.filmorate.service;
+
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Поток всех записей коллекции, который читает хранилище страницами по возрастанию ID
+ * по мере спроса подписчика: следующая страница запрашивается, только когда предыдущая
+ * отдана. Памяти нужно на одну страницу, а не на копию коллекции, и поток планировщика
+ * не ждет медленного клиента между страницами. Снимка коллекции поток не дает: записи,
+ * добавленные во время чтения, попадают в него, если их ID больше уже прочитанных.
+ */
+final class StoragePages {
+    static final int PAGE_SIZE = 256;
+
+    private StoragePages() {
+    }
+
+    interface PageReader<T> {
+        List<T> after(long afterId, int limit);
+    }
+
+    static <T> Flux<T> stream(PageReader<T> reader, ToLongFunction<? super T> id) {
+        return Flux.<List<T>, Long>generate(() -> 0L, (afterId, sink) -> {
+                    List<T> page = reader.after(afterId, PAGE_SIZE);
+                    if (!page.isEmpty()) {
+                        sink.next(page);
+                    }
+                    if (page.size() < PAGE_SIZE) {
+                        sink.complete();
+                        return afterId;
+                    }
+                    return id.applyAsLong(page.getLast());
+                })
+                .flatMapIterable(page -> page, 1);
+    }
+}
@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * Настройки массовой выгрузки и загрузки данных.
+ *
+ * @param batchSize сколько строк загрузка разбирает и проверяет параллельно и отправляет
+ *                  в хранилище одной пачкой; от него зависит память на загрузку
+ * @param maxErrors сколько отклоненных строк перечислить в отчете о загрузке; остальные
+ *                  только считаются
+ */
+@ConfigurationProperties("filmorate.transfer")
+public record TransferProperties(@DefaultValue("4096") int batchSize, @DefaultValue("100") int maxErrors) {
+}
@@ -0,0 +1,343 @@
+package ru.yandex.practicum.filmorate.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.dto.ImportReport;
+import ru.yandex.practicum.filmorate.dto.ImportReport.RejectedRow;
+import ru.yandex.practicum.filmorate.dto.TransferRecord;
+import ru.yandex.practicum.filmorate.dto.TransferRecord.FilmRecord;
+import ru.yandex.practicum.filmorate.dto.TransferRecord.FriendshipRecord;
+import ru.yandex.practicum.filmorate.dto.TransferRecord.LikeRecord;
+import ru.yandex.practicum.filmorate.dto.TransferRecord.UserRecord;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.validation.CreateValidation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Массовая выгрузка и загрузка всех данных построчно, по одной {@link TransferRecord записи}
+ * в строке.
+ *
+ * <p>Выгрузка обходит хранилища, не собирая сущности в списки: сначала пользователи, потом
+ * фильмы, каждый со своими лайками, потом дружба. Так каждая связь идет после сущностей,
+ * на которые ссылается, и загрузка успевает выдать им новые ID.
+ *
+ * <p>Загрузка читает строки пачками по {@link TransferProperties#batchSize}. Пачка
+ * разбирается и проверяется параллельно, а в хранилище уходит одним вызовом на каждый вид
+ * записей: сначала сущности, затем связи, поэтому связь может ссылаться на сущность из своей
+ * же пачки. Сущности не пишутся в лог по одной и не ищутся в хранилище перед добавлением
+ * связей: ссылки проверяются по таблице соответствия ID из файла новым ID. Ошибочные строки
+ * отклоняются по одной и не прерывают загрузку. Память на загрузку ограничена пачкой
+ * и этой таблицей — по два {@code long} на сущность с ID.
+ */
+@Service
+@Slf4j
+public class TransferService {
+    private final FilmService filmService;
+    private final UserService userService;
+    private final Validator validator;
+    private final ObjectReader recordReader;
+    private final TransferProperties properties;
+
+    public TransferService(FilmService filmService, UserService userService, Validator validator,
+                           ObjectMapper objectMapper, TransferProperties properties) {
+        this.filmService = filmService;
+        this.userService = userService;
+        this.validator = validator;
+        this.recordReader = objectMapper.readerFor(TransferRecord.class);
+        this.properties = properties;
+    }
+
+    /**
+     * Передает все данные в {@code sink} по одной записи. Записи, измененные во время
+     * выгрузки, могут как попасть в нее, так и нет.
+     */
+    public void exportRecords(Consumer<? super TransferRecord> sink) {
+        long started = System.nanoTime();
+        long[] rows = new long[1];
+        Consumer<TransferRecord> counted = record -> {
+            sink.accept(record);
+            rows[0]++;
+        };
+        userService.getUserStorage().forEachUser(user -> counted.accept(UserRecord.of(user)));
+        filmService.getFilmStorage().forEachFilm(film -> {
+            counted.accept(FilmRecord.of(film));
+            film.getFilmLikes().forEachLong(userId -> counted.accept(new LikeRecord(film.getId(), userId)));
+        });
+        userService.getUserStorage().forEachUser(user -> user.getUserFriends().forEachLong(friendId -> {
+            if (friendId > user.getId()) {
+                counted.accept(new FriendshipRecord(user.getId(), friendId));
+            }
+        }));
+        long elapsed = System.nanoTime() - started;
+        log.info("Выгружено {} строк за {} мс ({} строк/с)", rows[0], TimeUnit.NANOSECONDS.toMillis(elapsed),
+                Math.round(rowsPerSecond(rows[0], elapsed)));
+    }
+
+    /**
+     * Загружает записи из {@code reader} до конца потока; пустые строки пропускаются.
+     */
+    public ImportReport importRecords(BufferedReader reader) throws IOException {
+        long started = System.nanoTime();
+        Progress progress = new Progress(properties.maxErrors());
+        String[] lines = new String[properties.batchSize()];
+        long[] lineNumbers = new long[lines.length];
+        int size = 0;
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            lines[size] = line;
+            lineNumbers[size++] = lineNumber;
+            if (size == lines.length) {
+                importBatch(lines, lineNumbers, size, progress);
+                size = 0;
+            }
+        }
+        importBatch(lines, lineNumbers, size, progress);
+
+        long elapsed = System.nanoTime() - started;
+        ImportReport report = new ImportReport(progress.rows, progress.users, progress.films, progress.likes,
+                progress.friendships, progress.rejected, progress.errors, TimeUnit.NANOSECONDS.toMillis(elapsed),
+                rowsPerSecond(progress.rows, elapsed));
+        log.info("Загружено {} строк за {} мс ({} строк/с): пользователей {}, фильмов {}, лайков {}, "
+                        + "дружб {}, отклонено строк {}", report.rows(), report.elapsedMillis(),
+                Math.round(report.rowsPerSecond()), report.users(), report.films(), report.likes(),
+                report.friendships(), report.rejected());
+        return report;
+    }
+
+    private void importBatch(String[] lines, long[] lineNumbers, int size, Progress progress) {
+        if (size == 0) {
+            return;
+        }
+        progress.rows += size;
+        TransferRecord[] records = new TransferRecord[size];
+        String[] errors = new String[size];
+        IntStream.range(0, size).parallel().forEach(i -> {
+            try {
+                records[i] = recordReader.readValue(lines[i]);
+                errors[i] = records[i] == null ? "Пустая запись" : validate(records[i]);
+            } catch (JsonProcessingException e) {
+                errors[i] = "Некорректная запись: " + e.getOriginalMessage();
+            }
+        });
+
+        List<User> users = new ArrayList<>();
+        long[] userSources = new long[size];
+        List<Film> films = new ArrayList<>();
+        long[] filmSources = new long[size];
+        for (int i = 0; i < size; i++) {
+            if (errors[i] != null) {
+                progress.reject(lineNumbers[i], errors[i]);
+                records[i] = null;
+            } else if (records[i] instanceof UserRecord user) {
+                if (user.id() != null && !progress.userIds.reserve(user.id())) {
+                    progress.reject(lineNumbers[i], "Пользователь с ID " + user.id() + " уже встречался");
+                    continue;
+                }
+                userSources[users.size()] = user.id() == null ? 0 : user.id();
+                users.add(user.toUser());
+            } else if (records[i] instanceof FilmRecord film) {
+                if (film.id() != null && !progress.filmIds.reserve(film.id())) {
+                    progress.reject(lineNumbers[i], "Фильм с ID " + film.id() + " уже встречался");
+                    continue;
+                }
+                filmSources[films.size()] = film.id() == null ? 0 : film.id();
+                films.add(film.toFilm());
+            }
+        }
+        List<User> newUsers = userService.importUsers(users);
+        for (int j = 0; j < newUsers.size(); j++) {
+            if (userSources[j] != 0) {
+                progress.userIds.put(userSources[j], newUsers.get(j).getId());
+            }
+        }
+        List<Film> newFilms = filmService.importFilms(films);
+        for (int j = 0; j < newFilms.size(); j++) {
+            if (filmSources[j] != 0) {
+                progress.filmIds.put(filmSources[j], newFilms.get(j).getId());
+            }
+        }
+        progress.users += newUsers.size();
+        progress.films += newFilms.size();
+
+        int[] likeFilms = new int[size];
+        long[] likeUsers = new long[size];
+        int likeCount = 0;
+        long[] friendshipUsers = new long[size];
+        long[] friendshipFriends = new long[size];
+        int friendshipCount = 0;
+        for (int i = 0; i < size; i++) {
+            if (records[i] instanceof LikeRecord like) {
+                long filmId = progress.filmIds.get(like.filmId());
+                long userId = progress.userIds.get(like.userId());
+                if (filmId == 0) {
+                    progress.reject(lineNumbers[i], "Фильм с ID " + like.filmId() + " не встречался раньше");
+                } else if (userId == 0) {
+                    progress.reject(lineNumbers[i], "Пользователь с ID " + like.userId() + " не встречался раньше");
+                } else {
+                    likeFilms[likeCount] = (int) filmId;
+                    likeUsers[likeCount++] = userId;
+                }
+            } else if (records[i] instanceof FriendshipRecord friendship) {
+                long userId = progress.userIds.get(friendship.userId());
+                long friendId = progress.userIds.get(friendship.friendId());
+                if (userId == 0 || friendId == 0) {
+                    progress.reject(lineNumbers[i], "Пользователь с ID "
+                            + (userId == 0 ? friendship.userId() : friendship.friendId()) + " не встречался раньше");
+                } else {
+                    friendshipUsers[friendshipCount] = userId;
+                    friendshipFriends[friendshipCount++] = friendId;
+                }
+            }
+        }
+        // Уже стоявшие лайки и дружбы хранилище пропускает, в отчет идут только примененные
+        progress.likes += filmService.importLikes(likeFilms, likeUsers, likeCount);
+        progress.friendships += userService.importFriendships(friendshipUsers, friendshipFriends, friendshipCount);
+    }
+
+    private String validate(TransferRecord record) {
+        return switch (record) {
+            case UserRecord user -> user.id() != null && user.id() <= 0
+                    ? "ID должен быть больше нуля" : violations(user.toUser());
+            case FilmRecord film -> film.id() != null && film.id() <= 0
+                    ? "ID должен быть больше нуля" : violations(film.toFilm());
+            case LikeRecord like -> like.filmId() <= 0 || like.userId() <= 0 ? "ID должен быть больше нуля" : null;
+            case FriendshipRecord friendship -> {
+                if (friendship.userId() <= 0 || friendship.friendId() <= 0) {
+                    yield "ID должен быть больше нуля";
+                }
+                yield friendship.userId() == friendship.friendId()
+                        ? "Пользователь не может добавить себя в друзья!" : null;
+            }
+        };
+    }
+
+    private String violations(Object entity) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(entity, CreateValidation.class);
+        return violations.isEmpty() ? null : violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private static double rowsPerSecond(long rows, long elapsedNanos) {
+        return rows * (double) TimeUnit.SECONDS.toNanos(1) / Math.max(elapsedNanos, 1);
+    }
+
+    /**
+     * Счетчики загрузки и соответствие ID из файла новым ID.
+     */
+    private static final class Progress {
+        private final IdMap userIds = new IdMap();
+        private final IdMap filmIds = new IdMap();
+        private final List<RejectedRow> errors = new ArrayList<>();
+        private final int maxErrors;
+        private long rows;
+        private long users;
+        private long films;
+        private long likes;
+        private long friendships;
+        private long rejected;
+
+        Progress(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                errors.add(new RejectedRow(line, message));
+            }
+        }
+    }
+
+    /**
+     * Таблица «ID из файла → новый ID» с открытой адресацией на двух массивах {@code long}:
+     * миллионы сущностей не порождают по объекту на каждую. Ключи положительны, ноль
+     * обозначает пустую ячейку.
+     */
+    private static final class IdMap {
+        // ID занят сущностью из текущей пачки, которая еще не добавлена в хранилище
+        private static final long RESERVED = -1;
+
+        private long[] keys = new long[16];
+        private long[] values = new long[16];
+        private int size;
+
+        /**
+         * Новый ID; {@code 0}, если ID из файла не встречался.
+         */
+        long get(long key) {
+            int slot = slot(keys, key);
+            return keys[slot] == key ? values[slot] : 0;
+        }
+
+        /**
+         * Занимает ID из файла до того, как станет известен новый.
+         *
+         * @return {@code false}, если ID уже встречался
+         */
+        boolean reserve(long key) {
+            int slot = slot(keys, key);
+            if (keys[slot] == key) {
+                return false;
+            }
+            keys[slot] = key;
+            values[slot] = RESERVED;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+            return true;
+        }
+
+        /**
+         * Записывает новый ID для занятого ID из файла.
+         */
+        void put(long key, long value) {
+            values[slot(keys, key)] = value;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new long[oldValues.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    int slot = slot(keys, oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        private static int slot(long[] keys, long key) {
+            int mask = keys.length - 1;
+            long hash = key * 0x9E3779B97F4A7C15L;
+            int slot = (int) (hash ^ (hash >>> 32)) & mask;
+            while (keys[slot] != 0 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.util.DecayingRanking;
+import ru.yandex.practicum.filmorate.util.SlidingWindowRanking;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Рейтинги фильмов по свежим лайкам: число лайков за последний час, сутки и неделю
+ * ({@link SlidingWindowRanking}) и затухающая со временем «горячесть» ({@link DecayingRanking}).
+ * Лайк добавляет фильму вес во всех рейтингах, снятие лайка — вычитает. Рейтинги живут
+ * только в памяти и после перезапуска набираются заново.
+ */
+@Component
+public class TrendingFilms {
+    private final Clock clock;
+    private final Map<TrendingWindow, SlidingWindowRanking> rankings = new EnumMap<>(TrendingWindow.class);
+    private final DecayingRanking hotness;
+
+    public TrendingFilms() {
+        this(Clock.systemUTC(), new TrendingProperties(Duration.ofHours(24)));
+    }
+
+    @Autowired
+    public TrendingFilms(TrendingProperties properties) {
+        this(Clock.systemUTC(), properties);
+    }
+
+    public TrendingFilms(Clock clock, TrendingProperties properties) {
+        this.clock = clock;
+        for (TrendingWindow window : TrendingWindow.values()) {
+            rankings.put(window, new SlidingWindowRanking(window.bucket().toMillis(), window.bucketCount()));
+        }
+        this.hotness = new DecayingRanking(properties.hotHalfLife().toMillis());
+    }
+
+    public void likeAdded(int filmId) {
+        long now = clock.millis();
+        for (SlidingWindowRanking ranking : rankings.values()) {
+            ranking.add(filmId, 1, now);
+        }
+        hotness.add(filmId, now);
+    }
+
+    public void likeRemoved(int filmId) {
+        long now = clock.millis();
+        for (SlidingWindowRanking ranking : rankings.values()) {
+            ranking.add(filmId, -1, now);
+        }
+        hotness.remove(filmId, now);
+    }
+
+    /**
+     * ID до {@code count} фильмов с наибольшим числом лайков за окно.
+     */
+    public List<Integer> top(TrendingWindow window, int count) {
+        return rankings.get(window).top(count, clock.millis());
+    }
+
+    /**
+     * ID до {@code count} фильмов с наибольшей затухающей суммой лайков.
+     */
+    public List<Integer> hottest(int count) {
+        return hotness.top(count);
+    }
+}
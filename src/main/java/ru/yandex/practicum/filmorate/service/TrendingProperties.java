@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Настройки рейтингов фильмов по свежим лайкам.
+ *
+ * @param hotHalfLife за сколько вклад лайка в рейтинг {@code /films/popular?sort=hot}
+ *                    уменьшается вдвое
+ */
+@ConfigurationProperties("filmorate.trending")
+public record TrendingProperties(@DefaultValue("24h") Duration hotHalfLife) {
+}
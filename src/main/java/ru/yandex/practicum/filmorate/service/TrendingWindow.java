@@ -0,0 +1,46 @@
+package ru.yandex.practicum.filmorate.service;
+
+import ru.yandex.practicum.filmorate.exceptions.ValidationException;
+
+import java.time.Duration;
+
+/**
+ * Окна рейтинга {@code /films/trending}. Чем длиннее окно, тем крупнее корзины: окно
+ * сдвигается с точностью до корзины, а число корзин на фильм остается небольшим.
+ */
+public enum TrendingWindow {
+    HOUR("1h", Duration.ofMinutes(1), 60),
+    DAY("24h", Duration.ofMinutes(15), 96),
+    WEEK("7d", Duration.ofHours(1), 168);
+
+    private final String code;
+    private final Duration bucket;
+    private final int bucketCount;
+
+    TrendingWindow(String code, Duration bucket, int bucketCount) {
+        this.code = code;
+        this.bucket = bucket;
+        this.bucketCount = bucketCount;
+    }
+
+    public String code() {
+        return code;
+    }
+
+    public Duration bucket() {
+        return bucket;
+    }
+
+    public int bucketCount() {
+        return bucketCount;
+    }
+
+    public static TrendingWindow of(String code) {
+        for (TrendingWindow window : values()) {
+            if (window.code.equals(code)) {
+                return window;
+            }
+        }
+        throw new ValidationException("Окно должно быть одним из 1h, 24h, 7d: " + code);
+    }
+}
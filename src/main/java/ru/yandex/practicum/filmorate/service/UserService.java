@@ -1,12 +1,16 @@
 package ru.yandex.practicum.filmorate.service;
 
+import lombok.AccessLevel;
 import lombok.Data;
-import lombok.RequiredArgsConstructor;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import ru.yandex.practicum.filmorate.dto.FriendSuggestion;
 import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
 import ru.yandex.practicum.filmorate.exceptions.ValidationException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FriendshipListener;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
 import java.util.*;
@@ -14,33 +18,53 @@ import java.util.*;
 @Data
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class UserService {
+    static final int MAX_SUGGESTIONS = 1_000;
+
     private final UserStorage userStorage;
+    @Getter(AccessLevel.NONE)
+    private final FriendGraphIndex friendGraph;
+
+    public UserService(UserStorage userStorage) {
+        this(userStorage, new FriendGraphIndex(userStorage));
+    }
+
+    @Autowired
+    public UserService(UserStorage userStorage, FriendGraphIndex friendGraph) {
+        this.userStorage = userStorage;
+        this.friendGraph = friendGraph;
+    }
+
+    /**
+     * Массовая загрузка пользователей одной пачкой, без записи в лог каждого.
+     */
+    public List<User> importUsers(List<User> users) {
+        return userStorage.addNewUsers(users);
+    }
+
+    /**
+     * Массовая загрузка дружбы: пары {@code userIds[i] — friendIds[i]} для {@code i < count}
+     * уходят в хранилище одним вызовом. Существование пользователей не проверяется, пары
+     * пользователя с самим собой пропускаются. Граф дружбы узнает только о парах, которые
+     * хранилище действительно связало, — через {@link FriendshipListener}.
+     *
+     * @return сколько пар стали друзьями
+     */
+    public int importFriendships(long[] userIds, long[] friendIds, int count) {
+        return userStorage.addFriends(userIds, friendIds, count);
+    }
 
     public void addFriend(Long userID, Long friendID) {
         if (userID.equals(friendID)) {
             throw new ValidationException("Пользователь не может добавить себя в друзья!");
         }
 
-        User user = userStorage.getUser(userID);
-        if (user == null) {
-            throw new NotFoundException("Пользователь с ID " + userID + " не найден.");
-        }
-        User friend = userStorage.getUser(friendID);
-        if (friend == null) {
-            throw new NotFoundException("Пользователь с ID " + friendID + " не найден.");
-        }
-
+        requireUsers(userID, friendID);
 
-        Set<Long> firstUserFriendsIDs = user.getUserFriends();
-        if (firstUserFriendsIDs.contains(friendID)) {
+        if (!userStorage.addFriend(userID, friendID)) {
             throw new ValidationException("Добавление не выполнено, пользователи уже являются друзьями!");
-        } else {
-            firstUserFriendsIDs.add(friendID);
-            friend.getUserFriends().add(userID);
-            log.info("Пользователя с ID {} и {} теперь являются друзьями!", userID, friendID);
         }
+        log.info("Пользователя с ID {} и {} теперь являются друзьями!", userID, friendID);
     }
 
     public void deleteFriend(Long userID, Long friendID) {
@@ -48,63 +72,118 @@ public class UserService {
             throw new ValidationException("Пользователь не может удалить себя из друзей!");
         }
 
-        User user = userStorage.getUser(userID);
-        if (user == null) {
-            throw new NotFoundException("Пользователь с ID " + userID + " не найден.");
-        }
-        User friend = userStorage.getUser(friendID);
-        if (friend == null) {
-            throw new NotFoundException("Пользователь с ID " + friendID + " не найден.");
-        }
+        requireUsers(userID, friendID);
 
-        Set<Long> userFriends = user.getUserFriends();
-        Set<Long> friendFriends = friend.getUserFriends();
-
-        if (!userFriends.contains(friendID)) {
+        if (!userStorage.deleteFriend(userID, friendID)) {
             log.info("Пользователь {} не был в друзьях у {}", friendID, userID);
             return; // успешное выполнение без исключения
         }
 
-        userFriends.remove(friendID);
-        friendFriends.remove(userID);
-
         log.info("Пользователь с ID {} удалил из списка друзей пользователя с ID {} и теперь они " +
                 "НЕ являются друзьями!", userID, friendID);
     }
 
     public List<User> getAllUserFriends(Long userID) {
-        User user = userStorage.getUser(userID);
+        requireUsers(userID);
 
-        if (user == null) {
-            throw new NotFoundException("Пользователь с ID " + userID + " не найден");
-        }
+        return userStorage.getFriends(userID);
+    }
 
-        return user.getUserFriends().stream()
-                .map(userStorage::getUser)
-                .filter(Objects::nonNull)
-                .toList();
+    /**
+     * Страница друзей пользователя: до {@code limit} друзей с ID больше {@code afterId}.
+     */
+    public List<User> getUserFriendsAfter(Long userID, long afterId, int limit) {
+        requireUsers(userID);
+
+        return userStorage.getFriendsAfter(userID, afterId, limit);
     }
 
     public List<User> getCommonFriends(Long firstUserID, Long secondUserID) {
-        User firstUser = userStorage.getUser(firstUserID);
-        if (firstUser == null) {
-            throw new NotFoundException("Пользователь с ID " + firstUserID + " не найден.");
-        }
-        User secondUser = userStorage.getUser(secondUserID);
-        if (secondUser == null) {
-            throw new NotFoundException("Пользователь с ID " + secondUserID + " не найден.");
+        requireUsers(firstUserID, secondUserID);
+
+        return userStorage.getCommonFriends(firstUserID, secondUserID);
+    }
+
+    /**
+     * До {@code limit} друзей друзей пользователя, которые еще не его друзья, по убыванию
+     * числа общих друзей, см. {@link FriendGraphIndex#suggestions}.
+     */
+    public List<FriendSuggestion> getFriendSuggestions(Long userID, int limit) {
+        if (limit <= 0 || limit > MAX_SUGGESTIONS) {
+            throw new ValidationException("Число предложений должно быть от 1 до " + MAX_SUGGESTIONS);
         }
+        requireUsers(userID);
 
-        Set<Long> firstUserFriendsIDs = firstUser.getUserFriends();
-        Set<Long> secondUserFriendsIDs = secondUser.getUserFriends();
+        long[] suggestions = friendGraph.suggestions(userID, limit);
+        List<Long> ids = new ArrayList<>(suggestions.length / 2);
+        for (int i = 0; i < suggestions.length; i += 2) {
+            ids.add(suggestions[i]);
+        }
+        Map<Long, User> users = new HashMap<>();
+        userStorage.getUsers(ids).forEach(user -> users.put(user.getId(), user));
+        List<FriendSuggestion> result = new ArrayList<>(ids.size());
+        for (int i = 0; i < suggestions.length; i += 2) {
+            User user = users.get(suggestions[i]);
+            if (user != null) {
+                result.add(new FriendSuggestion(user, (int) suggestions[i + 1]));
+            }
+        }
+        return result;
+    }
 
-        Set<Long> commonFriendsIDs = new HashSet<>(firstUserFriendsIDs);
-        commonFriendsIDs.retainAll(secondUserFriendsIDs);
+    /**
+     * Кратчайшая цепочка друзей от одного пользователя до другого, включая их самих,
+     * см. {@link FriendGraphIndex#shortestPath}. Если в цепочке оказался пользователь,
+     * которого нет в хранилище, граф разошелся с хранилищем: он перестраивается, и поиск
+     * повторяется один раз.
+     *
+     * @throws NotFoundException если пользователя нет или пользователи не связаны
+     * @throws IllegalStateException если и перестроенный граф дает цепочку с пропуском
+     */
+    public List<User> getFriendshipPath(Long fromUserID, Long toUserID) {
+        requireUsers(fromUserID, toUserID);
+
+        List<User> path = findPath(fromUserID, toUserID);
+        if (path == null) {
+            log.warn("Цепочка друзей {} -> {} ссылается на отсутствующих пользователей, граф дружбы " +
+                    "перестраивается", fromUserID, toUserID);
+            friendGraph.rebuild();
+            path = findPath(fromUserID, toUserID);
+            if (path == null) {
+                throw new IllegalStateException("Цепочка друзей " + fromUserID + " -> " + toUserID +
+                        " ссылается на отсутствующих пользователей");
+            }
+        }
+        return path;
+    }
 
-        return commonFriendsIDs.stream()
-                .map(userStorage::getUser)
-                .filter(Objects::nonNull)
-                .toList();
+    // Пользователи цепочки или null, если кого-то из нее нет в хранилище
+    private List<User> findPath(Long fromUserID, Long toUserID) {
+        int[] path = friendGraph.shortestPath(fromUserID, toUserID);
+        if (path.length == 0) {
+            throw new NotFoundException("Пользователи с ID " + fromUserID + " и " + toUserID +
+                    " не связаны цепочкой друзей.");
+        }
+        List<Long> ids = new ArrayList<>(path.length);
+        for (int vertex : path) {
+            ids.add((long) vertex);
+        }
+        List<User> users = userStorage.getUsers(ids);
+        return users.size() == path.length ? users : null;
     }
 
-}
\ No newline at end of file
+    /**
+     * Проверяет существование пользователей одним обращением к хранилищу.
+     */
+    private void requireUsers(Long... userIDs) {
+        List<User> users = userStorage.getUsers(List.of(userIDs));
+        int found = 0;
+        for (Long userID : userIDs) {
+            if (found < users.size() && users.get(found).getId().equals(userID)) {
+                found++;
+            } else {
+                throw new NotFoundException("Пользователь с ID " + userID + " не найден.");
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ru.yandex.practicum.filmorate.storage;
+
+/**
+ * Итог {@link FilmStorage#applyLikes}: пользователи, чьи лайки действительно поставлены
+ * и сняты. Уже стоявшие и отсутствовавшие лайки сюда не попадают.
+ */
+public record AppliedLikes(long[] likedBy, long[] unlikedBy) {
+    public static final AppliedLikes NONE = new AppliedLikes(new long[0], new long[0]);
+
+    public int count() {
+        return likedBy.length + unlikedBy.length;
+    }
+
+    public boolean isEmpty() {
+        return count() == 0;
+    }
+}
@@ -0,0 +1,114 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Кеширующая обертка над хранилищем фильмов. Кешируются выборки по ID, включая
+ * отсутствие фильма; любое изменение фильма или его лайков сбрасывает запись после
+ * записи в хранилище. Списки и рейтинг идут в хранилище напрямую.
+ */
+public class CachingFilmStorage implements FilmStorage {
+    private final FilmStorage delegate;
+    private final StorageCache<Integer, Film> films;
+
+    public CachingFilmStorage(FilmStorage delegate, StorageCacheProperties properties) {
+        this.delegate = delegate;
+        this.films = new StorageCache<>(properties, film -> film.getFilmLikes().size(),
+                id -> "Фильм с ID " + id + " не найден");
+    }
+
+    public Film getFilm(int id) {
+        return films.get(id, delegate::getFilm);
+    }
+
+    public List<Film> getFilms(Collection<Integer> ids) {
+        return films.getAll(ids, delegate::getFilms, Film::getId);
+    }
+
+    public long[] getLikes(int filmId) {
+        return delegate.getLikes(filmId);
+    }
+
+    public List<Film> getAllFilms() {
+        return delegate.getAllFilms();
+    }
+
+    public void forEachFilm(Consumer<? super Film> action) {
+        delegate.forEachFilm(action);
+    }
+
+    public List<Film> getFilmsAfter(int afterId, int limit) {
+        return delegate.getFilmsAfter(afterId, limit);
+    }
+
+    public Film addNewFilm(Film film) {
+        Film newFilm = delegate.addNewFilm(film);
+        // ID мог быть запрошен до создания и попасть в кеш как отсутствующий
+        films.invalidate(newFilm.getId());
+        return newFilm;
+    }
+
+    public List<Film> addNewFilms(List<Film> films) {
+        List<Film> newFilms = delegate.addNewFilms(films);
+        newFilms.forEach(film -> this.films.invalidate(film.getId()));
+        return newFilms;
+    }
+
+    public Film updateFilm(Film filmUpdate) {
+        try {
+            return delegate.updateFilm(filmUpdate);
+        } finally {
+            films.invalidate(filmUpdate.getId());
+        }
+    }
+
+    public boolean addLike(int filmId, long userId) {
+        try {
+            return delegate.addLike(filmId, userId);
+        } finally {
+            films.invalidate(filmId);
+        }
+    }
+
+    public boolean deleteLike(int filmId, long userId) {
+        try {
+            return delegate.deleteLike(filmId, userId);
+        } finally {
+            films.invalidate(filmId);
+        }
+    }
+
+    public AppliedLikes applyLikes(int filmId, long[] likedBy, long[] unlikedBy) {
+        try {
+            return delegate.applyLikes(filmId, likedBy, unlikedBy);
+        } finally {
+            films.invalidate(filmId);
+        }
+    }
+
+    public List<Film> getPopularFilms(int count) {
+        return delegate.getPopularFilms(count);
+    }
+
+    public long getFilmsVersion() {
+        return delegate.getFilmsVersion();
+    }
+
+    public void addLikeListener(LikeListener listener) {
+        delegate.addLikeListener(listener);
+    }
+
+    public CacheStats stats() {
+        return films.stats();
+    }
+
+    Cache<Integer, ?> cache() {
+        return films.cache();
+    }
+}
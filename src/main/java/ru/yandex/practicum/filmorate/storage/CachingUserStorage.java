@@ -0,0 +1,124 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Кеширующая обертка над хранилищем пользователей. Кешируются выборки по ID, включая
+ * отсутствие пользователя; изменение пользователя или дружбы сбрасывает записи обоих
+ * участников после записи в хранилище. Списки друзей идут в хранилище напрямую: там
+ * они собираются одним запросом.
+ */
+public class CachingUserStorage implements UserStorage {
+    private final UserStorage delegate;
+    private final StorageCache<Long, User> users;
+
+    public CachingUserStorage(UserStorage delegate, StorageCacheProperties properties) {
+        this.delegate = delegate;
+        this.users = new StorageCache<>(properties, user -> user.getUserFriends().size(),
+                id -> "Пользователь с ID " + id + " не найден");
+    }
+
+    public User getUser(long id) {
+        return users.get(id, delegate::getUser);
+    }
+
+    public List<User> getUsers(Collection<Long> ids) {
+        return users.getAll(ids, delegate::getUsers, User::getId);
+    }
+
+    public List<User> getAllUsers() {
+        return delegate.getAllUsers();
+    }
+
+    public void forEachUser(Consumer<? super User> action) {
+        delegate.forEachUser(action);
+    }
+
+    public List<User> getUsersAfter(long afterId, int limit) {
+        return delegate.getUsersAfter(afterId, limit);
+    }
+
+    public User addNewUser(User user) {
+        User newUser = delegate.addNewUser(user);
+        // ID мог быть запрошен до создания и попасть в кеш как отсутствующий
+        users.invalidate(newUser.getId());
+        return newUser;
+    }
+
+    public List<User> addNewUsers(List<User> users) {
+        List<User> newUsers = delegate.addNewUsers(users);
+        newUsers.forEach(user -> this.users.invalidate(user.getId()));
+        return newUsers;
+    }
+
+    public User updateUser(User userUpdate) {
+        try {
+            return delegate.updateUser(userUpdate);
+        } finally {
+            users.invalidate(userUpdate.getId());
+        }
+    }
+
+    public boolean addFriend(long userId, long friendId) {
+        try {
+            return delegate.addFriend(userId, friendId);
+        } finally {
+            users.invalidate(userId);
+            users.invalidate(friendId);
+        }
+    }
+
+    public int addFriends(long[] userIds, long[] friendIds, int count) {
+        try {
+            return delegate.addFriends(userIds, friendIds, count);
+        } finally {
+            for (int i = 0; i < count; i++) {
+                users.invalidate(userIds[i]);
+                users.invalidate(friendIds[i]);
+            }
+        }
+    }
+
+    public boolean deleteFriend(long userId, long friendId) {
+        try {
+            return delegate.deleteFriend(userId, friendId);
+        } finally {
+            users.invalidate(userId);
+            users.invalidate(friendId);
+        }
+    }
+
+    public List<User> getFriends(long userId) {
+        return delegate.getFriends(userId);
+    }
+
+    public List<User> getFriendsAfter(long userId, long afterId, int limit) {
+        return delegate.getFriendsAfter(userId, afterId, limit);
+    }
+
+    public List<User> getCommonFriends(long firstUserId, long secondUserId) {
+        return delegate.getCommonFriends(firstUserId, secondUserId);
+    }
+
+    public long getUsersVersion() {
+        return delegate.getUsersVersion();
+    }
+
+    public void addFriendshipListener(FriendshipListener listener) {
+        delegate.addFriendshipListener(listener);
+    }
+
+    public CacheStats stats() {
+        return users.stats();
+    }
+
+    Cache<Long, ?> cache() {
+        return users.cache();
+    }
+}
@@ -0,0 +1,72 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Доставка событий хранилища в БД слушателям только после фиксации транзакции и в
+ * порядке фиксаций. Событие получает номер внутри транзакции, пока строки изменения
+ * заблокированы, поэтому номера изменений одной строки идут в порядке их фиксаций.
+ * После завершения транзакции событие ждет, пока доставлены все события с меньшими
+ * номерами; события откаченных транзакций только освобождают свой номер. Доставляет
+ * тот поток, который застал очередь свободной, остальные не ждут.
+ */
+@Slf4j
+final class CommitOrderedEvents {
+    private static final Runnable SKIPPED = () -> {
+    };
+
+    private final AtomicLong tickets = new AtomicLong();
+    private final Map<Long, Runnable> completed = new ConcurrentHashMap<>();
+    private final ReentrantLock deliveryLock = new ReentrantLock();
+    private volatile long next;
+
+    /**
+     * Передает {@code event} слушателям после фиксации текущей транзакции. Вызывается
+     * последним шагом изменения, когда его строки уже заблокированы. Вне транзакции
+     * событие доставляется сразу, в общей очереди.
+     */
+    void publish(Runnable event) {
+        long ticket = tickets.getAndIncrement();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            complete(ticket, event);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                complete(ticket, status == STATUS_COMMITTED ? event : SKIPPED);
+            }
+        });
+    }
+
+    private void complete(long ticket, Runnable event) {
+        completed.put(ticket, event);
+        // Событие, положенное после снятия блокировки доставляющим потоком, забирает следующий
+        while (completed.containsKey(next) && deliveryLock.tryLock()) {
+            try {
+                Runnable ready;
+                while ((ready = completed.remove(next)) != null) {
+                    next++;
+                    deliver(ready);
+                }
+            } finally {
+                deliveryLock.unlock();
+            }
+        }
+    }
+
+    private static void deliver(Runnable event) {
+        try {
+            event.run();
+        } catch (RuntimeException e) {
+            log.error("Слушатель хранилища завершился с ошибкой", e);
+        }
+    }
+}
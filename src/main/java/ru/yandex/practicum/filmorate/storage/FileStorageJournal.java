@@ -0,0 +1,379 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Журнал упреждающей записи в файлах-сегментах {@code journal-<номер>.log}.
+ *
+ * <p>{@link #append} только кладёт запись в ограниченную очередь. Отдельный поток
+ * забирает из очереди всё накопившееся, пишет пачку одним вызовом и делает fsync
+ * не чаще, чем требуют {@link JournalProperties#fsyncBatchSize()} и
+ * {@link JournalProperties#fsyncInterval()} (групповая фиксация).
+ *
+ * <p>Запись получает номер под той же блокировкой, под которой встает в очередь, и только
+ * если встала, поэтому номер равен ее позиции в журнале: {@link #flush()} ждет, пока
+ * писатель запишет столько записей, сколько номеров выдано до вызова.
+ *
+ * <p>{@link #rotate()} закрывает текущий сегмент и начинает следующий: всё, что
+ * попадёт в журнал после завершения ротации, окажется в новом сегменте, и старые
+ * можно удалить, как только их содержимое сохранено в снимке.
+ *
+ * <p>Если писатель не смог записать сегмент, журнал переходит в состояние отказа:
+ * {@link #append} и {@link #flush()} сразу бросают {@link IllegalStateException}, а
+ * причина доступна через {@link #failure()}.
+ */
+@Slf4j
+public class FileStorageJournal implements StorageJournal {
+    private static final Pattern SEGMENT_NAME = Pattern.compile("journal-(\\d+)\\.log");
+
+    private final JournalProperties properties;
+    private final Path directory;
+    private final BlockingQueue<JournalEntry> queue;
+    private final AtomicLong appended = new AtomicLong();
+    // Связывает номер записи с ее местом в очереди
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final AtomicReference<CompletableFuture<Long>> rotation = new AtomicReference<>();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition synced = syncLock.newCondition();
+    private volatile long durable;
+    private volatile boolean flushRequested;
+    private volatile boolean running;
+    private volatile IOException failure;
+    private Thread writer;
+    private FileChannel channel;
+    private long segment;
+
+    public FileStorageJournal(JournalProperties properties) {
+        this.properties = properties;
+        this.directory = properties.directory();
+        this.queue = new ArrayBlockingQueue<>(properties.queueCapacity());
+    }
+
+    /**
+     * Последовательно передаёт в {@code consumer} записи сегментов начиная с
+     * {@code fromSegment}. Недописанный при аварии хвост сегмента отбрасывается и обрезается.
+     *
+     * @return количество прочитанных записей
+     */
+    public long replay(long fromSegment, Consumer<JournalEntry> consumer) throws IOException {
+        long count = 0;
+        for (long number : segments()) {
+            if (number >= fromSegment) {
+                count += replaySegment(segmentPath(number), consumer);
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Открывает последний сегмент (но не раньше {@code minSegment}) на дозапись
+     * и запускает поток-писатель. Записи, добавленные до запуска, ждут в очереди.
+     */
+    public void start(long minSegment) throws IOException {
+        Files.createDirectories(directory);
+        List<Long> existing = segments();
+        segment = Math.max(Math.max(minSegment, 1), existing.isEmpty() ? 1 : existing.getLast());
+        channel = openSegment(segment);
+        running = true;
+        writer = Thread.ofPlatform()
+                .name("storage-journal-writer")
+                .daemon()
+                .start(this::writeLoop);
+    }
+
+    /**
+     * Переключает запись на новый сегмент.
+     *
+     * @return номер нового сегмента; future завершается, когда сегмент открыт
+     */
+    public CompletableFuture<Long> rotate() {
+        if (!running) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Журнал не запущен"));
+        }
+        CompletableFuture<Long> request = new CompletableFuture<>();
+        CompletableFuture<Long> pending = rotation.compareAndExchange(null, request);
+        IOException cause = failure;
+        if (cause != null) {
+            // Упавший писатель запрос уже не заберет
+            failRotation(new IllegalStateException("Журнал в " + directory + " недоступен для записи", cause));
+        }
+        return pending != null ? pending : request;
+    }
+
+    /**
+     * Удаляет сегменты с номерами меньше {@code number}.
+     */
+    public void deleteSegmentsBefore(long number) throws IOException {
+        for (long existing : segments()) {
+            if (existing < number) {
+                Files.deleteIfExists(segmentPath(existing));
+            }
+        }
+    }
+
+    /**
+     * Количество записей, добавленных в журнал с момента создания.
+     */
+    public long appendedCount() {
+        return appended.get();
+    }
+
+    /**
+     * Ошибка, из-за которой писатель остановился, или {@code null}, если журнал исправен.
+     */
+    public IOException failure() {
+        return failure;
+    }
+
+    @Override
+    public void append(JournalEntry entry) {
+        checkNotFailed();
+        try {
+            appendLock.lockInterruptibly();
+            try {
+                // Ждет места в очереди по частям, чтобы не зависнуть, если писатель упал
+                while (!queue.offer(entry, properties.fsyncInterval().toNanos(), TimeUnit.NANOSECONDS)) {
+                    checkNotFailed();
+                }
+                appended.incrementAndGet();
+            } finally {
+                appendLock.unlock();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Запись в журнал прервана", e);
+        }
+    }
+
+    /**
+     * Блокирует вызывающего, пока все добавленные до вызова записи не окажутся на диске.
+     */
+    public void flush() throws InterruptedException {
+        long target = appended.get();
+        flushRequested = true;
+        syncLock.lock();
+        try {
+            while (durable < target) {
+                checkNotFailed();
+                if (!running && queue.isEmpty() && durable < target) {
+                    throw new IllegalStateException("Журнал закрыт");
+                }
+                synced.await(properties.fsyncInterval().toNanos(), TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join();
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("Не удалось закрыть журнал в {}", directory, e);
+        }
+    }
+
+    private void writeLoop() {
+        int batchSize = properties.fsyncBatchSize();
+        long intervalNanos = properties.fsyncInterval().toNanos();
+        List<JournalEntry> batch = new ArrayList<>(batchSize);
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 16);
+        ByteArrayOutputStream scratch = new ByteArrayOutputStream(256);
+        OutputStream fileOut = Channels.newOutputStream(channel);
+        long written = 0;
+        long lastSync = System.nanoTime();
+
+        while (running || !queue.isEmpty()) {
+            try {
+                CompletableFuture<Long> rotationRequest = rotation.get();
+                if (rotationRequest != null) {
+                    channel.force(false);
+                    markDurable(written);
+                    channel.close();
+                    channel = openSegment(++segment);
+                    fileOut = Channels.newOutputStream(channel);
+                    rotation.set(null);
+                    rotationRequest.complete(segment);
+                }
+                JournalEntry first = queue.poll(intervalNanos, TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    buffer.reset();
+                    for (JournalEntry entry : batch) {
+                        JournalCodec.write(entry, buffer, scratch);
+                    }
+                    buffer.writeTo(fileOut);
+                    written += batch.size();
+                    batch.clear();
+                }
+                long unsynced = written - durable;
+                boolean due = first == null || flushRequested || unsynced >= batchSize
+                        || System.nanoTime() - lastSync >= intervalNanos;
+                if (unsynced > 0 && due) {
+                    channel.force(false);
+                    lastSync = System.nanoTime();
+                    markDurable(written);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (IOException e) {
+                log.error("Ошибка записи журнала в {}, запись в журнал остановлена", directory, e);
+                fail(e);
+                return;
+            }
+        }
+
+        try {
+            channel.force(false);
+            markDurable(written);
+        } catch (IOException e) {
+            log.error("Не удалось сбросить журнал в {} на диск", directory, e);
+        }
+        failRotation(new IllegalStateException("Журнал закрыт"));
+    }
+
+    private void fail(IOException cause) {
+        failure = cause;
+        failRotation(cause);
+        // Будит ждущих flush, чтобы они увидели отказ, не дожидаясь таймаута
+        syncLock.lock();
+        try {
+            synced.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void checkNotFailed() {
+        IOException cause = failure;
+        if (cause != null) {
+            throw new IllegalStateException("Журнал в " + directory + " недоступен для записи", cause);
+        }
+    }
+
+    private void failRotation(Exception cause) {
+        CompletableFuture<Long> rotationRequest = rotation.getAndSet(null);
+        if (rotationRequest != null) {
+            rotationRequest.completeExceptionally(cause);
+        }
+    }
+
+    private long replaySegment(Path file, Consumer<JournalEntry> consumer) throws IOException {
+        long count = 0;
+        long validLength = 0;
+        try (CountingInputStream in = new CountingInputStream(
+                new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            JournalEntry entry;
+            while ((entry = JournalCodec.read(in)) != null) {
+                consumer.accept(entry);
+                validLength = in.position;
+                count++;
+            }
+        } catch (JournalCodec.CorruptedRecordException e) {
+            log.warn("Журнал {} повреждён после {} байт ({}), хвост будет отброшен",
+                    file, validLength, e.getMessage());
+            try (FileChannel truncating = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                truncating.truncate(validLength);
+            }
+        }
+        return count;
+    }
+
+    private List<Long> segments() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> SEGMENT_NAME.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long number) {
+        return directory.resolve("journal-%020d.log".formatted(number));
+    }
+
+    /**
+     * Открывает сегмент на дозапись. Переопределяется в тестах, чтобы подставить канал с ошибками.
+     */
+    protected FileChannel openSegment(long number) throws IOException {
+        return FileChannel.open(segmentPath(number), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+    }
+
+    private void markDurable(long written) {
+        syncLock.lock();
+        try {
+            durable = written;
+            flushRequested = false;
+            synced.signalAll();
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        private long position;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                position++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+            if (count > 0) {
+                position += count;
+            }
+            return count;
+        }
+    }
+}
@@ -2,14 +2,91 @@ package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.Film;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface FilmStorage {
     Film getFilm(int id);
 
+    /**
+     * Возвращает фильмы с переданными ID одним обращением к хранилищу, в порядке ID
+     * в {@code ids}. Несуществующие ID пропускаются без исключения.
+     */
+    List<Film> getFilms(Collection<Integer> ids);
+
+    /**
+     * ID пользователей, лайкнувших фильм, прямо из хранилища, в обход кешей. Внутри
+     * {@link LikeListener} отражает все изменения лайков фильма, о которых слушатель
+     * уже получил уведомления.
+     */
+    long[] getLikes(int filmId);
+
     List<Film> getAllFilms();
 
+    /**
+     * Передает фильмы в {@code action} по одному, не собирая их в общий список.
+     * Фильмы, добавленные или измененные во время обхода, могут как попасть в него, так и нет.
+     */
+    void forEachFilm(Consumer<? super Film> action);
+
+    /**
+     * Возвращает до {@code limit} фильмов с ID больше {@code afterId} по возрастанию ID.
+     * Страница выбирается по упорядоченному по ID индексу, и ее стоимость не зависит от
+     * размера каталога.
+     */
+    List<Film> getFilmsAfter(int afterId, int limit);
+
     Film addNewFilm(Film film);
 
+    /**
+     * Добавляет пачку новых фильмов для массовой загрузки и возвращает их с присвоенными
+     * ID в порядке {@code films}. В отличие от {@link #addNewFilm}, не пишет в лог каждый
+     * фильм и выделяет ID всей пачке разом.
+     */
+    List<Film> addNewFilms(List<Film> films);
+
     Film updateFilm(Film filmUpdate);
+
+    /**
+     * Добавляет лайк фильму и обновляет индекс популярности.
+     *
+     * @return {@code false}, если пользователь уже ставил лайк этому фильму
+     */
+    boolean addLike(int filmId, long userId);
+
+    /**
+     * Удаляет лайк фильма и обновляет индекс популярности.
+     *
+     * @return {@code false}, если пользователь не ставил лайк этому фильму
+     */
+    boolean deleteLike(int filmId, long userId);
+
+    /**
+     * Применяет пачку изменений лайков одного фильма: ставит лайки пользователей из
+     * {@code likedBy} и снимает лайки пользователей из {@code unlikedBy}. Множества не
+     * пересекаются; уже поставленные и отсутствующие лайки пропускаются. Индекс популярности
+     * и версия фильма обновляются один раз на пачку.
+     *
+     * @return лайки, которые действительно изменились
+     */
+    AppliedLikes applyLikes(int filmId, long[] likedBy, long[] unlikedBy);
+
+    /**
+     * Возвращает первые {@code count} фильмов по убыванию количества лайков,
+     * при равенстве — по возрастанию ID.
+     */
+    List<Film> getPopularFilms(int count);
+
+    /**
+     * Версия каталога фильмов. Растет после каждого добавления и изменения фильма, лайка
+     * и удаления лайка; изменение, завершившееся до вызова, уже учтено. С версиями
+     * отдельных фильмов не сравнивается.
+     */
+    long getFilmsVersion();
+
+    /**
+     * Подписывает {@code listener} на изменения лайков, см. {@link LikeListener}.
+     */
+    void addLikeListener(LikeListener listener);
 }
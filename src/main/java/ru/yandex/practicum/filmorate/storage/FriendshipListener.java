@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.storage;
+
+/**
+ * Получает изменения дружбы из {@link UserStorage} в том порядке, в котором они применены
+ * к хранилищу. Через него индексы поверх хранилища обновляются без отдельной
+ * синхронизации со встречными изменениями той же пары.
+ */
+@FunctionalInterface
+public interface FriendshipListener {
+    /**
+     * Вызывается только для изменений, которые действительно поменяли дружбу, в порядке
+     * изменений пары: в памяти — под блокировками обоих пользователей, в БД — после
+     * фиксации транзакции, в порядке фиксаций; откаченные изменения не передаются.
+     *
+     * @param friends {@code true}, если пользователи стали друзьями, {@code false} — если перестали
+     */
+    void friendshipChanged(long userId, long friendId, boolean friends);
+}
@@ -1,19 +1,58 @@
 package ru.yandex.practicum.filmorate.storage;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.JournalEntry.FilmSaved;
+import ru.yandex.practicum.filmorate.storage.JournalEntry.LikeAdded;
+import ru.yandex.practicum.filmorate.storage.JournalEntry.LikeRemoved;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 @Component
+@ConditionalOnProperty(prefix = "filmorate.storage", name = "type", havingValue = "memory", matchIfMissing = true)
 @Slf4j
 public class InMemoryFilmStorage implements FilmStorage {
-    private final Map<Integer, Film> films = new HashMap<>();
-    private int id = 1;
+    private static final int LOCK_STRIPES = 64;
+
+    private final Map<Integer, Film> films = new ConcurrentHashMap<>();
+    // Те же фильмы в порядке ID для постраничной выдачи; основная таблица остается хешем ради быстрых getFilm
+    private final NavigableMap<Integer, Film> filmsInIdOrder = new ConcurrentSkipListMap<>();
+    // Индекс популярности: ключи упорядочены по убыванию лайков, при равенстве — по ID
+    private final NavigableSet<PopularityKey> popularity = new ConcurrentSkipListSet<>();
+    private final StripedLock locks = new StripedLock(LOCK_STRIPES);
+    private final AtomicInteger id = new AtomicInteger(1);
+    private final VersionClock versions = new VersionClock();
+    private final List<LikeListener> likeListeners = new CopyOnWriteArrayList<>();
+    private final StorageJournal journal;
+
+    public InMemoryFilmStorage() {
+        this(StorageJournal.NOOP);
+    }
+
+    @Autowired
+    public InMemoryFilmStorage(StorageJournal journal) {
+        this.journal = journal;
+    }
 
     public Film getFilm(int id) {
         Film film = films.get(id);
@@ -23,44 +62,263 @@ public class InMemoryFilmStorage implements FilmStorage {
         return film;
     }
 
+    public List<Film> getFilms(Collection<Integer> ids) {
+        List<Film> result = new ArrayList<>(ids.size());
+        for (int filmId : ids) {
+            Film film = films.get(filmId);
+            if (film != null) {
+                result.add(film);
+            }
+        }
+        return result;
+    }
+
+    public long[] getLikes(int filmId) {
+        Film film = getFilm(filmId);
+        return locks.withLock(filmId, () -> film.getFilmLikes().toLongArray());
+    }
+
     public List<Film> getAllFilms() {
         return List.copyOf(films.values());
     }
 
+    public void forEachFilm(Consumer<? super Film> action) {
+        films.values().forEach(action);
+    }
+
+    public List<Film> getFilmsAfter(int afterId, int limit) {
+        List<Film> page = new ArrayList<>(Math.min(limit, films.size()));
+        Iterator<Film> iterator = filmsInIdOrder.tailMap(afterId, false).values().iterator();
+        while (page.size() < limit && iterator.hasNext()) {
+            page.add(iterator.next());
+        }
+        return page;
+    }
+
     public Film addNewFilm(Film film) {
-        Film newFilm = Film.builder()
-                .id(id++)
-                .name(film.getName())
-                .description(film.getDescription())
-                .releaseDate(film.getReleaseDate())
-                .duration(film.getDuration())
-                .build();
-        films.put(newFilm.getId(), newFilm);
+        Film newFilm = insertFilm(id.getAndIncrement(), film);
         log.info("Добавлен новый фильм: '{}' (ID: {})", newFilm.getName(), newFilm.getId());
         return newFilm;
     }
 
+    public List<Film> addNewFilms(List<Film> films) {
+        int firstId = id.getAndAdd(films.size());
+        List<Film> newFilms = new ArrayList<>(films.size());
+        for (Film film : films) {
+            newFilms.add(insertFilm(firstId + newFilms.size(), film));
+        }
+        return newFilms;
+    }
+
     public Film updateFilm(Film filmUpdate) {
         Film existingFilm = films.get(filmUpdate.getId());
         if (existingFilm == null) {
             throw new NotFoundException("Фильм с ID " + filmUpdate.getId() + " не найден");
         }
 
-        if (filmUpdate.getDescription() != null) {
-            existingFilm.setDescription(filmUpdate.getDescription());
+        locks.withLock(existingFilm.getId(), () -> {
+            if (filmUpdate.getDescription() != null) {
+                existingFilm.setDescription(filmUpdate.getDescription());
+            }
+            if (filmUpdate.getDuration() != null) {
+                existingFilm.setDuration(filmUpdate.getDuration());
+            }
+            if (filmUpdate.getName() != null) {
+                existingFilm.setName(filmUpdate.getName());
+            }
+            if (filmUpdate.getReleaseDate() != null) {
+                existingFilm.setReleaseDate(filmUpdate.getReleaseDate());
+            }
+            existingFilm.setVersion(versions.next());
+            journal.append(FilmSaved.of(existingFilm));
+            return existingFilm;
+        });
+
+        log.info("Обновлен фильм: '{}' (ID: {})", existingFilm.getName(), existingFilm.getId());
+        return existingFilm;
+    }
+
+    public boolean addLike(int filmId, long userId) {
+        Film film = getFilm(filmId);
+        return locks.withLock(filmId, () -> {
+            if (!changeLike(film, userId, true)) {
+                return false;
+            }
+            journal.append(new LikeAdded(filmId, userId));
+            notifyLike(filmId, userId, true);
+            return true;
+        });
+    }
+
+    public boolean deleteLike(int filmId, long userId) {
+        Film film = getFilm(filmId);
+        return locks.withLock(filmId, () -> {
+            if (!changeLike(film, userId, false)) {
+                return false;
+            }
+            journal.append(new LikeRemoved(filmId, userId));
+            notifyLike(filmId, userId, false);
+            return true;
+        });
+    }
+
+    public AppliedLikes applyLikes(int filmId, long[] likedBy, long[] unlikedBy) {
+        Film film = getFilm(filmId);
+        return locks.withLock(filmId, () -> {
+            LongHashSet filmLikes = film.getFilmLikes();
+            int rate = filmLikes.size();
+            long[] liked = new long[likedBy.length];
+            int likedCount = 0;
+            for (long userId : likedBy) {
+                if (filmLikes.add(userId)) {
+                    journal.append(new LikeAdded(filmId, userId));
+                    notifyLike(filmId, userId, true);
+                    liked[likedCount++] = userId;
+                }
+            }
+            long[] unliked = new long[unlikedBy.length];
+            int unlikedCount = 0;
+            for (long userId : unlikedBy) {
+                if (filmLikes.remove(userId)) {
+                    journal.append(new LikeRemoved(filmId, userId));
+                    notifyLike(filmId, userId, false);
+                    unliked[unlikedCount++] = userId;
+                }
+            }
+            if (likedCount + unlikedCount == 0) {
+                return AppliedLikes.NONE;
+            }
+            movePopularity(film, rate);
+            return new AppliedLikes(Arrays.copyOf(liked, likedCount), Arrays.copyOf(unliked, unlikedCount));
+        });
+    }
+
+    public long getFilmsVersion() {
+        return versions.current();
+    }
+
+    public void addLikeListener(LikeListener listener) {
+        likeListeners.add(listener);
+    }
+
+    public List<Film> getPopularFilms(int count) {
+        List<Film> result = new ArrayList<>(Math.min(count, films.size()));
+        // Обход индекса не блокирует писателей, поэтому фильм, который переместился
+        // во время обхода, может встретиться дважды
+        Set<Integer> seen = new HashSet<>();
+        Iterator<PopularityKey> iterator = popularity.iterator();
+        while (result.size() < count && iterator.hasNext()) {
+            int filmId = iterator.next().filmId();
+            if (seen.add(filmId)) {
+                result.add(films.get(filmId));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Применяет сохранённое в журнале состояние фильма. Вызывается при восстановлении,
+     * до того как хранилище начнёт обслуживать запросы.
+     */
+    void restoreFilm(FilmSaved saved) {
+        Film existingFilm = films.get(saved.id());
+        if (existingFilm == null) {
+            Film film = Film.builder()
+                    .id(saved.id())
+                    .name(saved.name())
+                    .description(saved.description())
+                    .releaseDate(saved.releaseDate())
+                    .duration(saved.duration())
+                    .version(versions.next())
+                    .build();
+            films.put(film.getId(), film);
+            filmsInIdOrder.put(film.getId(), film);
+            popularity.add(new PopularityKey(0, film.getId()));
+            id.accumulateAndGet(saved.id() + 1, Math::max);
+            return;
         }
-        if (filmUpdate.getDuration() != null) {
-            existingFilm.setDuration(filmUpdate.getDuration());
+        existingFilm.setName(saved.name());
+        existingFilm.setDescription(saved.description());
+        existingFilm.setReleaseDate(saved.releaseDate());
+        existingFilm.setDuration(saved.duration());
+        existingFilm.setVersion(versions.next());
+    }
+
+    /**
+     * Добавляет фильм из снимка вместе с лайками. Может вызываться из нескольких
+     * потоков одновременно.
+     */
+    void restoreFilm(Film film) {
+        film.setVersion(versions.next());
+        films.put(film.getId(), film);
+        filmsInIdOrder.put(film.getId(), film);
+        popularity.add(new PopularityKey(film.getRate(), film.getId()));
+        id.accumulateAndGet(film.getId() + 1, Math::max);
+    }
+
+    void restoreLike(int filmId, long userId, boolean liked) {
+        Film film = films.get(filmId);
+        if (film == null) {
+            log.warn("Лайк из журнала пропущен: фильм с ID {} не найден", filmId);
+            return;
         }
-        if (filmUpdate.getName() != null) {
-            existingFilm.setName(filmUpdate.getName());
+        changeLike(film, userId, liked);
+    }
+
+    private Film insertFilm(int filmId, Film film) {
+        Film newFilm = Film.builder()
+                .id(filmId)
+                .name(film.getName())
+                .description(film.getDescription())
+                .releaseDate(film.getReleaseDate())
+                .duration(film.getDuration())
+                .build();
+        return locks.withLock(filmId, () -> {
+            films.put(filmId, newFilm);
+            filmsInIdOrder.put(filmId, newFilm);
+            popularity.add(new PopularityKey(0, filmId));
+            newFilm.setVersion(versions.next());
+            journal.append(FilmSaved.of(newFilm));
+            return newFilm;
+        });
+    }
+
+    private boolean changeLike(Film film, long userId, boolean liked) {
+        LongHashSet filmLikes = film.getFilmLikes();
+        int rate = filmLikes.size();
+        if (!(liked ? filmLikes.add(userId) : filmLikes.remove(userId))) {
+            return false;
         }
-        if (filmUpdate.getReleaseDate() != null) {
-            existingFilm.setReleaseDate(filmUpdate.getReleaseDate());
+        movePopularity(film, rate);
+        return true;
+    }
+
+    /**
+     * Сообщает слушателям о лайке, уже примененном под блокировкой полосы фильма.
+     */
+    private void notifyLike(int filmId, long userId, boolean liked) {
+        for (LikeListener listener : likeListeners) {
+            listener.likeChanged(filmId, userId, liked);
         }
+    }
 
-        log.info("Обновлен фильм: '{}' (ID: {})", existingFilm.getName(), existingFilm.getId());
-        return existingFilm;
+    /**
+     * Переставляет фильм в индексе популярности после изменения лайков и обновляет его версию.
+     */
+    private void movePopularity(Film film, int previousRate) {
+        int rate = film.getFilmLikes().size();
+        if (rate != previousRate) {
+            popularity.remove(new PopularityKey(previousRate, film.getId()));
+            popularity.add(new PopularityKey(rate, film.getId()));
+        }
+        film.setVersion(versions.next());
     }
 
+    private record PopularityKey(int rate, int filmId) implements Comparable<PopularityKey> {
+        @Override
+        public int compareTo(PopularityKey other) {
+            int byRate = Integer.compare(other.rate, rate);
+            return byRate != 0 ? byRate : Integer.compare(filmId, other.filmId);
+        }
+    }
 }
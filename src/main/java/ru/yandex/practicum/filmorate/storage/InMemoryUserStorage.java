@@ -1,20 +1,52 @@
 package ru.yandex.practicum.filmorate.storage;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
 import ru.yandex.practicum.filmorate.exceptions.ValidationException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.JournalEntry.FriendAdded;
+import ru.yandex.practicum.filmorate.storage.JournalEntry.FriendRemoved;
+import ru.yandex.practicum.filmorate.storage.JournalEntry.UserSaved;
+import ru.yandex.practicum.filmorate.util.FriendSet;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 @Component
+@ConditionalOnProperty(prefix = "filmorate.storage", name = "type", havingValue = "memory", matchIfMissing = true)
 @Slf4j
 public class InMemoryUserStorage implements UserStorage {
-    private final Map<Long, User> users = new HashMap<>();
-    private long id = 1;
+    private static final int LOCK_STRIPES = 64;
+
+    private final Map<Long, User> users = new ConcurrentHashMap<>();
+    // Те же пользователи в порядке ID для постраничной выдачи
+    private final NavigableMap<Long, User> usersInIdOrder = new ConcurrentSkipListMap<>();
+    private final StripedLock locks = new StripedLock(LOCK_STRIPES);
+    private final AtomicLong id = new AtomicLong(1);
+    private final VersionClock versions = new VersionClock();
+    private final List<FriendshipListener> friendshipListeners = new CopyOnWriteArrayList<>();
+    private final StorageJournal journal;
+
+    public InMemoryUserStorage() {
+        this(StorageJournal.NOOP);
+    }
+
+    @Autowired
+    public InMemoryUserStorage(StorageJournal journal) {
+        this.journal = journal;
+    }
 
     public User getUser(long id) {
         if (id <= 0) {
@@ -27,44 +59,74 @@ public class InMemoryUserStorage implements UserStorage {
         return user;
     }
 
+    public List<User> getUsers(Collection<Long> ids) {
+        List<User> result = new ArrayList<>(ids.size());
+        for (long userId : ids) {
+            if (userId <= 0) {
+                throw new ValidationException("ID должен быть больше нуля");
+            }
+            addIfPresent(result, userId);
+        }
+        return result;
+    }
+
     public List<User> getAllUsers() {
         return List.copyOf(users.values());
     }
 
-    public User addNewUser(User user) {
-        User newUser = User.builder()
-                .id(id++)
-                .email(user.getEmail())
-                .login(user.getLogin())
-                .name(user.getName())
-                .birthday(user.getBirthday())
-                .build();
+    public void forEachUser(Consumer<? super User> action) {
+        users.values().forEach(action);
+    }
 
-        users.put(newUser.getId(), newUser);
+    public List<User> getUsersAfter(long afterId, int limit) {
+        List<User> page = new ArrayList<>(Math.min(limit, users.size()));
+        Iterator<User> iterator = usersInIdOrder.tailMap(afterId, false).values().iterator();
+        while (page.size() < limit && iterator.hasNext()) {
+            page.add(iterator.next());
+        }
+        return page;
+    }
+
+    public User addNewUser(User user) {
+        User newUser = insertUser(id.getAndIncrement(), user);
         log.info("Добавлен новый пользователь: '{}' (ID: {})",
                 newUser.getName() != null ? newUser.getName() : newUser.getLogin(),
                 newUser.getId());
         return newUser;
     }
 
+    public List<User> addNewUsers(List<User> users) {
+        long firstId = id.getAndAdd(users.size());
+        List<User> newUsers = new ArrayList<>(users.size());
+        for (User user : users) {
+            newUsers.add(insertUser(firstId + newUsers.size(), user));
+        }
+        return newUsers;
+    }
+
     public User updateUser(User userUpdate) {
         User existingUser = users.get(userUpdate.getId());
         if (existingUser == null) {
             throw new NotFoundException("Пользователь с ID " + userUpdate.getId() + " не найден");
         }
 
-        if (userUpdate.getEmail() != null) {
-            existingUser.setEmail(userUpdate.getEmail());
-        }
-        if (userUpdate.getLogin() != null) {
-            existingUser.setLogin(userUpdate.getLogin());
-        }
-        if (userUpdate.getName() != null) {
-            existingUser.setName(userUpdate.getName());
-        }
-        if (userUpdate.getBirthday() != null) {
-            existingUser.setBirthday(userUpdate.getBirthday());
-        }
+        locks.withLock(existingUser.getId(), () -> {
+            if (userUpdate.getEmail() != null) {
+                existingUser.setEmail(userUpdate.getEmail());
+            }
+            if (userUpdate.getLogin() != null) {
+                existingUser.setLogin(userUpdate.getLogin());
+            }
+            if (userUpdate.getName() != null) {
+                existingUser.setName(userUpdate.getName());
+            }
+            if (userUpdate.getBirthday() != null) {
+                existingUser.setBirthday(userUpdate.getBirthday());
+            }
+            existingUser.setVersion(versions.next());
+            journal.append(UserSaved.of(existingUser));
+            return existingUser;
+        });
 
         log.info("Обновлен пользователь: '{}' (ID: {})",
                 existingUser.getName() != null ? existingUser.getName() : existingUser.getLogin(),
@@ -72,4 +134,180 @@ public class InMemoryUserStorage implements UserStorage {
         return existingUser;
     }
 
+    public boolean addFriend(long userId, long friendId) {
+        User user = getUser(userId);
+        User friend = getUser(friendId);
+        return locks.withLocks(userId, friendId, () -> {
+            if (!changeFriendship(user, friend, true)) {
+                return false;
+            }
+            journal.append(new FriendAdded(userId, friendId));
+            notifyFriendship(userId, friendId, true);
+            return true;
+        });
+    }
+
+    public int addFriends(long[] userIds, long[] friendIds, int count) {
+        int added = 0;
+        for (int i = 0; i < count; i++) {
+            long userId = userIds[i];
+            long friendId = friendIds[i];
+            User user = users.get(userId);
+            User friend = users.get(friendId);
+            if (user == null || friend == null || userId == friendId) {
+                continue;
+            }
+            boolean changed = locks.withLocks(userId, friendId, () -> {
+                if (!changeFriendship(user, friend, true)) {
+                    return false;
+                }
+                journal.append(new FriendAdded(userId, friendId));
+                notifyFriendship(userId, friendId, true);
+                return true;
+            });
+            if (changed) {
+                added++;
+            }
+        }
+        return added;
+    }
+
+    public boolean deleteFriend(long userId, long friendId) {
+        User user = getUser(userId);
+        User friend = getUser(friendId);
+        return locks.withLocks(userId, friendId, () -> {
+            if (!changeFriendship(user, friend, false)) {
+                return false;
+            }
+            journal.append(new FriendRemoved(userId, friendId));
+            notifyFriendship(userId, friendId, false);
+            return true;
+        });
+    }
+
+    public List<User> getFriends(long userId) {
+        List<User> friends = new ArrayList<>();
+        getUser(userId).getUserFriends().forEachLong(friendId -> addIfPresent(friends, friendId));
+        return friends;
+    }
+
+    public List<User> getFriendsAfter(long userId, long afterId, int limit) {
+        long[] friendIds = getUser(userId).getUserFriends().firstAfter(afterId, limit);
+        List<User> friends = new ArrayList<>(friendIds.length);
+        for (long friendId : friendIds) {
+            addIfPresent(friends, friendId);
+        }
+        return friends;
+    }
+
+    public List<User> getCommonFriends(long firstUserId, long secondUserId) {
+        List<User> commonFriends = new ArrayList<>();
+        FriendSet.forEachCommon(getUser(firstUserId).getUserFriends(), getUser(secondUserId).getUserFriends(),
+                friendId -> addIfPresent(commonFriends, friendId));
+        return commonFriends;
+    }
+
+    public long getUsersVersion() {
+        return versions.current();
+    }
+
+    public void addFriendshipListener(FriendshipListener listener) {
+        friendshipListeners.add(listener);
+    }
+
+    /**
+     * Применяет сохранённое в журнале состояние пользователя. Вызывается при
+     * восстановлении, до того как хранилище начнёт обслуживать запросы.
+     */
+    void restoreUser(UserSaved saved) {
+        User existingUser = users.get(saved.id());
+        if (existingUser == null) {
+            User user = User.builder()
+                    .id(saved.id())
+                    .email(saved.email())
+                    .login(saved.login())
+                    .name(saved.name())
+                    .birthday(saved.birthday())
+                    .version(versions.next())
+                    .build();
+            users.put(user.getId(), user);
+            usersInIdOrder.put(user.getId(), user);
+            id.accumulateAndGet(saved.id() + 1, Math::max);
+            return;
+        }
+        existingUser.setEmail(saved.email());
+        existingUser.setLogin(saved.login());
+        existingUser.setName(saved.name());
+        existingUser.setBirthday(saved.birthday());
+        existingUser.setVersion(versions.next());
+    }
+
+    /**
+     * Добавляет пользователя из снимка вместе с друзьями. Может вызываться из
+     * нескольких потоков одновременно.
+     */
+    void restoreUser(User user) {
+        user.setVersion(versions.next());
+        users.put(user.getId(), user);
+        usersInIdOrder.put(user.getId(), user);
+        id.accumulateAndGet(user.getId() + 1, Math::max);
+    }
+
+    void restoreFriendship(long userId, long friendId, boolean friends) {
+        User user = users.get(userId);
+        User friend = users.get(friendId);
+        if (user == null || friend == null) {
+            log.warn("Дружба из журнала пропущена: пользователь {} или {} не найден", userId, friendId);
+            return;
+        }
+        changeFriendship(user, friend, friends);
+    }
+
+    private User insertUser(long userId, User user) {
+        User newUser = User.builder()
+                .id(userId)
+                .email(user.getEmail())
+                .login(user.getLogin())
+                .name(user.getName())
+                .birthday(user.getBirthday())
+                .build();
+        return locks.withLock(userId, () -> {
+            users.put(userId, newUser);
+            usersInIdOrder.put(userId, newUser);
+            newUser.setVersion(versions.next());
+            journal.append(UserSaved.of(newUser));
+            return newUser;
+        });
+    }
+
+    private void addIfPresent(List<User> result, long userId) {
+        User user = users.get(userId);
+        if (user != null) {
+            result.add(user);
+        }
+    }
+
+    // Вызывается под блокировками обоих пользователей
+    private void notifyFriendship(long userId, long friendId, boolean friends) {
+        for (FriendshipListener listener : friendshipListeners) {
+            listener.friendshipChanged(userId, friendId, friends);
+        }
+    }
+
+    private boolean changeFriendship(User user, User friend, boolean friends) {
+        if (friends) {
+            if (!user.getUserFriends().add(friend.getId())) {
+                return false;
+            }
+            friend.getUserFriends().add(user.getId());
+        } else {
+            if (!user.getUserFriends().remove(friend.getId())) {
+                return false;
+            }
+            friend.getUserFriends().remove(user.getId());
+        }
+        user.setVersion(versions.next());
+        friend.setVersion(versions.next());
+        return true;
+    }
 }
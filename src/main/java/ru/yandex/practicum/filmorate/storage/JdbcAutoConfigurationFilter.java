@@ -0,0 +1,35 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.boot.autoconfigure.AutoConfigurationImportFilter;
+import org.springframework.boot.autoconfigure.AutoConfigurationMetadata;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.context.EnvironmentAware;
+import org.springframework.core.env.Environment;
+
+/**
+ * Отключает автоконфигурацию источника данных, если хранилища не в БД. Иначе в режиме
+ * {@code filmorate.storage.type=memory} приложение поднимало бы H2 и пул соединений и
+ * выполняло {@code schema.sql} для базы, которой никто не пользуется. Шаблоны JDBC,
+ * менеджер транзакций и инициализация схемы требуют источника данных и без него не
+ * настраиваются. Фильтр подключен в {@code META-INF/spring.factories}.
+ */
+public class JdbcAutoConfigurationFilter implements AutoConfigurationImportFilter, EnvironmentAware {
+    private static final String DATA_SOURCE = DataSourceAutoConfiguration.class.getName();
+
+    private Environment environment;
+
+    @Override
+    public void setEnvironment(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public boolean[] match(String[] autoConfigurationClasses, AutoConfigurationMetadata autoConfigurationMetadata) {
+        boolean jdbc = "jdbc".equals(environment.getProperty("filmorate.storage.type"));
+        boolean[] matches = new boolean[autoConfigurationClasses.length];
+        for (int i = 0; i < autoConfigurationClasses.length; i++) {
+            matches[i] = jdbc || !DATA_SOURCE.equals(autoConfigurationClasses[i]);
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,37 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Версия коллекции в таблице {@code collection_versions}: счетчик, разбитый на
+ * {@value #STRIPES} строк. Изменение прибавляет единицу к строке своего потока в той же
+ * транзакции, что и само изменение, а версия — сумма строк коллекции, поэтому она растет
+ * с каждой фиксацией в любом порядке фиксаций и читается без обхода таблицы сущностей.
+ * Разбиение нужно, чтобы параллельные транзакции не ждали друг друга на одной строке.
+ */
+final class JdbcCollectionVersion {
+    // Столько же строк на коллекцию создает schema.sql
+    static final int STRIPES = 8;
+
+    private final JdbcTemplate jdbc;
+    private final String name;
+
+    JdbcCollectionVersion(JdbcTemplate jdbc, String name) {
+        this.jdbc = jdbc;
+        this.name = name;
+    }
+
+    /**
+     * Учитывает изменение коллекции. Вызывается последним запросом транзакции: строка
+     * счетчика блокируется до фиксации, и держать ее дольше незачем.
+     */
+    void bump() {
+        jdbc.update("UPDATE collection_versions SET version = version + 1 WHERE name = ? AND stripe = ?",
+                name, (int) (Thread.currentThread().threadId() & (STRIPES - 1)));
+    }
+
+    long get() {
+        return jdbc.queryForObject("SELECT COALESCE(SUM(version), 0) FROM collection_versions WHERE name = ?",
+                Long.class, name);
+    }
+}
@@ -0,0 +1,390 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Хранилище фильмов в реляционной БД.
+ *
+ * <p>Лайки лежат в отдельной таблице {@code likes}. Списки фильмов собираются двумя
+ * запросами: сами фильмы и лайки к ним, без отдельного запроса на каждый фильм,
+ * в том числе при выборке по списку ID.
+ * Рейтинг популярных фильмов считается в БД одной агрегацией. Обход всех фильмов
+ * читает фильмы и лайки двумя потоковыми запросами, упорядоченными по ID фильма.
+ * Каждое изменение фильма или его лайков записывает в строку фильма новое значение
+ * последовательности {@code entity_version}; версию каталога ведет {@link JdbcCollectionVersion}.
+ * {@link LikeListener} получает лайки только после фиксации транзакции, через
+ * {@link CommitOrderedEvents}: номер события берется после обновления версии, которое
+ * блокирует строку фильма до конца транзакции, поэтому изменения лайков одного фильма
+ * доходят до слушателей в порядке фиксаций.
+ */
+@Component
+@ConditionalOnProperty(prefix = "filmorate.storage", name = "type", havingValue = "jdbc")
+@Slf4j
+public class JdbcFilmStorage implements FilmStorage {
+    private static final String SELECT_FILMS = "SELECT f.id, f.name, f.description, f.release_date, f.duration, "
+            + "f.version FROM films f ";
+    private static final String BUMP_VERSION = "UPDATE films SET version = NEXT VALUE FOR entity_version WHERE id = ?";
+    private static final String INSERT_FILM = "INSERT INTO films (name, description, release_date, duration) "
+            + "VALUES (?, ?, ?, ?)";
+    private static final String INSERT_LIKE = "INSERT INTO likes (film_id, user_id) "
+            + "SELECT ?, ? WHERE NOT EXISTS (SELECT 1 FROM likes WHERE film_id = ? AND user_id = ?)";
+
+    private final NamedParameterJdbcTemplate namedJdbc;
+    private final JdbcTemplate jdbc;
+    private final JdbcTemplate streamingJdbc;
+    private final SimpleJdbcInsert insertFilm;
+    private final JdbcCollectionVersion filmsVersion;
+    private final List<LikeListener> likeListeners = new CopyOnWriteArrayList<>();
+    private final CommitOrderedEvents likeEvents = new CommitOrderedEvents();
+
+    public JdbcFilmStorage(NamedParameterJdbcTemplate namedJdbc) {
+        this.namedJdbc = namedJdbc;
+        this.jdbc = namedJdbc.getJdbcTemplate();
+        this.streamingJdbc = JdbcPairCursor.streaming(jdbc);
+        this.insertFilm = new SimpleJdbcInsert(jdbc)
+                .withTableName("films")
+                .usingColumns("name", "description", "release_date", "duration")
+                .usingGeneratedKeyColumns("id", "version");
+        this.filmsVersion = new JdbcCollectionVersion(jdbc, "films");
+    }
+
+    public Film getFilm(int id) {
+        List<Film> films = jdbc.query(SELECT_FILMS + "WHERE f.id = ?", (rs, rowNum) -> mapFilm(rs), id);
+        if (films.isEmpty()) {
+            throw new NotFoundException("Фильм с ID " + id + " не найден");
+        }
+        loadLikes(films);
+        return films.getFirst();
+    }
+
+    public List<Film> getFilms(Collection<Integer> ids) {
+        Map<Integer, Film> byId = new HashMap<>(ids.size() * 2);
+        for (List<Integer> chunk : JdbcInList.chunks(ids)) {
+            List<Film> films = namedJdbc.query(SELECT_FILMS + "WHERE f.id IN (:ids)", Map.of("ids", chunk),
+                    (rs, rowNum) -> mapFilm(rs));
+            loadLikes(films);
+            films.forEach(film -> byId.put(film.getId(), film));
+        }
+        List<Film> result = new ArrayList<>(ids.size());
+        for (int filmId : ids) {
+            Film film = byId.get(filmId);
+            if (film != null) {
+                result.add(film);
+            }
+        }
+        return result;
+    }
+
+    public long[] getLikes(int filmId) {
+        requireFilm(filmId);
+        return jdbc.queryForList("SELECT user_id FROM likes WHERE film_id = ?", Long.class, filmId).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+
+    public List<Film> getAllFilms() {
+        List<Film> films = jdbc.query(SELECT_FILMS + "ORDER BY f.id", (rs, rowNum) -> mapFilm(rs));
+        if (films.isEmpty()) {
+            return films;
+        }
+        Map<Integer, Film> byId = byId(films);
+        jdbc.query("SELECT film_id, user_id FROM likes", rs -> {
+            Film film = byId.get(rs.getInt(1));
+            if (film != null) {
+                film.getFilmLikes().add(rs.getLong(2));
+            }
+        });
+        return films;
+    }
+
+    public void forEachFilm(Consumer<? super Film> action) {
+        try (JdbcPairCursor likes = new JdbcPairCursor(streamingJdbc,
+                "SELECT film_id, user_id FROM likes ORDER BY film_id")) {
+            streamingJdbc.query(SELECT_FILMS + "ORDER BY f.id", rs -> {
+                Film film = mapFilm(rs);
+                likes.drain(film.getId(), film.getFilmLikes()::add);
+                action.accept(film);
+            });
+        }
+    }
+
+    public List<Film> getFilmsAfter(int afterId, int limit) {
+        List<Film> films = jdbc.query(SELECT_FILMS + "WHERE f.id > ? ORDER BY f.id LIMIT ?",
+                (rs, rowNum) -> mapFilm(rs), afterId, limit);
+        loadLikes(films);
+        return films;
+    }
+
+    public Film addNewFilm(Film film) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("name", film.getName());
+        values.put("description", film.getDescription());
+        values.put("release_date", toDate(film.getReleaseDate()));
+        values.put("duration", film.getDuration());
+        Map<String, Object> keys = insertFilm.executeAndReturnKeyHolder(values).getKeys();
+        filmsVersion.bump();
+
+        Film newFilm = Film.builder()
+                .id(((Number) keys.get("id")).intValue())
+                .name(film.getName())
+                .description(film.getDescription())
+                .releaseDate(film.getReleaseDate())
+                .duration(film.getDuration())
+                .version(((Number) keys.get("version")).longValue())
+                .build();
+        log.info("Добавлен новый фильм: '{}' (ID: {})", newFilm.getName(), newFilm.getId());
+        return newFilm;
+    }
+
+    /**
+     * Вставляет фильмы одним пакетным запросом и забирает сгенерированные ID и версии
+     * из того же пакета.
+     */
+    @Transactional
+    public List<Film> addNewFilms(List<Film> films) {
+        if (films.isEmpty()) {
+            return new ArrayList<>();
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbc.batchUpdate(connection -> connection.prepareStatement(INSERT_FILM, new String[]{"id", "version"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        Film film = films.get(i);
+                        statement.setString(1, film.getName());
+                        statement.setString(2, film.getDescription());
+                        statement.setDate(3, toDate(film.getReleaseDate()));
+                        statement.setObject(4, film.getDuration(), Types.INTEGER);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return films.size();
+                    }
+                }, keys);
+        filmsVersion.bump();
+        List<Map<String, Object>> generated = keys.getKeyList();
+        List<Film> newFilms = new ArrayList<>(films.size());
+        for (int i = 0; i < films.size(); i++) {
+            Film film = films.get(i);
+            newFilms.add(Film.builder()
+                    .id(((Number) generated.get(i).get("id")).intValue())
+                    .name(film.getName())
+                    .description(film.getDescription())
+                    .releaseDate(film.getReleaseDate())
+                    .duration(film.getDuration())
+                    .version(((Number) generated.get(i).get("version")).longValue())
+                    .build());
+        }
+        return newFilms;
+    }
+
+    @Transactional
+    public Film updateFilm(Film filmUpdate) {
+        Film existingFilm = getFilm(filmUpdate.getId());
+        if (filmUpdate.getDescription() != null) {
+            existingFilm.setDescription(filmUpdate.getDescription());
+        }
+        if (filmUpdate.getDuration() != null) {
+            existingFilm.setDuration(filmUpdate.getDuration());
+        }
+        if (filmUpdate.getName() != null) {
+            existingFilm.setName(filmUpdate.getName());
+        }
+        if (filmUpdate.getReleaseDate() != null) {
+            existingFilm.setReleaseDate(filmUpdate.getReleaseDate());
+        }
+        jdbc.update("UPDATE films SET name = ?, description = ?, release_date = ?, duration = ?, "
+                        + "version = NEXT VALUE FOR entity_version WHERE id = ?",
+                existingFilm.getName(), existingFilm.getDescription(), toDate(existingFilm.getReleaseDate()),
+                existingFilm.getDuration(), existingFilm.getId());
+        existingFilm.setVersion(jdbc.queryForObject("SELECT version FROM films WHERE id = ?", Long.class,
+                existingFilm.getId()));
+        filmsVersion.bump();
+
+        log.info("Обновлен фильм: '{}' (ID: {})", existingFilm.getName(), existingFilm.getId());
+        return existingFilm;
+    }
+
+    @Transactional
+    public boolean addLike(int filmId, long userId) {
+        requireFilm(filmId);
+        try {
+            if (jdbc.update(INSERT_LIKE, filmId, userId, filmId, userId) == 0) {
+                return false;
+            }
+        } catch (DuplicateKeyException e) {
+            // Встречный запрос успел поставить тот же лайк
+            return false;
+        }
+        // Версия меняется после лайка: читатель между запросами получит новые данные со старой
+        // версией и просто не попадет в кеш, обратного расхождения не бывает
+        jdbc.update(BUMP_VERSION, filmId);
+        filmsVersion.bump();
+        likeEvents.publish(() -> notifyLike(filmId, userId, true));
+        return true;
+    }
+
+    @Transactional
+    public boolean deleteLike(int filmId, long userId) {
+        requireFilm(filmId);
+        if (jdbc.update("DELETE FROM likes WHERE film_id = ? AND user_id = ?", filmId, userId) == 0) {
+            return false;
+        }
+        jdbc.update(BUMP_VERSION, filmId);
+        filmsVersion.bump();
+        likeEvents.publish(() -> notifyLike(filmId, userId, false));
+        return true;
+    }
+
+    /**
+     * Вставляет и удаляет лайки двумя пакетными запросами в одной транзакции.
+     */
+    @Transactional
+    public AppliedLikes applyLikes(int filmId, long[] likedBy, long[] unlikedBy) {
+        requireFilm(filmId);
+        long[] liked = new long[0];
+        if (likedBy.length > 0) {
+            List<Object[]> rows = new ArrayList<>(likedBy.length);
+            for (long userId : likedBy) {
+                rows.add(new Object[]{filmId, userId, filmId, userId});
+            }
+            liked = changedUsers(likedBy, jdbc.batchUpdate(INSERT_LIKE, rows));
+        }
+        long[] unliked = new long[0];
+        if (unlikedBy.length > 0) {
+            List<Object[]> rows = new ArrayList<>(unlikedBy.length);
+            for (long userId : unlikedBy) {
+                rows.add(new Object[]{filmId, userId});
+            }
+            unliked = changedUsers(unlikedBy,
+                    jdbc.batchUpdate("DELETE FROM likes WHERE film_id = ? AND user_id = ?", rows));
+        }
+        if (liked.length + unliked.length == 0) {
+            return AppliedLikes.NONE;
+        }
+        jdbc.update(BUMP_VERSION, filmId);
+        filmsVersion.bump();
+        long[] likedUsers = liked;
+        long[] unlikedUsers = unliked;
+        likeEvents.publish(() -> {
+            for (long userId : likedUsers) {
+                notifyLike(filmId, userId, true);
+            }
+            for (long userId : unlikedUsers) {
+                notifyLike(filmId, userId, false);
+            }
+        });
+        return new AppliedLikes(liked, unliked);
+    }
+
+    public List<Film> getPopularFilms(int count) {
+        List<Film> films = jdbc.query(SELECT_FILMS
+                        + "LEFT JOIN likes l ON l.film_id = f.id "
+                        + "GROUP BY f.id, f.name, f.description, f.release_date, f.duration, f.version "
+                        + "ORDER BY COUNT(l.user_id) DESC, f.id LIMIT ?",
+                (rs, rowNum) -> mapFilm(rs), count);
+        loadLikes(films);
+        return films;
+    }
+
+    public long getFilmsVersion() {
+        return filmsVersion.get();
+    }
+
+    public void addLikeListener(LikeListener listener) {
+        likeListeners.add(listener);
+    }
+
+    private void notifyLike(int filmId, long userId, boolean liked) {
+        for (LikeListener listener : likeListeners) {
+            listener.likeChanged(filmId, userId, liked);
+        }
+    }
+
+    // Пользователи, чьи строки пакетный запрос действительно изменил
+    private static long[] changedUsers(long[] userIds, int[] counts) {
+        long[] changed = new long[userIds.length];
+        int size = 0;
+        for (int i = 0; i < userIds.length; i++) {
+            if (counts[i] != 0) {
+                changed[size++] = userIds[i];
+            }
+        }
+        return Arrays.copyOf(changed, size);
+    }
+
+    private void requireFilm(int filmId) {
+        Integer found = jdbc.queryForObject("SELECT COUNT(*) FROM films WHERE id = ?", Integer.class, filmId);
+        if (found == null || found == 0) {
+            throw new NotFoundException("Фильм с ID " + filmId + " не найден");
+        }
+    }
+
+    /**
+     * Загружает лайки для уже выбранных фильмов одним запросом.
+     */
+    private void loadLikes(List<Film> films) {
+        if (films.isEmpty()) {
+            return;
+        }
+        Map<Integer, Film> byId = byId(films);
+        for (List<Integer> chunk : JdbcInList.chunks(byId.keySet())) {
+            namedJdbc.query("SELECT film_id, user_id FROM likes WHERE film_id IN (:ids)",
+                    Map.of("ids", chunk), rs -> {
+                        byId.get(rs.getInt(1)).getFilmLikes().add(rs.getLong(2));
+                    });
+        }
+    }
+
+    private static Map<Integer, Film> byId(List<Film> films) {
+        Map<Integer, Film> byId = new HashMap<>(films.size() * 2);
+        for (Film film : films) {
+            byId.put(film.getId(), film);
+        }
+        return byId;
+    }
+
+    private static Film mapFilm(ResultSet rs) throws SQLException {
+        Date releaseDate = rs.getDate("release_date");
+        return Film.builder()
+                .id(rs.getInt("id"))
+                .name(rs.getString("name"))
+                .description(rs.getString("description"))
+                .releaseDate(releaseDate != null ? releaseDate.toLocalDate() : null)
+                .duration(rs.getObject("duration", Integer.class))
+                .version(rs.getLong("version"))
+                .build();
+    }
+
+    private static Date toDate(LocalDate date) {
+        return date != null ? Date.valueOf(date) : null;
+    }
+}
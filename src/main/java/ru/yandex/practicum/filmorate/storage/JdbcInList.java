@@ -0,0 +1,30 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Разбиение списка ID для запросов вида {@code IN (:ids)}. Повторы убираются, а
+ * длинные списки делятся на части: каждый параметр списка — отдельный плейсхолдер,
+ * и у драйверов есть предел на их число в одном запросе.
+ */
+final class JdbcInList {
+    static final int MAX_SIZE = 1_000;
+
+    private JdbcInList() {
+    }
+
+    static <T> List<List<T>> chunks(Collection<T> ids) {
+        List<T> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (distinct.size() <= MAX_SIZE) {
+            return List.of(distinct);
+        }
+        List<List<T>> chunks = new ArrayList<>(distinct.size() / MAX_SIZE + 1);
+        for (int from = 0; from < distinct.size(); from += MAX_SIZE) {
+            chunks.add(distinct.subList(from, Math.min(from + MAX_SIZE, distinct.size())));
+        }
+        return chunks;
+    }
+}
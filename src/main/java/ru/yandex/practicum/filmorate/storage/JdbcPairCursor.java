@@ -0,0 +1,60 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Iterator;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+
+/**
+ * Курсор по парам {@code (владелец, значение)}, упорядоченным по владельцу: лайки по
+ * фильмам или друзья по пользователям. Сливается с выборкой сущностей, упорядоченной
+ * по тому же ID, так что при обходе всей таблицы в памяти держится одна строка, а не
+ * все связи сразу.
+ */
+final class JdbcPairCursor implements AutoCloseable {
+    /**
+     * Сколько строк драйвер подгружает за раз при потоковом чтении.
+     */
+    static final int FETCH_SIZE = 1_000;
+
+    private final Stream<long[]> rows;
+    private final Iterator<long[]> iterator;
+    private long[] next;
+
+    /**
+     * @param sql запрос, возвращающий ID владельца и значение, упорядоченные по ID владельца
+     */
+    JdbcPairCursor(JdbcTemplate jdbc, String sql) {
+        this.rows = jdbc.queryForStream(sql, (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)});
+        this.iterator = rows.iterator();
+        this.next = iterator.hasNext() ? iterator.next() : null;
+    }
+
+    /**
+     * Копия шаблона, которая читает результат порциями по {@link #FETCH_SIZE} строк.
+     */
+    static JdbcTemplate streaming(JdbcTemplate jdbc) {
+        JdbcTemplate streaming = new JdbcTemplate(jdbc.getDataSource());
+        streaming.setFetchSize(FETCH_SIZE);
+        return streaming;
+    }
+
+    /**
+     * Передает в {@code sink} значения владельца {@code ownerId} и пропускает пары
+     * владельцев с меньшими ID. Владельцы должны запрашиваться по возрастанию ID.
+     */
+    void drain(long ownerId, LongConsumer sink) {
+        while (next != null && next[0] <= ownerId) {
+            if (next[0] == ownerId) {
+                sink.accept(next[1]);
+            }
+            next = iterator.hasNext() ? iterator.next() : null;
+        }
+    }
+
+    @Override
+    public void close() {
+        rows.close();
+    }
+}
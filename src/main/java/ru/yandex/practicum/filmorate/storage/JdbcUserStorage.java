@@ -0,0 +1,414 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.simple.SimpleJdbcInsert;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
+import ru.yandex.practicum.filmorate.exceptions.ValidationException;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Хранилище пользователей в реляционной БД.
+ *
+ * <p>Дружба взаимная и хранится двумя строками таблицы {@code friendships}, которые
+ * вставляются и удаляются одним пакетом, всегда начиная со строки {@code (меньший ID,
+ * больший ID)}: встречный запрос той же пары упирается в блокировку этой строки, ждет
+ * фиксации и видит дубликат, а не ждет вторую строку до таймаута. Списки пользователей собираются двумя
+ * запросами: сами пользователи и ID их друзей, без отдельного запроса на каждого,
+ * в том числе при выборке по списку ID. Существование пользователей перед изменением
+ * дружбы проверяется одним запросом на оба ID.
+ * Обход всех пользователей читает обе таблицы потоково, упорядочив их по ID пользователя.
+ * Версии пользователей ведутся так же, как версии фильмов в {@link JdbcFilmStorage};
+ * изменение дружбы меняет версии обоих пользователей. {@link FriendshipListener} получает
+ * изменения после фиксации, как {@link LikeListener} в {@link JdbcFilmStorage}: номер
+ * события берется после обновления версий, которое блокирует строки обоих пользователей.
+ */
+@Component
+@ConditionalOnProperty(prefix = "filmorate.storage", name = "type", havingValue = "jdbc")
+@Slf4j
+public class JdbcUserStorage implements UserStorage {
+    private static final String SELECT_USERS = "SELECT u.id, u.email, u.login, u.name, u.birthday, u.version "
+            + "FROM users u ";
+    private static final String INSERT_USER = "INSERT INTO users (email, login, name, birthday) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_FRIENDSHIP = "INSERT INTO friendships (user_id, friend_id) "
+            + "SELECT ?, ? WHERE NOT EXISTS (SELECT 1 FROM friendships WHERE user_id = ? AND friend_id = ?)";
+    private static final String DELETE_FRIENDSHIP = "DELETE FROM friendships WHERE user_id = ? AND friend_id = ?";
+    private static final String BUMP_VERSIONS = "UPDATE users SET version = NEXT VALUE FOR entity_version "
+            + "WHERE id IN (?, ?)";
+
+    private final JdbcTemplate jdbc;
+    private final NamedParameterJdbcTemplate namedJdbc;
+    private final JdbcTemplate streamingJdbc;
+    private final SimpleJdbcInsert insertUser;
+    private final JdbcCollectionVersion usersVersion;
+    private final List<FriendshipListener> friendshipListeners = new CopyOnWriteArrayList<>();
+    private final CommitOrderedEvents friendshipEvents = new CommitOrderedEvents();
+
+    public JdbcUserStorage(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+        this.namedJdbc = new NamedParameterJdbcTemplate(jdbc);
+        this.streamingJdbc = JdbcPairCursor.streaming(jdbc);
+        this.insertUser = new SimpleJdbcInsert(jdbc)
+                .withTableName("users")
+                .usingColumns("email", "login", "name", "birthday")
+                .usingGeneratedKeyColumns("id", "version");
+        this.usersVersion = new JdbcCollectionVersion(jdbc, "users");
+    }
+
+    public User getUser(long id) {
+        checkId(id);
+        List<User> users = query(SELECT_USERS + "WHERE u.id = ?",
+                "SELECT user_id, friend_id FROM friendships WHERE user_id = ?", id);
+        if (users.isEmpty()) {
+            throw new NotFoundException("Пользователь с ID " + id + " не найден");
+        }
+        return users.getFirst();
+    }
+
+    public List<User> getUsers(Collection<Long> ids) {
+        ids.forEach(JdbcUserStorage::checkId);
+        Map<Long, User> byId = new HashMap<>(ids.size() * 2);
+        for (List<Long> chunk : JdbcInList.chunks(ids)) {
+            Map<String, Object> params = Map.of("ids", chunk);
+            namedJdbc.query(SELECT_USERS + "WHERE u.id IN (:ids)", params,
+                    rs -> {
+                        User user = mapUser(rs);
+                        byId.put(user.getId(), user);
+                    });
+            namedJdbc.query("SELECT user_id, friend_id FROM friendships WHERE user_id IN (:ids)", params,
+                    rs -> {
+                        byId.get(rs.getLong(1)).getUserFriends().add(rs.getLong(2));
+                    });
+        }
+        List<User> result = new ArrayList<>(ids.size());
+        for (long userId : ids) {
+            User user = byId.get(userId);
+            if (user != null) {
+                result.add(user);
+            }
+        }
+        return result;
+    }
+
+    public List<User> getAllUsers() {
+        return query(SELECT_USERS + "ORDER BY u.id", "SELECT user_id, friend_id FROM friendships");
+    }
+
+    public void forEachUser(Consumer<? super User> action) {
+        try (JdbcPairCursor friends = new JdbcPairCursor(streamingJdbc,
+                "SELECT user_id, friend_id FROM friendships ORDER BY user_id")) {
+            streamingJdbc.query(SELECT_USERS + "ORDER BY u.id", rs -> {
+                User user = mapUser(rs);
+                friends.drain(user.getId(), user.getUserFriends()::add);
+                action.accept(user);
+            });
+        }
+    }
+
+    public List<User> getUsersAfter(long afterId, int limit) {
+        return query(SELECT_USERS + "WHERE u.id > ? ORDER BY u.id LIMIT ?",
+                "SELECT user_id, friend_id FROM friendships "
+                        + "WHERE user_id IN (SELECT id FROM users WHERE id > ? ORDER BY id LIMIT ?)",
+                afterId, limit);
+    }
+
+    public User addNewUser(User user) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("email", user.getEmail());
+        values.put("login", user.getLogin());
+        values.put("name", user.getName());
+        values.put("birthday", toDate(user.getBirthday()));
+        Map<String, Object> keys = insertUser.executeAndReturnKeyHolder(values).getKeys();
+        usersVersion.bump();
+
+        User newUser = User.builder()
+                .id(((Number) keys.get("id")).longValue())
+                .email(user.getEmail())
+                .login(user.getLogin())
+                .name(user.getName())
+                .birthday(user.getBirthday())
+                .version(((Number) keys.get("version")).longValue())
+                .build();
+        log.info("Добавлен новый пользователь: '{}' (ID: {})", newUser.getName(), newUser.getId());
+        return newUser;
+    }
+
+    /**
+     * Вставляет пользователей одним пакетным запросом и забирает сгенерированные ID
+     * и версии из того же пакета.
+     */
+    @Transactional
+    public List<User> addNewUsers(List<User> users) {
+        if (users.isEmpty()) {
+            return new ArrayList<>();
+        }
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbc.batchUpdate(connection -> connection.prepareStatement(INSERT_USER, new String[]{"id", "version"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement statement, int i) throws SQLException {
+                        User user = users.get(i);
+                        statement.setString(1, user.getEmail());
+                        statement.setString(2, user.getLogin());
+                        statement.setString(3, user.getName());
+                        statement.setDate(4, toDate(user.getBirthday()));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return users.size();
+                    }
+                }, keys);
+        usersVersion.bump();
+        List<Map<String, Object>> generated = keys.getKeyList();
+        List<User> newUsers = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            newUsers.add(User.builder()
+                    .id(((Number) generated.get(i).get("id")).longValue())
+                    .email(user.getEmail())
+                    .login(user.getLogin())
+                    .name(user.getName())
+                    .birthday(user.getBirthday())
+                    .version(((Number) generated.get(i).get("version")).longValue())
+                    .build());
+        }
+        return newUsers;
+    }
+
+    @Transactional
+    public User updateUser(User userUpdate) {
+        User existingUser = getUser(userUpdate.getId());
+        if (userUpdate.getEmail() != null) {
+            existingUser.setEmail(userUpdate.getEmail());
+        }
+        if (userUpdate.getLogin() != null) {
+            existingUser.setLogin(userUpdate.getLogin());
+        }
+        if (userUpdate.getName() != null) {
+            existingUser.setName(userUpdate.getName());
+        }
+        if (userUpdate.getBirthday() != null) {
+            existingUser.setBirthday(userUpdate.getBirthday());
+        }
+        jdbc.update("UPDATE users SET email = ?, login = ?, name = ?, birthday = ?, "
+                        + "version = NEXT VALUE FOR entity_version WHERE id = ?",
+                existingUser.getEmail(), existingUser.getLogin(), existingUser.getName(),
+                toDate(existingUser.getBirthday()), existingUser.getId());
+        existingUser.setVersion(jdbc.queryForObject("SELECT version FROM users WHERE id = ?", Long.class,
+                existingUser.getId()));
+        usersVersion.bump();
+
+        log.info("Обновлен пользователь: '{}' (ID: {})", existingUser.getName(), existingUser.getId());
+        return existingUser;
+    }
+
+    @Transactional
+    public boolean addFriend(long userId, long friendId) {
+        requireUsers(userId, friendId);
+        try {
+            int[] inserted = jdbc.batchUpdate(INSERT_FRIENDSHIP, friendshipRows(userId, friendId, true));
+            if (inserted[0] == 0) {
+                return false;
+            }
+        } catch (DuplicateKeyException e) {
+            // Встречный запрос успел связать тех же пользователей
+            return false;
+        }
+        jdbc.update(BUMP_VERSIONS, userId, friendId);
+        usersVersion.bump();
+        friendshipEvents.publish(() -> notifyFriendship(userId, friendId, true));
+        return true;
+    }
+
+    /**
+     * Вставляет обе строки каждой пары одним пакетом и одним пакетом же обновляет версии
+     * пользователей из пар, которые стали друзьями. Пары идут по возрастанию, чтобы
+     * встречные пакеты блокировали строки в одном порядке.
+     */
+    @Transactional
+    public int addFriends(long[] userIds, long[] friendIds, int count) {
+        List<long[]> pairs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (userIds[i] != friendIds[i]) {
+                pairs.add(new long[]{Math.min(userIds[i], friendIds[i]), Math.max(userIds[i], friendIds[i])});
+            }
+        }
+        pairs.sort(Comparator.<long[]>comparingLong(pair -> pair[0]).thenComparingLong(pair -> pair[1]));
+        List<Object[]> rows = new ArrayList<>(pairs.size() * 2);
+        for (long[] pair : pairs) {
+            rows.addAll(friendshipRows(pair[0], pair[1], true));
+        }
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        int[] inserted = jdbc.batchUpdate(INSERT_FRIENDSHIP, rows);
+        List<Object[]> added = new ArrayList<>();
+        for (int row = 0; row < rows.size(); row += 2) {
+            if (inserted[row] != 0) {
+                added.add(new Object[]{rows.get(row)[0], rows.get(row)[1]});
+            }
+        }
+        if (!added.isEmpty()) {
+            jdbc.batchUpdate(BUMP_VERSIONS, added);
+            usersVersion.bump();
+            friendshipEvents.publish(() -> {
+                for (Object[] pair : added) {
+                    notifyFriendship((Long) pair[0], (Long) pair[1], true);
+                }
+            });
+        }
+        return added.size();
+    }
+
+    @Transactional
+    public boolean deleteFriend(long userId, long friendId) {
+        requireUsers(userId, friendId);
+        int[] deleted = jdbc.batchUpdate(DELETE_FRIENDSHIP, friendshipRows(userId, friendId, false));
+        if (deleted[0] == 0) {
+            return false;
+        }
+        jdbc.update(BUMP_VERSIONS, userId, friendId);
+        usersVersion.bump();
+        friendshipEvents.publish(() -> notifyFriendship(userId, friendId, false));
+        return true;
+    }
+
+    public List<User> getFriends(long userId) {
+        requireUsers(userId);
+        return query(SELECT_USERS + "JOIN friendships f ON f.friend_id = u.id WHERE f.user_id = ? ORDER BY u.id",
+                "SELECT ff.user_id, ff.friend_id FROM friendships f "
+                        + "JOIN friendships ff ON ff.user_id = f.friend_id WHERE f.user_id = ?",
+                userId);
+    }
+
+    public List<User> getFriendsAfter(long userId, long afterId, int limit) {
+        requireUsers(userId);
+        return query(SELECT_USERS + "JOIN friendships f ON f.friend_id = u.id "
+                        + "WHERE f.user_id = ? AND f.friend_id > ? ORDER BY u.id LIMIT ?",
+                "SELECT ff.user_id, ff.friend_id FROM friendships ff WHERE ff.user_id IN "
+                        + "(SELECT friend_id FROM friendships WHERE user_id = ? AND friend_id > ? "
+                        + "ORDER BY friend_id LIMIT ?)",
+                userId, afterId, limit);
+    }
+
+    public List<User> getCommonFriends(long firstUserId, long secondUserId) {
+        requireUsers(firstUserId, secondUserId);
+        return query(SELECT_USERS
+                        + "JOIN friendships a ON a.friend_id = u.id AND a.user_id = ? "
+                        + "JOIN friendships b ON b.friend_id = u.id AND b.user_id = ? ORDER BY u.id",
+                "SELECT ff.user_id, ff.friend_id FROM friendships a "
+                        + "JOIN friendships b ON b.friend_id = a.friend_id "
+                        + "JOIN friendships ff ON ff.user_id = a.friend_id WHERE a.user_id = ? AND b.user_id = ?",
+                firstUserId, secondUserId);
+    }
+
+    public long getUsersVersion() {
+        return usersVersion.get();
+    }
+
+    public void addFriendshipListener(FriendshipListener listener) {
+        friendshipListeners.add(listener);
+    }
+
+    private void notifyFriendship(long userId, long friendId, boolean friends) {
+        for (FriendshipListener listener : friendshipListeners) {
+            listener.friendshipChanged(userId, friendId, friends);
+        }
+    }
+
+    /**
+     * Параметры запросов для обеих строк пары, строка {@code (меньший ID, больший ID)} первой.
+     */
+    private static List<Object[]> friendshipRows(long userId, long friendId, boolean insert) {
+        long low = Math.min(userId, friendId);
+        long high = Math.max(userId, friendId);
+        return insert
+                ? List.of(new Object[]{low, high, low, high}, new Object[]{high, low, high, low})
+                : List.of(new Object[]{low, high}, new Object[]{high, low});
+    }
+
+    /**
+     * Проверяет одним запросом, что все пользователи существуют.
+     */
+    private void requireUsers(long... ids) {
+        List<Long> idList = new ArrayList<>(ids.length);
+        for (long id : ids) {
+            checkId(id);
+            idList.add(id);
+        }
+        List<Long> found = namedJdbc.queryForList("SELECT id FROM users WHERE id IN (:ids)",
+                Map.of("ids", idList), Long.class);
+        for (long id : ids) {
+            if (!found.contains(id)) {
+                throw new NotFoundException("Пользователь с ID " + id + " не найден");
+            }
+        }
+    }
+
+    private static void checkId(long id) {
+        if (id <= 0) {
+            throw new ValidationException("ID должен быть больше нуля");
+        }
+    }
+
+    /**
+     * Загружает пользователей и ID их друзей. Оба запроса принимают одни и те же
+     * параметры; второй возвращает пары {@code (user_id, friend_id)} для тех же пользователей.
+     */
+    private List<User> query(String usersSql, String friendsSql, Object... args) {
+        List<User> users = jdbc.query(usersSql, (rs, rowNum) -> mapUser(rs), args);
+        if (users.isEmpty()) {
+            return users;
+        }
+        Map<Long, User> byId = new HashMap<>(users.size() * 2);
+        for (User user : users) {
+            byId.put(user.getId(), user);
+        }
+        jdbc.query(friendsSql, rs -> {
+            User user = byId.get(rs.getLong(1));
+            if (user != null) {
+                user.getUserFriends().add(rs.getLong(2));
+            }
+        }, args);
+        return users;
+    }
+
+    private static User mapUser(ResultSet rs) throws SQLException {
+        Date birthday = rs.getDate("birthday");
+        return User.builder()
+                .id(rs.getLong("id"))
+                .email(rs.getString("email"))
+                .login(rs.getString("login"))
+                .name(rs.getString("name"))
+                .birthday(birthday != null ? birthday.toLocalDate() : null)
+                .version(rs.getLong("version"))
+                .build();
+    }
+
+    private static Date toDate(LocalDate date) {
+        return date != null ? Date.valueOf(date) : null;
+    }
+}
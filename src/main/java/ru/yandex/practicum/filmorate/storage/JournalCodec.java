@@ -0,0 +1,185 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.storage.JournalEntry.FilmSaved;
+import ru.yandex.practicum.filmorate.storage.JournalEntry.FriendAdded;
+import ru.yandex.practicum.filmorate.storage.JournalEntry.FriendRemoved;
+import ru.yandex.practicum.filmorate.storage.JournalEntry.LikeAdded;
+import ru.yandex.practicum.filmorate.storage.JournalEntry.LikeRemoved;
+import ru.yandex.practicum.filmorate.storage.JournalEntry.UserSaved;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.zip.CRC32C;
+
+/**
+ * Двоичный формат журнала. Каждая запись обрамлена заголовком
+ * {@code [длина тела: int][CRC32C тела: int]}, а тело начинается с байта типа.
+ * По контрольной сумме при восстановлении отсекается недописанный хвост файла.
+ */
+final class JournalCodec {
+    // Защита от выделения гигантского буфера, если вместо длины прочитан мусор
+    private static final int MAX_RECORD_SIZE = 1 << 20;
+
+    private static final byte FILM_SAVED = 1;
+    private static final byte LIKE_ADDED = 2;
+    private static final byte LIKE_REMOVED = 3;
+    private static final byte USER_SAVED = 4;
+    private static final byte FRIEND_ADDED = 5;
+    private static final byte FRIEND_REMOVED = 6;
+
+    private JournalCodec() {
+    }
+
+    /**
+     * Дописывает запись в {@code out}, используя {@code scratch} как буфер для тела.
+     */
+    static void write(JournalEntry entry, OutputStream out, ByteArrayOutputStream scratch) throws IOException {
+        scratch.reset();
+        writeBody(entry, new DataOutputStream(scratch));
+        byte[] body = scratch.toByteArray();
+        CRC32C crc = new CRC32C();
+        crc.update(body);
+
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(body.length);
+        header.writeInt((int) crc.getValue());
+        out.write(body);
+    }
+
+    /**
+     * Читает следующую запись.
+     *
+     * @return {@code null}, если файл закончился ровно на границе записи
+     * @throws CorruptedRecordException если запись обрезана или не сходится контрольная сумма
+     */
+    static JournalEntry read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        int length;
+        try {
+            length = data.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        try {
+            int expectedCrc = data.readInt();
+            if (length <= 0 || length > MAX_RECORD_SIZE) {
+                throw new CorruptedRecordException("Некорректная длина записи: " + length);
+            }
+            byte[] body = new byte[length];
+            data.readFully(body);
+            CRC32C crc = new CRC32C();
+            crc.update(body);
+            if ((int) crc.getValue() != expectedCrc) {
+                throw new CorruptedRecordException("Контрольная сумма записи не совпадает");
+            }
+            return readBody(new DataInputStream(new ByteArrayInputStream(body)));
+        } catch (EOFException e) {
+            throw new CorruptedRecordException("Запись обрезана");
+        }
+    }
+
+    private static void writeBody(JournalEntry entry, DataOutputStream out) throws IOException {
+        switch (entry) {
+            case FilmSaved film -> {
+                out.writeByte(FILM_SAVED);
+                out.writeInt(film.id());
+                writeString(out, film.name());
+                writeString(out, film.description());
+                writeDate(out, film.releaseDate());
+                writeInteger(out, film.duration());
+            }
+            case LikeAdded like -> {
+                out.writeByte(LIKE_ADDED);
+                out.writeInt(like.filmId());
+                out.writeLong(like.userId());
+            }
+            case LikeRemoved like -> {
+                out.writeByte(LIKE_REMOVED);
+                out.writeInt(like.filmId());
+                out.writeLong(like.userId());
+            }
+            case UserSaved user -> {
+                out.writeByte(USER_SAVED);
+                out.writeLong(user.id());
+                writeString(out, user.email());
+                writeString(out, user.login());
+                writeString(out, user.name());
+                writeDate(out, user.birthday());
+            }
+            case FriendAdded friendship -> {
+                out.writeByte(FRIEND_ADDED);
+                out.writeLong(friendship.userId());
+                out.writeLong(friendship.friendId());
+            }
+            case FriendRemoved friendship -> {
+                out.writeByte(FRIEND_REMOVED);
+                out.writeLong(friendship.userId());
+                out.writeLong(friendship.friendId());
+            }
+        }
+        out.flush();
+    }
+
+    private static JournalEntry readBody(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        return switch (type) {
+            case FILM_SAVED -> new FilmSaved(in.readInt(), readString(in), readString(in), readDate(in),
+                    readInteger(in));
+            case LIKE_ADDED -> new LikeAdded(in.readInt(), in.readLong());
+            case LIKE_REMOVED -> new LikeRemoved(in.readInt(), in.readLong());
+            case USER_SAVED -> new UserSaved(in.readLong(), readString(in), readString(in), readString(in),
+                    readDate(in));
+            case FRIEND_ADDED -> new FriendAdded(in.readLong(), in.readLong());
+            case FRIEND_REMOVED -> new FriendRemoved(in.readLong(), in.readLong());
+            default -> throw new CorruptedRecordException("Неизвестный тип записи: " + type);
+        };
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    static void writeDate(DataOutput out, LocalDate value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochDay());
+        }
+    }
+
+    static LocalDate readDate(DataInput in) throws IOException {
+        return in.readBoolean() ? LocalDate.ofEpochDay(in.readLong()) : null;
+    }
+
+    static void writeInteger(DataOutput out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeInt(value);
+        }
+    }
+
+    static Integer readInteger(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readInt() : null;
+    }
+
+    static class CorruptedRecordException extends IOException {
+        CorruptedRecordException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+
+@Configuration
+public class JournalConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "filmorate.journal", name = "enabled", havingValue = "true")
+    public FileStorageJournal fileStorageJournal(JournalProperties properties) {
+        return new FileStorageJournal(properties);
+    }
+
+    /**
+     * Компонент {@code journal} в {@code /actuator/health}: DOWN, если писатель журнала упал.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "filmorate.journal", name = "enabled", havingValue = "true")
+    public HealthIndicator journalHealthIndicator(FileStorageJournal journal) {
+        return () -> {
+            IOException failure = journal.failure();
+            return failure == null ? Health.up().build() : Health.down(failure).build();
+        };
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "filmorate.journal", name = "enabled", havingValue = "false",
+            matchIfMissing = true)
+    public StorageJournal noopStorageJournal() {
+        return StorageJournal.NOOP;
+    }
+}
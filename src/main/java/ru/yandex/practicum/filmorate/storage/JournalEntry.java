@@ -0,0 +1,42 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+
+/**
+ * Запись журнала изменений. Каждая запись идемпотентна: сохранение сущности несёт
+ * её полное состояние, а лайки и дружба — операции над множествами, поэтому
+ * повторное применение записи не меняет результат.
+ */
+public sealed interface JournalEntry {
+
+    record FilmSaved(int id, String name, String description, LocalDate releaseDate, Integer duration)
+            implements JournalEntry {
+        static FilmSaved of(Film film) {
+            return new FilmSaved(film.getId(), film.getName(), film.getDescription(),
+                    film.getReleaseDate(), film.getDuration());
+        }
+    }
+
+    record LikeAdded(int filmId, long userId) implements JournalEntry {
+    }
+
+    record LikeRemoved(int filmId, long userId) implements JournalEntry {
+    }
+
+    record UserSaved(long id, String email, String login, String name, LocalDate birthday)
+            implements JournalEntry {
+        static UserSaved of(User user) {
+            return new UserSaved(user.getId(), user.getEmail(), user.getLogin(), user.getName(),
+                    user.getBirthday());
+        }
+    }
+
+    record FriendAdded(long userId, long friendId) implements JournalEntry {
+    }
+
+    record FriendRemoved(long userId, long friendId) implements JournalEntry {
+    }
+}
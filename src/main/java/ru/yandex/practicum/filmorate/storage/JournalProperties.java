@@ -0,0 +1,28 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Настройки журнала изменений.
+ *
+ * @param enabled          вести ли журнал и восстанавливать ли из него данные при старте;
+ *                         поддерживается только хранилищами в памяти
+ * @param directory        каталог файлов журнала
+ * @param fsyncBatchSize   сколько записей можно накопить до принудительного fsync
+ * @param fsyncInterval    максимальное время между записью на диск и fsync
+ * @param queueCapacity    размер очереди записей; при переполнении запросы ждут писателя
+ * @param snapshotInterval как часто сохранять снимок хранилищ и удалять покрытые им сегменты
+ */
+@ConfigurationProperties("filmorate.journal")
+public record JournalProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("data/journal") Path directory,
+        @DefaultValue("512") int fsyncBatchSize,
+        @DefaultValue("20ms") Duration fsyncInterval,
+        @DefaultValue("65536") int queueCapacity,
+        @DefaultValue("10m") Duration snapshotInterval) {
+}
@@ -0,0 +1,56 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.yandex.practicum.filmorate.storage.JournalEntry.FilmSaved;
+import ru.yandex.practicum.filmorate.storage.JournalEntry.FriendAdded;
+import ru.yandex.practicum.filmorate.storage.JournalEntry.FriendRemoved;
+import ru.yandex.practicum.filmorate.storage.JournalEntry.LikeAdded;
+import ru.yandex.practicum.filmorate.storage.JournalEntry.LikeRemoved;
+import ru.yandex.practicum.filmorate.storage.JournalEntry.UserSaved;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Восстанавливает хранилища из последнего снимка и хвоста журнала при старте
+ * приложения и только после этого открывает журнал на запись. Выполняется при
+ * создании контекста, то есть до того, как веб-сервер начнёт принимать запросы.
+ */
+@Component
+@ConditionalOnProperty(prefix = "filmorate.journal", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class JournalRecovery {
+    private final FileStorageJournal journal;
+    private final StorageSnapshotter snapshotter;
+    private final InMemoryFilmStorage filmStorage;
+    private final InMemoryUserStorage userStorage;
+
+    @PostConstruct
+    public void recover() throws IOException {
+        long started = System.nanoTime();
+        long fromSegment = snapshotter.load();
+        long count = journal.replay(fromSegment, this::apply);
+        journal.start(fromSegment);
+        snapshotter.schedule();
+        log.info("Хранилища восстановлены за {} мс, из журнала применено {} записей",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), count);
+    }
+
+    private void apply(JournalEntry entry) {
+        switch (entry) {
+            case FilmSaved film -> filmStorage.restoreFilm(film);
+            case LikeAdded like -> filmStorage.restoreLike(like.filmId(), like.userId(), true);
+            case LikeRemoved like -> filmStorage.restoreLike(like.filmId(), like.userId(), false);
+            case UserSaved user -> userStorage.restoreUser(user);
+            case FriendAdded friendship -> userStorage.restoreFriendship(friendship.userId(),
+                    friendship.friendId(), true);
+            case FriendRemoved friendship -> userStorage.restoreFriendship(friendship.userId(),
+                    friendship.friendId(), false);
+        }
+    }
+}
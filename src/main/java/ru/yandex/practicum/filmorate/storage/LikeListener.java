@@ -0,0 +1,18 @@
+package ru.yandex.practicum.filmorate.storage;
+
+/**
+ * Получает изменения лайков из {@link FilmStorage} в том порядке, в котором они применены
+ * к хранилищу. Через него индексы поверх хранилища обновляются без отдельной
+ * синхронизации со встречными изменениями лайков того же фильма.
+ */
+@FunctionalInterface
+public interface LikeListener {
+    /**
+     * Вызывается только для лайков, которые действительно поставлены или сняты, в порядке
+     * изменений фильма: в памяти — под блокировкой фильма, в БД — после фиксации
+     * транзакции, в порядке фиксаций; лайки откаченных транзакций не передаются.
+     *
+     * @param liked {@code true}, если лайк поставлен, {@code false} — если снят
+     */
+    void likeChanged(int filmId, long userId, boolean liked);
+}
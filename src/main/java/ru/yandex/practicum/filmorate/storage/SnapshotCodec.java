@@ -0,0 +1,285 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.util.FriendSet;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Двоичный формат снимка хранилищ.
+ *
+ * <p>Файл начинается с заголовка {@code [MAGIC][версия][номер сегмента журнала]}, за
+ * которым идут независимые блоки {@code [тип: byte][число записей][длина][CRC32C][тело]}
+ * размером около {@link #CHUNK_SIZE}. Блоки отображаются в память по отдельности и
+ * декодируются параллельно. Последним идёт блок с типом {@link #END}.
+ */
+final class SnapshotCodec {
+    private static final int MAGIC = 0x46534e50;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES * 2 + Long.BYTES;
+    private static final int CHUNK_HEADER_SIZE = 1 + Integer.BYTES * 3;
+    private static final int CHUNK_SIZE = 1 << 20;
+
+    private static final byte END = 0;
+    private static final byte FILMS = 1;
+    private static final byte USERS = 2;
+
+    private SnapshotCodec() {
+    }
+
+    /**
+     * Записывает снимок и сбрасывает его на диск.
+     *
+     * @param segment первый сегмент журнала, который не покрыт снимком
+     */
+    static void write(Path file, long segment, Collection<Film> films, Collection<User> users) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(segment);
+
+            ChunkWriter filmChunks = new ChunkWriter(FILMS, out);
+            for (Film film : films) {
+                writeFilm(filmChunks.body, film);
+                filmChunks.recordWritten();
+            }
+            filmChunks.flush();
+
+            ChunkWriter userChunks = new ChunkWriter(USERS, out);
+            for (User user : users) {
+                writeUser(userChunks.body, user);
+                userChunks.recordWritten();
+            }
+            userChunks.flush();
+
+            out.writeByte(END);
+            out.flush();
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Читает снимок, передавая восстановленные фильмы и пользователей в обработчики.
+     * Обработчики вызываются из нескольких потоков одновременно.
+     *
+     * @return первый сегмент журнала, который не покрыт снимком
+     */
+    static long read(Path file, Consumer<Film> films, Consumer<User> users) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = readAt(channel, 0, HEADER_SIZE);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Файл " + file + " не является снимком хранилища");
+            }
+            long segment = header.getLong();
+
+            List<Chunk> chunks = new ArrayList<>();
+            long position = HEADER_SIZE;
+            while (true) {
+                ByteBuffer chunkHeader = readAt(channel, position, 1);
+                byte type = chunkHeader.get();
+                if (type == END) {
+                    break;
+                }
+                chunkHeader = readAt(channel, position + 1, CHUNK_HEADER_SIZE - 1);
+                Chunk chunk = new Chunk(type, chunkHeader.getInt(), chunkHeader.getInt(), chunkHeader.getInt(),
+                        position + CHUNK_HEADER_SIZE);
+                chunks.add(chunk);
+                position = chunk.offset() + chunk.length();
+            }
+
+            try {
+                chunks.parallelStream().forEach(chunk -> decode(channel, chunk, films, users));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return segment;
+        }
+    }
+
+    private static void decode(FileChannel channel, Chunk chunk, Consumer<Film> films, Consumer<User> users) {
+        try {
+            MappedByteBuffer body = channel.map(FileChannel.MapMode.READ_ONLY, chunk.offset(), chunk.length());
+            CRC32C crc = new CRC32C();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != chunk.crc()) {
+                throw new IOException("Контрольная сумма блока снимка по смещению " + chunk.offset()
+                        + " не совпадает");
+            }
+            for (int i = 0; i < chunk.count(); i++) {
+                switch (chunk.type()) {
+                    case FILMS -> films.accept(readFilm(body));
+                    case USERS -> users.accept(readUser(body));
+                    default -> throw new IOException("Неизвестный тип блока снимка: " + chunk.type());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeFilm(DataOutputStream out, Film film) throws IOException {
+        out.writeInt(film.getId());
+        writeString(out, film.getName());
+        writeString(out, film.getDescription());
+        writeDate(out, film.getReleaseDate());
+        out.writeBoolean(film.getDuration() != null);
+        if (film.getDuration() != null) {
+            out.writeInt(film.getDuration());
+        }
+        writeIds(out, film.getFilmLikes().toLongArray());
+    }
+
+    private static Film readFilm(ByteBuffer in) {
+        Film film = Film.builder()
+                .id(in.getInt())
+                .name(readString(in))
+                .description(readString(in))
+                .releaseDate(readDate(in))
+                .duration(in.get() != 0 ? in.getInt() : null)
+                .build();
+        LongHashSet filmLikes = film.getFilmLikes();
+        int likes = in.getInt();
+        for (int i = 0; i < likes; i++) {
+            filmLikes.add(in.getLong());
+        }
+        return film;
+    }
+
+    private static void writeUser(DataOutputStream out, User user) throws IOException {
+        out.writeLong(user.getId());
+        writeString(out, user.getEmail());
+        writeString(out, user.getLogin());
+        writeString(out, user.getName());
+        writeDate(out, user.getBirthday());
+        writeIds(out, user.getUserFriends().toLongArray());
+    }
+
+    private static User readUser(ByteBuffer in) {
+        User user = User.builder()
+                .id(in.getLong())
+                .email(readString(in))
+                .login(readString(in))
+                .name(readString(in))
+                .birthday(readDate(in))
+                .build();
+        FriendSet userFriends = user.getUserFriends();
+        int friends = in.getInt();
+        for (int i = 0; i < friends; i++) {
+            userFriends.add(in.getLong());
+        }
+        return user;
+    }
+
+    private static void writeIds(DataOutputStream out, long[] ids) throws IOException {
+        out.writeInt(ids.length);
+        for (long id : ids) {
+            out.writeLong(id);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeDate(DataOutputStream out, LocalDate value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochDay());
+        }
+    }
+
+    private static LocalDate readDate(ByteBuffer in) {
+        return in.get() != 0 ? LocalDate.ofEpochDay(in.getLong()) : null;
+    }
+
+    private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Снимок обрезан");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private record Chunk(byte type, int count, int length, int crc, long offset) {
+    }
+
+    /**
+     * Накапливает записи одного типа и выгружает их блоками.
+     */
+    private static final class ChunkWriter {
+        private final byte type;
+        private final DataOutputStream out;
+        private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(CHUNK_SIZE + (CHUNK_SIZE >> 2));
+        private final DataOutputStream body = new DataOutputStream(buffer);
+        private int count;
+
+        private ChunkWriter(byte type, DataOutputStream out) {
+            this.type = type;
+            this.out = out;
+        }
+
+        private void recordWritten() throws IOException {
+            count++;
+            if (buffer.size() >= CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            if (count == 0) {
+                return;
+            }
+            byte[] bytes = buffer.toByteArray();
+            CRC32C crc = new CRC32C();
+            crc.update(bytes);
+            out.writeByte(type);
+            out.writeInt(count);
+            out.writeInt(bytes.length);
+            out.writeInt((int) crc.getValue());
+            out.write(bytes);
+            buffer.reset();
+            count = 0;
+        }
+    }
+}
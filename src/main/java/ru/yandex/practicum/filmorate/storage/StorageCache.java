@@ -0,0 +1,171 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Кеш сущностей по ID на Caffeine: вытеснение W-TinyLFU по суммарному весу и сбор
+ * статистики попаданий, промахов и вытеснений.
+ *
+ * <p>Отсутствие сущности тоже кешируется, но на короткий срок, чтобы повторные запросы
+ * несуществующего ID не доходили до хранилища. Загрузка одного ключа атомарна, и
+ * {@link #invalidate} дожидается загрузки, начатой до записи в хранилище. Пакетная
+ * загрузка в {@link #getAll} читает хранилище вне блокировок ключей, поэтому ее результат
+ * кладется в кеш, только если после чтения ключ не инвалидировали; иначе ключ
+ * перечитывается по одному.
+ */
+final class StorageCache<K, V> {
+    // Отрицательная запись: сущности с этим ID в хранилище нет
+    private static final Object MISSING = new Object();
+    // Счетчики инвалидаций по группам ключей: по ним getAll узнает, что пачка устарела
+    private static final int GENERATION_STRIPE_BITS = 6;
+
+    private final AtomicLongArray generations = new AtomicLongArray(1 << GENERATION_STRIPE_BITS);
+
+    private final Cache<K, Object> cache;
+    private final Function<? super K, String> notFoundMessage;
+
+    /**
+     * @param extraWeight     вес сущности сверх единицы, например число ID лайков в ней
+     * @param notFoundMessage текст {@link NotFoundException} для ID из отрицательной записи
+     */
+    StorageCache(StorageCacheProperties properties, ToIntFunction<? super V> extraWeight,
+                 Function<? super K, String> notFoundMessage) {
+        this.notFoundMessage = notFoundMessage;
+        long positiveTtl = properties.expireAfterWrite().toNanos();
+        long negativeTtl = properties.negativeTtl().toNanos();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.maximumWeight())
+                .weigher((K key, Object value) -> value == MISSING ? 1 : 1 + extraWeight.applyAsInt(cast(value)))
+                .expireAfter(new Expiry<K, Object>() {
+                    @Override
+                    public long expireAfterCreate(K key, Object value, long currentTime) {
+                        return value == MISSING ? negativeTtl : positiveTtl;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(K key, Object value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(K key, Object value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Возвращает сущность из кеша или загружает ее. {@link NotFoundException} загрузчика
+     * запоминается и повторяется для этого ID до истечения срока отрицательной записи.
+     */
+    V get(K key, Function<? super K, ? extends V> loader) {
+        Object value = cache.get(key, missingKey -> {
+            try {
+                return loader.apply(missingKey);
+            } catch (NotFoundException e) {
+                return MISSING;
+            }
+        });
+        if (value == MISSING) {
+            throw new NotFoundException(notFoundMessage.apply(key));
+        }
+        return cast(value);
+    }
+
+    /**
+     * Возвращает найденные сущности в порядке {@code keys}; недостающие в кеше загружаются
+     * одним вызовом {@code loader}. ID, которых нет в хранилище, пропускаются.
+     */
+    List<V> getAll(Collection<K> keys, Function<? super List<K>, ? extends Collection<V>> loader,
+                   Function<? super V, K> keyOf) {
+        Map<K, Object> values = new HashMap<>(cache.getAllPresent(keys));
+        Set<K> missingKeys = new LinkedHashSet<>();
+        for (K key : keys) {
+            if (!values.containsKey(key)) {
+                missingKeys.add(key);
+            }
+        }
+        if (!missingKeys.isEmpty()) {
+            long[] seen = new long[generations.length()];
+            for (int i = 0; i < seen.length; i++) {
+                seen[i] = generations.get(i);
+            }
+            Map<K, Object> loaded = load(new ArrayList<>(missingKeys), loader, keyOf);
+            for (K key : missingKeys) {
+                int stripe = stripe(key);
+                // Ключ инвалидирован после чтения пачки — ее значение могло устареть
+                values.put(key, cache.get(key, missingKey -> generations.get(stripe) == seen[stripe]
+                        ? loaded.get(missingKey)
+                        : load(List.of(missingKey), loader, keyOf).get(missingKey)));
+            }
+        }
+        List<V> result = new ArrayList<>(keys.size());
+        for (K key : keys) {
+            Object value = values.get(key);
+            if (value != null && value != MISSING) {
+                result.add(cast(value));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Сбрасывает запись. Загрузка этого ключа, уже начатая через {@link #get}, сначала
+     * завершается, а пачка, прочитанная {@link #getAll} до вызова, в кеш не попадет.
+     */
+    void invalidate(K key) {
+        if (key != null) {
+            generations.incrementAndGet(stripe(key));
+            cache.invalidate(key);
+        }
+    }
+
+    CacheStats stats() {
+        return cache.stats();
+    }
+
+    /**
+     * Нижележащий кеш для регистрации метрик.
+     */
+    Cache<K, ?> cache() {
+        return cache;
+    }
+
+    private Map<K, Object> load(List<K> keys, Function<? super List<K>, ? extends Collection<V>> loader,
+                                Function<? super V, K> keyOf) {
+        Map<K, Object> loaded = new HashMap<>(keys.size() * 2);
+        for (V value : loader.apply(keys)) {
+            loaded.put(keyOf.apply(value), value);
+        }
+        for (K key : keys) {
+            loaded.putIfAbsent(key, MISSING);
+        }
+        return loaded;
+    }
+
+    private static int stripe(Object key) {
+        return (key.hashCode() * 0x9E3779B9) >>> (Integer.SIZE - GENERATION_STRIPE_BITS);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V cast(Object value) {
+        return (V) value;
+    }
+}
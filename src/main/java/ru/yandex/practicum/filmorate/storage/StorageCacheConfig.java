@@ -0,0 +1,38 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Ставит кеширующие обертки перед выбранными хранилищами. Обертки помечены
+ * {@link Primary}, поэтому сервисы получают их, а сами хранилища остаются доступны
+ * по своим классам. Статистика кешей публикуется в метриках {@code cache.*} с тегом
+ * {@code cache=films} или {@code cache=users}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "filmorate.cache", name = "enabled", havingValue = "true")
+public class StorageCacheConfig {
+
+    @Bean
+    @Primary
+    public CachingFilmStorage cachingFilmStorage(FilmStorage filmStorage, StorageCacheProperties properties,
+                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        CachingFilmStorage storage = new CachingFilmStorage(filmStorage, properties);
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, storage.cache(), "films"));
+        return storage;
+    }
+
+    @Bean
+    @Primary
+    public CachingUserStorage cachingUserStorage(UserStorage userStorage, StorageCacheProperties properties,
+                                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        CachingUserStorage storage = new CachingUserStorage(userStorage, properties);
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, storage.cache(), "users"));
+        return storage;
+    }
+}
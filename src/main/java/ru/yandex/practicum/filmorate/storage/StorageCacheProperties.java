@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Настройки кеша фильмов и пользователей перед хранилищем.
+ *
+ * @param enabled          включить кеш; имеет смысл для хранилища в БД, данные в памяти он
+ *                         только продублирует
+ * @param maximumWeight    предельный суммарный вес записей каждого кеша; запись весит
+ *                         1 плюс число ID лайков или друзей в ней
+ * @param expireAfterWrite сколько живет найденная запись, если ее не вытеснили раньше
+ * @param negativeTtl      сколько помнить, что сущности с таким ID нет
+ */
+@ConfigurationProperties("filmorate.cache")
+public record StorageCacheProperties(
+        @DefaultValue("false") boolean enabled,
+        @DefaultValue("1000000") long maximumWeight,
+        @DefaultValue("10m") Duration expireAfterWrite,
+        @DefaultValue("5s") Duration negativeTtl) {
+}
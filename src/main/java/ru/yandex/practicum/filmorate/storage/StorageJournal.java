@@ -0,0 +1,16 @@
+package ru.yandex.practicum.filmorate.storage;
+
+/**
+ * Журнал изменений хранилищ в памяти. Реализация не должна выполнять запись
+ * на диск в потоке вызывающего: запрос не ждёт fsync.
+ */
+public interface StorageJournal extends AutoCloseable {
+    StorageJournal NOOP = entry -> {
+    };
+
+    void append(JournalEntry entry);
+
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,159 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Периодически сохраняет снимок хранилищ и удаляет покрытые им сегменты журнала.
+ *
+ * <p>Снимок нечёткий: хранилища обходятся без блокировки писателей, поэтому изменения,
+ * сделанные во время обхода, могут попасть в снимок частично. Перед обходом журнал
+ * переключается на новый сегмент, и все такие изменения оказываются в нём. При
+ * восстановлении этот сегмент применяется поверх снимка, а так как записи журнала
+ * идемпотентны, итоговое состояние совпадает с состоянием на момент остановки.
+ */
+@Component
+@ConditionalOnProperty(prefix = "filmorate.journal", name = "enabled", havingValue = "true")
+@Slf4j
+public class StorageSnapshotter {
+    private static final Pattern SNAPSHOT_NAME = Pattern.compile("snapshot-(\\d+)\\.bin");
+    private static final String TEMP_FILE = "snapshot.tmp";
+
+    private final FileStorageJournal journal;
+    private final InMemoryFilmStorage filmStorage;
+    private final InMemoryUserStorage userStorage;
+    private final JournalProperties properties;
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private ScheduledExecutorService scheduler;
+    private long snapshotAppendedCount;
+
+    public StorageSnapshotter(FileStorageJournal journal, InMemoryFilmStorage filmStorage,
+                              InMemoryUserStorage userStorage, JournalProperties properties) {
+        this.journal = journal;
+        this.filmStorage = filmStorage;
+        this.userStorage = userStorage;
+        this.properties = properties;
+    }
+
+    /**
+     * Загружает последний снимок в хранилища.
+     *
+     * @return первый сегмент журнала, который нужно применить поверх снимка
+     */
+    public long load() throws IOException {
+        OptionalLong latest = snapshots().stream().mapToLong(Long::longValue).max();
+        if (latest.isEmpty()) {
+            return 0;
+        }
+        Path file = snapshotPath(latest.getAsLong());
+        long started = System.nanoTime();
+        long segment = SnapshotCodec.read(file, filmStorage::restoreFilm, userStorage::restoreUser);
+        log.info("Загружен снимок {} за {} мс", file.getFileName(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return segment;
+    }
+
+    /**
+     * Запускает создание снимков по расписанию.
+     */
+    public void schedule() {
+        long interval = properties.snapshotInterval().toMillis();
+        scheduler = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().name("storage-snapshot").daemon().factory());
+        scheduler.scheduleWithFixedDelay(this::snapshotIfChanged, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Сохраняет снимок и удаляет покрытые им сегменты журнала и прежние снимки.
+     */
+    public void takeSnapshot() throws IOException {
+        snapshotLock.lock();
+        try {
+            long started = System.nanoTime();
+            long appendedCount = journal.appendedCount();
+            long segment = journal.rotate().join();
+
+            Path temp = properties.directory().resolve(TEMP_FILE);
+            Path file = snapshotPath(segment);
+            SnapshotCodec.write(temp, segment, filmStorage.getAllFilms(), userStorage.getAllUsers());
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory();
+
+            journal.deleteSegmentsBefore(segment);
+            for (long existing : snapshots()) {
+                if (existing < segment) {
+                    Files.deleteIfExists(snapshotPath(existing));
+                }
+            }
+            snapshotAppendedCount = appendedCount;
+            log.info("Сохранён снимок {} за {} мс", file.getFileName(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    private void snapshotIfChanged() {
+        if (journal.appendedCount() == snapshotAppendedCount) {
+            return;
+        }
+        try {
+            takeSnapshot();
+        } catch (Exception e) {
+            log.error("Не удалось сохранить снимок хранилищ", e);
+        }
+    }
+
+    /**
+     * Фиксирует переименование снимка до удаления сегментов. Не на всех платформах
+     * каталог можно открыть как файл, поэтому ошибка здесь не критична.
+     */
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(properties.directory(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            log.debug("Не удалось выполнить fsync каталога {}", properties.directory(), e);
+        }
+    }
+
+    private List<Long> snapshots() throws IOException {
+        if (!Files.isDirectory(properties.directory())) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(properties.directory())) {
+            return files.map(file -> SNAPSHOT_NAME.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .toList();
+        }
+    }
+
+    private Path snapshotPath(long segment) {
+        return properties.directory().resolve("snapshot-%020d.bin".formatted(segment));
+    }
+}
@@ -0,0 +1,65 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Фиксированный набор блокировок, между которыми сущности распределяются по ID.
+ * Изменения разных сущностей почти всегда идут параллельно, а изменения одной
+ * сущности — строго последовательно. Чтение блокировки не берёт.
+ */
+class StripedLock {
+    private final ReentrantLock[] stripes;
+    private final int mask;
+
+    StripedLock(int stripeCount) {
+        if (stripeCount <= 0 || Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("Количество полос должно быть степенью двойки");
+        }
+        stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        mask = stripeCount - 1;
+    }
+
+    <T> T withLock(long key, Supplier<T> action) {
+        ReentrantLock lock = stripes[index(key)];
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Берёт блокировки двух сущностей всегда в одном порядке, чтобы встречные
+     * операции над одной парой не приводили к взаимной блокировке.
+     */
+    <T> T withLocks(long firstKey, long secondKey, Supplier<T> action) {
+        int first = index(firstKey);
+        int second = index(secondKey);
+        if (first == second) {
+            return withLock(firstKey, action);
+        }
+        ReentrantLock outer = stripes[Math.min(first, second)];
+        ReentrantLock inner = stripes[Math.max(first, second)];
+        outer.lock();
+        try {
+            inner.lock();
+            try {
+                return action.get();
+            } finally {
+                inner.unlock();
+            }
+        } finally {
+            outer.unlock();
+        }
+    }
+
+    private int index(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+}
@@ -2,15 +2,95 @@ package ru.yandex.practicum.filmorate.storage;
 
 import ru.yandex.practicum.filmorate.model.User;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface UserStorage {
     User getUser(long id);
 
+    /**
+     * Возвращает пользователей с переданными ID одним обращением к хранилищу, в порядке
+     * ID в {@code ids}. Несуществующие ID пропускаются без исключения.
+     *
+     * @throws ru.yandex.practicum.filmorate.exceptions.ValidationException если какой-то ID не больше нуля
+     */
+    List<User> getUsers(Collection<Long> ids);
+
     List<User> getAllUsers();
 
+    /**
+     * Передает пользователей в {@code action} по одному, не собирая их в общий список.
+     * Пользователи, добавленные или измененные во время обхода, могут как попасть в него, так и нет.
+     */
+    void forEachUser(Consumer<? super User> action);
+
+    /**
+     * Возвращает до {@code limit} пользователей с ID больше {@code afterId} по возрастанию ID.
+     * Страница выбирается по упорядоченному по ID индексу, и ее стоимость не зависит от
+     * общего числа пользователей.
+     */
+    List<User> getUsersAfter(long afterId, int limit);
+
     User addNewUser(User user);
 
+    /**
+     * Добавляет пачку новых пользователей для массовой загрузки и возвращает их
+     * с присвоенными ID в порядке {@code users}. В отличие от {@link #addNewUser}, не пишет
+     * в лог каждого пользователя и выделяет ID всей пачке разом.
+     */
+    List<User> addNewUsers(List<User> users);
+
     User updateUser(User userUpdate);
 
+    /**
+     * Атомарно связывает двух пользователей взаимной дружбой.
+     *
+     * @return {@code false}, если пользователи уже являются друзьями
+     */
+    boolean addFriend(long userId, long friendId);
+
+    /**
+     * Связывает взаимной дружбой пары {@code userIds[i] — friendIds[i]} для {@code i < count}
+     * за одно обращение к хранилищу, без проверки существования пользователей на каждую
+     * пару. Пользователи должны существовать; уже дружащие пары пропускаются.
+     *
+     * @return сколько пар стали друзьями
+     */
+    int addFriends(long[] userIds, long[] friendIds, int count);
+
+    /**
+     * Атомарно удаляет взаимную дружбу двух пользователей.
+     *
+     * @return {@code false}, если пользователи не были друзьями
+     */
+    boolean deleteFriend(long userId, long friendId);
+
+    /**
+     * Возвращает друзей пользователя одним запросом к хранилищу.
+     */
+    List<User> getFriends(long userId);
+
+    /**
+     * Возвращает до {@code limit} друзей пользователя с ID больше {@code afterId} по
+     * возрастанию ID.
+     */
+    List<User> getFriendsAfter(long userId, long afterId, int limit);
+
+    /**
+     * Возвращает пользователей, которые дружат с обоими пользователями.
+     */
+    List<User> getCommonFriends(long firstUserId, long secondUserId);
+
+    /**
+     * Версия коллекции пользователей. Растет после каждого добавления и изменения
+     * пользователя и изменения дружбы; изменение, завершившееся до вызова, уже учтено.
+     * С версиями отдельных пользователей не сравнивается.
+     */
+    long getUsersVersion();
+
+    /**
+     * Подписывает {@code listener} на изменения дружбы, см. {@link FriendshipListener}.
+     */
+    void addFriendshipListener(FriendshipListener listener);
 }
@@ -0,0 +1,24 @@
+package ru.yandex.practicum.filmorate.storage;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Счетчик версий хранилища в памяти. Каждое изменение получает следующее значение,
+ * текущее значение служит версией всей коллекции.
+ *
+ * <p>Отсчет начинается с текущего времени в старших битах, чтобы версии после перезапуска
+ * были больше выданных до него и клиент со старым ETag не получил 304 на другие данные.
+ */
+final class VersionClock {
+    private static final int COUNTER_BITS = 20;
+
+    private final AtomicLong version = new AtomicLong(System.currentTimeMillis() << COUNTER_BITS);
+
+    long next() {
+        return version.incrementAndGet();
+    }
+
+    long current() {
+        return version.get();
+    }
+}
@@ -0,0 +1,459 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Индекс похожести предметов по совместным отметкам: каждый пользователь, отметивший оба
+ * предмета, делает их ближе. Похожесть косинусная — {@code C(a, b) / √(n(a) · n(b))}, где
+ * {@code C(a, b)} — число пользователей, отметивших оба предмета, а {@code n} — число
+ * отметок предмета.
+ *
+ * <p>Матрица {@code C} разреженная: строка предмета хранит только предметы, с которыми его
+ * хоть раз отметили вместе. Отметка пользователя меняет строку предмета и строки всех ранее
+ * отмеченных пользователем предметов, то есть стоит O(число отметок пользователя).
+ *
+ * <p>Для рекомендаций у каждого предмета есть список из {@code K} самых похожих соседей.
+ * Изменение строки только помечает список устаревшим, а пересчитывается он при первом
+ * чтении за O(длина строки). Рекомендация суммирует похожесть по спискам соседей отмеченных
+ * пользователем предметов и стоит O(число отметок · K), не перебирая все предметы. Число
+ * отметок предмета входит и в похожесть в чужих строках, но чужие списки из-за него не
+ * пересчитываются: они обновятся при следующем изменении своей строки.
+ *
+ * <p>Отметки одного пользователя сериализуются блокировкой его группы пользователей, а
+ * каждая строка меняется под своей блокировкой, поэтому отметки разных пользователей
+ * применяются параллельно. Число отметок растет раньше совместных и уменьшается позже
+ * них, так что читатель без блокировки строки не увидит совместных отметок больше, чем
+ * отметок предмета. Строка предмета, потерявшего все отметки, остается пустой.
+ *
+ * <p>Предметы — положительные {@code int}, пользователи — положительные {@code long}.
+ */
+public class CooccurrenceIndex {
+    private static final int PARALLEL_THRESHOLD = 64;
+    private static final int USER_LOCK_STRIPES = 64;
+
+    private final int neighbourCount;
+    private final Map<Long, LongHashSet> userItems;
+    private final Map<Integer, Row> rows;
+    private final ReentrantLock[] userLocks = new ReentrantLock[USER_LOCK_STRIPES];
+
+    /**
+     * @param neighbourCount сколько самых похожих соседей ({@code K}) хранить у предмета
+     */
+    public CooccurrenceIndex(int neighbourCount) {
+        this(neighbourCount, new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+    }
+
+    private CooccurrenceIndex(int neighbourCount, Map<Long, LongHashSet> userItems, Map<Integer, Row> rows) {
+        if (neighbourCount <= 0) {
+            throw new IllegalArgumentException("Число соседей должно быть положительным");
+        }
+        this.neighbourCount = neighbourCount;
+        this.userItems = userItems;
+        this.rows = rows;
+        for (int i = 0; i < userLocks.length; i++) {
+            userLocks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Строит индекс по отметкам всех предметов сразу: {@code users[i]} — пользователи,
+     * отметившие предмет {@code items[i]}, без повторов. Строки и списки соседей считаются
+     * параллельно задачами fork-join по диапазонам предметов в {@code pool}.
+     */
+    public static CooccurrenceIndex build(int neighbourCount, int[] items, long[][] users, ForkJoinPool pool) {
+        Map<Long, LongHashSet> userItems = new ConcurrentHashMap<>();
+        Map<Integer, Integer> counts = new HashMap<>(items.length * 2);
+        for (int i = 0; i < items.length; i++) {
+            for (long user : users[i]) {
+                userItems.computeIfAbsent(user, key -> new LongHashSet()).add(items[i]);
+            }
+            counts.put(items[i], users[i].length);
+        }
+        Row[] built = new Row[items.length];
+        pool.invoke(new BuildRows(items, users, userItems, counts::get, built, neighbourCount, 0, items.length));
+
+        Map<Integer, Row> rows = new ConcurrentHashMap<>(items.length * 2);
+        for (int i = 0; i < items.length; i++) {
+            if (built[i].count > 0) {
+                rows.put(items[i], built[i]);
+            }
+        }
+        return new CooccurrenceIndex(neighbourCount, userItems, rows);
+    }
+
+    /**
+     * Добавляет отметку.
+     *
+     * @return {@code false}, если пользователь уже отметил предмет
+     */
+    public boolean add(long user, int item) {
+        ReentrantLock userLock = userLock(user);
+        userLock.lock();
+        try {
+            LongHashSet items = userItems.computeIfAbsent(user, key -> new LongHashSet());
+            if (!items.add(item)) {
+                return false;
+            }
+            // Сначала растет число отметок, потом совместные: C(a, b) не обгоняет n(a)
+            Row row = rows.computeIfAbsent(item, key -> new Row());
+            row.changeCount(1);
+            items.forEachLong(other -> {
+                if (other != item) {
+                    row.change((int) other, 1);
+                    rows.get((int) other).change(item, 1);
+                }
+            });
+            return true;
+        } finally {
+            userLock.unlock();
+        }
+    }
+
+    /**
+     * Снимает отметку.
+     *
+     * @return {@code false}, если пользователь не отмечал предмет
+     */
+    public boolean remove(long user, int item) {
+        ReentrantLock userLock = userLock(user);
+        userLock.lock();
+        try {
+            LongHashSet items = userItems.get(user);
+            if (items == null || !items.remove(item)) {
+                return false;
+            }
+            if (items.isEmpty()) {
+                userItems.remove(user);
+            }
+            Row row = rows.get(item);
+            items.forEachLong(other -> {
+                row.change((int) other, -1);
+                rows.get((int) other).change(item, -1);
+            });
+            row.changeCount(-1);
+            return true;
+        } finally {
+            userLock.unlock();
+        }
+    }
+
+    /**
+     * До {@code limit} предметов, которые пользователь еще не отметил, по убыванию суммарной
+     * похожести на отмеченные им, при равенстве — по возрастанию ключа.
+     */
+    public List<Integer> recommend(long user, int limit) {
+        LongHashSet items;
+        ReentrantLock userLock = userLock(user);
+        userLock.lock();
+        try {
+            LongHashSet current = userItems.get(user);
+            if (current == null) {
+                return List.of();
+            }
+            items = new LongHashSet(current.toLongArray());
+        } finally {
+            userLock.unlock();
+        }
+        Map<Integer, Double> scores = new HashMap<>();
+        items.forEachLong(item -> {
+            Row row = rows.get((int) item);
+            if (row == null) {
+                return;
+            }
+            int[] neighbours;
+            double[] similarities;
+            row.lock.lock();
+            try {
+                refresh(row);
+                neighbours = row.neighbours;
+                similarities = row.similarities;
+            } finally {
+                row.lock.unlock();
+            }
+            for (int i = 0; i < neighbours.length; i++) {
+                if (!items.contains(neighbours[i])) {
+                    scores.merge(neighbours[i], similarities[i], Double::sum);
+                }
+            }
+        });
+        List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<Integer, Double>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+        List<Integer> result = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (int i = 0; i < ranked.size() && result.size() < limit; i++) {
+            result.add(ranked.get(i).getKey());
+        }
+        return result;
+    }
+
+    /**
+     * Не больше {@code K} соседей предмета по убыванию похожести.
+     */
+    public int[] neighbours(int item) {
+        Row row = rows.get(item);
+        if (row == null) {
+            return new int[0];
+        }
+        row.lock.lock();
+        try {
+            refresh(row);
+            return row.neighbours.clone();
+        } finally {
+            row.lock.unlock();
+        }
+    }
+
+    /**
+     * Похожесть двух предметов по текущим отметкам.
+     */
+    public double similarity(int first, int second) {
+        Row row = rows.get(first);
+        Row other = rows.get(second);
+        if (row == null || other == null) {
+            return 0;
+        }
+        int together;
+        row.lock.lock();
+        try {
+            together = row.cooccurrences.get(second);
+        } finally {
+            row.lock.unlock();
+        }
+        return together == 0 ? 0 : together / Math.sqrt((double) row.count * other.count);
+    }
+
+    private ReentrantLock userLock(long user) {
+        return userLocks[(int) ((user * 0x9E3779B97F4A7C15L) >>> 58)];
+    }
+
+    // Вызывается под блокировкой строки; числа отметок чужих строк читаются без их блокировок
+    private void refresh(Row row) {
+        if (row.stale) {
+            row.selectNeighbours(other -> rows.get(other).count, neighbourCount);
+            row.stale = false;
+        }
+    }
+
+    /**
+     * Строка матрицы. Совместные отметки и список соседей меняются под блокировкой строки,
+     * число отметок читается без нее.
+     */
+    private static final class Row {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final IntIntMap cooccurrences = new IntIntMap();
+        private volatile int count;
+        private int[] neighbours = new int[0];
+        private double[] similarities = new double[0];
+        private boolean stale;
+
+        void change(int other, int delta) {
+            lock.lock();
+            try {
+                cooccurrences.add(other, delta);
+                stale = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void changeCount(int delta) {
+            lock.lock();
+            try {
+                count += delta;
+                stale = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Выбирает лучших соседей вставками в отсортированный массив длины {@code K}
+         * за один проход по строке.
+         */
+        void selectNeighbours(IntUnaryOperator countOf, int neighbourCount) {
+            int[] bestItems = new int[Math.min(neighbourCount, cooccurrences.size())];
+            double[] bestScores = new double[bestItems.length];
+            int size = 0;
+            int[] keys = cooccurrences.keys;
+            int[] values = cooccurrences.values;
+            for (int slot = 0; slot < keys.length; slot++) {
+                int item = keys[slot];
+                if (item == IntIntMap.EMPTY) {
+                    continue;
+                }
+                int itemCount = countOf.applyAsInt(item);
+                if (itemCount == 0) {
+                    continue;
+                }
+                double score = values[slot] / Math.sqrt((double) count * itemCount);
+                int position = size;
+                while (position > 0 && precedes(score, item, bestScores[position - 1], bestItems[position - 1])) {
+                    position--;
+                }
+                if (position == bestItems.length) {
+                    continue;
+                }
+                int moved = Math.min(size, bestItems.length - 1) - position;
+                System.arraycopy(bestItems, position, bestItems, position + 1, moved);
+                System.arraycopy(bestScores, position, bestScores, position + 1, moved);
+                bestItems[position] = item;
+                bestScores[position] = score;
+                size = Math.min(size + 1, bestItems.length);
+            }
+            neighbours = Arrays.copyOf(bestItems, size);
+            similarities = Arrays.copyOf(bestScores, size);
+        }
+
+        private static boolean precedes(double score, int item, double otherScore, int otherItem) {
+            return score > otherScore || score == otherScore && item < otherItem;
+        }
+    }
+
+    /**
+     * Счетчики {@code int → int} с открытой адресацией и линейным пробированием. Ключ
+     * {@code 0} означает пустую ячейку; счетчик, дошедший до нуля, удаляется сдвигом
+     * следующих ячеек цепочки назад, поэтому надгробий нет.
+     */
+    private static final class IntIntMap {
+        private static final int EMPTY = 0;
+
+        private int[] keys = new int[8];
+        private int[] values = new int[8];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        int get(int key) {
+            int mask = keys.length - 1;
+            for (int slot = mix(key) & mask; keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return 0;
+        }
+
+        void add(int key, int delta) {
+            int mask = keys.length - 1;
+            int slot = mix(key) & mask;
+            while (keys[slot] != EMPTY && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            if (keys[slot] == EMPTY) {
+                keys[slot] = key;
+                values[slot] = delta;
+                if (++size * 4 > keys.length * 3) {
+                    resize();
+                }
+                return;
+            }
+            values[slot] += delta;
+            if (values[slot] == 0) {
+                delete(slot);
+            }
+        }
+
+        private void delete(int slot) {
+            int mask = keys.length - 1;
+            int hole = slot;
+            for (int next = (hole + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+                int home = mix(keys[next]) & mask;
+                // Ячейку можно сдвинуть в дыру, если ее домашняя ячейка не лежит между дырой и ней
+                if (((next - home) & mask) >= ((next - hole) & mask)) {
+                    keys[hole] = keys[next];
+                    values[hole] = values[next];
+                    hole = next;
+                }
+            }
+            keys[hole] = EMPTY;
+            values[hole] = 0;
+            size--;
+        }
+
+        private void resize() {
+            int[] oldKeys = keys;
+            int[] oldValues = values;
+            keys = new int[oldKeys.length * 2];
+            values = new int[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    int slot = mix(oldKeys[i]) & mask;
+                    while (keys[slot] != EMPTY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                }
+            }
+        }
+
+        private static int mix(int key) {
+            int hash = key * 0x9E3779B9;
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    /**
+     * Строки предметов из диапазона {@code [from, to)}: совместные отметки собираются обходом
+     * пользователей предмета, после чего сразу выбираются соседи. Задачи только читают общие
+     * структуры, а пишет каждая в свои ячейки {@code built}.
+     */
+    private static final class BuildRows extends RecursiveAction {
+        private final int[] items;
+        private final long[][] users;
+        private final Map<Long, LongHashSet> userItems;
+        private final IntUnaryOperator countOf;
+        private final Row[] built;
+        private final int neighbourCount;
+        private final int from;
+        private final int to;
+
+        BuildRows(int[] items, long[][] users, Map<Long, LongHashSet> userItems, IntUnaryOperator countOf,
+                  Row[] built, int neighbourCount, int from, int to) {
+            this.items = items;
+            this.users = users;
+            this.userItems = userItems;
+            this.countOf = countOf;
+            this.built = built;
+            this.neighbourCount = neighbourCount;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > PARALLEL_THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new BuildRows(items, users, userItems, countOf, built, neighbourCount, from, middle),
+                        new BuildRows(items, users, userItems, countOf, built, neighbourCount, middle, to));
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                int item = items[i];
+                Row row = new Row();
+                row.count = users[i].length;
+                for (long user : users[i]) {
+                    userItems.get(user).forEachLong(other -> {
+                        if (other != item) {
+                            row.cooccurrences.add((int) other, 1);
+                        }
+                    });
+                }
+                row.selectNeighbours(countOf, neighbourCount);
+                built[i] = row;
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.SplittableRandom;
+
+/**
+ * Count-Min Sketch: оценка частот ключей в памяти фиксированного размера.
+ *
+ * <p>Таблица из {@code depth} строк по {@code width} счетчиков; ключ увеличивает в каждой
+ * строке один счетчик, выбранный своей хеш-функцией, а оценка — минимум этих счетчиков.
+ * Пока счета неотрицательны, оценка не меньше истинной и с вероятностью
+ * {@code 1 − e^(−depth)} превышает ее не больше чем на {@code e / width · N}, где N — сумма
+ * всех счетов ({@link #errorBound()}). Эскизы с одинаковыми размерами и зерном складываются
+ * поэлементно ({@link #merge}), поэтому эскизы шардов объединяются без потери точности.
+ *
+ * <p>Класс не потокобезопасен.
+ */
+public class CountMinSketch {
+    private final int width;
+    private final int depth;
+    private final long seed;
+    private final long[] rowSeeds;
+    private final long[] counts;
+    private long total;
+
+    /**
+     * @param seed зерно хеш-функций; объединять можно только эскизы с одинаковым зерном
+     */
+    public CountMinSketch(int width, int depth, long seed) {
+        if (width <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("Ширина и глубина эскиза должны быть положительными");
+        }
+        this.width = width;
+        this.depth = depth;
+        this.seed = seed;
+        this.rowSeeds = new SplittableRandom(seed).longs(depth).toArray();
+        this.counts = new long[Math.multiplyExact(width, depth)];
+    }
+
+    /**
+     * Эскиз, который с вероятностью не меньше {@code 1 − delta} ошибается не больше чем
+     * на {@code epsilon · N}.
+     */
+    public static CountMinSketch withErrorBound(double epsilon, double delta, long seed) {
+        if (epsilon <= 0 || delta <= 0 || delta >= 1) {
+            throw new IllegalArgumentException("Нужны epsilon > 0 и 0 < delta < 1");
+        }
+        return new CountMinSketch((int) Math.ceil(Math.E / epsilon), (int) Math.ceil(Math.log(1 / delta)), seed);
+    }
+
+    public int width() {
+        return width;
+    }
+
+    public int depth() {
+        return depth;
+    }
+
+    /**
+     * Сумма всех счетов N.
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Добавляет к счету ключа {@code delta}; отрицательное значение вычитает ранее добавленное.
+     */
+    public void add(int key, long delta) {
+        for (int row = 0; row < depth; row++) {
+            counts[index(row, key)] += delta;
+        }
+        total += delta;
+    }
+
+    /**
+     * Оценка счета ключа сверху.
+     */
+    public long estimate(int key) {
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counts[index(row, key)]);
+        }
+        return Math.max(estimate, 0);
+    }
+
+    /**
+     * Граница ошибки оценки {@code e / width · N}, которая выполняется с вероятностью
+     * {@code 1 − e^(−depth)}.
+     */
+    public double errorBound() {
+        return Math.E / width * total;
+    }
+
+    /**
+     * Прибавляет к этому эскизу счетчики {@code other}, как если бы все его события
+     * пришли сюда.
+     */
+    public void merge(CountMinSketch other) {
+        if (other.width != width || other.depth != depth || other.seed != seed) {
+            throw new IllegalArgumentException("Объединять можно только эскизы с одинаковыми размерами и зерном");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+    }
+
+    private int index(int row, int key) {
+        long hash = mix(key * 0x9E3779B97F4A7C15L + rowSeeds[row]);
+        return row * width + (int) Long.remainderUnsigned(hash, width);
+    }
+
+    // Финальное перемешивание MurmurHash3
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+}
@@ -0,0 +1,147 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Рейтинг ключей по экспоненциально затухающему счету: событие в момент {@code t} весит
+ * {@code 2^(-(now - t) / halfLife)}, то есть за каждый период полураспада вдвое меньше.
+ *
+ * <p>Счет не пересчитывается со временем. Вместо него хранится логарифм суммы весов,
+ * отсчитанных не от текущего момента, а от неподвижного — первого события рейтинга
+ * {@code t0}: {@code ln Σ e^(λ·(t − t0))}. Текущий счет равен
+ * {@code e^(хранимое − λ·(now − t0))}, и множитель {@code e^(−λ·(now − t0))} у всех ключей
+ * общий, поэтому порядок ключей от времени не зависит и индекс меняется только при событиях.
+ * Логарифм не переполняется там, где сами веса {@code e^(λ·(t − t0))} давно вышли бы за
+ * пределы {@code double}, а событие добавляется к нему за O(1) через {@code log(e^a + e^b)}
+ * и сдвигает ключ в индексе за O(log n).
+ */
+public class DecayingRanking {
+    private static final Comparator<Ranked> RANK_ORDER = Comparator
+            .comparingDouble(Ranked::logScore).reversed()
+            .thenComparingInt(Ranked::key);
+    private static final double REMOVAL_EPSILON = 0.01;
+    private static final double LOG_REMOVAL_THRESHOLD = Math.log1p(REMOVAL_EPSILON);
+
+    private final double rate;
+    private final Map<Integer, Double> logScores = new HashMap<>();
+    private final NavigableSet<Ranked> ranking = new TreeSet<>(RANK_ORDER);
+    private final ReentrantLock lock = new ReentrantLock();
+    // Отсчет от первого события, а не от эпохи, сохраняет точность показателя в double
+    private long originMillis = Long.MIN_VALUE;
+
+    /**
+     * @param halfLifeMillis за сколько миллисекунд вес события уменьшается вдвое
+     */
+    public DecayingRanking(long halfLifeMillis) {
+        if (halfLifeMillis <= 0) {
+            throw new IllegalArgumentException("Период полураспада должен быть положительным");
+        }
+        this.rate = Math.log(2) / halfLifeMillis;
+    }
+
+    /**
+     * Добавляет ключу событие с весом 1 в момент {@code nowMillis}.
+     */
+    public void add(int key, long nowMillis) {
+        lock.lock();
+        try {
+            double event = exponent(nowMillis);
+            Double previous = logScores.get(key);
+            update(key, previous, previous == null ? event : logAddExp(previous, event));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Вычитает из счета ключа вес события в момент {@code nowMillis}. Когда и с каким весом
+     * вычитаемое событие было добавлено, неизвестно, поэтому оно снимает столько, сколько
+     * весит свежее; если после этого остается меньше {@link #REMOVAL_EPSILON доли} свежего
+     * события, ключ выбывает из рейтинга. Иначе снятие только что добавленных событий
+     * оставляло бы ключу остаток от затухания, прошедшего между добавлением и снятием.
+     */
+    public void remove(int key, long nowMillis) {
+        lock.lock();
+        try {
+            Double previous = logScores.get(key);
+            if (previous == null) {
+                return;
+            }
+            double event = exponent(nowMillis);
+            update(key, previous, previous - event > LOG_REMOVAL_THRESHOLD ? logSubExp(previous, event) : null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает до {@code limit} ключей с наибольшим текущим счетом.
+     */
+    public List<Integer> top(int limit) {
+        lock.lock();
+        try {
+            List<Integer> result = new ArrayList<>(Math.min(limit, ranking.size()));
+            Iterator<Ranked> iterator = ranking.iterator();
+            while (result.size() < limit && iterator.hasNext()) {
+                result.add(iterator.next().key());
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Счет ключа на момент {@code nowMillis}; {@code 0}, если событий у ключа нет.
+     */
+    public double score(int key, long nowMillis) {
+        lock.lock();
+        try {
+            Double logScore = logScores.get(key);
+            return logScore == null ? 0 : Math.exp(logScore - exponent(nowMillis));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double exponent(long nowMillis) {
+        if (originMillis == Long.MIN_VALUE) {
+            originMillis = nowMillis;
+        }
+        return rate * (nowMillis - originMillis);
+    }
+
+    private void update(int key, Double previous, Double current) {
+        if (previous != null) {
+            ranking.remove(new Ranked(key, previous));
+        }
+        if (current == null) {
+            logScores.remove(key);
+        } else {
+            logScores.put(key, current);
+            ranking.add(new Ranked(key, current));
+        }
+    }
+
+    // ln(e^a + e^b) без вычисления самих экспонент
+    private static double logAddExp(double a, double b) {
+        double max = Math.max(a, b);
+        return max + Math.log1p(Math.exp(-Math.abs(a - b)));
+    }
+
+    // ln(e^a - e^b) при a > b
+    private static double logSubExp(double a, double b) {
+        return a + Math.log(-Math.expm1(b - a));
+    }
+
+    private record Ranked(int key, double logScore) {
+    }
+}
@@ -0,0 +1,222 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Неориентированный граф дружбы на примитивных массивах для обходов без погони за указателями.
+ *
+ * <p>Основа — снимок в формате CSR (compressed sparse row): соседи вершины {@code v} лежат
+ * в {@code targets[offsets[v]..offsets[v + 1])} по возрастанию, весь граф — два массива
+ * {@code int}. Снимок неизменяем, поэтому читается без блокировок.
+ *
+ * <p>Изменения не перестраивают снимок, а кладут в накладку новую строку соседей каждой
+ * затронутой вершины целиком: чтение сначала смотрит в накладку, потом в снимок. Когда
+ * в накладке набирается много ребер, граф под блокировкой писателей сливает ее в новый
+ * снимок и публикует его; строки накладки совпадают с уже слитыми, поэтому читатель
+ * видит верных соседей на любом шаге слияния.
+ *
+ * <p>Вершины — неотрицательные {@code int}; место в снимке выделяется до наибольшей вершины.
+ */
+public class FriendGraph {
+    private static final int[] NO_NEIGHBOURS = new int[0];
+    private static final int MIN_COMPACTION_EDGES = 1024;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Map<Integer, int[]> overlay = new ConcurrentHashMap<>();
+    private volatile Csr csr;
+    private volatile int vertexLimit;
+    private long overlayEdges;
+
+    private FriendGraph(Csr csr) {
+        this.csr = csr;
+        this.vertexLimit = csr.vertexCount();
+    }
+
+    public static FriendGraph empty() {
+        return new FriendGraph(new Csr(new int[1], NO_NEIGHBOURS));
+    }
+
+    /**
+     * Строит граф по списку ребер: {@code sources[i] — targets[i]} для {@code i < edgeCount}.
+     * Каждое ребро достаточно передать в одном направлении; повторы и петли отбрасываются.
+     */
+    public static FriendGraph of(int[] sources, int[] targets, int edgeCount) {
+        int vertexCount = 0;
+        for (int i = 0; i < edgeCount; i++) {
+            vertexCount = Math.max(vertexCount, Math.max(sources[i], targets[i]) + 1);
+        }
+        int[] offsets = new int[vertexCount + 1];
+        for (int i = 0; i < edgeCount; i++) {
+            if (sources[i] != targets[i]) {
+                offsets[sources[i] + 1]++;
+                offsets[targets[i] + 1]++;
+            }
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            offsets[v + 1] += offsets[v];
+        }
+        int[] adjacency = new int[offsets[vertexCount]];
+        int[] fill = Arrays.copyOf(offsets, vertexCount);
+        for (int i = 0; i < edgeCount; i++) {
+            if (sources[i] != targets[i]) {
+                adjacency[fill[sources[i]]++] = targets[i];
+                adjacency[fill[targets[i]]++] = sources[i];
+            }
+        }
+        return new FriendGraph(deduplicate(offsets, adjacency));
+    }
+
+    /**
+     * Вершины графа — от нуля до этого значения, не включая его.
+     */
+    public int vertexLimit() {
+        return vertexLimit;
+    }
+
+    /**
+     * Соседи вершины по возрастанию: возвращает массив, а границы в нем записывает
+     * в {@code bounds[0]} (начало) и {@code bounds[1]} (конец, не включая). Ничего не
+     * выделяет, поэтому годится для обходов в горячем цикле.
+     */
+    public int[] neighbours(int vertex, int[] bounds) {
+        int[] row = overlay.get(vertex);
+        if (row != null) {
+            bounds[0] = 0;
+            bounds[1] = row.length;
+            return row;
+        }
+        Csr current = csr;
+        if (vertex >= current.vertexCount()) {
+            bounds[0] = 0;
+            bounds[1] = 0;
+            return NO_NEIGHBOURS;
+        }
+        bounds[0] = current.offsets()[vertex];
+        bounds[1] = current.offsets()[vertex + 1];
+        return current.targets();
+    }
+
+    public int degree(int vertex) {
+        int[] bounds = new int[2];
+        neighbours(vertex, bounds);
+        return bounds[1] - bounds[0];
+    }
+
+    public boolean hasEdge(int first, int second) {
+        int[] bounds = new int[2];
+        int[] row = neighbours(first, bounds);
+        return Arrays.binarySearch(row, bounds[0], bounds[1], second) >= 0;
+    }
+
+    /**
+     * Добавляет ребро.
+     *
+     * @return {@code false}, если ребро уже было
+     */
+    public boolean addEdge(int first, int second) {
+        return change(first, second, true);
+    }
+
+    /**
+     * Удаляет ребро.
+     *
+     * @return {@code false}, если ребра не было
+     */
+    public boolean removeEdge(int first, int second) {
+        return change(first, second, false);
+    }
+
+    private boolean change(int first, int second, boolean add) {
+        if (first < 0 || second < 0 || first == second) {
+            throw new IllegalArgumentException("Ребро должно соединять две разные неотрицательные вершины");
+        }
+        writeLock.lock();
+        try {
+            if (hasEdge(first, second) == add) {
+                return false;
+            }
+            overlay.put(first, withChange(first, second, add));
+            overlay.put(second, withChange(second, first, add));
+            vertexLimit = Math.max(vertexLimit, Math.max(first, second) + 1);
+            overlayEdges += 2;
+            if (overlayEdges > Math.max(MIN_COMPACTION_EDGES, csr.targets().length / 2)) {
+                compact();
+            }
+            return true;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private int[] withChange(int vertex, int neighbour, boolean add) {
+        int[] bounds = new int[2];
+        int[] row = neighbours(vertex, bounds);
+        int from = bounds[0];
+        int length = bounds[1] - from;
+        int position = Arrays.binarySearch(row, from, bounds[1], neighbour);
+        if (add) {
+            int insertAt = -position - 1 - from;
+            int[] updated = new int[length + 1];
+            System.arraycopy(row, from, updated, 0, insertAt);
+            updated[insertAt] = neighbour;
+            System.arraycopy(row, from + insertAt, updated, insertAt + 1, length - insertAt);
+            return updated;
+        }
+        int removeAt = position - from;
+        int[] updated = new int[length - 1];
+        System.arraycopy(row, from, updated, 0, removeAt);
+        System.arraycopy(row, from + removeAt + 1, updated, removeAt, length - removeAt - 1);
+        return updated;
+    }
+
+    /**
+     * Сливает накладку в новый снимок. Вызывается под блокировкой писателей.
+     */
+    private void compact() {
+        int vertexCount = vertexLimit;
+        Map<Integer, int[]> merged = Map.copyOf(overlay);
+        int[] offsets = new int[vertexCount + 1];
+        int[] bounds = new int[2];
+        for (int v = 0; v < vertexCount; v++) {
+            neighbours(v, bounds);
+            offsets[v + 1] = offsets[v] + bounds[1] - bounds[0];
+        }
+        int[] targets = new int[offsets[vertexCount]];
+        for (int v = 0; v < vertexCount; v++) {
+            int[] row = neighbours(v, bounds);
+            System.arraycopy(row, bounds[0], targets, offsets[v], bounds[1] - bounds[0]);
+        }
+        csr = new Csr(offsets, targets);
+        // Строки убираются только после публикации снимка, в котором они уже есть
+        merged.forEach(overlay::remove);
+        overlayEdges = 0;
+    }
+
+    private static Csr deduplicate(int[] offsets, int[] adjacency) {
+        int vertexCount = offsets.length - 1;
+        int[] compacted = new int[vertexCount + 1];
+        int write = 0;
+        for (int v = 0; v < vertexCount; v++) {
+            int from = offsets[v];
+            int to = offsets[v + 1];
+            Arrays.sort(adjacency, from, to);
+            int rowStart = write;
+            for (int i = from; i < to; i++) {
+                if (write == rowStart || adjacency[write - 1] != adjacency[i]) {
+                    adjacency[write++] = adjacency[i];
+                }
+            }
+            compacted[v + 1] = write;
+        }
+        return new Csr(compacted, write == adjacency.length ? adjacency : Arrays.copyOf(adjacency, write));
+    }
+
+    private record Csr(int[] offsets, int[] targets) {
+        int vertexCount() {
+            return offsets.length - 1;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package ru.yandex.practicum.filmorate.util;
+
+import org.roaringbitmap.longlong.PeekableLongIterator;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Множество ID друзей пользователя.
+ *
+ * <p>У большинства пользователей друзей немного, и для них данные лежат в компактном
+ * {@link LongHashSet}, который читается без блокировок. Как только друзей становится
+ * больше {@link #BITMAP_THRESHOLD}, множество переходит на сжатый roaring-битмап:
+ * он занимает несколько бит на ID при плотных диапазонах и пересекается пословно,
+ * что и нужно для поиска общих друзей у популярных пользователей. Битмап не
+ * потокобезопасен, поэтому в этом режиме чтение идёт под разделяемой блокировкой.
+ *
+ * <p>Как и {@link LongHashSet}, изменения должен сериализовать вызывающий код.
+ */
+public class FriendSet extends AbstractSet<Long> {
+    static final int BITMAP_THRESHOLD = 1024;
+
+    // Нужна, только если у двух множеств совпали identityHashCode и порядок блокировок не определить
+    private static final ReentrantLock TIE_LOCK = new ReentrantLock();
+
+    private final StampedLock lock = new StampedLock();
+    // Ровно одно из полей не null; после перехода на битмап small обнуляется
+    private volatile LongHashSet small = new LongHashSet();
+    private volatile Roaring64Bitmap bitmap;
+    private volatile int size;
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(long id) {
+        LongHashSet current = small;
+        if (current != null) {
+            return current.contains(id);
+        }
+        long stamp = lock.readLock();
+        try {
+            return bitmap.contains(id);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    public boolean add(long id) {
+        LongHashSet current = small;
+        if (current != null) {
+            if (!current.add(id)) {
+                return false;
+            }
+            size = current.size();
+            if (size > BITMAP_THRESHOLD) {
+                promote(current);
+            }
+            return true;
+        }
+        long stamp = lock.writeLock();
+        try {
+            if (bitmap.contains(id)) {
+                return false;
+            }
+            bitmap.addLong(id);
+            size++;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    public boolean remove(long id) {
+        LongHashSet current = small;
+        if (current != null) {
+            if (!current.remove(id)) {
+                return false;
+            }
+            size = current.size();
+            return true;
+        }
+        long stamp = lock.writeLock();
+        try {
+            if (!bitmap.contains(id)) {
+                return false;
+            }
+            bitmap.removeLong(id);
+            size--;
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Обходит ID в порядке возрастания (в режиме хеш-таблицы — в произвольном порядке).
+     */
+    public void forEachLong(LongConsumer action) {
+        LongHashSet current = small;
+        if (current != null) {
+            current.forEachLong(action);
+            return;
+        }
+        long stamp = lock.readLock();
+        try {
+            bitmap.forEach(action::accept);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Возвращает копию ID в виде массива.
+     */
+    public long[] toLongArray() {
+        LongHashSet current = small;
+        if (current != null) {
+            return current.toLongArray();
+        }
+        long stamp = lock.readLock();
+        try {
+            return bitmap.toArray();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Возвращает до {@code limit} ID больше {@code afterId} в порядке возрастания.
+     * Битмап упорядочен, и обход начинается сразу с нужного контейнера, так что
+     * страница стоит O(limit) при любом числе друзей. Компактное множество не больше
+     * {@link #BITMAP_THRESHOLD} элементов просматривается целиком.
+     */
+    public long[] firstAfter(long afterId, int limit) {
+        if (afterId == Long.MAX_VALUE) {
+            return new long[0];
+        }
+        LongHashSet current = small;
+        if (current != null) {
+            long[] ids = current.toLongArray();
+            int count = 0;
+            for (long id : ids) {
+                if (id > afterId) {
+                    ids[count++] = id;
+                }
+            }
+            Arrays.sort(ids, 0, count);
+            return Arrays.copyOf(ids, Math.min(count, limit));
+        }
+        long stamp = lock.readLock();
+        try {
+            long[] ids = new long[limit];
+            int count = 0;
+            PeekableLongIterator iterator = bitmap.getLongIterator();
+            iterator.advanceIfNeeded(afterId + 1);
+            while (count < limit && iterator.hasNext()) {
+                ids[count++] = iterator.next();
+            }
+            return count == limit ? ids : Arrays.copyOf(ids, count);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Передаёт в {@code action} ID, которые есть в обоих множествах, без коллекций
+     * упакованных {@link Long}. Два битмапа обходятся одновременно: каждый итератор
+     * перескакивает к текущему ID другого, поэтому пропущенные диапазоны не
+     * перебираются, а результат не собирается в отдельный битмап. Зато {@code action}
+     * вызывается под блокировками чтения обоих множеств и не должен их менять.
+     * Иначе элементы компактного множества проверяются в другом.
+     */
+    public static void forEachCommon(FriendSet first, FriendSet second, LongConsumer action) {
+        FriendSet smaller = first.size <= second.size ? first : second;
+        FriendSet larger = smaller == first ? second : first;
+        LongHashSet smallerSet = smaller.small;
+        LongHashSet largerSet = larger.small;
+
+        if (smallerSet != null || largerSet != null) {
+            LongHashSet iterated = smallerSet != null ? smallerSet : largerSet;
+            FriendSet probed = smallerSet != null ? larger : smaller;
+            iterated.forEachLong(id -> {
+                if (probed.contains(id)) {
+                    action.accept(id);
+                }
+            });
+        } else if (smaller == larger) {
+            smaller.forEachLong(action);
+        } else {
+            withReadLocks(smaller, larger, () -> {
+                forEachCommon(smaller.bitmap, larger.bitmap, action);
+                return null;
+            });
+        }
+    }
+
+    // Вызывается под блокировками чтения обоих битмапов
+    private static void forEachCommon(Roaring64Bitmap first, Roaring64Bitmap second, LongConsumer action) {
+        PeekableLongIterator firstIds = first.getLongIterator();
+        PeekableLongIterator secondIds = second.getLongIterator();
+        while (firstIds.hasNext() && secondIds.hasNext()) {
+            long firstId = firstIds.peekNext();
+            long secondId = secondIds.peekNext();
+            if (firstId == secondId) {
+                action.accept(firstId);
+                firstIds.next();
+                secondIds.next();
+            } else if (Long.compareUnsigned(firstId, secondId) < 0) {
+                firstIds.advanceIfNeeded(secondId);
+            } else {
+                secondIds.advanceIfNeeded(firstId);
+            }
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Long id && contains(id.longValue());
+    }
+
+    @Override
+    public boolean add(Long id) {
+        return add(id.longValue());
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Long id && remove(id.longValue());
+    }
+
+    @Override
+    public Iterator<Long> iterator() {
+        LongHashSet current = small;
+        if (current != null) {
+            return current.iterator();
+        }
+        return new LongHashSet(toLongArray()).iterator();
+    }
+
+    private void promote(LongHashSet current) {
+        Roaring64Bitmap promoted = new Roaring64Bitmap();
+        current.forEachLong(promoted::addLong);
+        promoted.runOptimize();
+        bitmap = promoted;
+        // Читатели, успевшие взять ссылку на старое множество, дочитают его целиком
+        small = null;
+    }
+
+    /**
+     * Берёт разделяемые блокировки двух множеств в порядке identityHashCode: писатели
+     * ждут в очереди перед новыми читателями, и встречный порядок мог бы зациклиться.
+     */
+    private static <T> T withReadLocks(FriendSet first, FriendSet second, Supplier<T> action) {
+        int firstHash = System.identityHashCode(first);
+        int secondHash = System.identityHashCode(second);
+        if (firstHash == secondHash) {
+            TIE_LOCK.lock();
+            try {
+                return lockBothAndGet(first, second, action);
+            } finally {
+                TIE_LOCK.unlock();
+            }
+        } else if (firstHash < secondHash) {
+            return lockBothAndGet(first, second, action);
+        } else {
+            return lockBothAndGet(second, first, action);
+        }
+    }
+
+    private static <T> T lockBothAndGet(FriendSet outer, FriendSet inner, Supplier<T> action) {
+        long outerStamp = outer.lock.readLock();
+        try {
+            long innerStamp = inner.lock.readLock();
+            try {
+                return action.get();
+            } finally {
+                inner.lock.unlockRead(innerStamp);
+            }
+        } finally {
+            outer.lock.unlockRead(outerStamp);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Приближенный рейтинг самых частых ключей в памяти, не зависящей от числа ключей:
+ * {@link SpaceSaving} отбирает кандидатов, а {@link CountMinSketch} уточняет их счета.
+ * Оба счета — оценки сверху, поэтому берется меньший из двух.
+ *
+ * <p>Потокобезопасен: изменения и чтения идут под одной блокировкой.
+ */
+public class HeavyHitters {
+    private static final Comparator<Estimate> ESTIMATE_ORDER = Comparator
+            .comparingLong(Estimate::estimate).reversed()
+            .thenComparingInt(Estimate::key);
+
+    private final CountMinSketch sketch;
+    private final SpaceSaving candidates;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public HeavyHitters(int sketchWidth, int sketchDepth, int capacity, long seed) {
+        this.sketch = new CountMinSketch(sketchWidth, sketchDepth, seed);
+        this.candidates = new SpaceSaving(capacity);
+    }
+
+    /**
+     * Добавляет к счету ключа {@code delta}; отрицательное значение вычитает.
+     */
+    public void add(int key, long delta) {
+        if (delta == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            sketch.add(key, delta);
+            if (delta > 0) {
+                candidates.add(key, delta);
+            } else {
+                candidates.subtract(key, -delta);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Оценка счета ключа сверху.
+     */
+    public long estimate(int key) {
+        lock.lock();
+        try {
+            return estimateUnlocked(key);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * До {@code limit} ключей с наибольшей оценкой среди кандидатов; больше
+     * {@link SpaceSaving#capacity() числа кандидатов} не возвращается.
+     *
+     * <p>Кандидаты перебираются по убыванию счета Space-Saving. Этот счет ограничивает
+     * оценку сверху, поэтому перебор останавливается, как только он опускается ниже
+     * худшей из уже отобранных оценок, и оценивается обычно немногим больше {@code limit}
+     * кандидатов.
+     */
+    public List<Integer> top(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        lock.lock();
+        try {
+            PriorityQueue<Estimate> best = new PriorityQueue<>(limit, ESTIMATE_ORDER.reversed());
+            candidates.forEachDescending((key, count) -> {
+                if (best.size() == limit && count < best.peek().estimate()) {
+                    return false;
+                }
+                best.add(new Estimate(key, Math.min(count, sketch.estimate(key))));
+                if (best.size() > limit) {
+                    best.poll();
+                }
+                return true;
+            });
+            List<Integer> result = new ArrayList<>(best.size());
+            best.stream().sorted(ESTIMATE_ORDER).forEach(estimate -> result.add(estimate.key()));
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Сумма всех счетов.
+     */
+    public long total() {
+        lock.lock();
+        try {
+            return sketch.total();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Граница ошибки оценки для ключей вне кандидатов, см. {@link CountMinSketch#errorBound()}.
+     */
+    public double errorBound() {
+        lock.lock();
+        try {
+            return sketch.errorBound();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Прибавляет к этому рейтингу рейтинг другого шарда с теми же размерами и зерном.
+     */
+    public void merge(HeavyHitters other) {
+        // Блокировки берутся в одном порядке, чтобы встречные объединения не ждали друг друга
+        boolean thisFirst = System.identityHashCode(this) <= System.identityHashCode(other);
+        ReentrantLock first = thisFirst ? lock : other.lock;
+        ReentrantLock second = thisFirst ? other.lock : lock;
+        first.lock();
+        second.lock();
+        try {
+            sketch.merge(other.sketch);
+            candidates.merge(other.candidates);
+        } finally {
+            second.unlock();
+            first.unlock();
+        }
+    }
+
+    private record Estimate(int key, long estimate) {
+    }
+
+    private long estimateUnlocked(int key) {
+        long candidate = candidates.count(key);
+        long estimate = sketch.estimate(key);
+        return candidate < 0 ? estimate : Math.min(candidate, estimate);
+    }
+}
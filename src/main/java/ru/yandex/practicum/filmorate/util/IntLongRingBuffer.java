@@ -0,0 +1,116 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ограниченная очередь пар {@code (int, long)} без блокировок и без объектов на элемент:
+ * много писателей и один читатель.
+ *
+ * <p>Кольцо из ячеек с номерами последовательности (схема Вьюкова): писатель занимает позицию
+ * CAS-ом по счетчику записи, заполняет ячейку и публикует ее номером {@code позиция + 1};
+ * читатель забирает ячейки строго по порядку позиций и освобождает их номером
+ * {@code позиция + емкость}. Переполненная очередь не ждет, а отказывает писателю.
+ */
+public class IntLongRingBuffer {
+    private static final VarHandle SEQUENCE = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final int mask;
+    private final long[] sequences;
+    private final int[] keys;
+    private final long[] values;
+    private final AtomicLong writePosition = new AtomicLong();
+    private volatile long readPosition;
+
+    /**
+     * @param capacity минимальная емкость; округляется вверх до степени двойки
+     */
+    public IntLongRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Емкость очереди должна быть от 1 до 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        size = Math.max(size, 1);
+        mask = size - 1;
+        sequences = new long[size];
+        keys = new int[size];
+        values = new long[size];
+        for (int i = 0; i < size; i++) {
+            sequences[i] = i;
+        }
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Добавляет пару в очередь.
+     *
+     * @return позиция пары в очереди (начиная с нуля) или {@code -1}, если очередь заполнена
+     */
+    public long offer(int key, long value) {
+        long position = writePosition.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = (long) SEQUENCE.getAcquire(sequences, index) - position;
+            if (difference == 0) {
+                if (writePosition.compareAndSet(position, position + 1)) {
+                    keys[index] = key;
+                    values[index] = value;
+                    SEQUENCE.setRelease(sequences, index, position + 1);
+                    return position;
+                }
+                position = writePosition.get();
+            } else if (difference < 0) {
+                return -1;
+            } else {
+                position = writePosition.get();
+            }
+        }
+    }
+
+    /**
+     * Забирает до {@code limit} пар по порядку позиций. Вызывать может только один поток.
+     *
+     * @return сколько пар передано в {@code consumer}
+     */
+    public int drain(IntLongConsumer consumer, int limit) {
+        long position = readPosition;
+        int drained = 0;
+        while (drained < limit) {
+            int index = (int) position & mask;
+            if ((long) SEQUENCE.getAcquire(sequences, index) != position + 1) {
+                break;
+            }
+            int key = keys[index];
+            long value = values[index];
+            SEQUENCE.setRelease(sequences, index, position + mask + 1);
+            position++;
+            drained++;
+            consumer.accept(key, value);
+        }
+        readPosition = position;
+        return drained;
+    }
+
+    /**
+     * Сколько пар было занято писателями с момента создания, включая еще не дописанные.
+     */
+    public long offered() {
+        return writePosition.get();
+    }
+
+    /**
+     * Сколько пар забрал читатель с момента создания.
+     */
+    public long drained() {
+        return readPosition;
+    }
+
+    @FunctionalInterface
+    public interface IntLongConsumer {
+        void accept(int key, long value);
+    }
+}
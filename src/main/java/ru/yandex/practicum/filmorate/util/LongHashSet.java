@@ -0,0 +1,350 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.LongConsumer;
+
+/**
+ * Множество примитивных {@code long} без упаковки в {@link Long}.
+ *
+ * <p>Пока элементов немного, они лежат в отсортированном массиве точного размера
+ * (8 байт на элемент, поиск бинарный). При росте множество переходит на хеш-таблицу
+ * с открытой адресацией и линейным пробированием. Удалённые ячейки помечаются
+ * надгробиями и вычищаются при следующей перестройке таблицы.
+ *
+ * <p>Изменять множество одновременно может только один поток — вызывающий код
+ * обязан сериализовать изменения внешней блокировкой. Чтение, итерация и
+ * {@link #size()} безопасны без блокировок и видят согласованный, но, возможно,
+ * слегка устаревший снимок, как итераторы коллекций из {@code java.util.concurrent}.
+ */
+public class LongHashSet extends AbstractSet<Long> {
+    static final int SORTED_MAX_SIZE = 16;
+
+    private static final long EMPTY = 0L;
+    private static final long REMOVED = Long.MIN_VALUE;
+    private static final int MIN_TABLE_SIZE = SORTED_MAX_SIZE * 2;
+    private static final float MAX_LOAD = 0.75f;
+    private static final float REHASH_LOAD = 0.5f;
+    private static final long[] NO_ELEMENTS = new long[0];
+    private static final VarHandle SLOT = MethodHandles.arrayElementVarHandle(long[].class);
+
+    /**
+     * Отсортированный массив (длина не больше {@link #SORTED_MAX_SIZE}) или
+     * хеш-таблица (длина — степень двойки больше {@link #SORTED_MAX_SIZE}).
+     * Режим однозначно определяется длиной, поэтому хватает одного volatile-поля.
+     */
+    private volatile long[] data = NO_ELEMENTS;
+    private volatile int size;
+    // Значения-маркеры не могут храниться в таблице, поэтому в хеш-режиме учитываются отдельно
+    private volatile boolean hasEmptyValue;
+    private volatile boolean hasRemovedValue;
+    private int usedSlots;
+
+    public LongHashSet() {
+    }
+
+    public LongHashSet(long... values) {
+        for (long value : values) {
+            add(value);
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public boolean contains(long value) {
+        long[] snapshot = data;
+        if (isSorted(snapshot)) {
+            return Arrays.binarySearch(snapshot, value) >= 0;
+        }
+        if (value == EMPTY) {
+            return hasEmptyValue;
+        }
+        if (value == REMOVED) {
+            return hasRemovedValue;
+        }
+        int mask = snapshot.length - 1;
+        for (int slot = hash(value) & mask; ; slot = (slot + 1) & mask) {
+            long current = (long) SLOT.getAcquire(snapshot, slot);
+            if (current == value) {
+                return true;
+            }
+            if (current == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    public boolean add(long value) {
+        long[] snapshot = data;
+        if (isSorted(snapshot)) {
+            return addSorted(snapshot, value);
+        }
+        if (value == EMPTY || value == REMOVED) {
+            return addMarker(value);
+        }
+        int mask = snapshot.length - 1;
+        int freeSlot = -1;
+        for (int slot = hash(value) & mask; ; slot = (slot + 1) & mask) {
+            long current = snapshot[slot];
+            if (current == value) {
+                return false;
+            }
+            if (current == REMOVED && freeSlot < 0) {
+                freeSlot = slot;
+            }
+            if (current == EMPTY) {
+                if (freeSlot < 0) {
+                    freeSlot = slot;
+                    usedSlots++;
+                }
+                break;
+            }
+        }
+        SLOT.setRelease(snapshot, freeSlot, value);
+        size++;
+        if (usedSlots > snapshot.length * MAX_LOAD) {
+            rehash(size);
+        }
+        return true;
+    }
+
+    public boolean remove(long value) {
+        long[] snapshot = data;
+        if (isSorted(snapshot)) {
+            return removeSorted(snapshot, value);
+        }
+        if (value == EMPTY || value == REMOVED) {
+            return removeMarker(value);
+        }
+        int mask = snapshot.length - 1;
+        for (int slot = hash(value) & mask; ; slot = (slot + 1) & mask) {
+            long current = snapshot[slot];
+            if (current == value) {
+                SLOT.setRelease(snapshot, slot, REMOVED);
+                size--;
+                if (size <= SORTED_MAX_SIZE / 2) {
+                    rehash(size);
+                }
+                return true;
+            }
+            if (current == EMPTY) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Обходит элементы без упаковки. Порядок не определён.
+     */
+    public void forEachLong(LongConsumer action) {
+        long[] snapshot = data;
+        if (isSorted(snapshot)) {
+            for (long value : snapshot) {
+                action.accept(value);
+            }
+            return;
+        }
+        if (hasEmptyValue) {
+            action.accept(EMPTY);
+        }
+        if (hasRemovedValue) {
+            action.accept(REMOVED);
+        }
+        for (int slot = 0; slot < snapshot.length; slot++) {
+            long current = (long) SLOT.getAcquire(snapshot, slot);
+            if (current != EMPTY && current != REMOVED) {
+                action.accept(current);
+            }
+        }
+    }
+
+    public long[] toLongArray() {
+        long[] result = new long[size];
+        int[] index = {0};
+        forEachLong(value -> {
+            if (index[0] < result.length) {
+                result[index[0]++] = value;
+            }
+        });
+        return index[0] == result.length ? result : Arrays.copyOf(result, index[0]);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Long value && contains(value.longValue());
+    }
+
+    @Override
+    public boolean add(Long value) {
+        return add(value.longValue());
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Long value && remove(value.longValue());
+    }
+
+    @Override
+    public void clear() {
+        data = NO_ELEMENTS;
+        hasEmptyValue = false;
+        hasRemovedValue = false;
+        usedSlots = 0;
+        size = 0;
+    }
+
+    @Override
+    public Iterator<Long> iterator() {
+        return new SnapshotIterator(toLongArray());
+    }
+
+    private boolean addSorted(long[] sorted, long value) {
+        int position = Arrays.binarySearch(sorted, value);
+        if (position >= 0) {
+            return false;
+        }
+        if (sorted.length == SORTED_MAX_SIZE) {
+            rehash(SORTED_MAX_SIZE + 1);
+            return add(value);
+        }
+        int insertAt = -position - 1;
+        long[] grown = new long[sorted.length + 1];
+        System.arraycopy(sorted, 0, grown, 0, insertAt);
+        grown[insertAt] = value;
+        System.arraycopy(sorted, insertAt, grown, insertAt + 1, sorted.length - insertAt);
+        data = grown;
+        size = grown.length;
+        return true;
+    }
+
+    private boolean removeSorted(long[] sorted, long value) {
+        int position = Arrays.binarySearch(sorted, value);
+        if (position < 0) {
+            return false;
+        }
+        long[] shrunk = new long[sorted.length - 1];
+        System.arraycopy(sorted, 0, shrunk, 0, position);
+        System.arraycopy(sorted, position + 1, shrunk, position, shrunk.length - position);
+        data = shrunk;
+        size = shrunk.length;
+        return true;
+    }
+
+    private boolean addMarker(long value) {
+        if (value == EMPTY ? hasEmptyValue : hasRemovedValue) {
+            return false;
+        }
+        if (value == EMPTY) {
+            hasEmptyValue = true;
+        } else {
+            hasRemovedValue = true;
+        }
+        size++;
+        return true;
+    }
+
+    private boolean removeMarker(long value) {
+        if (!(value == EMPTY ? hasEmptyValue : hasRemovedValue)) {
+            return false;
+        }
+        if (value == EMPTY) {
+            hasEmptyValue = false;
+        } else {
+            hasRemovedValue = false;
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Перестраивает хранилище под {@code expectedSize} элементов: выбирает режим,
+     * вычищает надгробия и публикует новый массив одной volatile-записью.
+     */
+    private void rehash(int expectedSize) {
+        long[] values = toLongArray();
+        if (expectedSize <= SORTED_MAX_SIZE) {
+            Arrays.sort(values);
+            data = values;
+            hasEmptyValue = false;
+            hasRemovedValue = false;
+            usedSlots = 0;
+            return;
+        }
+        int capacity = MIN_TABLE_SIZE;
+        while (capacity * REHASH_LOAD < expectedSize) {
+            capacity <<= 1;
+        }
+        long[] table = new long[capacity];
+        int mask = capacity - 1;
+        int used = 0;
+        boolean emptyValue = false;
+        boolean removedValue = false;
+        for (long value : values) {
+            if (value == EMPTY) {
+                emptyValue = true;
+            } else if (value == REMOVED) {
+                removedValue = true;
+            } else {
+                int slot = hash(value) & mask;
+                while (table[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = value;
+                used++;
+            }
+        }
+        hasEmptyValue = emptyValue;
+        hasRemovedValue = removedValue;
+        usedSlots = used;
+        data = table;
+    }
+
+    private static boolean isSorted(long[] snapshot) {
+        return snapshot.length <= SORTED_MAX_SIZE;
+    }
+
+    private static int hash(long value) {
+        long mixed = value * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+
+    private final class SnapshotIterator implements Iterator<Long> {
+        private final long[] values;
+        private int position;
+        private boolean canRemove;
+
+        private SnapshotIterator(long[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return position < values.length;
+        }
+
+        @Override
+        public Long next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            canRemove = true;
+            return values[position++];
+        }
+
+        @Override
+        public void remove() {
+            if (!canRemove) {
+                throw new IllegalStateException();
+            }
+            canRemove = false;
+            LongHashSet.this.remove(values[position - 1]);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Поиск похожих по Жаккару множеств через MinHash и LSH.
+ *
+ * <p>Подпись предмета — минимумы {@code bands · rows} хеш-функций по его пользователям.
+ * Вероятность совпадения одной позиции подписей двух предметов равна коэффициенту Жаккара
+ * их множеств, поэтому доля совпавших позиций — его несмещенная оценка. Подпись занимает
+ * фиксированную память, сколько бы пользователей ни было у предмета, а новый пользователь
+ * обновляет ее за O(длина подписи).
+ *
+ * <p>Подпись разбита на {@code bands} полос по {@code rows} позиций. Предметы, у которых
+ * хоть одна полоса совпала целиком, попадают в общую корзину и становятся кандидатами друг
+ * для друга; пара с коэффициентом {@code s} становится кандидатами с вероятностью
+ * {@code 1 − (1 − s^rows)^bands}. Поиск соседей оценивает только кандидатов, а не все
+ * предметы.
+ *
+ * <p>Минимум нельзя уменьшить на удаленный элемент: если удаленный пользователь задавал
+ * минимум хоть в одной позиции, подпись пересчитывается заново по всему множеству через
+ * {@link #set}.
+ *
+ * <p>Предметы — положительные {@code int}.
+ */
+public class MinHashIndex {
+    private final int bands;
+    private final int rows;
+    private final long[] multipliers;
+    private final long[] increments;
+    private final long seed;
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final List<Map<Long, LongHashSet>> buckets;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * @param bands число полос LSH; больше полос — выше полнота и больше кандидатов
+     * @param rows  позиций в полосе; больше позиций — выше порог похожести кандидатов
+     */
+    public MinHashIndex(int bands, int rows, long seed) {
+        if (bands <= 0 || rows <= 0) {
+            throw new IllegalArgumentException("Число полос и позиций в полосе должно быть положительным");
+        }
+        this.bands = bands;
+        this.rows = rows;
+        this.seed = seed;
+        int length = Math.multiplyExact(bands, rows);
+        SplittableRandom random = new SplittableRandom(seed);
+        // Хеш-функции — старшие биты a·x + b с нечетным a над перемешанным ключом x
+        this.multipliers = random.longs(length).map(value -> value | 1).toArray();
+        this.increments = random.longs(length).toArray();
+        this.buckets = new ArrayList<>(bands);
+        for (int band = 0; band < bands; band++) {
+            buckets.add(new HashMap<>());
+        }
+    }
+
+    public int signatureLength() {
+        return multipliers.length;
+    }
+
+    /**
+     * Добавляет пользователя в множество предмета.
+     */
+    public void add(int item, long user) {
+        lock.lock();
+        try {
+            Entry entry = entries.computeIfAbsent(item, key -> new Entry(newSignature()));
+            // Индекс трогается, только если пользователь сдвинул какой-то минимум
+            if (include(entry.signature, mix(user ^ seed)) || entry.bandKeys == null) {
+                unindex(item, entry);
+                entry.bandKeys = bandKeys(entry.signature);
+                index(item, entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Убирает пользователя из множества предмета, если подпись от этого не меняется.
+     *
+     * @return {@code false}, если пользователь задавал минимум в какой-то позиции и подпись
+     * надо пересчитать через {@link #set} по оставшимся пользователям
+     */
+    public boolean remove(int item, long user) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(item);
+            if (entry == null) {
+                return true;
+            }
+            long hash = mix(user ^ seed);
+            for (int i = 0; i < entry.signature.length; i++) {
+                if (entry.signature[i] == hashOf(i, hash)) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Заменяет множество предмета целиком; пустое убирает предмет из индекса.
+     */
+    public void set(int item, long[] users) {
+        int[] signature = signatureOf(users);
+        lock.lock();
+        try {
+            Entry previous = entries.remove(item);
+            if (previous != null) {
+                unindex(item, previous);
+            }
+            if (users.length > 0) {
+                Entry entry = new Entry(signature);
+                entry.bandKeys = bandKeys(signature);
+                entries.put(item, entry);
+                index(item, entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Подпись множества пользователей. Не трогает индекс, поэтому подписи можно считать
+     * параллельно и добавлять через {@link #set}.
+     */
+    public int[] signatureOf(long[] users) {
+        int[] signature = newSignature();
+        for (long user : users) {
+            include(signature, mix(user ^ seed));
+        }
+        return signature;
+    }
+
+    /**
+     * До {@code limit} предметов, попавших с {@code item} хоть в одну корзину, по убыванию
+     * оценки коэффициента Жаккара, при равенстве — по возрастанию ключа.
+     */
+    public List<Similar> similar(int item, int limit) {
+        lock.lock();
+        try {
+            Entry entry = entries.get(item);
+            if (entry == null) {
+                return List.of();
+            }
+            LongHashSet candidates = new LongHashSet();
+            for (int band = 0; band < bands; band++) {
+                buckets.get(band).get(entry.bandKeys[band]).forEachLong(candidates::add);
+            }
+            List<Similar> result = new ArrayList<>(candidates.size());
+            candidates.forEachLong(candidate -> {
+                if (candidate != item) {
+                    int[] other = entries.get((int) candidate).signature;
+                    result.add(new Similar((int) candidate, agreement(entry.signature, other)));
+                }
+            });
+            result.sort(Similar.ORDER);
+            return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Оценка коэффициента Жаккара двух предметов; {@code 0}, если какого-то нет в индексе.
+     */
+    public double similarity(int first, int second) {
+        lock.lock();
+        try {
+            Entry firstEntry = entries.get(first);
+            Entry secondEntry = entries.get(second);
+            return firstEntry == null || secondEntry == null ? 0
+                    : agreement(firstEntry.signature, secondEntry.signature);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int[] newSignature() {
+        int[] signature = new int[multipliers.length];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        return signature;
+    }
+
+    private boolean include(int[] signature, long hash) {
+        boolean changed = false;
+        for (int i = 0; i < signature.length; i++) {
+            int value = hashOf(i, hash);
+            if (value < signature[i]) {
+                signature[i] = value;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    // Старшие 31 бит, чтобы минимумы сравнивались как неотрицательные int
+    private int hashOf(int function, long hash) {
+        return (int) ((multipliers[function] * hash + increments[function]) >>> 33);
+    }
+
+    private long[] bandKeys(int[] signature) {
+        long[] keys = new long[bands];
+        for (int band = 0; band < bands; band++) {
+            long key = band;
+            for (int row = band * rows; row < (band + 1) * rows; row++) {
+                key = mix(key * 0x9E3779B97F4A7C15L + signature[row]);
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    private void index(int item, Entry entry) {
+        for (int band = 0; band < bands; band++) {
+            buckets.get(band).computeIfAbsent(entry.bandKeys[band], key -> new LongHashSet()).add(item);
+        }
+    }
+
+    private void unindex(int item, Entry entry) {
+        if (entry.bandKeys == null) {
+            return;
+        }
+        for (int band = 0; band < bands; band++) {
+            Map<Long, LongHashSet> bandBuckets = buckets.get(band);
+            LongHashSet bucket = bandBuckets.get(entry.bandKeys[band]);
+            bucket.remove(item);
+            if (bucket.isEmpty()) {
+                bandBuckets.remove(entry.bandKeys[band]);
+            }
+        }
+    }
+
+    private static double agreement(int[] first, int[] second) {
+        int equal = 0;
+        for (int i = 0; i < first.length; i++) {
+            if (first[i] == second[i]) {
+                equal++;
+            }
+        }
+        return (double) equal / first.length;
+    }
+
+    private static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xFF51AFD7ED558CCDL;
+        value = (value ^ (value >>> 33)) * 0xC4CEB9FE1A85EC53L;
+        return value ^ (value >>> 33);
+    }
+
+    /**
+     * Похожий предмет и оценка коэффициента Жаккара с исходным.
+     */
+    public record Similar(int item, double similarity) {
+        private static final Comparator<Similar> ORDER = Comparator
+                .comparingDouble(Similar::similarity).reversed()
+                .thenComparingInt(Similar::item);
+    }
+
+    private static final class Entry {
+        private final int[] signature;
+        private long[] bandKeys;
+
+        Entry(int[] signature) {
+            this.signature = signature;
+        }
+    }
+}
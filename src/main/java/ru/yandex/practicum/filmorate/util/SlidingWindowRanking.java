@@ -0,0 +1,156 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Рейтинг ключей по числу событий за скользящее окно.
+ *
+ * <p>Окно разбито на кольцо из {@code bucketCount} корзин по {@code bucketMillis}. Корзина
+ * хранит приращения ключей за свой интервал, поэтому на ключ приходится не больше одного
+ * счетчика в каждой корзине, а память не зависит от числа событий. Когда время уходит
+ * вперед, самая старая корзина вычитается из итогов и освобождается под новый интервал;
+ * окно сдвигается дискретно, с точностью до одной корзины.
+ *
+ * <p>Итоги ключей с положительным счетом лежат в упорядоченном индексе, который каждое
+ * событие и каждое вычитание корзины сдвигают на одну позицию за O(log n). Первые K мест
+ * читаются из начала индекса, не перебирая ключи. Ключи без событий в окне не занимают
+ * места вовсе.
+ */
+public class SlidingWindowRanking {
+    private static final Comparator<Ranked> RANK_ORDER = Comparator
+            .comparingInt(Ranked::count).reversed()
+            .thenComparingInt(Ranked::key);
+
+    private final long bucketMillis;
+    private final List<Map<Integer, Integer>> buckets;
+    private final Map<Integer, Integer> totals = new HashMap<>();
+    private final NavigableSet<Ranked> ranking = new TreeSet<>(RANK_ORDER);
+    private final ReentrantLock lock = new ReentrantLock();
+    private long headBucket = Long.MIN_VALUE;
+
+    public SlidingWindowRanking(long bucketMillis, int bucketCount) {
+        if (bucketMillis <= 0 || bucketCount <= 0) {
+            throw new IllegalArgumentException("Размер и число корзин окна должны быть положительными");
+        }
+        this.bucketMillis = bucketMillis;
+        this.buckets = new ArrayList<>(bucketCount);
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Учитывает {@code delta} событий ключа в момент {@code nowMillis}. Время не должно
+     * идти назад: событие из уже вытесненной корзины попадет в текущую.
+     */
+    public void add(int key, int delta, long nowMillis) {
+        if (delta == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            advance(nowMillis);
+            buckets.get(slot(headBucket)).merge(key, delta, SlidingWindowRanking::sumOrNull);
+            move(key, delta);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Возвращает до {@code limit} ключей с наибольшим положительным счетом за окно,
+     * заканчивающееся в {@code nowMillis}; при равном счете — по возрастанию ключа.
+     */
+    public List<Integer> top(int limit, long nowMillis) {
+        lock.lock();
+        try {
+            advance(nowMillis);
+            List<Integer> result = new ArrayList<>(Math.min(limit, ranking.size()));
+            Iterator<Ranked> iterator = ranking.iterator();
+            while (result.size() < limit && iterator.hasNext()) {
+                result.add(iterator.next().key());
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Счет ключа за окно, заканчивающееся в {@code nowMillis}.
+     */
+    public int count(int key, long nowMillis) {
+        lock.lock();
+        try {
+            advance(nowMillis);
+            return totals.getOrDefault(key, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Число ключей с ненулевым счетом за окно на момент последнего обращения.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return totals.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void advance(long nowMillis) {
+        long currentBucket = Math.floorDiv(nowMillis, bucketMillis);
+        if (headBucket == Long.MIN_VALUE) {
+            headBucket = currentBucket;
+            return;
+        }
+        // Если окно целиком устарело, достаточно обойти кольцо один раз
+        long expired = Math.min(currentBucket - headBucket, buckets.size());
+        for (long i = 1; i <= expired; i++) {
+            Map<Integer, Integer> bucket = buckets.get(slot(headBucket + i));
+            bucket.forEach((key, delta) -> move(key, -delta));
+            bucket.clear();
+        }
+        headBucket = Math.max(headBucket, currentBucket);
+    }
+
+    private void move(int key, int delta) {
+        int previous = totals.getOrDefault(key, 0);
+        int current = previous + delta;
+        if (previous > 0) {
+            ranking.remove(new Ranked(key, previous));
+        }
+        if (current > 0) {
+            ranking.add(new Ranked(key, current));
+        }
+        if (current == 0) {
+            totals.remove(key);
+        } else {
+            totals.put(key, current);
+        }
+    }
+
+    // Взаимно погасившиеся события не должны держать счетчик в корзине
+    private static Integer sumOrNull(int first, int second) {
+        int sum = first + second;
+        return sum == 0 ? null : sum;
+    }
+
+    private int slot(long bucket) {
+        return (int) Math.floorMod(bucket, (long) buckets.size());
+    }
+
+    private record Ranked(int key, int count) {
+    }
+}
@@ -0,0 +1,168 @@
+package ru.yandex.practicum.filmorate.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving: частые ключи потока в {@code capacity} счетчиках.
+ *
+ * <p>Ключ, у которого уже есть счетчик, просто увеличивает его. Новый ключ при свободном
+ * месте получает свой счетчик, а при заполненном — забирает счетчик ключа с наименьшим
+ * счетом вместе с этим счетом, который запоминается как возможная ошибка. Поэтому счет
+ * ключа не меньше истинного и превышает его не больше чем на ошибку, а ошибка не больше
+ * {@code N / capacity}: любой ключ с истинным счетом выше этой доли гарантированно
+ * отслеживается.
+ *
+ * <p>Вычитание поддерживается только для отслеживаемых ключей и не опускает счет ниже
+ * нуля. Класс не потокобезопасен.
+ */
+public class SpaceSaving {
+    private static final Comparator<Counter> COUNT_ORDER = Comparator
+            .comparingLong(Counter::count)
+            .thenComparingInt(Counter::key);
+
+    private final int capacity;
+    private final Map<Integer, Counter> counters = new HashMap<>();
+    private final NavigableSet<Counter> byCount = new TreeSet<>(COUNT_ORDER);
+
+    public SpaceSaving(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Число счетчиков должно быть положительным");
+        }
+        this.capacity = capacity;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    /**
+     * Учитывает {@code weight > 0} событий ключа.
+     */
+    public void add(int key, long weight) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            replace(counter, new Counter(key, counter.count() + weight, counter.error()));
+        } else if (counters.size() < capacity) {
+            replace(null, new Counter(key, weight, 0));
+        } else {
+            Counter evicted = byCount.pollFirst();
+            counters.remove(evicted.key());
+            replace(null, new Counter(key, evicted.count() + weight, evicted.count()));
+        }
+    }
+
+    /**
+     * Вычитает {@code weight > 0} событий отслеживаемого ключа; у неотслеживаемого ничего
+     * не меняется.
+     */
+    public void subtract(int key, long weight) {
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            replace(counter, new Counter(key, Math.max(counter.count() - weight, 0), counter.error()));
+        }
+    }
+
+    /**
+     * Счет ключа сверху или {@code -1}, если ключ не отслеживается.
+     */
+    public long count(int key) {
+        Counter counter = counters.get(key);
+        return counter == null ? -1 : counter.count();
+    }
+
+    /**
+     * Насколько счет ключа может превышать истинный; {@code -1}, если ключ не отслеживается.
+     */
+    public long error(int key) {
+        Counter counter = counters.get(key);
+        return counter == null ? -1 : counter.error();
+    }
+
+    /**
+     * Наименьший счет, который может быть у неотслеживаемого ключа.
+     */
+    public long minCount() {
+        return counters.size() < capacity ? 0 : byCount.first().count();
+    }
+
+    /**
+     * До {@code limit} отслеживаемых ключей по убыванию счета.
+     */
+    public List<Integer> top(int limit) {
+        List<Integer> result = new ArrayList<>(Math.min(limit, counters.size()));
+        Iterator<Counter> iterator = byCount.descendingIterator();
+        while (result.size() < limit && iterator.hasNext()) {
+            result.add(iterator.next().key());
+        }
+        return result;
+    }
+
+    /**
+     * Передает отслеживаемые ключи в {@code visitor} по убыванию счета, пока он возвращает
+     * {@code true}.
+     */
+    public void forEachDescending(CounterVisitor visitor) {
+        for (Counter counter : byCount.descendingSet()) {
+            if (!visitor.visit(counter.key(), counter.count())) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Объединяет сводку с {@code other} так, как если бы оба потока пришли в одну: ключу,
+     * которого нет в заполненной сводке, засчитывается ее наименьший счет как ошибка.
+     * Остаются {@code capacity} ключей с наибольшими счетами, и граница ошибки
+     * {@code (N1 + N2) / capacity} сохраняется.
+     */
+    public void merge(SpaceSaving other) {
+        long thisMin = minCount();
+        long otherMin = other.minCount();
+        Map<Integer, Counter> merged = new HashMap<>();
+        for (Counter counter : counters.values()) {
+            Counter match = other.counters.get(counter.key());
+            merged.put(counter.key(), match == null
+                    ? new Counter(counter.key(), counter.count() + otherMin, counter.error() + otherMin)
+                    : new Counter(counter.key(), counter.count() + match.count(), counter.error() + match.error()));
+        }
+        for (Counter counter : other.counters.values()) {
+            if (!counters.containsKey(counter.key())) {
+                merged.put(counter.key(),
+                        new Counter(counter.key(), counter.count() + thisMin, counter.error() + thisMin));
+            }
+        }
+        counters.clear();
+        byCount.clear();
+        merged.values().stream()
+                .sorted(COUNT_ORDER.reversed())
+                .limit(capacity)
+                .forEach(counter -> replace(null, counter));
+    }
+
+    private void replace(Counter previous, Counter current) {
+        if (previous != null) {
+            byCount.remove(previous);
+        }
+        counters.put(current.key(), current);
+        byCount.add(current);
+    }
+
+    @FunctionalInterface
+    public interface CounterVisitor {
+        boolean visit(int key, long count);
+    }
+
+    private record Counter(int key, long count, long error) {
+    }
+}
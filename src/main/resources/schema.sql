@@ -0,0 +1,49 @@
+-- Общий счетчик версий фильмов и пользователей: каждое изменение строки берет следующее значение
+CREATE SEQUENCE IF NOT EXISTS entity_version;
+
+CREATE TABLE IF NOT EXISTS films (
+    id           INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name         VARCHAR(100) NOT NULL,
+    description  VARCHAR(200),
+    release_date DATE,
+    duration     INTEGER,
+    version      BIGINT DEFAULT NEXT VALUE FOR entity_version NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS users (
+    id       BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email    VARCHAR(255) NOT NULL,
+    login    VARCHAR(20)  NOT NULL,
+    name     VARCHAR(255),
+    birthday DATE,
+    version  BIGINT DEFAULT NEXT VALUE FOR entity_version NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS likes (
+    film_id INTEGER NOT NULL REFERENCES films (id) ON DELETE CASCADE,
+    user_id BIGINT  NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    PRIMARY KEY (film_id, user_id)
+);
+
+-- Дружба взаимная и хранится двумя строками, по одной на каждое направление
+CREATE TABLE IF NOT EXISTS friendships (
+    user_id   BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    friend_id BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    PRIMARY KEY (user_id, friend_id)
+);
+
+-- Версии коллекций: каждое изменение прибавляет единицу к одной из строк коллекции, версия — их сумма.
+-- Максимум версий строк для этого не годится: транзакция со старшим значением последовательности
+-- может зафиксироваться раньше младшей, и фиксация младшей максимум уже не изменит
+CREATE TABLE IF NOT EXISTS collection_versions (
+    name    VARCHAR(16) NOT NULL,
+    stripe  INTEGER     NOT NULL,
+    version BIGINT      DEFAULT 0 NOT NULL,
+    PRIMARY KEY (name, stripe)
+);
+
+MERGE INTO collection_versions (name, stripe) KEY (name, stripe)
+SELECT c.name, s.x FROM (VALUES ('films'), ('users')) c(name) CROSS JOIN SYSTEM_RANGE(0, 7) s;
+
+CREATE INDEX IF NOT EXISTS likes_user_idx ON likes (user_id);
+CREATE INDEX IF NOT EXISTS friendships_friend_idx ON friendships (friend_id);
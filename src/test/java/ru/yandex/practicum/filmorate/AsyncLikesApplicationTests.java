@@ -0,0 +1,50 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "filmorate.likes.async=true")
+class AsyncLikesApplicationTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void shouldAcceptLikesAndApplyThemOnRequest() {
+        Film film = restTemplate.postForObject("/films", Film.builder()
+                .name("Async Film")
+                .releaseDate(LocalDate.of(2020, 1, 1))
+                .duration(100)
+                .build(), Film.class);
+        User first = addUser("asyncfirst");
+        User second = addUser("asyncsecond");
+
+        assertEquals(HttpStatus.ACCEPTED, restTemplate.exchange("/films/" + film.getId() + "/like/" + first.getId(),
+                HttpMethod.PUT, null, Void.class).getStatusCode());
+        assertEquals(HttpStatus.OK, restTemplate.exchange("/films/" + film.getId() + "/like/" + second.getId()
+                + "?wait=true", HttpMethod.PUT, null, Void.class).getStatusCode());
+        assertEquals(2, restTemplate.getForObject("/films/" + film.getId(), Film.class).getRate());
+
+        assertEquals(HttpStatus.NOT_FOUND, restTemplate.exchange("/films/9999/like/" + first.getId(),
+                HttpMethod.PUT, null, String.class).getStatusCode());
+    }
+
+    private User addUser(String login) {
+        return restTemplate.postForObject("/users", User.builder()
+                .email(login + "@mail.com")
+                .login(login)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build(), User.class);
+    }
+}
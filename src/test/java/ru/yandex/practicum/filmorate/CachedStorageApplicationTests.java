@@ -0,0 +1,53 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.CachingFilmStorage;
+import ru.yandex.practicum.filmorate.storage.CachingUserStorage;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"filmorate.storage.type=jdbc", "filmorate.cache.enabled=true"})
+class CachedStorageApplicationTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private FilmService filmService;
+
+    @Test
+    void shouldPutCacheInFrontOfStoragesAndPublishMetrics() {
+        assertInstanceOf(CachingFilmStorage.class, filmService.getFilmStorage());
+        assertInstanceOf(CachingUserStorage.class, filmService.getUserStorage());
+
+        Film film = restTemplate.postForObject("/films", Film.builder()
+                .name("Cached Film")
+                .releaseDate(LocalDate.of(2020, 1, 1))
+                .duration(100)
+                .build(), Film.class);
+        User user = restTemplate.postForObject("/users", User.builder()
+                .email("cached@mail.com")
+                .login("cached")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build(), User.class);
+        restTemplate.put("/films/" + film.getId() + "/like/" + user.getId(), null);
+
+        ResponseEntity<Film> liked = restTemplate.getForEntity("/films/" + film.getId(), Film.class);
+        ResponseEntity<String> metrics = restTemplate.getForEntity("/actuator/metrics/cache.gets?tag=cache:films",
+                String.class);
+
+        assertEquals(1, liked.getBody().getRate());
+        assertEquals(HttpStatus.OK, metrics.getStatusCode());
+    }
+}
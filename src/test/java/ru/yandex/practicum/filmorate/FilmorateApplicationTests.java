@@ -3,11 +3,16 @@ package ru.yandex.practicum.filmorate;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 import ru.yandex.practicum.filmorate.controller.FilmController;
 import ru.yandex.practicum.filmorate.controller.UserController;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
 
+import javax.sql.DataSource;
 import java.time.LocalDate;
 import java.util.Objects;
 
@@ -15,6 +20,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
 class FilmorateApplicationTests {
+    private final WebRequest request = new ServletWebRequest(new MockHttpServletRequest());
 
     @Autowired
     private FilmController filmController;
@@ -22,12 +28,20 @@ class FilmorateApplicationTests {
     @Autowired
     private UserController userController;
 
+    @Autowired
+    private ApplicationContext context;
+
     @Test
     void contextLoads() {
         assertNotNull(filmController);
         assertNotNull(userController);
     }
 
+    @Test
+    void shouldNotStartDatabaseForInMemoryStorage() {
+        assertEquals(0, context.getBeanNamesForType(DataSource.class).length);
+    }
+
     @Test
     void shouldCreateAndRetrieveFilm() {
         Film film = Film.builder()
@@ -40,7 +54,7 @@ class FilmorateApplicationTests {
         Film createdFilm = filmController.addNewFilm(film);
         assertNotNull(createdFilm.getId());
 
-        Film retrievedFilm = filmController.getFilm(createdFilm.getId());
+        Film retrievedFilm = filmController.getFilm(createdFilm.getId()).getBody();
         assertEquals(createdFilm.getId(), retrievedFilm.getId());
         assertEquals("Integration Test Film", retrievedFilm.getName());
     }
@@ -57,7 +71,7 @@ class FilmorateApplicationTests {
         User createdUser = userController.addNewUser(user);
         assertNotNull(createdUser.getId());
 
-        User retrievedUser = userController.getUser(createdUser.getId());
+        User retrievedUser = userController.getUser(createdUser.getId()).getBody();
         assertEquals(createdUser.getId(), retrievedUser.getId());
         assertEquals("integration@test.com", retrievedUser.getEmail());
     }
@@ -114,7 +128,7 @@ class FilmorateApplicationTests {
 
     @Test
     void shouldReturnAllFilms() {
-        int initialCount = filmController.getAllFilms().size();
+        int initialCount = filmController.getAllFilms(request).getBody().size();
 
         Film film1 = Film.builder()
                 .name("Film One")
@@ -133,13 +147,13 @@ class FilmorateApplicationTests {
         filmController.addNewFilm(film1);
         filmController.addNewFilm(film2);
 
-        int finalCount = filmController.getAllFilms().size();
+        int finalCount = filmController.getAllFilms(request).getBody().size();
         assertEquals(initialCount + 2, finalCount);
     }
 
     @Test
     void shouldReturnAllUsers() {
-        int initialCount = userController.getAllUsers().size();
+        int initialCount = userController.getAllUsers(request).getBody().size();
 
         User user1 = User.builder()
                 .email("user1@test.com")
@@ -158,7 +172,7 @@ class FilmorateApplicationTests {
         userController.addNewUser(user1);
         userController.addNewUser(user2);
 
-        int finalCount = userController.getAllUsers().size();
+        int finalCount = userController.getAllUsers(request).getBody().size();
         assertEquals(initialCount + 2, finalCount);
     }
 
@@ -253,11 +267,11 @@ class FilmorateApplicationTests {
         Film createdFilm = filmController.addNewFilm(film);
         User createdUser = userController.addNewUser(user);
 
-        assertEquals(1, filmController.getAllFilms().stream()
+        assertEquals(1, filmController.getAllFilms(request).getBody().stream()
                 .filter(f -> Objects.equals(f.getId(), createdFilm.getId()))
                 .count());
 
-        assertEquals(1, userController.getAllUsers().stream()
+        assertEquals(1, userController.getAllUsers(request).getBody().stream()
                 .filter(u -> Objects.equals(u.getId(), createdUser.getId()))
                 .count());
     }
@@ -0,0 +1,33 @@
+package ru.yandex.practicum.filmorate;
+
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+
+/**
+ * Валидные фильмы и пользователи для тестов, которым важны только название или логин.
+ */
+public final class TestData {
+
+    private TestData() {
+    }
+
+    public static Film film(String name) {
+        return Film.builder()
+                .name(name)
+                .description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .build();
+    }
+
+    public static User user(String login) {
+        return User.builder()
+                .email(login + "@mail.com")
+                .login(login)
+                .name(login)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+    }
+}
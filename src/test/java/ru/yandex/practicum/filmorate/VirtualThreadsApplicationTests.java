@@ -0,0 +1,38 @@
+package ru.yandex.practicum.filmorate;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import ru.yandex.practicum.filmorate.model.Film;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.threads.virtual.enabled=true")
+class VirtualThreadsApplicationTests {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void shouldServeRequestsOnVirtualThreads() {
+        Film film = Film.builder()
+                .name("Virtual Film")
+                .description("Served by a virtual thread")
+                .releaseDate(LocalDate.of(2020, 1, 1))
+                .duration(100)
+                .build();
+
+        ResponseEntity<Film> created = restTemplate.postForEntity("/films", film, Film.class);
+        ResponseEntity<Film[]> popular = restTemplate.getForEntity("/films/popular", Film[].class);
+
+        assertEquals(HttpStatus.CREATED, created.getStatusCode());
+        assertEquals(HttpStatus.OK, popular.getStatusCode());
+        assertEquals(1, popular.getBody().length);
+    }
+}
@@ -0,0 +1,169 @@
+package ru.yandex.practicum.filmorate.controllerTest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.yandex.practicum.filmorate.dto.ImportReport;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.yandex.practicum.filmorate.TestData.film;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+// Маленькие пачки, чтобы связи ссылались на сущности из предыдущих пачек
+@SpringBootTest(properties = "filmorate.transfer.batch-size=2")
+@AutoConfigureMockMvc
+class AdminControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private FilmStorage filmStorage;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Test
+    void shouldExportEntitiesBeforeTheirLinks() throws Exception {
+        User first = userStorage.addNewUser(user("exported1"));
+        User second = userStorage.addNewUser(user("exported2"));
+        userStorage.addFriend(second.getId(), first.getId());
+        Film film = filmStorage.addNewFilm(film("Exported"));
+        filmStorage.addLike(film.getId(), second.getId());
+
+        List<JsonNode> lines = export();
+
+        int userLine = indexOf(lines, "user", "login", "exported2");
+        int filmLine = indexOf(lines, "film", "name", "Exported");
+        int likeLine = indexOf(lines, "like", "filmId", String.valueOf(film.getId()));
+        assertEquals(second.getId(), lines.get(likeLine).get("userId").asLong());
+        int friendshipLine = indexOf(lines, "friendship", "userId", String.valueOf(first.getId()));
+        assertEquals(second.getId(), lines.get(friendshipLine).get("friendId").asLong());
+        assertTrue(userLine < filmLine && filmLine < likeLine && likeLine < friendshipLine);
+    }
+
+    @Test
+    void shouldImportRecordsWithNewIdsAndReportRejectedRows() throws Exception {
+        String body = String.join("\n",
+                "{\"type\":\"user\",\"id\":101,\"email\":\"imported1@mail.com\",\"login\":\"imported1\",\"birthday\":\"1990-01-01\"}",
+                "{\"type\":\"user\",\"id\":102,\"email\":\"imported2@mail.com\",\"login\":\"imported2\"}",
+                "{\"type\":\"film\",\"id\":7,\"name\":\"Imported\",\"releaseDate\":\"2000-01-01\",\"duration\":90}",
+                "",
+                "{\"type\":\"like\",\"filmId\":7,\"userId\":101}",
+                "{\"type\":\"like\",\"filmId\":7,\"userId\":102}",
+                "{\"type\":\"friendship\",\"userId\":101,\"friendId\":102}",
+                "{\"type\":\"like\",\"filmId\":7,\"userId\":101}",
+                "{\"type\":\"friendship\",\"userId\":102,\"friendId\":101}",
+                "{\"type\":\"user\",\"id\":103,\"email\":\"wrong\",\"login\":\"imported3\"}",
+                "{\"type\":\"like\",\"filmId\":8,\"userId\":101}",
+                "{\"type\":\"user\",\"id\":101,\"email\":\"again@mail.com\",\"login\":\"again\"}",
+                "not json");
+
+        ImportReport report = importRecords(body);
+
+        assertEquals(12, report.rows());
+        assertEquals(2, report.users());
+        assertEquals(1, report.films());
+        assertEquals(2, report.likes());
+        assertEquals(1, report.friendships());
+        assertEquals(4, report.rejected());
+        assertEquals(List.of(10L, 11L, 12L, 13L), report.errors().stream().map(ImportReport.RejectedRow::line).toList());
+        assertEquals("Некорректный email", report.errors().getFirst().message());
+        assertTrue(report.rowsPerSecond() > 0);
+
+        User first = findUser("imported1");
+        User second = findUser("imported2");
+        Film film = filmStorage.getAllFilms().stream()
+                .filter(candidate -> candidate.getName().equals("Imported"))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(film.getFilmLikes().contains(first.getId()));
+        assertTrue(film.getFilmLikes().contains(second.getId()));
+        assertEquals(List.of(second.getId()),
+                userStorage.getFriends(first.getId()).stream().map(User::getId).toList());
+    }
+
+    @Test
+    void shouldImportOwnExport() throws Exception {
+        User user = userStorage.addNewUser(user("roundtrip"));
+        Film film = filmStorage.addNewFilm(film("Round trip"));
+        filmStorage.addLike(film.getId(), user.getId());
+        int usersBefore = userStorage.getAllUsers().size();
+        int filmsBefore = filmStorage.getAllFilms().size();
+
+        List<JsonNode> lines = export();
+        StringBuilder body = new StringBuilder();
+        lines.forEach(line -> body.append(line).append('\n'));
+        ImportReport report = importRecords(body.toString());
+
+        assertEquals(0, report.rejected());
+        assertEquals(lines.size(), report.rows());
+        assertEquals(usersBefore, report.users());
+        assertEquals(filmsBefore, report.films());
+        assertEquals(2 * usersBefore, userStorage.getAllUsers().size());
+        assertEquals(2, filmStorage.getAllFilms().stream()
+                .filter(candidate -> candidate.getName().equals("Round trip") && candidate.getRate() == 1)
+                .count());
+    }
+
+    private List<JsonNode> export() throws Exception {
+        MvcResult started = mockMvc.perform(get("/admin/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn();
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : result.getResponse().getContentAsString().split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+
+    private ImportReport importRecords(String body) throws Exception {
+        MvcResult result = mockMvc.perform(post("/admin/import")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn();
+        return objectMapper.readValue(result.getResponse().getContentAsByteArray(), ImportReport.class);
+    }
+
+    private User findUser(String login) {
+        return userStorage.getAllUsers().stream()
+                .filter(candidate -> candidate.getLogin().equals(login))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private static int indexOf(List<JsonNode> lines, String type, String field, String value) {
+        for (int i = 0; i < lines.size(); i++) {
+            JsonNode line = lines.get(i);
+            if (line.get("type").asText().equals(type) && line.get(field).asText().equals(value)) {
+                return i;
+            }
+        }
+        fail("Нет строки " + type + " с " + field + "=" + value);
+        return -1;
+    }
+}
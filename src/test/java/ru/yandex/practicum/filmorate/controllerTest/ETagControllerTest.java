@@ -0,0 +1,120 @@
+package ru.yandex.practicum.filmorate.controllerTest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.time.LocalDate;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ETagControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FilmService filmService;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Test
+    void shouldAnswerNotModifiedForPopularFilmsUntilLikesChange() throws Exception {
+        Film film = filmService.addNewFilm(Film.builder()
+                .name("ETag Film")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(90)
+                .build());
+        User user = userStorage.addNewUser(User.builder()
+                .email("etag@mail.com")
+                .login("etag")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build());
+
+        String etag = mockMvc.perform(get("/films/popular?count=3"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+
+        mockMvc.perform(get("/films/popular?count=3").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+
+        filmService.putLike(film.getId(), user.getId());
+
+        String likedEtag = mockMvc.perform(get("/films/popular?count=3").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(etag, likedEtag);
+    }
+
+    @Test
+    void shouldAnswerNotModifiedForFilmUntilItChanges() throws Exception {
+        Film film = filmService.addNewFilm(Film.builder()
+                .name("Versioned Film")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(90)
+                .build());
+        String path = "/films/" + film.getId();
+
+        String etag = mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertFalse(mockMvc.perform(get(path)).andReturn().getResponse().getContentAsString().contains("version"));
+
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+
+        filmService.updateFilm(Film.builder().id(film.getId()).name("Renamed Film").build());
+
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Renamed Film")));
+    }
+
+    @Test
+    void shouldAnswerNotModifiedForUsersUntilFriendshipChanges() throws Exception {
+        User first = userStorage.addNewUser(User.builder()
+                .email("first@mail.com")
+                .login("first")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build());
+        User second = userStorage.addNewUser(User.builder()
+                .email("second@mail.com")
+                .login("second")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build());
+
+        String usersEtag = mockMvc.perform(get("/users"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String userEtag = mockMvc.perform(get("/users/" + second.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/users").header(HttpHeaders.IF_NONE_MATCH, usersEtag))
+                .andExpect(status().isNotModified());
+
+        userStorage.addFriend(first.getId(), second.getId());
+
+        mockMvc.perform(get("/users").header(HttpHeaders.IF_NONE_MATCH, usersEtag))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/users/" + second.getId()).header(HttpHeaders.IF_NONE_MATCH, userEtag))
+                .andExpect(status().isOk());
+    }
+}
@@ -1,10 +1,16 @@
 package ru.yandex.practicum.filmorate.controllerTest;
 
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 import ru.yandex.practicum.filmorate.controller.FilmController;
 import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
 import ru.yandex.practicum.filmorate.exceptions.ValidationException;
@@ -16,7 +22,10 @@ import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
 import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -24,10 +33,12 @@ import static org.junit.jupiter.api.Assertions.*;
 @SpringBootTest
 @TestPropertySource(properties = {"mostLikedCount=2"})
 class FilmControllerTest {
+    private final WebRequest request = new ServletWebRequest(new MockHttpServletRequest());
     private FilmController filmController;
     private FilmService filmService;
     private UserStorage userStorage;
     private FilmStorage filmStorage;
+    private JsonMapper objectMapper;
 
     @Value("${mostLikedCount}")
     private int defaultCount;
@@ -37,7 +48,8 @@ class FilmControllerTest {
         userStorage = new InMemoryUserStorage();
         filmStorage = new InMemoryFilmStorage();
         filmService = new FilmService(userStorage, filmStorage);
-        filmController = new FilmController(defaultCount, filmService);
+        objectMapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+        filmController = new FilmController(defaultCount, filmService, objectMapper);
     }
 
     @Test
@@ -53,7 +65,7 @@ class FilmControllerTest {
 
         assertNotNull(createdFilm.getId());
         assertEquals("Test Film", createdFilm.getName());
-        assertEquals(1, filmController.getAllFilms().size());
+        assertEquals(1, filmController.getAllFilms(request).getBody().size());
     }
 
     @Test
@@ -75,7 +87,7 @@ class FilmControllerTest {
         filmController.addNewFilm(film1);
         filmController.addNewFilm(film2);
 
-        List<Film> films = filmController.getAllFilms();
+        List<Film> films = filmController.getAllFilms(request).getBody();
 
         assertEquals(2, films.size());
     }
@@ -90,7 +102,7 @@ class FilmControllerTest {
                 .build();
 
         Film createdFilm = filmController.addNewFilm(film);
-        Film foundFilm = filmController.getFilm(createdFilm.getId());
+        Film foundFilm = filmController.getFilm(createdFilm.getId()).getBody();
 
         assertNotNull(foundFilm);
         assertEquals(createdFilm.getId(), foundFilm.getId());
@@ -100,7 +112,7 @@ class FilmControllerTest {
     @Test
     void shouldThrowExceptionWhenFilmNotFound() {
         assertThrows(NotFoundException.class, () -> {
-            filmController.getFilm(999);
+            filmController.getFilm(999).getBody();
         });
     }
 
@@ -180,7 +192,7 @@ class FilmControllerTest {
                 .build();
 
         Film createdFilm = filmController.addNewFilm(film);
-        int initialCount = filmController.getAllFilms().size();
+        int initialCount = filmController.getAllFilms(request).getBody().size();
 
         Film updatedFilm = Film.builder()
                 .id(createdFilm.getId())
@@ -191,7 +203,7 @@ class FilmControllerTest {
                 .build();
 
         filmController.updateFilm(updatedFilm);
-        int finalCount = filmController.getAllFilms().size();
+        int finalCount = filmController.getAllFilms(request).getBody().size();
 
         assertEquals(initialCount, finalCount);
     }
@@ -272,9 +284,9 @@ class FilmControllerTest {
                 .build();
         User createdUser = userStorage.addNewUser(user);
 
-        assertDoesNotThrow(() -> filmController.putLike(createdFilm.getId(), createdUser.getId()));
+        assertDoesNotThrow(() -> filmController.putLike(createdFilm.getId(), createdUser.getId(), false));
 
-        Film filmAfterLike = filmController.getFilm(createdFilm.getId());
+        Film filmAfterLike = filmController.getFilm(createdFilm.getId()).getBody();
         assertEquals(1, filmAfterLike.getFilmLikes().size());
         assertTrue(filmAfterLike.getFilmLikes().contains(createdUser.getId()));
     }
@@ -290,7 +302,7 @@ class FilmControllerTest {
         User createdUser = userStorage.addNewUser(user);
 
         assertThrows(NotFoundException.class, () -> {
-            filmController.putLike(999, createdUser.getId());
+            filmController.putLike(999, createdUser.getId(), false);
         });
     }
 
@@ -305,7 +317,7 @@ class FilmControllerTest {
         Film createdFilm = filmController.addNewFilm(film);
 
         assertThrows(NotFoundException.class, () -> {
-            filmController.putLike(createdFilm.getId(), 999L);
+            filmController.putLike(createdFilm.getId(), 999L, false);
         });
     }
 
@@ -327,11 +339,11 @@ class FilmControllerTest {
                 .build();
         User createdUser = userStorage.addNewUser(user);
 
-        filmController.putLike(createdFilm.getId(), createdUser.getId());
+        filmController.putLike(createdFilm.getId(), createdUser.getId(), false);
 
-        assertDoesNotThrow(() -> filmController.deleteLike(createdFilm.getId(), createdUser.getId()));
+        assertDoesNotThrow(() -> filmController.deleteLike(createdFilm.getId(), createdUser.getId(), false));
 
-        Film filmAfterDelete = filmController.getFilm(createdFilm.getId());
+        Film filmAfterDelete = filmController.getFilm(createdFilm.getId()).getBody();
         assertEquals(0, filmAfterDelete.getFilmLikes().size());
         assertFalse(filmAfterDelete.getFilmLikes().contains(createdUser.getId()));
     }
@@ -355,12 +367,12 @@ class FilmControllerTest {
         User createdUser = userStorage.addNewUser(user);
 
         assertThrows(ValidationException.class, () -> {
-            filmController.deleteLike(createdFilm.getId(), createdUser.getId());
+            filmController.deleteLike(createdFilm.getId(), createdUser.getId(), false);
         });
     }
 
     @Test
-    void shouldShowMostLikedFilmsWithDefaultCount() {
+    void shouldShowMostLikedFilmsWithDefaultCount() throws IOException {
         Film film1 = Film.builder()
                 .name("Film 1")
                 .description("Description 1")
@@ -391,16 +403,16 @@ class FilmControllerTest {
                 .build();
         User createdUser = userStorage.addNewUser(user);
 
-        filmController.putLike(createdFilm1.getId(), createdUser.getId());
-        filmController.putLike(createdFilm2.getId(), createdUser.getId());
+        filmController.putLike(createdFilm1.getId(), createdUser.getId(), false);
+        filmController.putLike(createdFilm2.getId(), createdUser.getId(), false);
 
-        List<Film> popularFilms = filmController.showMostLikedFilms(null);
+        List<Integer> popularFilms = popularFilmIds(null);
 
         assertEquals(defaultCount, popularFilms.size());
     }
 
     @Test
-    void shouldShowMostLikedFilmsWithCustomCount() {
+    void shouldShowMostLikedFilmsWithCustomCount() throws IOException {
         Film film1 = Film.builder()
                 .name("Film 1")
                 .description("Description 1")
@@ -438,18 +450,18 @@ class FilmControllerTest {
         User createdUser1 = userStorage.addNewUser(user1);
         User createdUser2 = userStorage.addNewUser(user2);
 
-        filmController.putLike(createdFilm1.getId(), createdUser1.getId());
-        filmController.putLike(createdFilm1.getId(), createdUser2.getId());
-        filmController.putLike(createdFilm2.getId(), createdUser1.getId());
+        filmController.putLike(createdFilm1.getId(), createdUser1.getId(), false);
+        filmController.putLike(createdFilm1.getId(), createdUser2.getId(), false);
+        filmController.putLike(createdFilm2.getId(), createdUser1.getId(), false);
 
-        List<Film> popularFilms = filmController.showMostLikedFilms(1);
+        List<Integer> popularFilms = popularFilmIds(1);
 
         assertEquals(1, popularFilms.size());
-        assertEquals(createdFilm1.getId(), popularFilms.getFirst().getId());
+        assertEquals(createdFilm1.getId(), popularFilms.getFirst());
     }
 
     @Test
-    void shouldShowMostLikedFilmsWhenNoLikes() {
+    void shouldShowMostLikedFilmsWhenNoLikes() throws IOException {
         Film film1 = Film.builder()
                 .name("Film 1")
                 .description("Description 1")
@@ -466,9 +478,93 @@ class FilmControllerTest {
         filmController.addNewFilm(film1);
         filmController.addNewFilm(film2);
 
-        List<Film> popularFilms = filmController.showMostLikedFilms(2);
+        List<Integer> popularFilms = popularFilmIds(2);
 
         assertEquals(2, popularFilms.size());
     }
 
-}
\ No newline at end of file
+    @Test
+    void shouldServeSamePopularResponseUntilLikesChange() {
+        Film film = filmController.addNewFilm(Film.builder()
+                .name("Film 1")
+                .description("Description 1")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(120)
+                .build());
+        User user = userStorage.addNewUser(User.builder()
+                .email("user@mail.com")
+                .login("user")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build());
+
+        ResponseEntity<byte[]> first = filmController.getPopularFilms(1);
+        ResponseEntity<byte[]> second = filmController.getPopularFilms(1);
+        filmController.putLike(film.getId(), user.getId(), false);
+        ResponseEntity<byte[]> liked = filmController.getPopularFilms(1);
+
+        assertSame(first.getBody(), second.getBody());
+        assertEquals(first.getHeaders().getETag(), second.getHeaders().getETag());
+        assertNotEquals(first.getHeaders().getETag(), liked.getHeaders().getETag());
+        assertTrue(new String(liked.getBody(), StandardCharsets.UTF_8).contains("\"rate\":1"));
+    }
+
+    @Test
+    void shouldRebuildPopularResponseAfterFilmUpdate() {
+        Film film = filmController.addNewFilm(Film.builder()
+                .name("Film 1")
+                .description("Description 1")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(120)
+                .build());
+        filmController.getPopularFilms(null);
+
+        filmController.updateFilm(Film.builder().id(film.getId()).name("Renamed").build());
+
+        assertTrue(new String(filmController.getPopularFilms(null).getBody(), StandardCharsets.UTF_8)
+                .contains("Renamed"));
+    }
+
+    @Test
+    void shouldShowTrendingFilmsWithDefaultCount() {
+        Film film = filmController.addNewFilm(Film.builder()
+                .name("Trending Film")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(120)
+                .build());
+        User user = userStorage.addNewUser(User.builder()
+                .email("trending@mail.com")
+                .login("trending")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build());
+        filmController.putLike(film.getId(), user.getId(), false);
+
+        assertEquals(List.of(film), filmController.getTrendingFilms("1h", null));
+        assertThrows(ValidationException.class, () -> filmController.getTrendingFilms("2h", null));
+    }
+
+    @Test
+    void shouldShowPopularFilmsInRequestedOrder() {
+        Film film = filmController.addNewFilm(Film.builder()
+                .name("Hot Film")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(120)
+                .build());
+        User user = userStorage.addNewUser(User.builder()
+                .email("hot@mail.com")
+                .login("hot")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build());
+        filmController.putLike(film.getId(), user.getId(), false);
+
+        assertEquals(List.of(film), filmController.getPopularFilmsSorted("hot", null).getBody());
+        assertInstanceOf(byte[].class, filmController.getPopularFilmsSorted("likes", null).getBody());
+        assertThrows(ValidationException.class, () -> filmController.getPopularFilmsSorted("new", null));
+    }
+
+    private List<Integer> popularFilmIds(Integer count) throws IOException {
+        List<Integer> ids = new ArrayList<>();
+        objectMapper.readTree(filmController.getPopularFilms(count).getBody())
+                .forEach(film -> ids.add(film.get("id").asInt()));
+        return ids;
+    }
+}
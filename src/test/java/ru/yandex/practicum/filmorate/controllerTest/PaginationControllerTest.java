@@ -0,0 +1,111 @@
+package ru.yandex.practicum.filmorate.controllerTest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PaginationControllerTest {
+    private static final Pattern NEXT_LINK = Pattern.compile("<(.+)>; rel=\"next\"");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private FilmStorage filmStorage;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Test
+    void shouldWalkAllFilmsPageByPage() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            filmStorage.addNewFilm(Film.builder()
+                    .name("Paged Film " + i)
+                    .releaseDate(LocalDate.of(2000, 1, 1))
+                    .duration(90)
+                    .build());
+        }
+
+        List<Long> ids = walk("/films?limit=2");
+
+        assertEquals(filmStorage.getAllFilms().size(), ids.size());
+        for (int i = 1; i < ids.size(); i++) {
+            assertTrue(ids.get(i - 1) < ids.get(i));
+        }
+    }
+
+    @Test
+    void shouldWalkUserFriendsPageByPage() throws Exception {
+        User user = userStorage.addNewUser(user("paged"));
+        List<Long> friendIds = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            User friend = userStorage.addNewUser(user("friend" + i));
+            userStorage.addFriend(user.getId(), friend.getId());
+            friendIds.add(friend.getId());
+        }
+
+        assertEquals(friendIds, walk("/users/" + user.getId() + "/friends?limit=2"));
+        assertEquals(userStorage.getAllUsers().size(), walk("/users?limit=3").size());
+    }
+
+    @Test
+    void shouldRejectInvalidPageParameters() throws Exception {
+        mockMvc.perform(get("/users").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/films").param("limit", "10").param("after", "not a cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/users/999999/friends").param("limit", "10"))
+                .andExpect(status().isNotFound());
+    }
+
+    /**
+     * Проходит по всем страницам, следуя за ссылкой {@code rel="next"}, и возвращает ID записей.
+     */
+    private List<Long> walk(String firstPage) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        String page = firstPage;
+        while (page != null) {
+            MvcResult result = mockMvc.perform(get(page))
+                    .andExpect(status().isOk())
+                    .andReturn();
+            JsonNode body = objectMapper.readTree(result.getResponse().getContentAsString());
+            body.forEach(entity -> ids.add(entity.get("id").asLong()));
+
+            String link = result.getResponse().getHeader(HttpHeaders.LINK);
+            if (link == null) {
+                page = null;
+            } else {
+                Matcher matcher = NEXT_LINK.matcher(link);
+                assertTrue(matcher.matches());
+                page = matcher.group(1);
+            }
+        }
+        return ids;
+    }
+}
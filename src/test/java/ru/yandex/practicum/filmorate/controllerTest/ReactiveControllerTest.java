@@ -0,0 +1,243 @@
+package ru.yandex.practicum.filmorate.controllerTest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import ru.yandex.practicum.filmorate.controller.ReactiveFilmController;
+import ru.yandex.practicum.filmorate.controller.ReactiveUserController;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "spring.main.web-application-type=reactive")
+class ReactiveControllerTest {
+    private static final Pattern NEXT_LINK = Pattern.compile("<(.+)>; rel=\"next\"");
+
+    @Autowired
+    private WebTestClient webClient;
+
+    @Autowired
+    private ReactiveFilmController filmController;
+
+    @Autowired
+    private ReactiveUserController userController;
+
+    @Test
+    void contextLoads() {
+        assertNotNull(filmController);
+        assertNotNull(userController);
+    }
+
+    @Test
+    void shouldCreateFilmAndStreamPopularFilms() {
+        Film film = createFilm("Reactive Film");
+        User user = createUser("reactive");
+
+        webClient.put().uri("/films/{id}/like/{userId}", film.getId(), user.getId())
+                .exchange()
+                .expectStatus().isOk();
+
+        List<Film> popular = webClient.get().uri("/films/popular?count=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(Film.class)
+                .returnResult()
+                .getResponseBody();
+        assertEquals(1, popular.size());
+        assertEquals(1, popular.getFirst().getRate());
+
+        List<Film> streamed = webClient.get().uri("/films")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Film.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+        assertTrue(streamed.stream().anyMatch(f -> f.getId().equals(film.getId())));
+    }
+
+    @Test
+    void shouldMapErrorsLikeServletControllers() {
+        webClient.get().uri("/films/{id}", 9999)
+                .exchange()
+                .expectStatus().isNotFound()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Not Found");
+
+        webClient.post().uri("/films")
+                .bodyValue(Film.builder().name("").releaseDate(LocalDate.of(2000, 1, 1)).build())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Validation Error")
+                .jsonPath("$.details.name").exists();
+
+        User user = createUser("selflover");
+        webClient.put().uri("/users/{id}/friends/{friendId}", user.getId(), user.getId())
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.error").isEqualTo("Validation Error");
+    }
+
+    @Test
+    void shouldReturnCommonFriends() {
+        User first = createUser("first");
+        User second = createUser("second");
+        User common = createUser("common");
+        webClient.put().uri("/users/{id}/friends/{friendId}", first.getId(), common.getId()).exchange()
+                .expectStatus().isOk();
+        webClient.put().uri("/users/{id}/friends/{friendId}", second.getId(), common.getId()).exchange()
+                .expectStatus().isOk();
+
+        webClient.get().uri("/users/{id}/friends/common/{otherId}", first.getId(), second.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(1)
+                .jsonPath("$[0].id").isEqualTo(common.getId());
+    }
+
+    @Test
+    void shouldWalkPagesByCursorFromLinkHeader() {
+        for (int i = 0; i < 5; i++) {
+            createUser("paged" + i);
+        }
+
+        List<Long> ids = new ArrayList<>();
+        String next = "/users?limit=2";
+        while (next != null) {
+            EntityExchangeResult<List<User>> page = webClient.get().uri(next)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectBodyList(User.class)
+                    .returnResult();
+            assertTrue(page.getResponseBody().size() <= 2);
+            page.getResponseBody().forEach(user -> ids.add(user.getId()));
+            String link = page.getResponseHeaders().getFirst(HttpHeaders.LINK);
+            if (link == null) {
+                next = null;
+            } else {
+                Matcher matcher = NEXT_LINK.matcher(link);
+                assertTrue(matcher.matches(), link);
+                next = matcher.group(1);
+            }
+        }
+
+        List<Long> all = webClient.get().uri("/users").exchange()
+                .expectBodyList(User.class)
+                .returnResult()
+                .getResponseBody()
+                .stream()
+                .map(User::getId)
+                .toList();
+        assertEquals(all, ids);
+        webClient.get().uri("/films?limit=0").exchange().expectStatus().isBadRequest();
+    }
+
+    @Test
+    void shouldAnswerNotModifiedForUnchangedCollectionsAndPopularFilms() {
+        createFilm("Tagged");
+        for (String uri : List.of("/films", "/users", "/films/popular?count=3")) {
+            String etag = webClient.get().uri(uri)
+                    .exchange()
+                    .expectStatus().isOk()
+                    .expectHeader().exists(HttpHeaders.ETAG)
+                    .expectBody(String.class)
+                    .returnResult()
+                    .getResponseHeaders()
+                    .getETag();
+
+            webClient.get().uri(uri)
+                    .ifNoneMatch(etag)
+                    .exchange()
+                    .expectStatus().isNotModified()
+                    .expectBody().isEmpty();
+        }
+
+        Film film = createFilm("Changed");
+        String etag = webClient.get().uri("/films/{id}", film.getId())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult()
+                .getResponseHeaders()
+                .getETag();
+        webClient.put().uri("/films")
+                .bodyValue(Film.builder().id(film.getId()).name("Renamed").build())
+                .exchange()
+                .expectStatus().isOk();
+        webClient.get().uri("/films/{id}", film.getId())
+                .ifNoneMatch(etag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.name").isEqualTo("Renamed");
+    }
+
+    @Test
+    void shouldStreamNdjsonByParameter() {
+        Film film = createFilm("Streamed");
+
+        List<Film> streamed = webClient.get().uri("/films?stream=true")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(Film.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+        assertTrue(streamed.stream().anyMatch(f -> f.getId().equals(film.getId())));
+
+        webClient.get().uri("/users?stream=true")
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .expectBodyList(User.class);
+    }
+
+    private Film createFilm(String name) {
+        Film film = Film.builder()
+                .name(name)
+                .description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .build();
+        return webClient.post().uri("/films")
+                .bodyValue(film)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(Film.class)
+                .returnResult()
+                .getResponseBody();
+    }
+
+    private User createUser(String login) {
+        User user = User.builder()
+                .email(login + "@mail.ru")
+                .login(login)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build();
+        return webClient.post().uri("/users")
+                .bodyValue(user)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(User.class)
+                .returnResult()
+                .getResponseBody();
+    }
+}
@@ -0,0 +1,113 @@
+package ru.yandex.practicum.filmorate.controllerTest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class StreamingControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private FilmStorage filmStorage;
+
+    @Autowired
+    private UserStorage userStorage;
+
+    @Test
+    void shouldStreamFilmsAsNdjsonWhenRequestedByAcceptHeader() throws Exception {
+        Film film = filmStorage.addNewFilm(Film.builder()
+                .name("Streamed Film")
+                .description("Description")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(90)
+                .build());
+        filmStorage.addLike(film.getId(), 1L);
+
+        List<JsonNode> lines = streamLines(get("/films").accept(MediaType.APPLICATION_NDJSON));
+
+        JsonNode streamed = lines.stream()
+                .filter(line -> line.get("id").asInt() == film.getId())
+                .findFirst()
+                .orElseThrow();
+        assertEquals("Streamed Film", streamed.get("name").asText());
+        assertEquals("2000-01-01", streamed.get("releaseDate").asText());
+        assertEquals(1, streamed.get("rate").asInt());
+        assertEquals(filmStorage.getAllFilms().size(), lines.size());
+    }
+
+    @Test
+    void shouldStreamUsersAsNdjsonWhenRequestedByParameter() throws Exception {
+        User user = userStorage.addNewUser(User.builder()
+                .email("streamed@mail.com")
+                .login("streamed")
+                .name("Streamed User")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build());
+
+        List<JsonNode> lines = streamLines(get("/users").param("stream", "true"));
+
+        assertTrue(lines.stream().anyMatch(line -> line.get("id").asLong() == user.getId()
+                && line.get("login").asText().equals("streamed")));
+        assertEquals(userStorage.getAllUsers().size(), lines.size());
+    }
+
+    @Test
+    void shouldKeepJsonArrayByDefault() throws Exception {
+        userStorage.addNewUser(User.builder()
+                .email("array@mail.com")
+                .login("array")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build());
+
+        MvcResult result = mockMvc.perform(get("/users").accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andReturn();
+
+        assertTrue(objectMapper.readTree(result.getResponse().getContentAsString()).isArray());
+    }
+
+    private List<JsonNode> streamLines(RequestBuilder request) throws Exception {
+        MvcResult started = mockMvc.perform(request)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        MvcResult result = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn();
+
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : result.getResponse().getContentAsString().split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+}
@@ -1,12 +1,18 @@
 package ru.yandex.practicum.filmorate.controllerTest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
 import ru.yandex.practicum.filmorate.controller.UserController;
 import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
 import ru.yandex.practicum.filmorate.exceptions.ValidationException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
 import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
 import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
 
 import java.time.LocalDate;
@@ -15,11 +21,14 @@ import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
 class UserControllerTest {
+    private final WebRequest request = new ServletWebRequest(new MockHttpServletRequest());
     private UserController userController;
 
     @BeforeEach
     void setUp() {
-        userController = new UserController(new UserService(new InMemoryUserStorage()));
+        InMemoryUserStorage userStorage = new InMemoryUserStorage();
+        userController = new UserController(new UserService(userStorage),
+                new FilmService(userStorage, new InMemoryFilmStorage()), new ObjectMapper());
     }
 
     @Test
@@ -36,7 +45,7 @@ class UserControllerTest {
         assertNotNull(createdUser.getId());
         assertEquals("test@mail.com", createdUser.getEmail());
         assertEquals("testuser", createdUser.getLogin());
-        assertEquals(1, userController.getAllUsers().size());
+        assertEquals(1, userController.getAllUsers(request).getBody().size());
     }
 
     @Test
@@ -86,7 +95,7 @@ class UserControllerTest {
         userController.addNewUser(user1);
         userController.addNewUser(user2);
 
-        List<User> users = userController.getAllUsers();
+        List<User> users = userController.getAllUsers(request).getBody();
 
         assertEquals(2, users.size());
     }
@@ -101,7 +110,7 @@ class UserControllerTest {
                 .build();
 
         User createdUser = userController.addNewUser(user);
-        User foundUser = userController.getUser(createdUser.getId());
+        User foundUser = userController.getUser(createdUser.getId()).getBody();
 
         assertNotNull(foundUser);
         assertEquals(createdUser.getId(), foundUser.getId());
@@ -111,7 +120,7 @@ class UserControllerTest {
     @Test
     void shouldThrowExceptionWhenUserNotFound() {
         assertThrows(NotFoundException.class, () -> {
-            userController.getUser(999L);
+            userController.getUser(999L).getBody();
         });
     }
 
@@ -214,7 +223,7 @@ class UserControllerTest {
                 .build();
 
         User createdUser = userController.addNewUser(user);
-        int initialCount = userController.getAllUsers().size();
+        int initialCount = userController.getAllUsers(request).getBody().size();
 
         User updatedUser = User.builder()
                 .id(createdUser.getId())
@@ -225,7 +234,7 @@ class UserControllerTest {
                 .build();
 
         userController.updateUser(updatedUser);
-        int finalCount = userController.getAllUsers().size();
+        int finalCount = userController.getAllUsers(request).getBody().size();
 
         assertEquals(initialCount, finalCount);
     }
@@ -0,0 +1,137 @@
+package ru.yandex.practicum.filmorate.serviceTest;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.FilmRecommendations;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.yandex.practicum.filmorate.TestData.film;
+
+class FilmRecommendationsTest {
+    private static final int FILMS = 12;
+    private static final int USERS = 16;
+
+    @Test
+    void shouldFollowLikesAppliedDirectlyToStorage() {
+        FilmStorage filmStorage = storageWithFilms();
+        FilmRecommendations recommendations = new FilmRecommendations(filmStorage);
+        filmStorage.addLike(1, 1L);
+        filmStorage.addLike(2, 1L);
+        filmStorage.addLike(1, 2L);
+
+        assertEquals(List.of(2), recommendations.recommend(2L, 10));
+
+        filmStorage.applyLikes(2, new long[]{2L}, new long[]{1L});
+
+        assertEquals(List.of(), recommendations.recommend(2L, 10));
+        assertEquals(List.of(2), recommendations.recommend(1L, 10));
+    }
+
+    @Test
+    void shouldMatchRebuiltIndexAfterConcurrentLikesAndUnlikes() throws Exception {
+        FilmStorage filmStorage = storageWithFilms();
+        Random random = new Random(11);
+        for (int i = 0; i < 60; i++) {
+            filmStorage.addLike(1 + random.nextInt(FILMS), 1 + random.nextInt(USERS));
+        }
+        FilmRecommendations recommendations = new FilmRecommendations(filmStorage);
+        recommendations.recommend(1L, 10);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long user = 1; user <= USERS; user++) {
+                long userId = user;
+                int film = 1 + (int) (user % FILMS);
+                int otherFilm = 1 + (int) ((user + 5) % FILMS);
+                // Лайк и снятие одной пары идут навстречу, а лайки другого фильма тем же
+                // пользователем — параллельно с ними
+                futures.add(executor.submit(() -> toggle(start, () -> filmStorage.addLike(film, userId))));
+                futures.add(executor.submit(() -> toggle(start, () -> filmStorage.deleteLike(film, userId))));
+                futures.add(executor.submit(() -> toggle(start, () -> filmStorage.applyLikes(otherFilm,
+                        new long[]{userId}, new long[0]))));
+                futures.add(executor.submit(() -> toggle(start, () -> filmStorage.applyLikes(otherFilm,
+                        new long[0], new long[]{userId}))));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        FilmRecommendations rebuilt = new FilmRecommendations(filmStorage);
+        for (long user = 1; user <= USERS; user++) {
+            assertEquals(rebuilt.recommend(user, FILMS), recommendations.recommend(user, FILMS), "Пользователь " + user);
+        }
+    }
+
+    @Test
+    void shouldApplyLikesArrivingDuringBuildWithoutWaitingForIt() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Лайки приходят из другого потока посреди обхода хранилища построением
+            // и должны вернуться, пока построение еще не закончено
+            FilmStorage filmStorage = new InMemoryFilmStorage() {
+                private boolean liked;
+
+                @Override
+                public void forEachFilm(Consumer<? super Film> action) {
+                    super.forEachFilm(action);
+                    if (!liked) {
+                        liked = true;
+                        assertDoesNotThrow(() -> executor.submit(() -> {
+                            addLike(1, 1L);
+                            addLike(2, 1L);
+                        }).get(5, TimeUnit.SECONDS));
+                    }
+                }
+            };
+            for (int i = 1; i <= FILMS; i++) {
+                filmStorage.addNewFilm(film("Film " + i));
+            }
+            filmStorage.addLike(1, 2L);
+            FilmRecommendations recommendations = new FilmRecommendations(filmStorage);
+
+            assertEquals(List.of(2), recommendations.recommend(2L, 10));
+            assertEquals(List.of(), recommendations.recommend(1L, 10));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Void toggle(CountDownLatch start, Runnable change) throws InterruptedException {
+        start.await();
+        for (int i = 0; i < 2_000; i++) {
+            change.run();
+        }
+        return null;
+    }
+
+    private static FilmStorage storageWithFilms() {
+        FilmStorage filmStorage = new InMemoryFilmStorage();
+        for (int i = 1; i <= FILMS; i++) {
+            filmStorage.addNewFilm(Film.builder()
+                    .name("Film " + i)
+                    .releaseDate(LocalDate.of(2000, 1, 1))
+                    .duration(100)
+                    .build());
+        }
+        return filmStorage;
+    }
+}
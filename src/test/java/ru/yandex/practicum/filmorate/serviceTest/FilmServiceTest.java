@@ -2,11 +2,16 @@ package ru.yandex.practicum.filmorate.serviceTest;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.dto.SimilarFilm;
 import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
 import ru.yandex.practicum.filmorate.exceptions.ValidationException;
 import ru.yandex.practicum.filmorate.model.Film;
 import ru.yandex.practicum.filmorate.model.User;
 import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.PopularityProperties;
+import ru.yandex.practicum.filmorate.service.PopularitySketch;
+import ru.yandex.practicum.filmorate.service.TrendingFilms;
+import ru.yandex.practicum.filmorate.service.TrendingWindow;
 import ru.yandex.practicum.filmorate.storage.FilmStorage;
 import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
 import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
@@ -189,4 +194,138 @@ class FilmServiceTest {
             filmService.putLike(createdFilm.getId(), -1L);
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldShowTrendingFilmsByLikesInWindow() {
+        Film createdFilm1 = filmStorage.addNewFilm(film1);
+        Film createdFilm2 = filmStorage.addNewFilm(film2);
+        User createdUser1 = userStorage.addNewUser(user1);
+        User createdUser2 = userStorage.addNewUser(user2);
+
+        filmService.putLike(createdFilm1.getId(), createdUser1.getId());
+        filmService.putLike(createdFilm2.getId(), createdUser1.getId());
+        filmService.putLike(createdFilm2.getId(), createdUser2.getId());
+
+        assertEquals(List.of(createdFilm2, createdFilm1), filmService.showTrendingFilms(TrendingWindow.HOUR, 10));
+        assertEquals(List.of(createdFilm2), filmService.showTrendingFilms(TrendingWindow.WEEK, 1));
+
+        filmService.deleteLike(createdFilm2.getId(), createdUser1.getId());
+        filmService.deleteLike(createdFilm2.getId(), createdUser2.getId());
+
+        assertEquals(List.of(createdFilm1), filmService.showTrendingFilms(TrendingWindow.DAY, 10));
+    }
+
+    @Test
+    void shouldRejectUnknownTrendingWindow() {
+        assertEquals(TrendingWindow.DAY, TrendingWindow.of("24h"));
+        assertThrows(ValidationException.class, () -> TrendingWindow.of("1y"));
+    }
+
+    @Test
+    void shouldShowHotFilmsByDecayedLikes() {
+        Film createdFilm1 = filmStorage.addNewFilm(film1);
+        Film createdFilm2 = filmStorage.addNewFilm(film2);
+        User createdUser1 = userStorage.addNewUser(user1);
+        User createdUser2 = userStorage.addNewUser(user2);
+
+        filmService.putLike(createdFilm1.getId(), createdUser1.getId());
+        filmService.putLike(createdFilm2.getId(), createdUser1.getId());
+        filmService.putLike(createdFilm2.getId(), createdUser2.getId());
+
+        assertEquals(List.of(createdFilm2, createdFilm1), filmService.showHotFilms(10));
+
+        filmService.deleteLike(createdFilm2.getId(), createdUser1.getId());
+        filmService.deleteLike(createdFilm2.getId(), createdUser2.getId());
+
+        assertEquals(List.of(createdFilm1), filmService.showHotFilms(10));
+    }
+
+    @Test
+    void shouldShowMostLikedFilmsFromSketchInApproximateMode() {
+        Film createdFilm1 = filmStorage.addNewFilm(film1);
+        Film createdFilm2 = filmStorage.addNewFilm(film2);
+        User createdUser1 = userStorage.addNewUser(user1);
+        User createdUser2 = userStorage.addNewUser(user2);
+        filmStorage.addLike(createdFilm1.getId(), createdUser1.getId());
+        PopularitySketch sketch = new PopularitySketch(
+                new PopularityProperties("approximate", 256, 4, 16, 42), filmStorage);
+        filmService = new FilmService(userStorage, filmStorage, null, new TrendingFilms(), sketch);
+
+        assertEquals(List.of(createdFilm1), filmService.showMostLikedFilms(10));
+
+        filmService.putLike(createdFilm2.getId(), createdUser1.getId());
+        filmService.putLike(createdFilm2.getId(), createdUser2.getId());
+
+        assertEquals(List.of(createdFilm2, createdFilm1), filmService.showMostLikedFilms(10));
+        assertEquals(2, sketch.estimate(createdFilm2.getId()));
+    }
+
+    @Test
+    void shouldChangePopularFilmsVersionWhenSketchCatchesUp() {
+        Film createdFilm = filmStorage.addNewFilm(film1);
+        User createdUser = userStorage.addNewUser(user1);
+        PopularitySketch sketch = new PopularitySketch(
+                new PopularityProperties("approximate", 256, 4, 16, 42), filmStorage);
+        filmService = new FilmService(userStorage, filmStorage, null, new TrendingFilms(), sketch);
+
+        // Асинхронный прием обновляет эскиз уже после того, как хранилище сменило версию
+        filmStorage.addLike(createdFilm.getId(), createdUser.getId());
+        long applied = filmService.popularFilmsVersion();
+        sketch.likeAdded(createdFilm.getId());
+
+        assertNotEquals(applied, filmService.popularFilmsVersion());
+    }
+
+    @Test
+    void shouldRecommendFilmsLikedTogether() {
+        Film first = filmStorage.addNewFilm(film1);
+        Film second = filmStorage.addNewFilm(film2);
+        User fan = userStorage.addNewUser(user1);
+        User newcomer = userStorage.addNewUser(user2);
+        filmService.putLike(first.getId(), fan.getId());
+        filmService.putLike(second.getId(), fan.getId());
+
+        assertEquals(List.of(), filmService.recommendFilms(newcomer.getId(), 10));
+
+        filmService.putLike(first.getId(), newcomer.getId());
+
+        assertEquals(List.of(second.getId()),
+                filmService.recommendFilms(newcomer.getId(), 10).stream().map(Film::getId).toList());
+
+        filmService.putLike(second.getId(), newcomer.getId());
+
+        assertEquals(List.of(), filmService.recommendFilms(newcomer.getId(), 10));
+        assertThrows(ValidationException.class, () -> filmService.recommendFilms(newcomer.getId(), 0));
+        assertThrows(NotFoundException.class, () -> filmService.recommendFilms(999L, 10));
+    }
+
+    @Test
+    void shouldShowFilmsLikedBySameUsers() {
+        Film first = filmStorage.addNewFilm(film1);
+        Film twin = filmStorage.addNewFilm(film2);
+        Film other = filmStorage.addNewFilm(Film.builder()
+                .name("Film Three")
+                .releaseDate(LocalDate.of(2002, 1, 1))
+                .duration(90)
+                .build());
+        User fan = userStorage.addNewUser(user1);
+        User stranger = userStorage.addNewUser(user2);
+        filmService.putLike(first.getId(), fan.getId());
+        filmService.putLike(twin.getId(), fan.getId());
+        filmService.putLike(other.getId(), stranger.getId());
+
+        List<SimilarFilm> similar = filmService.showSimilarFilms(first.getId(), 10);
+
+        assertEquals(List.of(twin.getId()), similar.stream().map(entry -> entry.film().getId()).toList());
+        assertEquals(1.0, similar.get(0).similarity());
+
+        filmService.deleteLike(twin.getId(), fan.getId());
+        filmService.putLike(twin.getId(), stranger.getId());
+
+        assertEquals(List.of(other.getId()), filmService.showSimilarFilms(twin.getId(), 10).stream()
+                .map(entry -> entry.film().getId()).toList());
+        assertEquals(List.of(), filmService.showSimilarFilms(first.getId(), 10));
+        assertThrows(ValidationException.class, () -> filmService.showSimilarFilms(first.getId(), 0));
+        assertThrows(NotFoundException.class, () -> filmService.showSimilarFilms(999, 10));
+    }
+}
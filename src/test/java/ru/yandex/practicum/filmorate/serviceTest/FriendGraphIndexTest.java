@@ -0,0 +1,192 @@
+package ru.yandex.practicum.filmorate.serviceTest;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exceptions.ValidationException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FriendGraphIndex;
+import ru.yandex.practicum.filmorate.service.UserService;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.UserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FriendGraphIndexTest {
+    private static final int USERS = 400;
+
+    @Test
+    void shouldFindPathsAsShortAsPlainBfs() {
+        Random random = new Random(11);
+        UserStorage userStorage = randomStorage(random, USERS);
+        FriendGraphIndex index = new FriendGraphIndex(userStorage);
+
+        for (int i = 0; i < 500; i++) {
+            long from = 1 + random.nextInt(USERS);
+            long to = 1 + random.nextInt(USERS);
+            int[] path = index.shortestPath(from, to);
+
+            assertEquals(distance(userStorage, from, to), path.length - 1,
+                    "Путь " + from + " -> " + to + ": " + Arrays.toString(path));
+            if (path.length > 0) {
+                assertEquals(from, path[0]);
+                assertEquals(to, path[path.length - 1]);
+                for (int j = 1; j < path.length; j++) {
+                    assertTrue(userStorage.getUser(path[j - 1]).getUserFriends().contains((long) path[j]));
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldFindShortestPathsFromManyVirtualThreads() throws Exception {
+        Random random = new Random(17);
+        UserStorage userStorage = randomStorage(random, USERS);
+        FriendGraphIndex index = new FriendGraphIndex(userStorage);
+        List<Future<?>> futures = new ArrayList<>();
+
+        // Виртуальных потоков больше, чем наборов рабочих массивов в пуле
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 200; i++) {
+                long from = 1 + random.nextInt(USERS);
+                long to = 1 + random.nextInt(USERS);
+                futures.add(executor.submit(() -> assertEquals(distance(userStorage, from, to),
+                        index.shortestPath(from, to).length - 1, "Путь " + from + " -> " + to)));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    @Test
+    void shouldCountMutualFriendsLikeBruteForce() {
+        UserStorage userStorage = randomStorage(new Random(5), USERS * 4);
+        FriendGraphIndex index = new FriendGraphIndex(userStorage);
+
+        for (long user = 1; user <= USERS; user += 7) {
+            Set<Long> friends = userStorage.getUser(user).getUserFriends();
+            Map<Long, Integer> expected = new HashMap<>();
+            for (long friend : friends) {
+                for (long candidate : userStorage.getUser(friend).getUserFriends()) {
+                    if (candidate != user && !friends.contains(candidate)) {
+                        expected.merge(candidate, 1, Integer::sum);
+                    }
+                }
+            }
+            long[] suggestions = index.suggestions(user, USERS);
+            Map<Long, Integer> actual = new HashMap<>();
+            for (int i = 0; i < suggestions.length; i += 2) {
+                actual.put(suggestions[i], (int) suggestions[i + 1]);
+                if (i > 0) {
+                    assertTrue(suggestions[i - 1] >= suggestions[i + 1], "Порядок у пользователя " + user);
+                }
+            }
+            assertEquals(expected, actual, "Пользователь " + user);
+        }
+    }
+
+    @Test
+    void shouldKeepGraphEqualToStorageUnderConcurrentAddAndDeleteOfOnePair() throws Exception {
+        UserStorage userStorage = new InMemoryUserStorage();
+        int pairs = 8;
+        for (int i = 0; i < pairs * 2; i++) {
+            userStorage.addNewUser(User.builder()
+                    .email("pair" + i + "@mail.com")
+                    .login("pair" + i)
+                    .birthday(LocalDate.of(1990, 1, 1))
+                    .build());
+        }
+        FriendGraphIndex index = new FriendGraphIndex(userStorage);
+        UserService userService = new UserService(userStorage, index);
+        index.graph();
+
+        ExecutorService executor = Executors.newFixedThreadPool(pairs * 2);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int pair = 0; pair < pairs; pair++) {
+                long first = 2L * pair + 1;
+                long second = first + 1;
+                // Одна сторона дружит пару, другая — разрывает ее с другого конца
+                futures.add(executor.submit(() -> toggle(start, () -> userService.addFriend(first, second))));
+                futures.add(executor.submit(() -> toggle(start, () -> userService.deleteFriend(second, first))));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (long first = 1; first < pairs * 2; first += 2) {
+            boolean friends = userStorage.getUser(first).getUserFriends().contains(first + 1);
+            assertEquals(friends, index.graph().hasEdge((int) first, (int) first + 1), "Пара " + first);
+        }
+    }
+
+    private static Void toggle(CountDownLatch start, Runnable change) throws InterruptedException {
+        start.await();
+        for (int i = 0; i < 5_000; i++) {
+            try {
+                change.run();
+            } catch (ValidationException e) {
+                // Пара уже в нужном состоянии
+            }
+        }
+        return null;
+    }
+
+    private static UserStorage randomStorage(Random random, int friendships) {
+        UserStorage userStorage = new InMemoryUserStorage();
+        for (int i = 0; i < USERS; i++) {
+            userStorage.addNewUser(User.builder()
+                    .email("user" + i + "@mail.com")
+                    .login("user" + i)
+                    .birthday(LocalDate.of(1990, 1, 1))
+                    .build());
+        }
+        for (int i = 0; i < friendships; i++) {
+            long first = 1 + random.nextInt(USERS);
+            long second = 1 + random.nextInt(USERS);
+            if (first != second) {
+                userStorage.addFriend(first, second);
+            }
+        }
+        return userStorage;
+    }
+
+    // Число ребер кратчайшего пути обычным обходом в ширину или -1
+    private static int distance(UserStorage userStorage, long from, long to) {
+        int[] distances = new int[USERS + 1];
+        Arrays.fill(distances, -1);
+        distances[(int) from] = 0;
+        Deque<Long> queue = new ArrayDeque<>();
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            long current = queue.poll();
+            for (long friend : userStorage.getUser(current).getUserFriends()) {
+                if (distances[(int) friend] < 0) {
+                    distances[(int) friend] = distances[(int) current] + 1;
+                    queue.add(friend);
+                }
+            }
+        }
+        return distances[(int) to];
+    }
+}
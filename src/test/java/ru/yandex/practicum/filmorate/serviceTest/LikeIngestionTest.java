@@ -0,0 +1,143 @@
+package ru.yandex.practicum.filmorate.serviceTest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.LikeIngestion;
+import ru.yandex.practicum.filmorate.service.LikeIngestionProperties;
+import ru.yandex.practicum.filmorate.service.TrendingWindow;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LikeIngestionTest {
+    private InMemoryFilmStorage filmStorage;
+    private InMemoryUserStorage userStorage;
+    private LikeIngestion likeIngestion;
+    private FilmService filmService;
+
+    @BeforeEach
+    void setUp() {
+        filmStorage = new InMemoryFilmStorage();
+        userStorage = new InMemoryUserStorage();
+        likeIngestion = new LikeIngestion(filmStorage,
+                new LikeIngestionProperties(true, 1024, 256, Duration.ofMillis(1)));
+        likeIngestion.start();
+        filmService = new FilmService(userStorage, filmStorage, likeIngestion);
+    }
+
+    @AfterEach
+    void tearDown() {
+        likeIngestion.close();
+    }
+
+    @Test
+    void shouldAcceptLikeAndApplyItBeforeAwaitReturns() {
+        Film film = addFilm();
+        User user = addUser(1);
+
+        assertFalse(filmService.putLike(film.getId(), user.getId()));
+        filmService.awaitLikes();
+
+        assertEquals(1, filmStorage.getFilm(film.getId()).getRate());
+        assertEquals(film.getId(), filmStorage.getPopularFilms(1).getFirst().getId());
+    }
+
+    @Test
+    void shouldKeepOnlyLastOperationPerUserAndIgnoreRepeatedLikes() {
+        Film film = addFilm();
+        User first = addUser(1);
+        User second = addUser(2);
+
+        filmService.putLike(film.getId(), first.getId());
+        filmService.putLike(film.getId(), first.getId());
+        filmService.putLike(film.getId(), second.getId());
+        filmService.deleteLike(film.getId(), second.getId());
+        filmService.awaitLikes();
+
+        assertTrue(filmStorage.getFilm(film.getId()).getFilmLikes().contains(first.getId()));
+        assertFalse(filmStorage.getFilm(film.getId()).getFilmLikes().contains(second.getId()));
+    }
+
+    @Test
+    void shouldFeedRatingsOnlyWithAppliedLikes() {
+        Film liked = addFilm();
+        Film likedTwice = addFilm();
+        Film unlikedByStranger = addFilm();
+        User first = addUser(1);
+        User second = addUser(2);
+
+        filmService.putLike(liked.getId(), first.getId());
+        filmService.putLike(liked.getId(), second.getId());
+        filmService.putLike(likedTwice.getId(), first.getId());
+        filmService.putLike(unlikedByStranger.getId(), first.getId());
+        filmService.awaitLikes();
+        // Повтор и снятие несуществующего лайка приходят отдельными пачками
+        filmService.putLike(likedTwice.getId(), first.getId());
+        filmService.awaitLikes();
+        filmService.deleteLike(unlikedByStranger.getId(), second.getId());
+        filmService.awaitLikes();
+
+        assertEquals(List.of(liked, likedTwice, unlikedByStranger),
+                filmService.showTrendingFilms(TrendingWindow.HOUR, 10));
+    }
+
+    @Test
+    void shouldValidateFilmAndUserBeforeQueueing() {
+        User user = addUser(1);
+
+        assertThrows(NotFoundException.class, () -> filmService.putLike(999, user.getId()));
+    }
+
+    @Test
+    void shouldApplyAllLikesFromConcurrentClients() throws InterruptedException {
+        Film film = addFilm();
+        int clients = 8;
+        int likesPerClient = 500;
+        for (int i = 1; i <= clients * likesPerClient; i++) {
+            addUser(i);
+        }
+
+        List<Thread> threads = new ArrayList<>();
+        for (int client = 0; client < clients; client++) {
+            long firstUser = 1 + (long) client * likesPerClient;
+            threads.add(Thread.ofPlatform().start(() -> {
+                for (long userId = firstUser; userId < firstUser + likesPerClient; userId++) {
+                    filmService.putLike(film.getId(), userId);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        filmService.awaitLikes();
+
+        assertEquals(clients * likesPerClient, filmStorage.getFilm(film.getId()).getRate());
+    }
+
+    private Film addFilm() {
+        return filmStorage.addNewFilm(Film.builder()
+                .name("Premiere")
+                .releaseDate(LocalDate.of(2024, 1, 1))
+                .duration(120)
+                .build());
+    }
+
+    private User addUser(int number) {
+        return userStorage.addNewUser(User.builder()
+                .email("user" + number + "@mail.com")
+                .login("user" + number)
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build());
+    }
+}
@@ -0,0 +1,100 @@
+package ru.yandex.practicum.filmorate.serviceTest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Schedulers;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FilmService;
+import ru.yandex.practicum.filmorate.service.LikeIngestion;
+import ru.yandex.practicum.filmorate.service.LikeIngestionProperties;
+import ru.yandex.practicum.filmorate.service.ReactiveFilmService;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.yandex.practicum.filmorate.TestData.film;
+
+class ReactiveFilmServiceTest {
+    private InMemoryFilmStorage filmStorage;
+    private InMemoryUserStorage userStorage;
+    private LikeIngestion likeIngestion;
+    private List<String> awaitingThreads;
+    private ReactiveFilmService reactiveFilmService;
+
+    @BeforeEach
+    void setUp() {
+        filmStorage = new InMemoryFilmStorage();
+        userStorage = new InMemoryUserStorage();
+        likeIngestion = new LikeIngestion(filmStorage,
+                new LikeIngestionProperties(true, 1024, 256, Duration.ofMillis(1)));
+        likeIngestion.start();
+        awaitingThreads = new CopyOnWriteArrayList<>();
+        FilmService filmService = new FilmService(userStorage, filmStorage, likeIngestion) {
+            @Override
+            public void awaitLikes() {
+                awaitingThreads.add(Thread.currentThread().getName());
+                super.awaitLikes();
+            }
+        };
+        // Хранилище вызывается прямо в потоке подписчика, а ожидание лайков — нет
+        reactiveFilmService = new ReactiveFilmService(filmService, Schedulers.immediate());
+    }
+
+    @AfterEach
+    void tearDown() {
+        likeIngestion.close();
+    }
+
+    @Test
+    void shouldWaitForLikesOutsideCallerThread() {
+        Film film = filmStorage.addNewFilm(Film.builder()
+                .name("Premiere")
+                .releaseDate(LocalDate.of(2024, 1, 1))
+                .duration(120)
+                .build());
+        User user = userStorage.addNewUser(User.builder()
+                .email("user@mail.com")
+                .login("user")
+                .birthday(LocalDate.of(1990, 1, 1))
+                .build());
+
+        assertFalse(reactiveFilmService.putLike(film.getId(), user.getId(), false).block());
+        assertTrue(reactiveFilmService.deleteLike(film.getId(), user.getId(), true).block());
+
+        assertEquals(1, awaitingThreads.size());
+        assertTrue(awaitingThreads.getFirst().startsWith("boundedElastic"), awaitingThreads.getFirst());
+        assertEquals(0, filmStorage.getFilm(film.getId()).getRate());
+    }
+
+    @Test
+    void shouldStreamAllFilmsPageByPageOnDemand() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 600; i++) {
+            ids.add(filmStorage.addNewFilm(film("Film " + i)).getId());
+        }
+        AtomicInteger pages = new AtomicInteger();
+        FilmService filmService = new FilmService(userStorage, new InMemoryFilmStorage() {
+            @Override
+            public List<Film> getFilmsAfter(int afterId, int limit) {
+                pages.incrementAndGet();
+                return filmStorage.getFilmsAfter(afterId, limit);
+            }
+        }, likeIngestion);
+        ReactiveFilmService service = new ReactiveFilmService(filmService, Schedulers.immediate());
+
+        assertEquals(ids.subList(0, 3), service.getAllFilms().take(3).map(Film::getId).collectList().block());
+        assertEquals(1, pages.get());
+
+        assertEquals(ids, service.getAllFilms().map(Film::getId).collectList().block());
+        assertEquals(4, pages.get());
+    }
+}
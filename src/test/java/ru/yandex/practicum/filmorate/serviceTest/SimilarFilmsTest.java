@@ -0,0 +1,117 @@
+package ru.yandex.practicum.filmorate.serviceTest;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.service.SimilarFilms;
+import ru.yandex.practicum.filmorate.storage.FilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.util.MinHashIndex;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.yandex.practicum.filmorate.TestData.film;
+
+class SimilarFilmsTest {
+    private static final int FILMS = 8;
+    private static final int USERS = 12;
+
+    @Test
+    void shouldMatchRebuiltSignaturesAfterConcurrentLikesAndUnlikes() throws Exception {
+        FilmStorage filmStorage = new InMemoryFilmStorage();
+        for (int i = 1; i <= FILMS; i++) {
+            filmStorage.addNewFilm(Film.builder()
+                    .name("Film " + i)
+                    .releaseDate(LocalDate.of(2000, 1, 1))
+                    .duration(100)
+                    .build());
+        }
+        Random random = new Random(17);
+        for (int i = 0; i < 40; i++) {
+            filmStorage.addLike(1 + random.nextInt(FILMS), 1 + random.nextInt(USERS));
+        }
+        SimilarFilms similarFilms = new SimilarFilms(filmStorage);
+        similarFilms.similar(1, FILMS);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (long user = 1; user <= USERS; user++) {
+                long userId = user;
+                int film = 1 + (int) (user % FILMS);
+                // Снятие лайка, задававшего минимум подписи, пересчитывает ее по хранилищу,
+                // пока встречный лайк той же пары ждет своей очереди
+                futures.add(executor.submit(() -> toggle(start, () -> filmStorage.addLike(film, userId))));
+                futures.add(executor.submit(() -> toggle(start, () -> filmStorage.deleteLike(film, userId))));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        SimilarFilms rebuilt = new SimilarFilms(filmStorage);
+        for (int film = 1; film <= FILMS; film++) {
+            assertEquals(rebuilt.similar(film, FILMS), similarFilms.similar(film, FILMS), "Фильм " + film);
+        }
+    }
+
+    @Test
+    void shouldApplyLikesArrivingDuringBuildWithoutWaitingForIt() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Лайки и снятия приходят из другого потока посреди обхода хранилища построением
+            // и должны вернуться, пока построение еще не закончено
+            FilmStorage filmStorage = new InMemoryFilmStorage() {
+                private boolean changed;
+
+                @Override
+                public void forEachFilm(Consumer<? super Film> action) {
+                    super.forEachFilm(action);
+                    if (!changed) {
+                        changed = true;
+                        assertDoesNotThrow(() -> executor.submit(() -> {
+                            deleteLike(1, 1L);
+                            addLike(2, 2L);
+                            addLike(2, 3L);
+                        }).get(5, TimeUnit.SECONDS));
+                    }
+                }
+            };
+            for (int i = 1; i <= FILMS; i++) {
+                filmStorage.addNewFilm(film("Film " + i));
+            }
+            for (long user = 1; user <= 3; user++) {
+                filmStorage.addLike(1, user);
+            }
+            SimilarFilms similarFilms = new SimilarFilms(filmStorage);
+
+            List<MinHashIndex.Similar> similar = similarFilms.similar(1, FILMS);
+
+            assertEquals(new SimilarFilms(filmStorage).similar(1, FILMS), similar);
+            assertEquals(List.of(2), similar.stream().map(MinHashIndex.Similar::item).toList());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Void toggle(CountDownLatch start, Runnable change) throws InterruptedException {
+        start.await();
+        for (int i = 0; i < 2_000; i++) {
+            change.run();
+        }
+        return null;
+    }
+}
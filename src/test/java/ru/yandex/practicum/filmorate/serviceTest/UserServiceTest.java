@@ -2,16 +2,21 @@ package ru.yandex.practicum.filmorate.serviceTest;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.dto.FriendSuggestion;
+import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
 import ru.yandex.practicum.filmorate.exceptions.ValidationException;
 import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.service.FriendGraphIndex;
 import ru.yandex.practicum.filmorate.service.UserService;
 import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
 import ru.yandex.practicum.filmorate.storage.UserStorage;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static ru.yandex.practicum.filmorate.TestData.user;
 
 class UserServiceTest {
     private UserService userService;
@@ -139,4 +144,113 @@ class UserServiceTest {
         assertEquals(0, commonFriends.size());
         assertTrue(commonFriends.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldThrowNotFoundForMissingUserInPair() {
+        User createdUser1 = userStorage.addNewUser(user1);
+
+        NotFoundException e = assertThrows(NotFoundException.class,
+                () -> userService.addFriend(createdUser1.getId(), 999L));
+        assertTrue(e.getMessage().contains("999"));
+        assertThrows(NotFoundException.class, () -> userService.getCommonFriends(999L, createdUser1.getId()));
+        assertThrows(ValidationException.class, () -> userService.deleteFriend(createdUser1.getId(), -1L));
+    }
+
+    @Test
+    void shouldSuggestFriendsOfFriendsByMutualFriends() {
+        User me = userStorage.addNewUser(user1);
+        User friend1 = userStorage.addNewUser(user2);
+        User friend2 = userStorage.addNewUser(user3);
+        User both = userStorage.addNewUser(user("both"));
+        User one = userStorage.addNewUser(user("one"));
+        userService.addFriend(me.getId(), friend1.getId());
+        userService.addFriend(me.getId(), friend2.getId());
+        userService.addFriend(friend1.getId(), both.getId());
+        userService.addFriend(friend2.getId(), both.getId());
+        userService.addFriend(friend2.getId(), one.getId());
+
+        List<FriendSuggestion> suggestions = userService.getFriendSuggestions(me.getId(), 10);
+
+        assertEquals(List.of(both.getId(), one.getId()),
+                suggestions.stream().map(suggestion -> suggestion.user().getId()).toList());
+        assertEquals(List.of(2, 1), suggestions.stream().map(FriendSuggestion::mutualFriends).toList());
+        assertEquals(1, userService.getFriendSuggestions(me.getId(), 1).size());
+
+        userService.addFriend(me.getId(), both.getId());
+        userService.deleteFriend(friend2.getId(), one.getId());
+
+        assertEquals(List.of(), userService.getFriendSuggestions(me.getId(), 10));
+        assertThrows(ValidationException.class, () -> userService.getFriendSuggestions(me.getId(), 0));
+        assertThrows(NotFoundException.class, () -> userService.getFriendSuggestions(999L, 10));
+    }
+
+    @Test
+    void shouldFindShortestFriendshipPath() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            ids.add(userStorage.addNewUser(user("chain" + i)).getId());
+        }
+        User stranger = userStorage.addNewUser(user("stranger"));
+        // Цепочка 0-1-2-3-4 и короткий путь 0-5-4
+        for (int i = 0; i < 4; i++) {
+            userService.addFriend(ids.get(i), ids.get(i + 1));
+        }
+        assertEquals(ids.subList(0, 5), pathIds(ids.get(0), ids.get(4)));
+        assertEquals(List.of(ids.get(3), ids.get(2), ids.get(1)), pathIds(ids.get(3), ids.get(1)));
+
+        userService.addFriend(ids.get(0), ids.get(5));
+        userService.addFriend(ids.get(5), ids.get(4));
+
+        assertEquals(List.of(ids.get(0), ids.get(5), ids.get(4)), pathIds(ids.get(0), ids.get(4)));
+        assertEquals(List.of(ids.get(2)), pathIds(ids.get(2), ids.get(2)));
+        assertThrows(NotFoundException.class,
+                () -> userService.getFriendshipPath(ids.get(0), stranger.getId()));
+
+        userService.deleteFriend(ids.get(2), ids.get(3));
+
+        assertEquals(List.of(ids.get(2), ids.get(1), ids.get(0), ids.get(5), ids.get(4), ids.get(3)),
+                pathIds(ids.get(2), ids.get(3)));
+        assertThrows(NotFoundException.class, () -> userService.getFriendshipPath(999L, ids.get(0)));
+    }
+
+    @Test
+    void shouldRebuildGraphInsteadOfReturningChainWithGap() {
+        User first = userStorage.addNewUser(user1);
+        User second = userStorage.addNewUser(user2);
+        User third = userStorage.addNewUser(user3);
+        userService.addFriend(first.getId(), second.getId());
+        FriendGraphIndex index = new FriendGraphIndex(userStorage);
+        UserService service = new UserService(userStorage, index);
+        // Ребра через пользователя, которого нет в хранилище
+        int missing = 1_000;
+        index.graph().addEdge(second.getId().intValue(), missing);
+        index.graph().addEdge(missing, third.getId().intValue());
+
+        assertThrows(NotFoundException.class, () -> service.getFriendshipPath(first.getId(), third.getId()));
+        assertFalse(index.graph().hasEdge(second.getId().intValue(), missing));
+        assertEquals(List.of(first.getId(), second.getId()),
+                service.getFriendshipPath(first.getId(), second.getId()).stream().map(User::getId).toList());
+    }
+
+    @Test
+    void shouldAddGraphEdgesOnlyForImportedPairsThatStorageApplied() {
+        User first = userStorage.addNewUser(user1);
+        User second = userStorage.addNewUser(user2);
+        FriendGraphIndex index = new FriendGraphIndex(userStorage);
+        UserService service = new UserService(userStorage, index);
+        assertFalse(index.graph().hasEdge(first.getId().intValue(), second.getId().intValue()));
+        int missing = 1_000;
+
+        int added = service.importFriendships(new long[]{first.getId(), first.getId(), missing, first.getId()},
+                new long[]{second.getId(), missing, second.getId(), second.getId()}, 4);
+
+        assertEquals(1, added);
+        assertTrue(index.graph().hasEdge(first.getId().intValue(), second.getId().intValue()));
+        assertFalse(index.graph().hasEdge(first.getId().intValue(), missing));
+        assertFalse(index.graph().hasEdge(missing, second.getId().intValue()));
+    }
+
+    private List<Long> pathIds(Long from, Long to) {
+        return userService.getFriendshipPath(from, to).stream().map(User::getId).toList();
+    }
+}
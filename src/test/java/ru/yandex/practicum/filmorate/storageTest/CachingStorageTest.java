@@ -0,0 +1,147 @@
+package ru.yandex.practicum.filmorate.storageTest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.CachingFilmStorage;
+import ru.yandex.practicum.filmorate.storage.CachingUserStorage;
+import ru.yandex.practicum.filmorate.storage.JdbcFilmStorage;
+import ru.yandex.practicum.filmorate.storage.JdbcUserStorage;
+import ru.yandex.practicum.filmorate.storage.StorageCacheProperties;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.yandex.practicum.filmorate.TestData.film;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+/**
+ * Кеш проверяется поверх хранилища в БД: оно при каждом чтении собирает новый объект,
+ * поэтому пропущенная инвалидация видна как устаревшие данные.
+ */
+@JdbcTest(properties = "filmorate.storage.type=jdbc")
+@Import({JdbcFilmStorage.class, JdbcUserStorage.class})
+class CachingStorageTest {
+    private static final StorageCacheProperties PROPERTIES =
+            new StorageCacheProperties(true, 1_000, Duration.ofMinutes(10), Duration.ofMinutes(1));
+
+    @Autowired
+    private JdbcFilmStorage jdbcFilmStorage;
+
+    @Autowired
+    private JdbcUserStorage jdbcUserStorage;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private CachingFilmStorage filmStorage;
+    private CachingUserStorage userStorage;
+
+    @BeforeEach
+    void setUp() {
+        filmStorage = new CachingFilmStorage(jdbcFilmStorage, PROPERTIES);
+        userStorage = new CachingUserStorage(jdbcUserStorage, PROPERTIES);
+    }
+
+    @Test
+    void shouldServeRepeatedReadsFromCache() {
+        Film film = filmStorage.addNewFilm(film("Cached"));
+
+        Film first = filmStorage.getFilm(film.getId());
+        Film second = filmStorage.getFilm(film.getId());
+
+        assertSame(first, second);
+        assertEquals(1, filmStorage.stats().hitCount());
+        assertEquals(1, filmStorage.stats().missCount());
+    }
+
+    @Test
+    void shouldInvalidateFilmOnUpdateAndLikes() {
+        Film film = filmStorage.addNewFilm(film("Cached"));
+        User fan = userStorage.addNewUser(user("fan"));
+        assertEquals(0, filmStorage.getFilm(film.getId()).getRate());
+
+        filmStorage.addLike(film.getId(), fan.getId());
+        assertEquals(1, filmStorage.getFilm(film.getId()).getRate());
+
+        filmStorage.updateFilm(Film.builder().id(film.getId()).name("Renamed").build());
+        assertEquals("Renamed", filmStorage.getFilm(film.getId()).getName());
+
+        filmStorage.deleteLike(film.getId(), fan.getId());
+        assertEquals(0, filmStorage.getFilm(film.getId()).getRate());
+    }
+
+    @Test
+    void shouldCacheMissingIdsUntilCreated() {
+        int nextId = jdbcFilmStorage.addNewFilm(film("Probe")).getId() + 1;
+
+        NotFoundException first = assertThrows(NotFoundException.class, () -> filmStorage.getFilm(nextId));
+        assertThrows(NotFoundException.class, () -> filmStorage.getFilm(nextId));
+        assertEquals(1, filmStorage.stats().hitCount());
+        assertTrue(first.getMessage().contains(String.valueOf(nextId)));
+
+        Film created = filmStorage.addNewFilm(film("Created"));
+        assertEquals(nextId, created.getId());
+        assertEquals("Created", filmStorage.getFilm(nextId).getName());
+    }
+
+    @Test
+    void shouldInvalidateBothUsersOnFriendship() {
+        User first = userStorage.addNewUser(user("first"));
+        User second = userStorage.addNewUser(user("second"));
+        assertTrue(userStorage.getUser(first.getId()).getUserFriends().isEmpty());
+        assertTrue(userStorage.getUser(second.getId()).getUserFriends().isEmpty());
+
+        userStorage.addFriend(first.getId(), second.getId());
+
+        assertTrue(userStorage.getUser(first.getId()).getUserFriends().contains(second.getId()));
+        assertTrue(userStorage.getUser(second.getId()).getUserFriends().contains(first.getId()));
+    }
+
+    @Test
+    void shouldLoadOnlyMissingUsersInBatch() {
+        User first = userStorage.addNewUser(user("first"));
+        User second = userStorage.addNewUser(user("second"));
+        userStorage.getUser(first.getId());
+
+        List<User> users = userStorage.getUsers(List.of(second.getId(), 999L, first.getId()));
+
+        assertEquals(List.of(second.getId(), first.getId()), users.stream().map(User::getId).toList());
+        assertEquals(1, userStorage.stats().hitCount());
+        assertTrue(userStorage.getUsers(List.of(999L)).isEmpty());
+        assertEquals(2, userStorage.stats().hitCount());
+    }
+
+    @Test
+    void shouldNotCacheBatchReadBeforeConcurrentUpdate() {
+        User user = jdbcUserStorage.addNewUser(user("before"));
+        // Изменение приходит между чтением пачки из БД и ее записью в кеш
+        Runnable[] afterRead = new Runnable[1];
+        CachingUserStorage racingStorage = new CachingUserStorage(new JdbcUserStorage(jdbcTemplate) {
+            @Override
+            public List<User> getUsers(Collection<Long> ids) {
+                List<User> users = super.getUsers(ids);
+                Runnable hook = afterRead[0];
+                afterRead[0] = null;
+                if (hook != null) {
+                    hook.run();
+                }
+                return users;
+            }
+        }, PROPERTIES);
+        afterRead[0] = () -> racingStorage.updateUser(User.builder().id(user.getId()).name("after").build());
+
+        racingStorage.getUsers(List.of(user.getId()));
+
+        assertEquals("after", racingStorage.getUser(user.getId()).getName());
+        assertEquals("after", racingStorage.getUsers(List.of(user.getId())).getFirst().getName());
+    }
+}
@@ -0,0 +1,209 @@
+package ru.yandex.practicum.filmorate.storageTest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.FileStorageJournal;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+import ru.yandex.practicum.filmorate.storage.JournalEntry;
+import ru.yandex.practicum.filmorate.storage.JournalProperties;
+import ru.yandex.practicum.filmorate.storage.JournalRecovery;
+import ru.yandex.practicum.filmorate.storage.StorageSnapshotter;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.yandex.practicum.filmorate.TestData.film;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+class FileStorageJournalTest {
+    @TempDir
+    Path directory;
+
+    private FileStorageJournal journal;
+    private InMemoryFilmStorage filmStorage;
+    private InMemoryUserStorage userStorage;
+    private StorageSnapshotter snapshotter;
+
+    @AfterEach
+    void tearDown() {
+        snapshotter.close();
+        journal.close();
+    }
+
+    @Test
+    void shouldRestoreStateAfterRestart() throws Exception {
+        restart();
+        User first = userStorage.addNewUser(user("first"));
+        User second = userStorage.addNewUser(user("second"));
+        User third = userStorage.addNewUser(user("third"));
+        userStorage.addFriend(first.getId(), second.getId());
+        userStorage.addFriend(first.getId(), third.getId());
+        userStorage.deleteFriend(third.getId(), first.getId());
+        userStorage.updateUser(User.builder().id(second.getId()).name("Второй").build());
+
+        Film popular = filmStorage.addNewFilm(film("Popular"));
+        Film other = filmStorage.addNewFilm(film("Other"));
+        filmStorage.addLike(popular.getId(), first.getId());
+        filmStorage.addLike(popular.getId(), second.getId());
+        filmStorage.addLike(other.getId(), third.getId());
+        filmStorage.deleteLike(other.getId(), third.getId());
+        filmStorage.updateFilm(Film.builder().id(other.getId()).description("Новое описание").build());
+        journal.flush();
+        journal.close();
+
+        restart();
+
+        assertEquals(Set.of(second.getId()), Set.copyOf(userStorage.getUser(first.getId()).getUserFriends()));
+        assertTrue(userStorage.getUser(third.getId()).getUserFriends().isEmpty());
+        assertEquals("Второй", userStorage.getUser(second.getId()).getName());
+        assertEquals("second", userStorage.getUser(second.getId()).getLogin());
+
+        assertEquals(Set.of(first.getId(), second.getId()),
+                Set.copyOf(filmStorage.getFilm(popular.getId()).getFilmLikes()));
+        assertEquals("Новое описание", filmStorage.getFilm(other.getId()).getDescription());
+        assertEquals("Other", filmStorage.getFilm(other.getId()).getName());
+        assertEquals(List.of(popular, other), filmStorage.getPopularFilms(10));
+
+        assertEquals(4, userStorage.addNewUser(user("fourth")).getId());
+        assertEquals(3, filmStorage.addNewFilm(film("Third")).getId());
+    }
+
+    @Test
+    void shouldDropTornTailAndKeepAppending() throws Exception {
+        restart();
+        User user = userStorage.addNewUser(user("user"));
+        Film film = filmStorage.addNewFilm(film("Film"));
+        filmStorage.addLike(film.getId(), user.getId());
+        journal.flush();
+        journal.close();
+
+        Path file;
+        try (Stream<Path> files = Files.list(directory)) {
+            file = files.findFirst().orElseThrow();
+        }
+        long validLength = Files.size(file);
+        Files.write(file, new byte[]{0, 0, 0, 40, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        restart();
+
+        assertEquals(validLength, Files.size(file));
+        assertEquals(1, filmStorage.getFilm(film.getId()).getRate());
+
+        filmStorage.deleteLike(film.getId(), user.getId());
+        journal.flush();
+        journal.close();
+
+        restart();
+
+        assertEquals(0, filmStorage.getFilm(film.getId()).getRate());
+        assertEquals("user", userStorage.getUser(user.getId()).getLogin());
+    }
+
+    @Test
+    void shouldRestoreFromSnapshotAndJournalTail() throws Exception {
+        restart();
+        User first = userStorage.addNewUser(user("first"));
+        User second = userStorage.addNewUser(user("second"));
+        userStorage.addFriend(first.getId(), second.getId());
+        Film film = filmStorage.addNewFilm(film("Film"));
+        for (long userId = 1; userId <= 100; userId++) {
+            filmStorage.addLike(film.getId(), userId);
+        }
+        snapshotter.takeSnapshot();
+
+        filmStorage.deleteLike(film.getId(), 50L);
+        userStorage.deleteFriend(second.getId(), first.getId());
+        Film tailFilm = filmStorage.addNewFilm(film("Tail"));
+        filmStorage.addLike(tailFilm.getId(), first.getId());
+        journal.flush();
+        journal.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.filter(file -> file.getFileName().toString().startsWith("journal-")).count());
+        }
+
+        restart();
+
+        assertEquals(99, filmStorage.getFilm(film.getId()).getRate());
+        assertFalse(filmStorage.getFilm(film.getId()).getFilmLikes().contains(50L));
+        assertEquals(1, filmStorage.getFilm(tailFilm.getId()).getRate());
+        assertTrue(userStorage.getUser(first.getId()).getUserFriends().isEmpty());
+        assertTrue(userStorage.getUser(second.getId()).getUserFriends().isEmpty());
+        assertEquals("second", userStorage.getUser(second.getId()).getLogin());
+        assertEquals(List.of(film, tailFilm), filmStorage.getPopularFilms(10));
+
+        snapshotter.takeSnapshot();
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count());
+        }
+    }
+
+    @Test
+    void shouldFailFastAfterWriteError() throws Exception {
+        restart(new FileStorageJournal(properties()) {
+            @Override
+            protected FileChannel openSegment(long number) throws IOException {
+                // Закрытый канал бросает ClosedChannelException на первой же записи
+                FileChannel channel = super.openSegment(number);
+                channel.close();
+                return channel;
+            }
+        });
+        userStorage.addNewUser(user("first"));
+
+        IllegalStateException flushError = assertThrows(IllegalStateException.class, journal::flush);
+        assertInstanceOf(IOException.class, flushError.getCause());
+        assertInstanceOf(IOException.class, journal.failure());
+        assertThrows(IllegalStateException.class, () -> userStorage.addNewUser(user("second")));
+        assertThrows(IllegalStateException.class, journal::flush);
+        assertTrue(journal.rotate().isCompletedExceptionally());
+    }
+
+    @Test
+    void shouldNotWaitInFlushForInterruptedAppend() throws Exception {
+        restart();
+        journal.close();
+        FileStorageJournal stopped = new FileStorageJournal(properties());
+        journal = stopped;
+        // Писатель не запущен, поэтому очередь заполняется и следующая запись ждет места
+        for (int i = 0; i < properties().queueCapacity(); i++) {
+            stopped.append(new JournalEntry.LikeAdded(1, i));
+        }
+        Thread.currentThread().interrupt();
+        assertThrows(IllegalStateException.class, () -> stopped.append(new JournalEntry.LikeAdded(1, 99)));
+        assertTrue(Thread.interrupted());
+
+        stopped.start(1);
+        assertTimeoutPreemptively(Duration.ofSeconds(5), stopped::flush);
+        assertEquals(properties().queueCapacity(), stopped.appendedCount());
+    }
+
+    private void restart() throws IOException {
+        restart(new FileStorageJournal(properties()));
+    }
+
+    private void restart(FileStorageJournal journal) throws IOException {
+        JournalProperties properties = properties();
+        this.journal = journal;
+        filmStorage = new InMemoryFilmStorage(journal);
+        userStorage = new InMemoryUserStorage(journal);
+        snapshotter = new StorageSnapshotter(journal, filmStorage, userStorage, properties);
+        new JournalRecovery(journal, snapshotter, filmStorage, userStorage).recover();
+    }
+
+    private JournalProperties properties() {
+        return new JournalProperties(true, directory, 4, Duration.ofMillis(5), 16, Duration.ofHours(1));
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
 import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.AppliedLikes;
 import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
 
 import java.time.LocalDate;
@@ -158,4 +159,123 @@ class InMemoryFilmStorageTest {
         assertTrue(result.getFilmLikes().contains(1L));
         assertTrue(result.getFilmLikes().contains(2L));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldOrderPopularFilmsByLikesThenById() {
+        Film createdFilm1 = filmStorage.addNewFilm(film1);
+        Film createdFilm2 = filmStorage.addNewFilm(film2);
+        Film createdFilm3 = filmStorage.addNewFilm(film1);
+
+        filmStorage.addLike(createdFilm3.getId(), 1L);
+        filmStorage.addLike(createdFilm3.getId(), 2L);
+        filmStorage.addLike(createdFilm2.getId(), 1L);
+
+        List<Film> popularFilms = filmStorage.getPopularFilms(3);
+
+        assertEquals(List.of(createdFilm3.getId(), createdFilm2.getId(), createdFilm1.getId()),
+                popularFilms.stream().map(Film::getId).toList());
+    }
+
+    @Test
+    void shouldUpdatePopularityIndexOnDeleteLike() {
+        Film createdFilm1 = filmStorage.addNewFilm(film1);
+        Film createdFilm2 = filmStorage.addNewFilm(film2);
+
+        filmStorage.addLike(createdFilm2.getId(), 1L);
+        assertEquals(createdFilm2.getId(), filmStorage.getPopularFilms(1).getFirst().getId());
+
+        assertTrue(filmStorage.deleteLike(createdFilm2.getId(), 1L));
+        assertEquals(createdFilm1.getId(), filmStorage.getPopularFilms(1).getFirst().getId());
+    }
+
+    @Test
+    void shouldRejectDuplicateAndMissingLikes() {
+        Film createdFilm = filmStorage.addNewFilm(film1);
+
+        assertTrue(filmStorage.addLike(createdFilm.getId(), 1L));
+        assertFalse(filmStorage.addLike(createdFilm.getId(), 1L));
+        assertFalse(filmStorage.deleteLike(createdFilm.getId(), 2L));
+        assertEquals(1, createdFilm.getRate());
+    }
+
+    @Test
+    void shouldGetFilmsByIdsSkippingMissing() {
+        Film createdFilm1 = filmStorage.addNewFilm(film1);
+        Film createdFilm2 = filmStorage.addNewFilm(film2);
+
+        assertEquals(List.of(createdFilm2, createdFilm1),
+                filmStorage.getFilms(List.of(createdFilm2.getId(), 999, createdFilm1.getId())));
+        assertTrue(filmStorage.getFilms(List.of()).isEmpty());
+    }
+
+    @Test
+    void shouldReturnFilmsPageAfterId() {
+        Film createdFilm1 = filmStorage.addNewFilm(film1);
+        Film createdFilm2 = filmStorage.addNewFilm(film2);
+        Film createdFilm3 = filmStorage.addNewFilm(film1);
+
+        assertEquals(List.of(createdFilm1, createdFilm2), filmStorage.getFilmsAfter(0, 2));
+        assertEquals(List.of(createdFilm3), filmStorage.getFilmsAfter(createdFilm2.getId(), 2));
+        assertTrue(filmStorage.getFilmsAfter(createdFilm3.getId(), 2).isEmpty());
+    }
+
+    @Test
+    void shouldReturnAllFilmsWhenPopularCountExceedsCatalog() {
+        filmStorage.addNewFilm(film1);
+        filmStorage.addNewFilm(film2);
+
+        assertEquals(2, filmStorage.getPopularFilms(10).size());
+    }
+
+    @Test
+    void shouldBumpFilmAndCatalogVersionsOnEveryChange() {
+        Film film = filmStorage.addNewFilm(film1);
+        long created = film.getVersion();
+        assertEquals(created, filmStorage.getFilmsVersion());
+
+        filmStorage.addLike(film.getId(), 1L);
+        long liked = film.getVersion();
+        assertFalse(filmStorage.addLike(film.getId(), 1L));
+        assertEquals(liked, film.getVersion());
+
+        filmStorage.updateFilm(Film.builder().id(film.getId()).name("Renamed").build());
+        filmStorage.addNewFilm(film2);
+
+        assertTrue(created < liked);
+        assertTrue(liked < film.getVersion());
+        assertTrue(film.getVersion() < filmStorage.getFilmsVersion());
+    }
+
+    @Test
+    void shouldApplyLikeBatchAndMoveFilmInPopularity() {
+        Film createdFilm1 = filmStorage.addNewFilm(film1);
+        Film createdFilm2 = filmStorage.addNewFilm(film2);
+        filmStorage.addLike(createdFilm1.getId(), 1L);
+
+        AppliedLikes applied = filmStorage.applyLikes(createdFilm2.getId(), new long[]{1L, 2L}, new long[]{3L});
+        assertArrayEquals(new long[]{1L, 2L}, applied.likedBy());
+        assertArrayEquals(new long[0], applied.unlikedBy());
+        assertEquals(createdFilm2.getId(), filmStorage.getPopularFilms(1).getFirst().getId());
+
+        applied = filmStorage.applyLikes(createdFilm2.getId(), new long[]{2L}, new long[]{1L, 3L});
+        assertEquals(1, applied.count());
+        assertArrayEquals(new long[]{1L}, applied.unlikedBy());
+        assertArrayEquals(new long[]{2L}, filmStorage.getLikes(createdFilm2.getId()));
+        filmStorage.applyLikes(createdFilm2.getId(), new long[0], new long[]{2L});
+        assertEquals(createdFilm1.getId(), filmStorage.getPopularFilms(1).getFirst().getId());
+        assertEquals(0, createdFilm2.getRate());
+    }
+
+    @Test
+    void shouldAddFilmBatchWithConsecutiveIds() {
+        Film single = filmStorage.addNewFilm(film1);
+
+        List<Film> added = filmStorage.addNewFilms(List.of(film1, film2));
+
+        assertEquals(List.of(single.getId() + 1, single.getId() + 2), added.stream().map(Film::getId).toList());
+        assertEquals("Film Two", filmStorage.getFilm(added.get(1).getId()).getName());
+        assertEquals(added, filmStorage.getFilmsAfter(single.getId(), 10));
+        assertEquals(3, filmStorage.getPopularFilms(10).size());
+        assertEquals(single.getId() + 3, filmStorage.addNewFilm(film2).getId());
+    }
+}
@@ -0,0 +1,204 @@
+package ru.yandex.practicum.filmorate.storageTest;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.InMemoryFilmStorage;
+import ru.yandex.practicum.filmorate.storage.InMemoryUserStorage;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.yandex.practicum.filmorate.TestData.film;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+class InMemoryStorageConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 2_000;
+
+    private InMemoryFilmStorage filmStorage;
+    private InMemoryUserStorage userStorage;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        filmStorage = new InMemoryFilmStorage();
+        userStorage = new InMemoryUserStorage();
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void shouldAllocateUniqueFilmIdsUnderParallelInserts() throws Exception {
+        List<List<Integer>> idsPerThread = runInParallel(thread -> {
+            List<Integer> ids = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                ids.add(filmStorage.addNewFilm(film("Film " + thread + "-" + i)).getId());
+            }
+            return ids;
+        });
+
+        Set<Integer> uniqueIds = new HashSet<>();
+        idsPerThread.forEach(uniqueIds::addAll);
+
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, uniqueIds.size());
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, filmStorage.getAllFilms().size());
+    }
+
+    @Test
+    void shouldAllocateUniqueUserIdsUnderParallelInserts() throws Exception {
+        List<List<Long>> idsPerThread = runInParallel(thread -> {
+            List<Long> ids = new ArrayList<>();
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                ids.add(userStorage.addNewUser(user("user" + thread + "x" + i)).getId());
+            }
+            return ids;
+        });
+
+        Set<Long> uniqueIds = new HashSet<>();
+        idsPerThread.forEach(uniqueIds::addAll);
+
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, uniqueIds.size());
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, userStorage.getAllUsers().size());
+    }
+
+    @Test
+    void shouldNotLoseLikesOnSameFilm() throws Exception {
+        Film film = filmStorage.addNewFilm(film("Hot film"));
+
+        runInParallel(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                assertTrue(filmStorage.addLike(film.getId(), (long) thread * OPERATIONS_PER_THREAD + i + 1));
+            }
+            return null;
+        });
+
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, filmStorage.getFilm(film.getId()).getRate());
+        assertEquals(film.getId(), filmStorage.getPopularFilms(1).getFirst().getId());
+    }
+
+    @Test
+    void shouldKeepPopularityIndexConsistentUnderConcurrentLikesAndUnlikes() throws Exception {
+        int filmCount = 50;
+        for (int i = 0; i < filmCount; i++) {
+            filmStorage.addNewFilm(film("Film " + i));
+        }
+
+        runInParallel(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                int filmId = (i * 31 + thread) % filmCount + 1;
+                long userId = thread + 1;
+                if (!filmStorage.addLike(filmId, userId)) {
+                    filmStorage.deleteLike(filmId, userId);
+                }
+            }
+            return null;
+        });
+
+        List<Film> popular = filmStorage.getPopularFilms(filmCount);
+        assertEquals(filmCount, popular.size());
+        assertEquals(filmCount, popular.stream().map(Film::getId).distinct().count());
+        for (int i = 1; i < popular.size(); i++) {
+            Film previous = popular.get(i - 1);
+            Film current = popular.get(i);
+            assertTrue(previous.getRate() > current.getRate()
+                    || previous.getRate() == current.getRate() && previous.getId() < current.getId());
+        }
+    }
+
+    @Test
+    void shouldNotLoseDisjointFieldUpdatesOfSameFilm() throws Exception {
+        Film film = filmStorage.addNewFilm(film("Original"));
+
+        runInParallel(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                Film.FilmBuilder update = Film.builder().id(film.getId());
+                if (thread % 2 == 0) {
+                    update.name("Name-" + thread);
+                } else {
+                    update.description("Description-" + thread);
+                }
+                filmStorage.updateFilm(update.build());
+            }
+            return null;
+        });
+
+        Film result = filmStorage.getFilm(film.getId());
+        assertTrue(result.getName().startsWith("Name-"));
+        assertTrue(result.getDescription().startsWith("Description-"));
+        assertEquals(100, result.getDuration());
+    }
+
+    @Test
+    void shouldKeepFriendshipSymmetricUnderConcurrentMutations() throws Exception {
+        int userCount = 40;
+        for (int i = 0; i < userCount; i++) {
+            userStorage.addNewUser(user("user" + i));
+        }
+
+        runInParallel(thread -> {
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                long userId = (i + thread) % userCount + 1;
+                long friendId = (i * 7 + thread * 3 + 1) % userCount + 1;
+                if (userId == friendId) {
+                    continue;
+                }
+                // Встречные операции над одной парой должны сериализоваться
+                if (thread % 2 == 0) {
+                    userStorage.addFriend(userId, friendId);
+                } else {
+                    userStorage.deleteFriend(friendId, userId);
+                }
+            }
+            return null;
+        });
+
+        for (User user : userStorage.getAllUsers()) {
+            for (Long friendId : user.getUserFriends()) {
+                assertTrue(userStorage.getUser(friendId).getUserFriends().contains(user.getId()),
+                        "Дружба " + user.getId() + " -> " + friendId + " не взаимна");
+            }
+        }
+    }
+
+    private <T> List<T> runInParallel(ThreadTask<T> task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            int threadNumber = thread;
+            Callable<T> callable = () -> {
+                start.await();
+                return task.run(threadNumber);
+            };
+            futures.add(executor.submit(callable));
+        }
+        start.countDown();
+
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            results.add(future.get(30, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    @FunctionalInterface
+    private interface ThreadTask<T> {
+        T run(int thread) throws Exception;
+    }
+}
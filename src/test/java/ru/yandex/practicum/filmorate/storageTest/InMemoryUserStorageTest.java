@@ -201,4 +201,46 @@ class InMemoryUserStorageTest {
         assertTrue(result.getUserFriends().contains(1L));
         assertTrue(result.getUserFriends().contains(2L));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldGetUsersByIdsSkippingMissing() {
+        User createdUser1 = userStorage.addNewUser(user1);
+        User createdUser2 = userStorage.addNewUser(user2);
+
+        assertEquals(List.of(createdUser2, createdUser1),
+                userStorage.getUsers(List.of(createdUser2.getId(), 999L, createdUser1.getId())));
+        assertThrows(ValidationException.class, () -> userStorage.getUsers(List.of(createdUser1.getId(), 0L)));
+    }
+
+    @Test
+    void shouldReturnUsersAndFriendsPagesAfterId() {
+        User createdUser1 = userStorage.addNewUser(user1);
+        User createdUser2 = userStorage.addNewUser(user2);
+        User createdUser3 = userStorage.addNewUser(user1);
+        userStorage.addFriend(createdUser1.getId(), createdUser3.getId());
+        userStorage.addFriend(createdUser1.getId(), createdUser2.getId());
+
+        assertEquals(List.of(createdUser1, createdUser2), userStorage.getUsersAfter(0, 2));
+        assertEquals(List.of(createdUser3), userStorage.getUsersAfter(createdUser2.getId(), 2));
+        assertEquals(List.of(createdUser2), userStorage.getFriendsAfter(createdUser1.getId(), 0, 1));
+        assertEquals(List.of(createdUser3),
+                userStorage.getFriendsAfter(createdUser1.getId(), createdUser2.getId(), 1));
+        assertThrows(NotFoundException.class, () -> userStorage.getFriendsAfter(999, 0, 1));
+    }
+
+    @Test
+    void shouldAddUserBatchAndFriendsInBatch() {
+        List<User> added = userStorage.addNewUsers(List.of(user1, user2, user1));
+        long first = added.get(0).getId();
+        long second = added.get(1).getId();
+        long third = added.get(2).getId();
+
+        int friends = userStorage.addFriends(new long[]{first, second, first, first, 999L},
+                new long[]{second, first, third, first, first}, 5);
+
+        assertEquals(2, friends);
+        assertEquals(List.of(second, third), userStorage.getFriends(first).stream().map(User::getId).toList());
+        assertTrue(userStorage.getUser(third).getUserFriends().contains(first));
+        assertEquals(third + 1, userStorage.addNewUser(user2).getId());
+    }
+}
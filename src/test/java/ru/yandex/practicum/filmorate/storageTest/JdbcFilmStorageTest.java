@@ -0,0 +1,271 @@
+package ru.yandex.practicum.filmorate.storageTest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.storage.AppliedLikes;
+import ru.yandex.practicum.filmorate.storage.JdbcFilmStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.yandex.practicum.filmorate.TestData.film;
+
+@JdbcTest(properties = "filmorate.storage.type=jdbc")
+@Import(JdbcFilmStorage.class)
+class JdbcFilmStorageTest {
+    @Autowired
+    private JdbcFilmStorage filmStorage;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    // Лайки ссылаются на пользователей, а тесты ставят их от имени пользователей 1–4
+    @BeforeEach
+    void addUsers() {
+        jdbc.update("MERGE INTO users (id, email, login) KEY (id) VALUES "
+                + "(1, 'u1@mail.com', 'u1'), (2, 'u2@mail.com', 'u2'), "
+                + "(3, 'u3@mail.com', 'u3'), (4, 'u4@mail.com', 'u4')");
+    }
+
+    @Test
+    void shouldAddAndGetFilm() {
+        Film createdFilm = filmStorage.addNewFilm(film("Film One"));
+        Film foundFilm = filmStorage.getFilm(createdFilm.getId());
+
+        assertEquals("Film One", foundFilm.getName());
+        assertEquals("Description", foundFilm.getDescription());
+        assertEquals(LocalDate.of(2000, 1, 1), foundFilm.getReleaseDate());
+        assertEquals(100, foundFilm.getDuration());
+    }
+
+    @Test
+    void shouldThrowExceptionWhenGettingNonExistentFilm() {
+        assertThrows(NotFoundException.class, () -> filmStorage.getFilm(999));
+        assertThrows(NotFoundException.class, () -> filmStorage.addLike(999, 1L));
+    }
+
+    @Test
+    void shouldUpdateFilmPartially() {
+        Film createdFilm = filmStorage.addNewFilm(film("Film One"));
+
+        filmStorage.updateFilm(Film.builder().id(createdFilm.getId()).name("Updated").build());
+        Film foundFilm = filmStorage.getFilm(createdFilm.getId());
+
+        assertEquals("Updated", foundFilm.getName());
+        assertEquals("Description", foundFilm.getDescription());
+        assertEquals(100, foundFilm.getDuration());
+    }
+
+    @Test
+    void shouldAddAndDeleteLikes() {
+        Film film = filmStorage.addNewFilm(film("Film One"));
+
+        assertTrue(filmStorage.addLike(film.getId(), 1L));
+        assertFalse(filmStorage.addLike(film.getId(), 1L));
+        assertTrue(filmStorage.addLike(film.getId(), 2L));
+        assertEquals(2, filmStorage.getFilm(film.getId()).getRate());
+
+        assertTrue(filmStorage.deleteLike(film.getId(), 1L));
+        assertFalse(filmStorage.deleteLike(film.getId(), 1L));
+        assertEquals(List.of(2L), List.copyOf(filmStorage.getFilm(film.getId()).getFilmLikes()));
+    }
+
+    @Test
+    void shouldReturnPopularFilmsWithLikes() {
+        Film first = filmStorage.addNewFilm(film("First"));
+        Film second = filmStorage.addNewFilm(film("Second"));
+        Film third = filmStorage.addNewFilm(film("Third"));
+        filmStorage.addLike(second.getId(), 1L);
+        filmStorage.addLike(second.getId(), 2L);
+        filmStorage.addLike(third.getId(), 1L);
+
+        List<Film> popular = filmStorage.getPopularFilms(2);
+
+        assertEquals(List.of(second.getId(), third.getId()), popular.stream().map(Film::getId).toList());
+        assertEquals(2, popular.getFirst().getRate());
+        assertEquals(3, filmStorage.getPopularFilms(10).size());
+        assertEquals(first.getId(), filmStorage.getPopularFilms(10).getLast().getId());
+    }
+
+    @Test
+    void shouldLoadLikesForAllFilms() {
+        Film first = filmStorage.addNewFilm(film("First"));
+        Film second = filmStorage.addNewFilm(film("Second"));
+        filmStorage.addLike(first.getId(), 1L);
+        filmStorage.addLike(second.getId(), 1L);
+        filmStorage.addLike(second.getId(), 2L);
+
+        List<Film> films = filmStorage.getAllFilms();
+
+        assertEquals(List.of(1, 2), films.stream().map(Film::getRate).toList());
+    }
+
+    @Test
+    void shouldStreamFilmsWithLikesInIdOrder() {
+        Film first = filmStorage.addNewFilm(film("First"));
+        Film second = filmStorage.addNewFilm(film("Second"));
+        Film third = filmStorage.addNewFilm(film("Third"));
+        filmStorage.addLike(third.getId(), 1L);
+        filmStorage.addLike(first.getId(), 2L);
+        filmStorage.addLike(third.getId(), 3L);
+
+        List<Film> films = new ArrayList<>();
+        filmStorage.forEachFilm(films::add);
+
+        assertEquals(List.of(first.getId(), second.getId(), third.getId()), films.stream().map(Film::getId).toList());
+        assertEquals(List.of(1, 0, 2), films.stream().map(Film::getRate).toList());
+        assertTrue(films.getLast().getFilmLikes().contains(3L));
+    }
+
+    @Test
+    void shouldGetFilmsByIdsWithLikes() {
+        Film first = filmStorage.addNewFilm(film("First"));
+        Film second = filmStorage.addNewFilm(film("Second"));
+        filmStorage.addLike(second.getId(), 1L);
+        filmStorage.addLike(second.getId(), 2L);
+
+        List<Film> films = filmStorage.getFilms(List.of(second.getId(), 999, first.getId(), second.getId()));
+
+        assertEquals(List.of(second.getId(), first.getId(), second.getId()), films.stream().map(Film::getId).toList());
+        assertEquals(List.of(2, 0, 2), films.stream().map(Film::getRate).toList());
+        assertTrue(filmStorage.getFilms(List.of()).isEmpty());
+    }
+
+    @Test
+    void shouldReturnFilmsPageAfterId() {
+        Film first = filmStorage.addNewFilm(film("First"));
+        Film second = filmStorage.addNewFilm(film("Second"));
+        Film third = filmStorage.addNewFilm(film("Third"));
+        filmStorage.addLike(second.getId(), 1L);
+
+        List<Film> page = filmStorage.getFilmsAfter(first.getId(), 1);
+
+        assertEquals(List.of(second.getId()), page.stream().map(Film::getId).toList());
+        assertEquals(1, page.getFirst().getRate());
+        assertEquals(List.of(third.getId()),
+                filmStorage.getFilmsAfter(second.getId(), 5).stream().map(Film::getId).toList());
+    }
+
+    @Test
+    void shouldApplyLikeBatchAndBumpVersionOnlyOnChange() {
+        Film film = filmStorage.addNewFilm(film("Batch"));
+        filmStorage.addLike(film.getId(), 1L);
+        long version = filmStorage.getFilm(film.getId()).getVersion();
+
+        AppliedLikes applied = filmStorage.applyLikes(film.getId(), new long[]{1L, 2L, 3L}, new long[]{4L});
+        assertArrayEquals(new long[]{2L, 3L}, applied.likedBy());
+        assertArrayEquals(new long[0], applied.unlikedBy());
+        Film liked = filmStorage.getFilm(film.getId());
+        assertEquals(3, liked.getRate());
+        assertTrue(liked.getVersion() > version);
+
+        applied = filmStorage.applyLikes(film.getId(), new long[]{2L}, new long[]{1L, 4L});
+        assertArrayEquals(new long[0], applied.likedBy());
+        assertArrayEquals(new long[]{1L}, applied.unlikedBy());
+        Film unliked = filmStorage.getFilm(film.getId());
+        assertEquals(2, unliked.getRate());
+        assertFalse(unliked.getFilmLikes().contains(1L));
+        assertEquals(Set.of(2L, 3L), Arrays.stream(filmStorage.getLikes(film.getId())).boxed()
+                .collect(Collectors.toSet()));
+
+        assertTrue(filmStorage.applyLikes(film.getId(), new long[]{2L}, new long[0]).isEmpty());
+        assertEquals(unliked.getVersion(), filmStorage.getFilm(film.getId()).getVersion());
+        assertThrows(NotFoundException.class, () -> filmStorage.applyLikes(999, new long[]{1L}, new long[0]));
+    }
+
+    @Test
+    void shouldDeleteLikesWithUser() {
+        Film film = filmStorage.addNewFilm(film("Orphaned"));
+        filmStorage.addLike(film.getId(), 1L);
+        filmStorage.addLike(film.getId(), 2L);
+
+        jdbc.update("DELETE FROM users WHERE id = 1");
+
+        assertEquals(List.of(2L), List.copyOf(filmStorage.getFilm(film.getId()).getFilmLikes()));
+    }
+
+    @Test
+    void shouldBumpCatalogVersionOnlyOnChange() {
+        long empty = filmStorage.getFilmsVersion();
+        Film film = filmStorage.addNewFilm(film("Catalog"));
+        long added = filmStorage.getFilmsVersion();
+        assertTrue(added > empty);
+
+        filmStorage.addLike(film.getId(), 1L);
+        long liked = filmStorage.getFilmsVersion();
+        assertTrue(liked > added);
+        assertFalse(filmStorage.addLike(film.getId(), 1L));
+        assertFalse(filmStorage.deleteLike(film.getId(), 2L));
+        assertTrue(filmStorage.applyLikes(film.getId(), new long[]{1L}, new long[]{2L}).isEmpty());
+        assertEquals(liked, filmStorage.getFilmsVersion());
+
+        filmStorage.updateFilm(Film.builder().id(film.getId()).name("Renamed").build());
+        long updated = filmStorage.getFilmsVersion();
+        assertTrue(updated > liked);
+        filmStorage.addNewFilms(List.of(film("Batch")));
+        assertTrue(filmStorage.getFilmsVersion() > updated);
+    }
+
+    @Test
+    void shouldAddFilmBatchWithGeneratedIdsAndVersions() {
+        List<Film> added = filmStorage.addNewFilms(List.of(film("First"), film("Second")));
+
+        assertEquals(2, added.size());
+        assertTrue(added.get(1).getId() > added.get(0).getId());
+        Film second = filmStorage.getFilm(added.get(1).getId());
+        assertEquals("Second", second.getName());
+        assertEquals(added.get(1).getVersion(), second.getVersion());
+        assertTrue(filmStorage.addNewFilms(List.of()).isEmpty());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldNotifyLikeListenersOnlyAfterCommit() {
+        Film film = filmStorage.addNewFilm(film("Listened"));
+        List<String> events = new CopyOnWriteArrayList<>();
+        filmStorage.addLikeListener((filmId, userId, liked) -> {
+            if (filmId == film.getId()) {
+                events.add(userId + ":" + liked);
+            }
+        });
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        try {
+            transaction.executeWithoutResult(status -> {
+                assertTrue(filmStorage.addLike(film.getId(), 1L));
+                assertEquals(List.of(), events);
+                status.setRollbackOnly();
+            });
+            assertEquals(List.of(), events);
+            assertEquals(0, filmStorage.getFilm(film.getId()).getRate());
+
+            transaction.executeWithoutResult(status -> {
+                filmStorage.addLike(film.getId(), 2L);
+                filmStorage.deleteLike(film.getId(), 2L);
+                assertEquals(List.of(), events);
+            });
+            assertEquals(List.of("2:true", "2:false"), events);
+        } finally {
+            jdbc.update("DELETE FROM films WHERE id = ?", film.getId());
+            jdbc.update("DELETE FROM users WHERE id BETWEEN 1 AND 4");
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package ru.yandex.practicum.filmorate.storageTest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.yandex.practicum.filmorate.exceptions.NotFoundException;
+import ru.yandex.practicum.filmorate.exceptions.ValidationException;
+import ru.yandex.practicum.filmorate.model.User;
+import ru.yandex.practicum.filmorate.storage.JdbcUserStorage;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.yandex.practicum.filmorate.TestData.user;
+
+@JdbcTest(properties = "filmorate.storage.type=jdbc")
+@Import(JdbcUserStorage.class)
+class JdbcUserStorageTest {
+    @Autowired
+    private JdbcUserStorage userStorage;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void shouldAddAndGetUser() {
+        User createdUser = userStorage.addNewUser(user("user1"));
+        User foundUser = userStorage.getUser(createdUser.getId());
+
+        assertEquals("user1@mail.com", foundUser.getEmail());
+        assertEquals("user1", foundUser.getLogin());
+        assertEquals(LocalDate.of(1990, 1, 1), foundUser.getBirthday());
+    }
+
+    @Test
+    void shouldValidateIdOnGet() {
+        assertThrows(ValidationException.class, () -> userStorage.getUser(0));
+        assertThrows(NotFoundException.class, () -> userStorage.getUser(999));
+    }
+
+    @Test
+    void shouldUpdateUserPartially() {
+        User createdUser = userStorage.addNewUser(user("user1"));
+
+        userStorage.updateUser(User.builder().id(createdUser.getId()).email("new@mail.com").build());
+        User foundUser = userStorage.getUser(createdUser.getId());
+
+        assertEquals("new@mail.com", foundUser.getEmail());
+        assertEquals("user1", foundUser.getLogin());
+    }
+
+    @Test
+    void shouldStoreMutualFriendship() {
+        User first = userStorage.addNewUser(user("user1"));
+        User second = userStorage.addNewUser(user("user2"));
+
+        assertTrue(userStorage.addFriend(first.getId(), second.getId()));
+        assertFalse(userStorage.addFriend(second.getId(), first.getId()));
+        assertTrue(userStorage.getUser(second.getId()).getUserFriends().contains(first.getId()));
+
+        assertTrue(userStorage.deleteFriend(second.getId(), first.getId()));
+        assertFalse(userStorage.deleteFriend(first.getId(), second.getId()));
+        assertTrue(userStorage.getUser(first.getId()).getUserFriends().isEmpty());
+    }
+
+    @Test
+    void shouldReturnFriendsWithTheirFriendIds() {
+        User first = userStorage.addNewUser(user("user1"));
+        User second = userStorage.addNewUser(user("user2"));
+        User third = userStorage.addNewUser(user("user3"));
+        userStorage.addFriend(first.getId(), second.getId());
+        userStorage.addFriend(first.getId(), third.getId());
+        userStorage.addFriend(second.getId(), third.getId());
+
+        List<User> friends = userStorage.getFriends(first.getId());
+
+        assertEquals(List.of(second.getId(), third.getId()), friends.stream().map(User::getId).toList());
+        assertEquals(2, friends.getFirst().getUserFriends().size());
+        assertThrows(NotFoundException.class, () -> userStorage.getFriends(999));
+    }
+
+    @Test
+    void shouldReturnCommonFriends() {
+        User first = userStorage.addNewUser(user("user1"));
+        User second = userStorage.addNewUser(user("user2"));
+        User common = userStorage.addNewUser(user("user3"));
+        User other = userStorage.addNewUser(user("user4"));
+        userStorage.addFriend(first.getId(), common.getId());
+        userStorage.addFriend(second.getId(), common.getId());
+        userStorage.addFriend(first.getId(), other.getId());
+
+        List<User> commonFriends = userStorage.getCommonFriends(first.getId(), second.getId());
+
+        assertEquals(List.of(common.getId()), commonFriends.stream().map(User::getId).toList());
+        assertEquals(2, commonFriends.getFirst().getUserFriends().size());
+        assertEquals(4, userStorage.getAllUsers().size());
+    }
+
+    @Test
+    void shouldStreamUsersWithFriendsInIdOrder() {
+        User first = userStorage.addNewUser(user("user1"));
+        User second = userStorage.addNewUser(user("user2"));
+        User third = userStorage.addNewUser(user("user3"));
+        userStorage.addFriend(first.getId(), third.getId());
+        userStorage.addFriend(second.getId(), third.getId());
+
+        List<User> users = new ArrayList<>();
+        userStorage.forEachUser(users::add);
+
+        assertEquals(List.of(first.getId(), second.getId(), third.getId()), users.stream().map(User::getId).toList());
+        assertEquals(List.of(1, 1, 2), users.stream().map(user -> user.getUserFriends().size()).toList());
+        assertTrue(users.getLast().getUserFriends().contains(first.getId()));
+    }
+
+    @Test
+    void shouldGetUsersByIdsWithFriends() {
+        User first = userStorage.addNewUser(user("user1"));
+        User second = userStorage.addNewUser(user("user2"));
+        userStorage.addFriend(first.getId(), second.getId());
+
+        List<User> users = userStorage.getUsers(List.of(second.getId(), 999L, first.getId()));
+
+        assertEquals(List.of(second.getId(), first.getId()), users.stream().map(User::getId).toList());
+        assertEquals(List.of(first.getId()), List.copyOf(users.getFirst().getUserFriends()));
+        assertThrows(ValidationException.class, () -> userStorage.getUsers(List.of(0L)));
+        assertThrows(NotFoundException.class, () -> userStorage.addFriend(first.getId(), 999L));
+    }
+
+    @Test
+    void shouldReturnUsersAndFriendsPagesAfterId() {
+        User first = userStorage.addNewUser(user("user1"));
+        User second = userStorage.addNewUser(user("user2"));
+        User third = userStorage.addNewUser(user("user3"));
+        userStorage.addFriend(first.getId(), second.getId());
+        userStorage.addFriend(first.getId(), third.getId());
+
+        List<User> users = userStorage.getUsersAfter(first.getId(), 1);
+        List<User> friends = userStorage.getFriendsAfter(first.getId(), second.getId(), 5);
+
+        assertEquals(List.of(second.getId()), users.stream().map(User::getId).toList());
+        assertEquals(List.of(first.getId()), List.copyOf(users.getFirst().getUserFriends()));
+        assertEquals(List.of(third.getId()), friends.stream().map(User::getId).toList());
+        assertEquals(1, friends.getFirst().getUserFriends().size());
+        assertThrows(NotFoundException.class, () -> userStorage.getFriendsAfter(999, 0, 1));
+    }
+
+    @Test
+    void shouldBumpBothUsersAndCollectionVersionsOnFriendship() {
+        User first = userStorage.addNewUser(user("user1"));
+        User second = userStorage.addNewUser(user("user2"));
+        assertEquals(second.getVersion(), userStorage.getUser(second.getId()).getVersion());
+        long collection = userStorage.getUsersVersion();
+
+        userStorage.addFriend(first.getId(), second.getId());
+
+        assertTrue(userStorage.getUser(first.getId()).getVersion() > first.getVersion());
+        assertTrue(userStorage.getUser(second.getId()).getVersion() > second.getVersion());
+        assertTrue(userStorage.getUsersVersion() > collection);
+
+        long friendsVersion = userStorage.getUsersVersion();
+        assertFalse(userStorage.addFriend(first.getId(), second.getId()));
+        assertEquals(friendsVersion, userStorage.getUsersVersion());
+
+        User updated = userStorage.updateUser(User.builder().id(first.getId()).name("Renamed").build());
+        assertEquals(updated.getVersion(), userStorage.getUser(first.getId()).getVersion());
+        assertTrue(userStorage.getUsersVersion() > friendsVersion);
+    }
+
+    @Test
+    void shouldAddUserBatchAndFriendsInBatch() {
+        List<User> added = userStorage.addNewUsers(List.of(user("user1"), user("user2"), user("user3")));
+        long first = added.get(0).getId();
+        long second = added.get(1).getId();
+        long third = added.get(2).getId();
+        assertEquals("user2", userStorage.getUser(second).getLogin());
+        assertEquals(added.get(1).getVersion(), userStorage.getUser(second).getVersion());
+
+        int friends = userStorage.addFriends(new long[]{first, second, first, first},
+                new long[]{second, first, third, first}, 4);
+
+        assertEquals(2, friends);
+        assertEquals(List.of(second, third), userStorage.getFriends(first).stream().map(User::getId).toList());
+        assertTrue(userStorage.getUser(third).getUserFriends().contains(first));
+        assertTrue(userStorage.getUser(third).getVersion() > added.get(2).getVersion());
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void shouldChangeReversePairsConcurrentlyWithoutLockTimeouts() throws Exception {
+        long first = userStorage.addNewUser(user("reverse1")).getId();
+        long second = userStorage.addNewUser(user("reverse2")).getId();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < 20; round++) {
+                boolean add = round % 2 == 0;
+                CyclicBarrier barrier = new CyclicBarrier(2);
+                Future<Boolean> forward = pool.submit(() -> {
+                    barrier.await();
+                    return add ? userStorage.addFriend(first, second) : userStorage.deleteFriend(first, second);
+                });
+                Future<Boolean> backward = pool.submit(() -> {
+                    barrier.await();
+                    return add ? userStorage.addFriend(second, first) : userStorage.deleteFriend(second, first);
+                });
+
+                assertTrue(forward.get() ^ backward.get());
+                assertEquals(add ? List.of(second) : List.of(),
+                        userStorage.getFriends(first).stream().map(User::getId).toList());
+            }
+        } finally {
+            pool.shutdownNow();
+            jdbc.update("DELETE FROM users WHERE id IN (?, ?)", first, second);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package ru.yandex.practicum.filmorate.utilTest;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.util.CooccurrenceIndex;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CooccurrenceIndexTest {
+    private static final int ITEMS = 60;
+    private static final int USERS = 200;
+
+    @Test
+    void shouldComputeCosineSimilarity() {
+        CooccurrenceIndex index = new CooccurrenceIndex(10);
+        index.add(1, 10);
+        index.add(1, 20);
+        index.add(2, 10);
+        index.add(2, 20);
+        index.add(3, 10);
+
+        assertEquals(2 / Math.sqrt(3 * 2), index.similarity(10, 20), 1e-12);
+        assertEquals(0, index.similarity(10, 30));
+        assertFalse(index.add(1, 10));
+        assertFalse(index.remove(3, 20));
+    }
+
+    @Test
+    void shouldRecommendUnseenItemsByNeighbourSimilarity() {
+        CooccurrenceIndex index = new CooccurrenceIndex(10);
+        // Пользователи 1 и 2 любят 10, 20 и 30; пользователь 3 — 10 и 40
+        for (int item : new int[]{10, 20, 30}) {
+            index.add(1, item);
+            index.add(2, item);
+        }
+        index.add(3, 10);
+        index.add(3, 40);
+        index.add(4, 10);
+
+        assertEquals(List.of(20, 30, 40), index.recommend(4, 10));
+        assertEquals(List.of(20), index.recommend(4, 1));
+        assertEquals(List.of(), index.recommend(99, 10));
+
+        index.add(4, 20);
+
+        assertEquals(List.of(30, 40), index.recommend(4, 10));
+    }
+
+    @Test
+    void shouldKeepSimilarityExactUnderRandomAddsAndRemoves() {
+        CooccurrenceIndex index = new CooccurrenceIndex(5);
+        Set<Long> likes = new HashSet<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 20_000; i++) {
+            long user = 1 + random.nextInt(USERS);
+            int item = 1 + random.nextInt(ITEMS);
+            long like = user * 1_000 + item;
+            if (random.nextInt(3) == 0) {
+                assertEquals(likes.remove(like), index.remove(user, item));
+            } else {
+                assertEquals(likes.add(like), index.add(user, item));
+            }
+        }
+
+        for (int first = 1; first <= ITEMS; first++) {
+            for (int second = 1; second <= ITEMS; second++) {
+                if (first != second) {
+                    assertEquals(expectedSimilarity(likes, first, second), index.similarity(first, second), 1e-12);
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldBuildSameNeighboursInParallel() {
+        Random random = new Random(5);
+        Set<Long> likes = new HashSet<>();
+        for (int i = 0; i < 3_000; i++) {
+            likes.add((1 + random.nextInt(USERS)) * 1_000L + 1 + random.nextInt(ITEMS));
+        }
+        CooccurrenceIndex incremental = new CooccurrenceIndex(5);
+        likes.forEach(like -> incremental.add(like / 1_000, (int) (like % 1_000)));
+
+        int[] items = new int[ITEMS];
+        long[][] users = new long[ITEMS][];
+        for (int item = 1; item <= ITEMS; item++) {
+            int current = item;
+            items[item - 1] = item;
+            users[item - 1] = likes.stream().filter(like -> like % 1_000 == current)
+                    .mapToLong(like -> like / 1_000).toArray();
+        }
+        CooccurrenceIndex built = CooccurrenceIndex.build(5, items, users, new ForkJoinPool(4));
+
+        for (int item = 1; item <= ITEMS; item++) {
+            assertArrayEquals(incremental.neighbours(item), built.neighbours(item), "Соседи " + item);
+        }
+        for (long user = 1; user <= USERS; user++) {
+            assertEquals(incremental.recommend(user, 10), built.recommend(user, 10));
+        }
+    }
+
+    private static double expectedSimilarity(Set<Long> likes, int first, int second) {
+        long together = 0;
+        long firstCount = likes.stream().filter(like -> like % 1_000 == first).count();
+        long secondCount = likes.stream().filter(like -> like % 1_000 == second).count();
+        for (long like : likes) {
+            if (like % 1_000 == first && likes.contains(like - first + second)) {
+                together++;
+            }
+        }
+        return firstCount == 0 || secondCount == 0 ? 0 : together / Math.sqrt((double) firstCount * secondCount);
+    }
+}
@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate.utilTest;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.util.CountMinSketch;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountMinSketchTest {
+
+    @Test
+    void shouldSizeSketchFromErrorBound() {
+        CountMinSketch sketch = CountMinSketch.withErrorBound(0.001, 0.01, 1);
+
+        assertEquals(2719, sketch.width());
+        assertEquals(5, sketch.depth());
+        assertThrows(IllegalArgumentException.class, () -> CountMinSketch.withErrorBound(0.01, 1, 1));
+    }
+
+    @Test
+    void shouldNeverUnderestimateAndStayWithinBound() {
+        CountMinSketch sketch = new CountMinSketch(512, 5, 7);
+        int keys = 20_000;
+        long[] exact = new long[keys];
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 200_000; i++) {
+            int key = (int) (keys * Math.pow(random.nextDouble(), 3));
+            exact[key]++;
+            sketch.add(key, 1);
+        }
+
+        int violations = 0;
+        for (int key = 0; key < keys; key++) {
+            long estimate = sketch.estimate(key);
+            assertTrue(estimate >= exact[key], "Оценка меньше истинного счета ключа " + key);
+            if (estimate - exact[key] > sketch.errorBound()) {
+                violations++;
+            }
+        }
+        // Граница нарушается с вероятностью e^-5 < 1%
+        assertTrue(violations < keys / 100, "Слишком много нарушений границы: " + violations);
+        assertEquals(200_000, sketch.total());
+    }
+
+    @Test
+    void shouldSubtractRemovedCounts() {
+        CountMinSketch sketch = new CountMinSketch(64, 3, 1);
+        sketch.add(5, 3);
+        sketch.add(5, -2);
+
+        assertEquals(1, sketch.estimate(5));
+        assertEquals(1, sketch.total());
+    }
+
+    @Test
+    void shouldMergeSketchesWithSameShapeAndSeed() {
+        CountMinSketch first = new CountMinSketch(128, 4, 9);
+        CountMinSketch second = new CountMinSketch(128, 4, 9);
+        CountMinSketch combined = new CountMinSketch(128, 4, 9);
+        for (int key = 0; key < 1000; key++) {
+            (key % 2 == 0 ? first : second).add(key, key % 7 + 1);
+            combined.add(key, key % 7 + 1);
+        }
+
+        first.merge(second);
+
+        for (int key = 0; key < 1000; key++) {
+            assertEquals(combined.estimate(key), first.estimate(key));
+        }
+        assertEquals(combined.total(), first.total());
+        assertThrows(IllegalArgumentException.class, () -> first.merge(new CountMinSketch(128, 4, 10)));
+    }
+}
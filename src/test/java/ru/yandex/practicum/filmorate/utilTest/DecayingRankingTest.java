@@ -0,0 +1,78 @@
+package ru.yandex.practicum.filmorate.utilTest;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.util.DecayingRanking;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DecayingRankingTest {
+    private static final long HALF_LIFE = 1000;
+
+    @Test
+    void shouldHalveScoreEveryHalfLife() {
+        DecayingRanking ranking = new DecayingRanking(HALF_LIFE);
+
+        ranking.add(1, 0);
+        ranking.add(1, 0);
+
+        assertEquals(2.0, ranking.score(1, 0), 1e-9);
+        assertEquals(1.0, ranking.score(1, HALF_LIFE), 1e-9);
+        assertEquals(0.25, ranking.score(1, 3 * HALF_LIFE), 1e-9);
+        assertEquals(0.0, ranking.score(2, 0));
+    }
+
+    @Test
+    void shouldRankFreshEventsAboveOlderOnes() {
+        DecayingRanking ranking = new DecayingRanking(HALF_LIFE);
+        ranking.add(1, 0);
+        ranking.add(1, 0);
+        ranking.add(1, 0);
+        ranking.add(2, 2 * HALF_LIFE);
+        ranking.add(2, 2 * HALF_LIFE);
+
+        // 3 лайка двумя периодами раньше весят 0.75 против 2 свежих
+        assertEquals(List.of(2, 1), ranking.top(10));
+        assertEquals(List.of(2), ranking.top(1));
+    }
+
+    @Test
+    void shouldNotOverflowFarFromEpoch() {
+        DecayingRanking ranking = new DecayingRanking(HALF_LIFE);
+        long now = 1_700_000_000_000L;
+
+        ranking.add(1, now);
+        ranking.add(1, now + HALF_LIFE);
+
+        assertEquals(0.75, ranking.score(1, now + 2 * HALF_LIFE), 1e-12);
+    }
+
+    @Test
+    void shouldSubtractFreshWeightOnRemove() {
+        DecayingRanking ranking = new DecayingRanking(HALF_LIFE);
+        ranking.add(1, 0);
+        ranking.add(1, 0);
+        ranking.add(2, 0);
+
+        ranking.remove(1, 0);
+        assertEquals(1.0, ranking.score(1, 0), 1e-9);
+
+        ranking.remove(2, HALF_LIFE);
+        ranking.remove(3, 0);
+        assertEquals(List.of(1), ranking.top(10));
+        assertEquals(0.0, ranking.score(2, HALF_LIFE));
+    }
+
+    @Test
+    void shouldDropKeyWhenRecentEventsAreRemoved() {
+        DecayingRanking ranking = new DecayingRanking(HALF_LIFE);
+        ranking.add(1, 0);
+        ranking.add(1, 1);
+
+        ranking.remove(1, 2);
+        ranking.remove(1, 3);
+
+        assertEquals(List.of(), ranking.top(10));
+    }
+}
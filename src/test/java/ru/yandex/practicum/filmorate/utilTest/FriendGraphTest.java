@@ -0,0 +1,87 @@
+package ru.yandex.practicum.filmorate.utilTest;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.util.FriendGraph;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FriendGraphTest {
+
+    @Test
+    void shouldBuildSymmetricSortedRowsWithoutDuplicatesAndLoops() {
+        FriendGraph graph = FriendGraph.of(new int[]{3, 1, 1, 2, 2}, new int[]{1, 2, 3, 1, 2}, 5);
+
+        assertArrayEquals(new int[]{2, 3}, neighbours(graph, 1));
+        assertArrayEquals(new int[]{1}, neighbours(graph, 2));
+        assertArrayEquals(new int[]{1}, neighbours(graph, 3));
+        assertArrayEquals(new int[0], neighbours(graph, 0));
+        assertEquals(4, graph.vertexLimit());
+        assertTrue(graph.hasEdge(2, 1));
+        assertFalse(graph.hasEdge(2, 3));
+    }
+
+    @Test
+    void shouldAddAndRemoveEdgesIncrementally() {
+        FriendGraph graph = FriendGraph.of(new int[]{1}, new int[]{2}, 1);
+
+        assertTrue(graph.addEdge(1, 5));
+        assertFalse(graph.addEdge(5, 1));
+        assertArrayEquals(new int[]{2, 5}, neighbours(graph, 1));
+        assertArrayEquals(new int[]{1}, neighbours(graph, 5));
+        assertEquals(6, graph.vertexLimit());
+
+        assertTrue(graph.removeEdge(2, 1));
+        assertFalse(graph.removeEdge(1, 2));
+        assertArrayEquals(new int[]{5}, neighbours(graph, 1));
+        assertEquals(0, graph.degree(2));
+    }
+
+    @Test
+    void shouldRejectLoops() {
+        FriendGraph graph = FriendGraph.empty();
+
+        assertThrows(IllegalArgumentException.class, () -> graph.addEdge(1, 1));
+        assertThrows(IllegalArgumentException.class, () -> graph.addEdge(-1, 1));
+    }
+
+    @Test
+    void shouldMatchReferenceAfterManyChangesWithCompactions() {
+        FriendGraph graph = FriendGraph.empty();
+        Set<Long> reference = new HashSet<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            int first = random.nextInt(300);
+            int second = random.nextInt(300);
+            if (first == second) {
+                continue;
+            }
+            long edge = (long) Math.min(first, second) << 32 | Math.max(first, second);
+            if (random.nextInt(3) == 0) {
+                assertEquals(reference.remove(edge), graph.removeEdge(first, second));
+            } else {
+                assertEquals(reference.add(edge), graph.addEdge(first, second));
+            }
+        }
+
+        for (int v = 0; v < 300; v++) {
+            int vertex = v;
+            int[] expected = reference.stream()
+                    .filter(edge -> (int) (edge >>> 32) == vertex || edge.intValue() == vertex)
+                    .mapToInt(edge -> (int) (edge >>> 32) == vertex ? edge.intValue() : (int) (edge >>> 32))
+                    .sorted()
+                    .toArray();
+            assertArrayEquals(expected, neighbours(graph, vertex), "Соседи вершины " + vertex);
+        }
+    }
+
+    private static int[] neighbours(FriendGraph graph, int vertex) {
+        int[] bounds = new int[2];
+        int[] row = graph.neighbours(vertex, bounds);
+        return Arrays.copyOfRange(row, bounds[0], bounds[1]);
+    }
+}
@@ -0,0 +1,132 @@
+package ru.yandex.practicum.filmorate.utilTest;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.util.FriendSet;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FriendSetTest {
+
+    @Test
+    void shouldAddAndRemoveFriends() {
+        FriendSet friends = new FriendSet();
+
+        assertTrue(friends.add(2L));
+        assertFalse(friends.add(2L));
+        assertTrue(friends.contains(2L));
+        assertTrue(friends.remove(2L));
+        assertFalse(friends.remove(2L));
+        assertTrue(friends.isEmpty());
+    }
+
+    @Test
+    void shouldKeepElementsAfterSwitchingToBitmap() {
+        FriendSet friends = filledWith(LongStream.rangeClosed(1, 5_000));
+
+        assertEquals(5_000, friends.size());
+        assertTrue(friends.contains(4_321L));
+        assertTrue(friends.remove(4_321L));
+        assertFalse(friends.contains(4_321L));
+        assertEquals(4_999, friends.size());
+        assertEquals(4_999, new HashSet<>(friends).size());
+    }
+
+    @Test
+    void shouldIntersectSmallSets() {
+        FriendSet first = filledWith(LongStream.of(1, 2, 3, 4));
+        FriendSet second = filledWith(LongStream.of(3, 4, 5));
+
+        assertEquals(Set.of(3L, 4L), common(first, second));
+    }
+
+    @Test
+    void shouldIntersectBitmapWithSmallSet() {
+        FriendSet celebrity = filledWith(LongStream.rangeClosed(1, 100_000));
+        FriendSet regular = filledWith(LongStream.of(7, 50_000, 200_000));
+
+        assertEquals(Set.of(7L, 50_000L), common(celebrity, regular));
+        assertEquals(Set.of(7L, 50_000L), common(regular, celebrity));
+    }
+
+    @Test
+    void shouldIntersectTwoBitmapsLikeHashSets() {
+        Random random = new Random(7);
+        Set<Long> expectedFirst = new HashSet<>();
+        Set<Long> expectedSecond = new HashSet<>();
+        FriendSet first = new FriendSet();
+        FriendSet second = new FriendSet();
+        for (int i = 0; i < 50_000; i++) {
+            long a = random.nextInt(1_000_000) + 1;
+            long b = random.nextInt(1_000_000) + 1;
+            expectedFirst.add(a);
+            expectedSecond.add(b);
+            first.add(a);
+            second.add(b);
+        }
+        expectedFirst.retainAll(expectedSecond);
+
+        List<Long> result = new ArrayList<>();
+        FriendSet.forEachCommon(first, second, result::add);
+
+        assertEquals(expectedFirst, new HashSet<>(result));
+        assertEquals(expectedFirst.size(), result.size());
+        for (int i = 1; i < result.size(); i++) {
+            assertTrue(result.get(i - 1) < result.get(i));
+        }
+    }
+
+    @Test
+    void shouldIntersectSetWithItself() {
+        FriendSet friends = filledWith(LongStream.rangeClosed(1, 2_000));
+
+        assertEquals(2_000, common(friends, friends).size());
+    }
+
+    @Test
+    void shouldIntersectBitmapsWithDistantRanges() {
+        FriendSet first = filledWith(LongStream.concat(LongStream.rangeClosed(1, 3_000),
+                LongStream.rangeClosed(5_000_000_000L, 5_000_003_000L)));
+        FriendSet second = filledWith(LongStream.concat(
+                LongStream.rangeClosed(2_999, 4_000_000).filter(id -> id % 1_000 < 5),
+                LongStream.rangeClosed(5_000_002_999L, 5_000_010_000L)));
+
+        assertEquals(Set.of(3_000L, 5_000_002_999L, 5_000_003_000L), common(first, second));
+    }
+
+    @Test
+    void shouldPageIdsInAscendingOrder() {
+        FriendSet small = filledWith(LongStream.of(9, 3, 7, 1, 5));
+
+        assertArrayEquals(new long[]{1, 3}, small.firstAfter(0, 2));
+        assertArrayEquals(new long[]{5, 7, 9}, small.firstAfter(3, 10));
+        assertArrayEquals(new long[0], small.firstAfter(9, 10));
+    }
+
+    @Test
+    void shouldPageIdsAfterSwitchingToBitmap() {
+        FriendSet friends = filledWith(LongStream.rangeClosed(1, 5_000).map(id -> id * 2));
+
+        assertArrayEquals(new long[]{2, 4, 6}, friends.firstAfter(0, 3));
+        assertArrayEquals(new long[]{4_002, 4_004}, friends.firstAfter(4_001, 2));
+        assertArrayEquals(new long[]{10_000}, friends.firstAfter(9_998, 5));
+    }
+
+    private static FriendSet filledWith(LongStream ids) {
+        FriendSet friends = new FriendSet();
+        ids.forEach(friends::add);
+        return friends;
+    }
+
+    private static Set<Long> common(FriendSet first, FriendSet second) {
+        Set<Long> result = new HashSet<>();
+        FriendSet.forEachCommon(first, second, result::add);
+        return result;
+    }
+}
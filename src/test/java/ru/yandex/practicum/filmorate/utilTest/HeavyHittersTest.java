@@ -0,0 +1,86 @@
+package ru.yandex.practicum.filmorate.utilTest;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.util.HeavyHitters;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HeavyHittersTest {
+    private static final int KEYS = 100_000;
+    private static final int EVENTS = 500_000;
+
+    @Test
+    void shouldFindTopKeysOfZipfStream() {
+        HeavyHitters heavyHitters = new HeavyHitters(2048, 5, 256, 42);
+        long[] exact = zipfStream(heavyHitters, new SplittableRandom(1));
+
+        List<Integer> expected = exactTop(exact, 10);
+        List<Integer> actual = heavyHitters.top(10);
+
+        assertEquals(expected, actual);
+        for (int key : actual) {
+            assertTrue(heavyHitters.estimate(key) >= exact[key]);
+            assertTrue(heavyHitters.estimate(key) - exact[key] <= heavyHitters.errorBound());
+        }
+    }
+
+    @Test
+    void shouldMergeShards() {
+        HeavyHitters first = new HeavyHitters(2048, 5, 256, 42);
+        HeavyHitters second = new HeavyHitters(2048, 5, 256, 42);
+        long[] exact = zipfStream(first, new SplittableRandom(1));
+        long[] secondExact = zipfStream(second, new SplittableRandom(2));
+        for (int key = 0; key < KEYS; key++) {
+            exact[key] += secondExact[key];
+        }
+
+        first.merge(second);
+
+        assertEquals(2L * EVENTS, first.total());
+        assertEquals(exactTop(exact, 5), first.top(5));
+    }
+
+    @Test
+    void shouldSubtractRemovedEvents() {
+        HeavyHitters heavyHitters = new HeavyHitters(64, 3, 4, 1);
+        heavyHitters.add(1, 5);
+        heavyHitters.add(2, 3);
+
+        heavyHitters.add(1, -4);
+
+        assertEquals(List.of(2, 1), heavyHitters.top(10));
+        assertEquals(1, heavyHitters.estimate(1));
+    }
+
+    // Поток с распределением Ципфа (s = 1.1): ключ ранга r встречается пропорционально r^-s
+    private static long[] zipfStream(HeavyHitters heavyHitters, SplittableRandom random) {
+        double[] cumulative = new double[KEYS];
+        double sum = 0;
+        for (int rank = 0; rank < KEYS; rank++) {
+            sum += Math.pow(rank + 1, -1.1);
+            cumulative[rank] = sum;
+        }
+        long[] exact = new long[KEYS];
+        for (int i = 0; i < EVENTS; i++) {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            int key = index >= 0 ? index : -index - 1;
+            exact[key]++;
+            heavyHitters.add(key, 1);
+        }
+        return exact;
+    }
+
+    private static List<Integer> exactTop(long[] exact, int limit) {
+        return IntStream.range(0, exact.length).boxed()
+                .sorted(Comparator.comparingLong((Integer key) -> exact[key]).reversed()
+                        .thenComparing(Comparator.naturalOrder()))
+                .limit(limit)
+                .toList();
+    }
+}
@@ -0,0 +1,80 @@
+package ru.yandex.practicum.filmorate.utilTest;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.util.IntLongRingBuffer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntLongRingBufferTest {
+
+    @Test
+    void shouldRoundCapacityUpToPowerOfTwo() {
+        assertEquals(1, new IntLongRingBuffer(1).capacity());
+        assertEquals(4, new IntLongRingBuffer(3).capacity());
+        assertEquals(1024, new IntLongRingBuffer(1000).capacity());
+        assertThrows(IllegalArgumentException.class, () -> new IntLongRingBuffer(0));
+    }
+
+    @Test
+    void shouldRejectWhenFullAndReuseDrainedSlots() {
+        IntLongRingBuffer buffer = new IntLongRingBuffer(2);
+
+        assertEquals(0, buffer.offer(1, 10L));
+        assertEquals(1, buffer.offer(2, 20L));
+        assertEquals(-1, buffer.offer(3, 30L));
+
+        List<Long> drained = new ArrayList<>();
+        assertEquals(1, buffer.drain((key, value) -> drained.add(key + value), 1));
+        assertEquals(2, buffer.offer(3, 30L));
+        assertEquals(2, buffer.drain((key, value) -> drained.add(key + value), 10));
+
+        assertEquals(List.of(11L, 22L, 33L), drained);
+        assertEquals(3, buffer.offered());
+        assertEquals(3, buffer.drained());
+    }
+
+    @Test
+    void shouldDeliverEveryPairFromConcurrentWriters() throws InterruptedException {
+        int writers = 4;
+        int perWriter = 50_000;
+        IntLongRingBuffer buffer = new IntLongRingBuffer(256);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+        for (int writer = 0; writer < writers; writer++) {
+            int key = writer;
+            threads.add(Thread.ofPlatform().start(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (long value = 0; value < perWriter; value++) {
+                    while (buffer.offer(key, value) < 0) {
+                        Thread.onSpinWait();
+                    }
+                }
+            }));
+        }
+
+        long[] next = new long[writers];
+        start.countDown();
+        long received = 0;
+        while (received < (long) writers * perWriter) {
+            received += buffer.drain((key, value) -> {
+                // Пары одного писателя приходят в порядке записи
+                assertEquals(next[key]++, value);
+            }, 64);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (long count : next) {
+            assertEquals(perWriter, count);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package ru.yandex.practicum.filmorate.utilTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.model.Film;
+import ru.yandex.practicum.filmorate.util.LongHashSet;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongHashSetTest {
+
+    @Test
+    void shouldAddAndRemoveInSortedMode() {
+        LongHashSet set = new LongHashSet();
+
+        assertTrue(set.add(3L));
+        assertTrue(set.add(1L));
+        assertFalse(set.add(3L));
+        assertTrue(set.contains(1L));
+        assertTrue(set.remove(1L));
+        assertFalse(set.remove(1L));
+
+        assertEquals(1, set.size());
+        assertArrayEquals(new long[]{3L}, set.toLongArray());
+    }
+
+    @Test
+    void shouldSwitchToHashTableAndBackPreservingElements() {
+        LongHashSet set = new LongHashSet();
+        for (long value = 1; value <= 1_000; value++) {
+            assertTrue(set.add(value));
+        }
+        assertEquals(1_000, set.size());
+        for (long value = 1; value <= 1_000; value++) {
+            assertTrue(set.contains(value));
+        }
+
+        for (long value = 1; value <= 995; value++) {
+            assertTrue(set.remove(value));
+        }
+        assertEquals(Set.of(996L, 997L, 998L, 999L, 1000L), set);
+    }
+
+    @Test
+    void shouldBehaveLikeHashSetUnderRandomOperations() {
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            long value = random.nextInt(2_000) - 1_000;
+            if (random.nextBoolean()) {
+                assertEquals(expected.add(value), set.add(value));
+            } else {
+                assertEquals(expected.remove(value), set.remove(value));
+            }
+        }
+
+        assertEquals(expected.size(), set.size());
+        assertEquals(expected, set);
+    }
+
+    @Test
+    void shouldStoreMarkerValuesInHashMode() {
+        LongHashSet set = new LongHashSet();
+        for (long value = 1; value <= 100; value++) {
+            set.add(value);
+        }
+
+        assertTrue(set.add(0L));
+        assertTrue(set.add(Long.MIN_VALUE));
+        assertTrue(set.contains(0L));
+        assertTrue(set.contains(Long.MIN_VALUE));
+        assertEquals(102, set.size());
+
+        assertTrue(set.remove(0L));
+        assertFalse(set.contains(0L));
+        assertEquals(101, set.size());
+    }
+
+    @Test
+    void shouldSupportRemovalThroughIterator() {
+        LongHashSet set = new LongHashSet(1L, 2L, 3L, 4L);
+
+        Iterator<Long> iterator = set.iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() % 2 == 0) {
+                iterator.remove();
+            }
+        }
+
+        assertEquals(Set.of(1L, 3L), set);
+    }
+
+    @Test
+    void shouldSerializeFilmLikesAsPlainJsonArray() throws Exception {
+        ObjectMapper mapper = JsonMapper.builder().addModule(new JavaTimeModule()).build();
+        Film film = Film.builder()
+                .id(1)
+                .name("Film")
+                .releaseDate(LocalDate.of(2000, 1, 1))
+                .duration(100)
+                .build();
+        film.getFilmLikes().add(7L);
+        film.getFilmLikes().add(5L);
+
+        String json = mapper.writeValueAsString(film);
+
+        assertTrue(json.contains("\"filmLikes\":[5,7]"), json);
+    }
+}
@@ -0,0 +1,91 @@
+package ru.yandex.practicum.filmorate.utilTest;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.util.MinHashIndex;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinHashIndexTest {
+
+    @Test
+    void shouldFindIdenticalSetsAndSkipDisjointOnes() {
+        MinHashIndex index = new MinHashIndex(32, 4, 1);
+        index.set(1, LongStream.rangeClosed(1, 50).toArray());
+        index.set(2, LongStream.rangeClosed(1, 50).toArray());
+        index.set(3, LongStream.rangeClosed(1_000, 1_050).toArray());
+
+        List<MinHashIndex.Similar> similar = index.similar(1, 10);
+
+        assertEquals(List.of(new MinHashIndex.Similar(2, 1.0)), similar);
+        assertEquals(List.of(), index.similar(99, 10));
+    }
+
+    @Test
+    void shouldEstimateJaccardSimilarity() {
+        MinHashIndex index = new MinHashIndex(64, 2, 7);
+        // |A ∩ B| = 100, |A ∪ B| = 200
+        index.set(1, LongStream.rangeClosed(1, 150).toArray());
+        index.set(2, LongStream.rangeClosed(51, 200).toArray());
+
+        assertEquals(0.5, index.similarity(1, 2), 0.15);
+        assertEquals(1, index.similar(1, 10).size());
+    }
+
+    @Test
+    void shouldMatchSignatureOfWholeSetWhenBuiltIncrementally() {
+        MinHashIndex index = new MinHashIndex(16, 4, 3);
+        for (long user = 1; user <= 300; user++) {
+            index.add(1, user);
+        }
+        index.set(2, LongStream.rangeClosed(1, 300).toArray());
+
+        assertEquals(1.0, index.similarity(1, 2));
+        assertEquals(List.of(new MinHashIndex.Similar(2, 1.0)), index.similar(1, 10));
+    }
+
+    @Test
+    void shouldAskForRecomputationOnlyWhenRemovedUserHeldMinimum() {
+        MinHashIndex index = new MinHashIndex(16, 4, 5);
+        long[] users = LongStream.rangeClosed(1, 1_000).toArray();
+        index.set(1, users);
+        int[] signature = index.signatureOf(users);
+        long holdingNothing = -1;
+        for (long user : users) {
+            if (index.remove(1, user)) {
+                holdingNothing = user;
+                break;
+            }
+        }
+
+        assertTrue(holdingNothing > 0, "Из тысячи пользователей хоть один не задает минимум");
+        assertFalse(index.remove(1, minimumHolder(index, users, signature)));
+    }
+
+    @Test
+    void shouldDropItemFromBucketsWhenSetBecomesEmpty() {
+        MinHashIndex index = new MinHashIndex(8, 2, 9);
+        index.set(1, new long[]{1, 2, 3});
+        index.set(2, new long[]{1, 2, 3});
+
+        index.set(2, new long[0]);
+
+        assertEquals(List.of(), index.similar(1, 10));
+        assertEquals(0, index.similarity(1, 2));
+    }
+
+    // Пользователь, без которого подпись меняется: его собственная подпись совпадает с общей в какой-то позиции
+    private static long minimumHolder(MinHashIndex index, long[] users, int[] signature) {
+        for (long user : users) {
+            int[] own = index.signatureOf(new long[]{user});
+            for (int i = 0; i < own.length; i++) {
+                if (own[i] == signature[i]) {
+                    return user;
+                }
+            }
+        }
+        throw new AssertionError("Минимумы подписи задают какие-то пользователи");
+    }
+}
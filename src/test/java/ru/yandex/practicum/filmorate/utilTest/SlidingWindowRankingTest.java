@@ -0,0 +1,69 @@
+package ru.yandex.practicum.filmorate.utilTest;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.util.SlidingWindowRanking;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlidingWindowRankingTest {
+    private static final long BUCKET = 1000;
+
+    @Test
+    void shouldRankKeysByCountInWindow() {
+        SlidingWindowRanking ranking = new SlidingWindowRanking(BUCKET, 3);
+
+        ranking.add(1, 1, 0);
+        ranking.add(2, 1, 100);
+        ranking.add(2, 1, 1500);
+        ranking.add(3, 1, 2500);
+        ranking.add(3, 1, 2600);
+        ranking.add(3, 1, 2700);
+
+        assertEquals(List.of(3, 2, 1), ranking.top(10, 2999));
+        assertEquals(List.of(3, 2), ranking.top(2, 2999));
+        assertEquals(2, ranking.count(2, 2999));
+    }
+
+    @Test
+    void shouldExpireOldestBucketWhenWindowSlides() {
+        SlidingWindowRanking ranking = new SlidingWindowRanking(BUCKET, 3);
+
+        ranking.add(1, 5, 0);
+        ranking.add(2, 1, 1000);
+
+        assertEquals(List.of(1, 2), ranking.top(10, 2999));
+        assertEquals(List.of(2), ranking.top(10, 3000));
+        assertEquals(0, ranking.count(1, 3000));
+        assertEquals(List.of(), ranking.top(10, 4000));
+        assertEquals(0, ranking.size());
+    }
+
+    @Test
+    void shouldClearWholeWindowAfterLongPause() {
+        SlidingWindowRanking ranking = new SlidingWindowRanking(BUCKET, 3);
+        ranking.add(1, 1, 0);
+        ranking.add(2, 1, 2000);
+
+        ranking.add(3, 1, 1_000_000);
+
+        assertEquals(List.of(3), ranking.top(10, 1_000_000));
+        assertEquals(1, ranking.size());
+    }
+
+    @Test
+    void shouldSubtractRemovedEventsAndHideNonPositiveCounts() {
+        SlidingWindowRanking ranking = new SlidingWindowRanking(BUCKET, 3);
+        ranking.add(1, 2, 0);
+        ranking.add(2, 1, 0);
+
+        ranking.add(1, -2, 500);
+        ranking.add(3, -1, 500);
+
+        assertEquals(List.of(2), ranking.top(10, 500));
+        assertEquals(-1, ranking.count(3, 500));
+        assertEquals(0, ranking.count(3, 3000));
+        assertEquals(0, ranking.size());
+    }
+}
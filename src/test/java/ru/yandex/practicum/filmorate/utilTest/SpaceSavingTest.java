@@ -0,0 +1,74 @@
+package ru.yandex.practicum.filmorate.utilTest;
+
+import org.junit.jupiter.api.Test;
+import ru.yandex.practicum.filmorate.util.SpaceSaving;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSavingTest {
+
+    @Test
+    void shouldReplaceSmallestCounterWhenFull() {
+        SpaceSaving summary = new SpaceSaving(2);
+        summary.add(1, 5);
+        summary.add(2, 2);
+
+        summary.add(3, 1);
+
+        assertEquals(-1, summary.count(2));
+        assertEquals(3, summary.count(3));
+        assertEquals(2, summary.error(3));
+        assertEquals(List.of(1, 3), summary.top(10));
+        assertEquals(3, summary.minCount());
+    }
+
+    @Test
+    void shouldAlwaysTrackKeysAboveGuaranteedShare() {
+        SpaceSaving summary = new SpaceSaving(10);
+        long total = 0;
+        // Ключ 0 встречается в каждом пятом событии, остальные ключи уникальны
+        for (int i = 0; i < 10_000; i++) {
+            summary.add(i % 5 == 0 ? 0 : i, 1);
+            total++;
+        }
+
+        assertEquals(0, summary.top(1).getFirst());
+        assertTrue(summary.count(0) >= 2000);
+        assertTrue(summary.count(0) - 2000 <= total / summary.capacity());
+    }
+
+    @Test
+    void shouldSubtractOnlyTrackedKeys() {
+        SpaceSaving summary = new SpaceSaving(2);
+        summary.add(1, 3);
+
+        summary.subtract(1, 5);
+        summary.subtract(2, 1);
+
+        assertEquals(0, summary.count(1));
+        assertEquals(-1, summary.count(2));
+    }
+
+    @Test
+    void shouldMergeSummariesOfTwoStreams() {
+        SpaceSaving first = new SpaceSaving(3);
+        SpaceSaving second = new SpaceSaving(3);
+        first.add(1, 10);
+        first.add(2, 4);
+        first.add(3, 1);
+        second.add(1, 6);
+        second.add(4, 8);
+        second.add(5, 2);
+
+        first.merge(second);
+
+        assertEquals(List.of(1, 4, 2), first.top(10));
+        assertEquals(16, first.count(1));
+        assertEquals(0, first.error(1));
+        // Ключа 4 в первой сводке нет, поэтому ее наименьший счет засчитан как ошибка
+        assertEquals(9, first.count(4));
+        assertEquals(1, first.error(4));
+    }
+}